@@ -3,12 +3,14 @@ package com.onehealth;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.web.multipart.MultipartResolver;
 import jakarta.servlet.MultipartConfigElement;
 
 //import com.onehealth.controller.CommonsMultipartResolver;
 
 @SpringBootApplication
+@EnableScheduling
 public class DocumentationServiceApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,95 @@
+package com.onehealth.config;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+
+import com.mongodb.MongoException;
+
+/**
+ * Creates the indexes declared with @Indexed and @CompoundIndex on the entities, together with
+ * the indexes on the GridFS files of chunked uploads and of files moved to the cold store.
+ * <p>
+ * The indexes are not created by Spring Data's auto index creation, because that connects to
+ * MongoDB while the repositories are created and keeps the service from starting when MongoDB
+ * is not reachable yet. Instead they are created in the background once the application is
+ * ready. Creating an index that exists already is a no-op, so this is safe on every start.
+ */
+@Configuration
+public class MongoIndexConfig {
+
+    private static final Logger logger = Logger.getLogger(MongoIndexConfig.class.getName());
+
+    private final MongoTemplate mongoTemplate;
+    private final TaskExecutor taskExecutor;
+    private final String bucket;
+
+    @Autowired
+    public MongoIndexConfig(MongoTemplate mongoTemplate,
+            @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME) TaskExecutor taskExecutor,
+            @Value("${spring.data.mongodb.gridfs.bucket:fs}") String bucket) {
+        this.mongoTemplate = mongoTemplate;
+        this.taskExecutor = taskExecutor;
+        this.bucket = bucket;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void scheduleIndexCreation() {
+        taskExecutor.execute(() -> {
+            try {
+                ensureIndexes();
+            } catch (DataAccessException | MongoException e) {
+                logger.log(Level.SEVERE, "Error occurred while creating the MongoDB indexes: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Creates all indexes of the entities known to the mapping context, and the indexes on the
+     * GridFS files used to look up the chunks of an upload session and the chunks kept after a
+     * file was moved to the cold store.
+     */
+    public void ensureIndexes() {
+        MongoMappingContext mappingContext = (MongoMappingContext) mongoTemplate.getConverter().getMappingContext();
+        IndexResolver indexResolver = new MongoPersistentEntityIndexResolver(mappingContext);
+        for (MongoPersistentEntity<?> entity : mappingContext.getPersistentEntities()) {
+            if (!entity.isAnnotationPresent(Document.class)) {
+                continue;
+            }
+            for (IndexDefinition indexDefinition : indexResolver.resolveIndexFor(entity.getTypeInformation())) {
+                mongoTemplate.indexOps(entity.getType()).ensureIndex(indexDefinition);
+            }
+            logger.log(Level.INFO, "Ensured indexes of collection: " + entity.getCollection());
+        }
+        // Only the chunks of chunked uploads carry an upload session ID, so the index is sparse.
+        mongoTemplate.indexOps(bucket + ".files").ensureIndex(new Index()
+                .on("metadata.uploadSessionId", Sort.Direction.ASC)
+                .on("metadata.chunkIndex", Sort.Direction.ASC)
+                .named("uploadSessionId_chunkIndex")
+                .sparse());
+        // Only files moved to the cold store whose chunks are still kept carry the time they were marked cold.
+        mongoTemplate.indexOps(bucket + ".files").ensureIndex(new Index()
+                .on("metadata.coldSince", Sort.Direction.ASC)
+                .named("coldSince")
+                .sparse());
+        logger.log(Level.INFO, "Ensured indexes of GridFS bucket: " + bucket);
+    }
+}
@@ -0,0 +1,83 @@
+package com.onehealth.config;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.boot.web.server.WebServer;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.codec.multipart.DefaultPartHttpMessageReader;
+import org.springframework.http.codec.multipart.MultipartHttpMessageReader;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import com.onehealth.controller.ReactivePatientDocumentHandler;
+
+/**
+ * Serves the reactive document endpoints on a Reactor Netty server of their own, next to the
+ * servlet container serving the rest of the API. Spring Boot runs a single web stack per
+ * application, so the reactive routes cannot share the servlet port. Netty serves them on a
+ * few event-loop threads, however many clients are transferring large documents at once.
+ */
+@Component
+@ConditionalOnProperty(name = "documentation.reactive.enabled", havingValue = "true")
+public class ReactiveDocumentServer implements SmartLifecycle {
+
+    private static final Logger logger = Logger.getLogger(ReactiveDocumentServer.class.getName());
+
+    private final ReactivePatientDocumentHandler reactivePatientDocumentHandler;
+    private final UploadAdmission uploadAdmission;
+    private final int port;
+    private final DataSize maxFileSize;
+    private WebServer webServer;
+
+    @Autowired
+    public ReactiveDocumentServer(ReactivePatientDocumentHandler reactivePatientDocumentHandler,
+            UploadAdmission uploadAdmission,
+            @Value("${documentation.reactive.port:8097}") int port,
+            @Value("${spring.servlet.multipart.max-file-size:256MB}") DataSize maxFileSize) {
+        this.reactivePatientDocumentHandler = reactivePatientDocumentHandler;
+        this.uploadAdmission = uploadAdmission;
+        this.port = port;
+        this.maxFileSize = maxFileSize;
+    }
+
+    @Override
+    public void start() {
+        RouterFunction<ServerResponse> routes = RouterFunctions.route()
+                .POST("/api/documentation/patient-documents", reactivePatientDocumentHandler::uploadPatientDocument)
+                .GET("/api/documentation/patient-documents/{id}/download", reactivePatientDocumentHandler::downloadPatientDocument)
+                .build();
+        // Uploaded files are buffered on disk beyond the in-memory limit, up to the same size as on the servlet endpoints.
+        DefaultPartHttpMessageReader partReader = new DefaultPartHttpMessageReader();
+        partReader.setMaxDiskUsagePerPart(maxFileSize.toBytes());
+        // Uploads count against the same budget as the uploads of the servlet endpoints.
+        HandlerStrategies strategies = HandlerStrategies.builder()
+                .codecs(configurer -> configurer.defaultCodecs().multipartReader(new MultipartHttpMessageReader(partReader)))
+                .webFilter(new ReactiveUploadAdmissionFilter(uploadAdmission))
+                .build();
+        webServer = new NettyReactiveWebServerFactory(port).getWebServer(RouterFunctions.toHttpHandler(routes, strategies));
+        webServer.start();
+        logger.log(Level.INFO, "Reactive document endpoints started on port " + webServer.getPort());
+    }
+
+    @Override
+    public void stop() {
+        if (webServer != null) {
+            webServer.stop();
+            webServer = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return webServer != null;
+    }
+}
@@ -0,0 +1,55 @@
+package com.onehealth.config;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Admits the uploads of the reactive endpoints against the upload budget shared with the
+ * servlet endpoints, see UploadAdmission. The event loop is never blocked: an upload that has
+ * to queue waits off it. A rejected upload is answered with 503 Service Unavailable and a
+ * Retry-After header, before its body is read. The share of the budget is given back when the
+ * response completes, or when the client goes away.
+ */
+public class ReactiveUploadAdmissionFilter implements WebFilter {
+
+    private static final Logger logger = Logger.getLogger(ReactiveUploadAdmissionFilter.class.getName());
+
+    private final UploadAdmission uploadAdmission;
+
+    public ReactiveUploadAdmissionFilter(UploadAdmission uploadAdmission) {
+        this.uploadAdmission = uploadAdmission;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        String contentType = request.getHeaders().getFirst(HttpHeaders.CONTENT_TYPE);
+        if (!uploadAdmission.isUpload(request.getMethod().name(), contentType)) {
+            return chain.filter(exchange);
+        }
+        return uploadAdmission.admitReactive(request.getHeaders().getContentLength())
+                .onErrorResume(UploadAdmission.RejectedException.class,
+                        e -> reject(exchange, e.getMessage()).then(Mono.<UploadAdmission.Admission>empty()))
+                .flatMap(admission -> chain.filter(exchange).doFinally(signal -> admission.release()));
+    }
+
+    private Mono<Void> reject(ServerWebExchange exchange, String reason) {
+        logger.log(Level.WARNING, "Rejected upload to " + exchange.getRequest().getPath() + ": " + reason);
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, Long.toString(uploadAdmission.getRetryAfterSeconds()));
+        // The body was not read; closing the connection keeps the client from sending it anyway.
+        response.getHeaders().set(HttpHeaders.CONNECTION, "close");
+        return response.setComplete();
+    }
+}
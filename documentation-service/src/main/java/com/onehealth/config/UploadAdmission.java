@@ -0,0 +1,229 @@
+package com.onehealth.config;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Admits concurrent uploads against a global budget of bytes in flight, shared by the uploads
+ * of the servlet endpoints (UploadAdmissionFilter) and of the reactive ones
+ * (ReactiveUploadAdmissionFilter). Each upload takes a share of the budget weighted by its
+ * declared Content-Length, or the maximum file size if the length is not declared, and gives it
+ * back when its request completes. An upload that does not fit waits in a fair queue for a
+ * bounded time; once the queue is full or the wait times out it is rejected, and the filters
+ * answer 503 Service Unavailable with a Retry-After header before the body is read.
+ * <p>
+ * The queue depth, the budget in use and the rejections are published as metrics under
+ * "documentation.uploads".
+ */
+@Component
+public class UploadAdmission {
+
+    // The budget is counted in KiB, so that budgets beyond 2 GiB fit into the permits of a Semaphore.
+    private static final long PERMIT_SIZE = 1024;
+
+    private final Semaphore budget;
+    private final int budgetPermits;
+    private final long maxFileSize;
+    private final long queueTimeoutMillis;
+    private final int maxQueueLength;
+    private final long retryAfterSeconds;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final Counter queueFullRejections;
+    private final Counter timeoutRejections;
+    private final Timer queueWait;
+
+    @Autowired
+    public UploadAdmission(MeterRegistry meterRegistry,
+            @Value("${documentation.upload-admission.budget:1GB}") DataSize budget,
+            @Value("${spring.servlet.multipart.max-file-size:256MB}") DataSize maxFileSize,
+            @Value("${documentation.upload-admission.queue-timeout-ms:10000}") long queueTimeoutMillis,
+            @Value("${documentation.upload-admission.max-queue-length:50}") int maxQueueLength,
+            @Value("${documentation.upload-admission.retry-after-seconds:30}") long retryAfterSeconds) {
+        this.budgetPermits = (int) Math.max(1, Math.min(Integer.MAX_VALUE, budget.toBytes() / PERMIT_SIZE));
+        this.budget = new Semaphore(budgetPermits, true);
+        this.maxFileSize = maxFileSize.toBytes();
+        this.queueTimeoutMillis = queueTimeoutMillis;
+        this.maxQueueLength = maxQueueLength;
+        this.retryAfterSeconds = retryAfterSeconds;
+        Gauge.builder("documentation.uploads.queued", queued, AtomicInteger::get)
+                .description("Uploads waiting for their share of the upload budget")
+                .register(meterRegistry);
+        Gauge.builder("documentation.uploads.budget.used", this, admission -> admission.usedBytes())
+                .description("Bytes of the upload budget taken by uploads in progress")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.queueFullRejections = Counter.builder("documentation.uploads.rejected")
+                .description("Uploads rejected by the admission control")
+                .tag("reason", "queue-full")
+                .register(meterRegistry);
+        this.timeoutRejections = Counter.builder("documentation.uploads.rejected")
+                .description("Uploads rejected by the admission control")
+                .tag("reason", "timeout")
+                .register(meterRegistry);
+        this.queueWait = Timer.builder("documentation.uploads.queue.wait")
+                .description("Time uploads waited for their share of the upload budget")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Only requests uploading file content are admitted against the budget: multipart forms
+     * and the raw chunks of chunked uploads.
+     *
+     * @param method      The HTTP method of the request.
+     * @param contentType The Content-Type header of the request, or null.
+     * @return Whether the request is an upload.
+     */
+    public boolean isUpload(String method, String contentType) {
+        if (!"POST".equals(method) && !"PUT".equals(method) || contentType == null) {
+            return false;
+        }
+        MediaType mediaType;
+        try {
+            mediaType = MediaType.parseMediaType(contentType);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        return MediaType.MULTIPART_FORM_DATA.includes(mediaType) || MediaType.APPLICATION_OCTET_STREAM.includes(mediaType);
+    }
+
+    /**
+     * Admits an upload, waiting in the queue on the calling thread if the budget is taken.
+     *
+     * @param contentLength The declared length of the request body, or -1 if not declared.
+     * @return The admission, to be released when the request completes.
+     * @throws RejectedException If the queue is full or the wait timed out.
+     */
+    public Admission admit(long contentLength) {
+        int permits = permitsFor(contentLength);
+        // The untimed tryAcquire would barge ahead of the queue, so a zero timeout is used to honour fairness.
+        return tryAcquire(permits, 0) ? new Admission(permits) : await(permits);
+    }
+
+    /**
+     * Admits an upload without blocking the calling thread, which may be an event loop. An upload
+     * that has to queue waits on a thread of the bounded elastic scheduler instead; if it is
+     * cancelled meanwhile, the share it gets is given back right away.
+     *
+     * @param contentLength The declared length of the request body, or -1 if not declared.
+     * @return A Mono emitting the admission, to be released when the request completes, or a RejectedException.
+     */
+    public Mono<Admission> admitReactive(long contentLength) {
+        int permits = permitsFor(contentLength);
+        if (tryAcquire(permits, 0)) {
+            return Mono.just(new Admission(permits));
+        }
+        AtomicBoolean cancelled = new AtomicBoolean();
+        AtomicReference<Admission> admitted = new AtomicReference<>();
+        return Mono.fromCallable(() -> {
+                    Admission admission = await(permits);
+                    admitted.set(admission);
+                    if (cancelled.get()) {
+                        admission.release();
+                        return null;
+                    }
+                    return admission;
+                })
+                .subscribeOn(Schedulers.boundedElastic())
+                .doOnCancel(() -> {
+                    cancelled.set(true);
+                    Admission admission = admitted.get();
+                    if (admission != null) {
+                        admission.release();
+                    }
+                });
+    }
+
+    /**
+     * @return The number of seconds rejected clients are asked to wait before retrying.
+     */
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    private int permitsFor(long contentLength) {
+        long weight = contentLength >= 0 ? Math.min(contentLength, maxFileSize) : maxFileSize;
+        // An upload never needs more than the whole budget, or it could never be admitted.
+        return (int) Math.max(1, Math.min(budgetPermits, (weight + PERMIT_SIZE - 1) / PERMIT_SIZE));
+    }
+
+    private Admission await(int permits) {
+        if (queued.incrementAndGet() > maxQueueLength) {
+            queued.decrementAndGet();
+            queueFullRejections.increment();
+            throw new RejectedException("the upload queue is full");
+        }
+        long start = System.nanoTime();
+        boolean admitted;
+        try {
+            admitted = tryAcquire(permits, queueTimeoutMillis);
+        } finally {
+            queued.decrementAndGet();
+            queueWait.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        if (!admitted) {
+            timeoutRejections.increment();
+            throw new RejectedException("no upload budget became available in time");
+        }
+        return new Admission(permits);
+    }
+
+    private boolean tryAcquire(int permits, long timeoutMillis) {
+        try {
+            return budget.tryAcquire(permits, timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private long usedBytes() {
+        return (budgetPermits - (long) budget.availablePermits()) * PERMIT_SIZE;
+    }
+
+    /**
+     * The share of the budget taken by an admitted upload. Releasing it more than once has no effect.
+     */
+    public final class Admission {
+
+        private final int permits;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Admission(int permits) {
+            this.permits = permits;
+        }
+
+        public void release() {
+            if (released.compareAndSet(false, true)) {
+                budget.release(permits);
+            }
+        }
+    }
+
+    /**
+     * Thrown when an upload is not admitted, with the reason.
+     */
+    public static class RejectedException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        public RejectedException(String reason) {
+            super(reason);
+        }
+    }
+}
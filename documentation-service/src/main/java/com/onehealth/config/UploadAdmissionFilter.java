@@ -0,0 +1,64 @@
+package com.onehealth.config;
+
+import java.io.IOException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Admits the uploads of the servlet endpoints against the upload budget, see UploadAdmission.
+ * An upload that has to queue waits on its request thread. A rejected upload is answered with
+ * 503 Service Unavailable and a Retry-After header, before its body is read.
+ */
+@Component
+public class UploadAdmissionFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = Logger.getLogger(UploadAdmissionFilter.class.getName());
+
+    private final UploadAdmission uploadAdmission;
+
+    @Autowired
+    public UploadAdmissionFilter(UploadAdmission uploadAdmission) {
+        this.uploadAdmission = uploadAdmission;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !uploadAdmission.isUpload(request.getMethod(), request.getContentType());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        UploadAdmission.Admission admission;
+        try {
+            admission = uploadAdmission.admit(request.getContentLengthLong());
+        } catch (UploadAdmission.RejectedException e) {
+            reject(request, response, e.getMessage());
+            return;
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            admission.release();
+        }
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response, String reason) throws IOException {
+        logger.log(Level.WARNING, "Rejected upload to " + request.getRequestURI() + ": " + reason);
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(uploadAdmission.getRetryAfterSeconds()));
+        // The body was not read; closing the connection keeps the client from sending it anyway.
+        response.setHeader(HttpHeaders.CONNECTION, "close");
+        response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "Too many uploads in progress, retry later");
+    }
+}
@@ -5,6 +5,7 @@ import java.util.List;
 import java.util.logging.Level;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
@@ -14,18 +15,23 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RequestPart;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.multipart.MultipartResolver;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 //import com.google.common.net.MediaType;
 import com.onehealth.entity.BlogPhoto;
 import com.onehealth.entity.PatientDocument;
+import com.onehealth.entity.Rendition;
 import com.onehealth.exception.DatabaseException;
 import com.onehealth.service.BlogPhotoService;
+import com.onehealth.service.RenditionService;
+import com.onehealth.service.RenditionSize;
 
 import jakarta.servlet.MultipartConfigElement;
 
@@ -46,6 +52,9 @@ public class BlogPhotoController {
     @Autowired
     private BlogPhotoService blogPhotoService;
 
+    @Autowired
+    private RenditionService renditionService;
+
     private static final Logger logger = Logger.getLogger(BlogPhotoController.class.getName());
 
 
@@ -128,9 +137,75 @@ public class BlogPhotoController {
             throw e;
         }
     }
-    
-    
-    
+
+    /**
+     * Endpoint to download the file of a specific BlogPhoto identified by its ID.
+     * List responses only carry the photo metadata, so clients fetch the image itself here.
+     *
+     * @param id The ID of the BlogPhoto for which the file is to be downloaded.
+     * @param version The content hash the download URL is versioned with, if any.
+     * @param requestHeaders The request headers, which may carry conditional and Range headers.
+     * @return A ResponseEntity streaming the file data, or the requested byte range of it,
+     *         or a not found response if the BlogPhoto with the given ID is not found.
+     */
+    @GetMapping("/{id}/download")
+    public ResponseEntity<StreamingResponseBody> downloadBlogPhoto(@PathVariable String id,
+            @RequestParam(name = "v", required = false) String version, @RequestHeader HttpHeaders requestHeaders) throws IOException {
+        try {
+            BlogPhoto blogPhoto = blogPhotoService.getBlogPhotoById(id).orElse(null);
+            if (blogPhoto != null) {
+                HttpHeaders headers = new HttpHeaders();
+                headers.setContentType(MediaType.parseMediaType(blogPhoto.getFileType()));
+                headers.setContentDispositionFormData("attachment", blogPhoto.getFilename());
+                logger.log(Level.INFO, "Blog photo download successful for ID: " + id);
+                return DownloadResponses.of(() -> blogPhotoService.downloadBlogPhoto(id), blogPhoto.getContentHash(), blogPhoto.getUploadDate(), version, headers, requestHeaders);
+            } else {
+                logger.log(Level.INFO, "No blog photo found for download with ID: " + id);
+                return ResponseEntity.notFound().build();
+            }
+        } catch (Exception e) {
+            logger.log(Level.SEVERE, "Error occurred while downloading blog photo with ID: " + id);
+            throw e;
+        }
+    }
+
+    /**
+     * Endpoint to download a rendition of a specific BlogPhoto, such as its thumbnail or preview.
+     * Renditions are generated in the background after upload, so the original photo is served
+     * until the requested rendition is available.
+     *
+     * @param id   The ID of the BlogPhoto.
+     * @param size The rendition size, "thumbnail" or "preview".
+     * @param version The content hash the download URL is versioned with, if any.
+     * @param requestHeaders The request headers, which may carry conditional and Range headers.
+     * @return A ResponseEntity streaming the rendition or the original photo, a bad request response
+     *         for an unknown size, or a not found response if the BlogPhoto with the given ID is not found.
+     */
+    @GetMapping("/{id}/renditions/{size}")
+    public ResponseEntity<StreamingResponseBody> downloadBlogPhotoRendition(@PathVariable String id, @PathVariable String size,
+            @RequestParam(name = "v", required = false) String version, @RequestHeader HttpHeaders requestHeaders) throws IOException {
+        RenditionSize renditionSize = RenditionSize.fromKey(size);
+        if (renditionSize == null) {
+            logger.log(Level.INFO, "Unknown rendition size requested: " + size);
+            return ResponseEntity.badRequest().build();
+        }
+        BlogPhoto blogPhoto = blogPhotoService.getBlogPhotoById(id).orElse(null);
+        if (blogPhoto == null) {
+            logger.log(Level.INFO, "No blog photo found for rendition with ID: " + id);
+            return ResponseEntity.notFound().build();
+        }
+        Rendition rendition = blogPhoto.getRenditions() != null ? blogPhoto.getRenditions().get(renditionSize.getKey()) : null;
+        if (rendition == null) {
+            // The rendition has not been generated (yet), fall back to the original photo.
+            return downloadBlogPhoto(id, version, requestHeaders);
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.IMAGE_JPEG);
+        logger.log(Level.INFO, "Blog photo " + renditionSize.getKey() + " download successful for ID: " + id);
+        return DownloadResponses.of(() -> renditionService.getRendition(blogPhoto.getRenditions(), renditionSize),
+                rendition.getContentHash(), blogPhoto.getUploadDate(), version, headers, requestHeaders);
+    }
+
     /**
      * Deletes all blog photos associated with a specific blog ID.
      *
@@ -2,11 +2,11 @@ package com.onehealth.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.onehealth.entity.DoctorDocument;
 import com.onehealth.service.DoctorDocumentService;
@@ -137,19 +137,21 @@ public class DoctorDocumentController {
      * Downloads a document by its ID.
      *
      * @param id The ID of the document to download.
-     * @return A ResponseEntity containing the document data as a byte array, or a not found response if the document is not found.
+     * @param version The content hash the download URL is versioned with, if any.
+     * @param requestHeaders The request headers, which may carry conditional and Range headers.
+     * @return A ResponseEntity streaming the document data, or the requested byte range of it, or a not found response if the document is not found.
      */
     @GetMapping("/{id}/download")
-    public ResponseEntity<byte[]> downloadDoctorDocument(@PathVariable String id) {
+    public ResponseEntity<StreamingResponseBody> downloadDoctorDocument(@PathVariable String id,
+            @RequestParam(name = "v", required = false) String version, @RequestHeader HttpHeaders requestHeaders) throws IOException {
         try {
-            byte[] fileData = doctorDocumentService.downloadDoctorDocument(id);
-            if (fileData != null) {
-                DoctorDocument doctorDocument = doctorDocumentService.getDoctorDocumentById(id).orElse(null);
+            DoctorDocument doctorDocument = doctorDocumentService.getDoctorDocumentById(id).orElse(null);
+            if (doctorDocument != null) {
                 HttpHeaders headers = new HttpHeaders();
                 headers.setContentType(MediaType.parseMediaType(doctorDocument.getFileType()));
                 headers.setContentDispositionFormData("attachment", doctorDocument.getFilename());
                 logger.log(Level.INFO, "Retrieved Doctor Document with ID: " + id + " for downloading");
-                return new ResponseEntity<>(fileData, headers, HttpStatus.OK);
+                return DownloadResponses.of(() -> doctorDocumentService.downloadDoctorDocument(id), doctorDocument.getContentHash(), doctorDocument.getUploadDate(), version, headers, requestHeaders);
             } else {
                 logger.log(Level.INFO, "No Doctor Document found with ID: " + id + " for downloading");
                 return ResponseEntity.notFound().build();
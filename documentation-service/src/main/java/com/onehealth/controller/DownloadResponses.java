@@ -0,0 +1,279 @@
+package com.onehealth.controller;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.onehealth.service.EncodedFileResource;
+
+/**
+ * Builds the responses of the "/{id}/download" endpoints. The stored content is streamed to the
+ * client instead of being materialized, and a single byte range is honoured so that an
+ * interrupted download can be resumed without transferring the whole file again.
+ * Content stored compressed is sent as it is stored to clients accepting its content
+ * coding, and decoded on the fly for all other clients.
+ * Stored content never changes, so its SHA-256 hash serves as a strong entity tag and a
+ * conditional request is answered from the document metadata alone.
+ */
+final class DownloadResponses {
+
+    private static final Logger logger = Logger.getLogger(DownloadResponses.class.getName());
+
+    // How long a client may cache content requested under its version, which is one year as per RFC 9111.
+    private static final CacheControl VERSIONED_CACHE_CONTROL = CacheControl.maxAge(365, TimeUnit.DAYS).immutable();
+
+    private DownloadResponses() {
+    }
+
+    /**
+     * Creates the download response for the content of a document. A request whose If-None-Match
+     * or If-Modified-Since validator still matches the document gets a 304 Not Modified response
+     * without the content being opened. Otherwise a request carrying a single satisfiable Range
+     * gets a 206 Partial Content response, an unsatisfiable Range gets a 416 response, and any
+     * other request gets the whole content. A Range whose If-Range validator no longer matches
+     * the document is ignored.
+     * <p>
+     * A request whose "v" parameter equals the content hash addresses a version of the content
+     * that can never change, so its response may be cached as immutable. Any other response
+     * has to be revalidated before it is reused.
+     *
+     * @param content        Opens the Resource holding the content of the document, returning null if there is none.
+     * @param contentHash    The SHA-256 hash of the content, used as the entity tag. May be null.
+     * @param lastModified   The upload date of the document. May be null.
+     * @param version        The "v" request parameter. May be null.
+     * @param headers        The response headers, already carrying the content type and disposition.
+     * @param requestHeaders The headers of the download request.
+     * @return A ResponseEntity streaming the requested part of the content.
+     * @throws IOException If the length of the content cannot be determined.
+     */
+    static ResponseEntity<StreamingResponseBody> of(Supplier<Resource> content, String contentHash, Date lastModified,
+            String version, HttpHeaders headers, HttpHeaders requestHeaders) throws IOException {
+        headers.setCacheControl(cacheControl(contentHash, version));
+        if (lastModified != null) {
+            headers.setLastModified(lastModified.getTime());
+        }
+        String notModifiedETag = notModifiedETag(contentHash, lastModified, requestHeaders);
+        if (notModifiedETag != null) {
+            if (!notModifiedETag.isEmpty()) {
+                headers.setETag(notModifiedETag);
+            }
+            headers.setVary(List.of(HttpHeaders.ACCEPT_ENCODING));
+            return new ResponseEntity<>(headers, HttpStatus.NOT_MODIFIED);
+        }
+
+        Resource resource = content.get();
+        if (resource == null) {
+            return ResponseEntity.notFound().build();
+        }
+        Resource body = resource;
+        String eTag = contentHash;
+        if (resource instanceof EncodedFileResource encodedContent) {
+            headers.setVary(List.of(HttpHeaders.ACCEPT_ENCODING));
+            if (acceptsEncoding(requestHeaders, encodedContent.getContentEncoding())) {
+                // Pass the stored bytes through; each representation needs its own entity tag.
+                headers.set(HttpHeaders.CONTENT_ENCODING, encodedContent.getContentEncoding());
+                body = encodedContent.getEncodedResource();
+                eTag = contentHash != null ? contentHash + "-" + encodedContent.getContentEncoding() : null;
+            }
+        }
+        return ranged(body, eTag, headers, requestHeaders);
+    }
+
+    private static ResponseEntity<StreamingResponseBody> ranged(Resource content, String eTag,
+            HttpHeaders headers, HttpHeaders requestHeaders) throws IOException {
+        long length = content.contentLength();
+        headers.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (eTag != null) {
+            headers.setETag("\"" + eTag + "\"");
+        }
+
+        HttpRange range = requestedRange(headers, requestHeaders);
+        if (range == null) {
+            headers.setContentLength(length);
+            return new ResponseEntity<>(outputStream -> {
+                if (content.isFile()) {
+                    transferFile(content, outputStream, 0, length);
+                    return;
+                }
+                try (InputStream inputStream = content.getInputStream()) {
+                    StreamUtils.copy(inputStream, outputStream);
+                }
+            }, headers, HttpStatus.OK);
+        }
+
+        long start = range.getRangeStart(length);
+        if (start >= length) {
+            logger.log(Level.INFO, "Requested range is not satisfiable for content of length " + length);
+            return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                    .header(HttpHeaders.CONTENT_RANGE, "bytes */" + length)
+                    .build();
+        }
+        long end = range.getRangeEnd(length);
+        headers.set(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+        headers.setContentLength(end - start + 1);
+        return new ResponseEntity<>(outputStream -> {
+            if (content.isFile()) {
+                transferFile(content, outputStream, start, end - start + 1);
+                return;
+            }
+            try (InputStream inputStream = content.getInputStream()) {
+                StreamUtils.copyRange(inputStream, outputStream, start, end);
+            }
+        }, headers, HttpStatus.PARTIAL_CONTENT);
+    }
+
+    /**
+     * Sends a part of content held in a file, such as content in the cold store, with
+     * FileChannel.transferTo. A range is served by positioning the channel instead of reading and
+     * discarding the bytes before it. The servlet output stream is not a channel of the socket, so
+     * the JDK still copies through a buffer here; the reactive endpoints hand files to Netty,
+     * which sends them without copying.
+     */
+    private static void transferFile(Resource content, OutputStream outputStream, long position, long count)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(content.getFile().toPath(), StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(outputStream);
+            long transferred = 0;
+            while (transferred < count) {
+                long bytes = channel.transferTo(position + transferred, count - transferred, target);
+                if (bytes <= 0) {
+                    throw new EOFException("File " + content.getDescription() + " ended after " + transferred + " of " + count + " bytes");
+                }
+                transferred += bytes;
+            }
+        }
+    }
+
+    /**
+     * Returns the Cache-Control of a download: immutable when the request is versioned with the
+     * content hash, since that URL can never serve other bytes, and revalidated otherwise.
+     */
+    static CacheControl cacheControl(String contentHash, String version) {
+        return contentHash != null && contentHash.equals(version) ? VERSIONED_CACHE_CONTROL : CacheControl.noCache();
+    }
+
+    /**
+     * Evaluates the conditional headers of the request against the document, as per RFC 9110 section 13.2.2.
+     * If-None-Match takes precedence over If-Modified-Since. Every representation of the content carries
+     * an entity tag derived from the content hash, so any of them matches; the cache holding it has
+     * already selected it according to the Vary header.
+     *
+     * @return The matching entity tag, an empty string if the document is not modified since the given
+     *         date, or null if the full response has to be sent.
+     */
+    static String notModifiedETag(String contentHash, Date lastModified, HttpHeaders requestHeaders) {
+        List<String> ifNoneMatch = requestHeaders.getIfNoneMatch();
+        if (!ifNoneMatch.isEmpty()) {
+            if (contentHash == null) {
+                return null;
+            }
+            for (String value : ifNoneMatch) {
+                for (String candidate : value.split(",")) {
+                    String eTag = candidate.trim();
+                    // If-None-Match uses the weak comparison function.
+                    String opaqueTag = eTag.startsWith("W/") ? eTag.substring(2) : eTag;
+                    if (opaqueTag.equals("*")) {
+                        return "\"" + contentHash + "\"";
+                    }
+                    if (opaqueTag.equals("\"" + contentHash + "\"") || opaqueTag.startsWith("\"" + contentHash + "-")) {
+                        return opaqueTag;
+                    }
+                }
+            }
+            return null;
+        }
+        if (lastModified == null || !requestHeaders.containsKey(HttpHeaders.IF_MODIFIED_SINCE)) {
+            return null;
+        }
+        try {
+            long ifModifiedSince = requestHeaders.getIfModifiedSince();
+            // HTTP dates have a resolution of one second.
+            return ifModifiedSince != -1 && lastModified.getTime() / 1000 <= ifModifiedSince / 1000 ? "" : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Checks whether the Accept-Encoding header of the request accepts the given content coding.
+     */
+    static boolean acceptsEncoding(HttpHeaders requestHeaders, String contentEncoding) {
+        for (String value : requestHeaders.getOrEmpty(HttpHeaders.ACCEPT_ENCODING)) {
+            for (String coding : value.split(",")) {
+                String[] parts = coding.split(";");
+                String name = parts[0].trim();
+                if (name.equalsIgnoreCase(contentEncoding) || name.equals("*")) {
+                    for (int i = 1; i < parts.length; i++) {
+                        if (parts[i].trim().matches("[qQ]=0(\\.0*)?")) {
+                            return false;
+                        }
+                    }
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the single byte range to serve, or null if the whole content is to be served.
+     * Malformed and multi-part ranges are ignored, as permitted for servers by RFC 9110.
+     */
+    private static HttpRange requestedRange(HttpHeaders headers, HttpHeaders requestHeaders) {
+        List<HttpRange> ranges;
+        try {
+            ranges = requestHeaders.getRange();
+        } catch (IllegalArgumentException e) {
+            logger.log(Level.INFO, "Ignoring malformed Range header: " + e.getMessage());
+            return null;
+        }
+        if (ranges.size() != 1 || !ifRangeMatches(headers, requestHeaders)) {
+            return null;
+        }
+        return ranges.get(0);
+    }
+
+    /**
+     * Checks the If-Range validator of the request against the entity tag and the
+     * last modification date of the document.
+     */
+    private static boolean ifRangeMatches(HttpHeaders headers, HttpHeaders requestHeaders) {
+        String ifRange = requestHeaders.getFirst(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"")) {
+            return ifRange.equals(headers.getETag());
+        }
+        if (ifRange.startsWith("W/")) {
+            // Weak entity tags cannot be used to validate a range.
+            return false;
+        }
+        try {
+            long date = requestHeaders.getFirstDate(HttpHeaders.IF_RANGE);
+            return date != -1 && date == headers.getLastModified();
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
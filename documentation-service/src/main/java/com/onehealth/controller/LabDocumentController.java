@@ -1,12 +1,13 @@
 package com.onehealth.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.onehealth.entity.LabDocument;
 import com.onehealth.exception.DatabaseException;
@@ -50,16 +51,23 @@ public class LabDocumentController {
     }
 
     /**
-     * Retrieves all lab documents.
+     * Retrieves a page of all lab documents. If more lab documents follow, the Link
+     * header of the response points to the next page.
      *
-     * @return ResponseEntity with a list of lab documents and status 200 if successful.
+     * @param after The continuation token, which is the ID of the last LabDocument of the previous page.
+     * @param size  The maximum number of lab documents in the page, capped by the server.
+     * @return A ResponseEntity containing the LabDocument objects of the page, or a bad request response if the token is invalid.
      */
     @GetMapping
-    public ResponseEntity<?> getAllLabDocuments() {
+    public ResponseEntity<?> getAllLabDocuments(@RequestParam(name = ListingResponses.AFTER_PARAMETER, required = false) String after,
+            @RequestParam(name = "size", defaultValue = "${documentation.listing.default-page-size:50}") int size) {
         try {
-            List<LabDocument> labDocuments = labDocumentService.getAllLabDocuments();
-            logger.log(Level.INFO, "Retrieved " + labDocuments.size() + " LabDocuments");
-            return ResponseEntity.ok(labDocuments);
+            Slice<LabDocument> labDocuments = labDocumentService.getAllLabDocuments(after, size);
+            logger.log(Level.INFO, "Retrieved " + labDocuments.getNumberOfElements() + " LabDocuments");
+            return ListingResponses.of(labDocuments, LabDocument::getId);
+        } catch (IllegalArgumentException e) {
+            logger.log(Level.INFO, e.getMessage());
+            return ResponseEntity.badRequest().body(e.getMessage());
         } catch (DatabaseException e) {
             logger.log(Level.SEVERE, "Error occurred while retrieving all LabDocuments", e);
             return ResponseEntity.status(500).body("Error occurred while retrieving Lab Documents");
@@ -165,20 +173,22 @@ public class LabDocumentController {
      * Downloads a lab document by its ID.
      *
      * @param id The ID of the document to download.
-     * @return A ResponseEntity containing the document data as a byte array, or a not found response if the document is not found.
+     * @param version The content hash the download URL is versioned with, if any.
+     * @param requestHeaders The request headers, which may carry conditional and Range headers.
+     * @return A ResponseEntity streaming the document data, or the requested byte range of it, or a not found response if the document is not found.
      * @throws Exception 
      */
     @GetMapping("/{id}/download")
-    public ResponseEntity<byte[]> downloadLabDocument(@PathVariable String id) throws Exception {
+    public ResponseEntity<StreamingResponseBody> downloadLabDocument(@PathVariable String id,
+            @RequestParam(name = "v", required = false) String version, @RequestHeader HttpHeaders requestHeaders) throws Exception {
         try {
-            byte[] fileData = labDocumentService.downloadLabDocument(id);
-            if (fileData != null) {
-                LabDocument labDocument = labDocumentService.getLabDocumentById(id).orElse(null);
+            LabDocument labDocument = labDocumentService.getLabDocumentById(id).orElse(null);
+            if (labDocument != null) {
                 HttpHeaders headers = new HttpHeaders();
                 headers.setContentType(MediaType.parseMediaType(labDocument.getFileType()));
                 headers.setContentDispositionFormData("attachment", labDocument.getFilename());
                 logger.log(Level.INFO, "Retrieved Lab Document with ID: " + id + " for downloading");
-                return new ResponseEntity<>(fileData, headers, HttpStatus.OK);
+                return DownloadResponses.of(() -> labDocumentService.downloadLabDocument(id), labDocument.getContentHash(), labDocument.getUploadDate(), version, headers, requestHeaders);
             } else {
                 logger.log(Level.INFO, "No Lab Document found with ID: " + id + " for downloading");
                 return ResponseEntity.notFound().build();
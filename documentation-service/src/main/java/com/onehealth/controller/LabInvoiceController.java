@@ -1,12 +1,13 @@
 package com.onehealth.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.onehealth.entity.LabInvoice;
 import com.onehealth.service.LabInvoiceService;
@@ -53,16 +54,23 @@ public class LabInvoiceController {
     }
 
     /**
-     * Retrieves all lab invoices.
+     * Retrieves a page of all lab invoices. If more lab invoices follow, the Link
+     * header of the response points to the next page.
      *
-     * @return A ResponseEntity containing the list of all LabInvoice objects.
+     * @param after The continuation token, which is the ID of the last LabInvoice of the previous page.
+     * @param size  The maximum number of lab invoices in the page, capped by the server.
+     * @return A ResponseEntity containing the LabInvoice objects of the page, or a bad request response if the token is invalid.
      */
     @GetMapping
-    public ResponseEntity<List<LabInvoice>> getAllInvoices() {
+    public ResponseEntity<List<LabInvoice>> getAllInvoices(@RequestParam(name = ListingResponses.AFTER_PARAMETER, required = false) String after,
+            @RequestParam(name = "size", defaultValue = "${documentation.listing.default-page-size:50}") int size) {
         try {
-            List<LabInvoice> labInvoices = labInvoiceService.getAllInvoices();
-            logger.log(Level.INFO, "Retrieved " + labInvoices.size() + " Lab Invoices");
-            return ResponseEntity.ok(labInvoices);
+            Slice<LabInvoice> labInvoices = labInvoiceService.getAllInvoices(after, size);
+            logger.log(Level.INFO, "Retrieved " + labInvoices.getNumberOfElements() + " Lab Invoices");
+            return ListingResponses.of(labInvoices, LabInvoice::getId);
+        } catch (IllegalArgumentException e) {
+            logger.log(Level.INFO, e.getMessage());
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             logger.log(Level.SEVERE, "Error occurred while retrieving Lab Invoices");
             throw e;
@@ -158,19 +166,21 @@ public class LabInvoiceController {
      * Downloads a lab invoice by its ID.
      *
      * @param id The ID of the invoice to download.
-     * @return A ResponseEntity containing the invoice data as a byte array, or a not found response if the invoice is not found.
+     * @param version The content hash the download URL is versioned with, if any.
+     * @param requestHeaders The request headers, which may carry conditional and Range headers.
+     * @return A ResponseEntity streaming the invoice data, or the requested byte range of it, or a not found response if the invoice is not found.
      */
     @GetMapping("/{id}/download")
-    public ResponseEntity<byte[]> downloadLabInvoice(@PathVariable String id) {
+    public ResponseEntity<StreamingResponseBody> downloadLabInvoice(@PathVariable String id,
+            @RequestParam(name = "v", required = false) String version, @RequestHeader HttpHeaders requestHeaders) throws IOException {
         try {
-            byte[] fileData = labInvoiceService.downloadLabInvoice(id);
-            if (fileData != null) {
-                LabInvoice labInvoice = labInvoiceService.getInvoiceById(id).orElse(null);
+            LabInvoice labInvoice = labInvoiceService.getInvoiceById(id).orElse(null);
+            if (labInvoice != null) {
                 HttpHeaders headers = new HttpHeaders();
                 headers.setContentType(MediaType.parseMediaType(labInvoice.getFileType()));
                 headers.setContentDispositionFormData("attachment", labInvoice.getFilename());
                 logger.log(Level.INFO, "Retrieved Lab Invoice with ID: " + id + " for downloading");
-                return new ResponseEntity<>(fileData, headers, HttpStatus.OK);
+                return DownloadResponses.of(() -> labInvoiceService.downloadLabInvoice(id), labInvoice.getContentHash(), labInvoice.getUploadDate(), version, headers, requestHeaders);
             } else {
                 logger.log(Level.INFO, "No Lab Invoice found with ID: " + id + " for downloading");
                 return ResponseEntity.notFound().build();
@@ -1,12 +1,13 @@
 package com.onehealth.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.onehealth.entity.LabReport;
 import com.onehealth.service.LabReportService;
@@ -53,16 +54,23 @@ public class LabReportController {
     }
 
     /**
-     * Retrieves all lab reports.
+     * Retrieves a page of all lab reports. If more lab reports follow, the Link
+     * header of the response points to the next page.
      *
-     * @return A ResponseEntity containing the list of all LabReport objects.
+     * @param after The continuation token, which is the ID of the last LabReport of the previous page.
+     * @param size  The maximum number of lab reports in the page, capped by the server.
+     * @return A ResponseEntity containing the LabReport objects of the page, or a bad request response if the token is invalid.
      */
     @GetMapping
-    public ResponseEntity<List<LabReport>> getAllReports() {
+    public ResponseEntity<List<LabReport>> getAllReports(@RequestParam(name = ListingResponses.AFTER_PARAMETER, required = false) String after,
+            @RequestParam(name = "size", defaultValue = "${documentation.listing.default-page-size:50}") int size) {
         try {
-            List<LabReport> labReports = labReportService.getAllReports();
-            logger.log(Level.INFO, "Retrieved " + labReports.size() + " Lab Reports");
-            return ResponseEntity.ok(labReports);
+            Slice<LabReport> labReports = labReportService.getAllReports(after, size);
+            logger.log(Level.INFO, "Retrieved " + labReports.getNumberOfElements() + " Lab Reports");
+            return ListingResponses.of(labReports, LabReport::getId);
+        } catch (IllegalArgumentException e) {
+            logger.log(Level.INFO, e.getMessage());
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             logger.log(Level.SEVERE, "Error occurred while retrieving Lab Reports");
             throw e;
@@ -158,19 +166,21 @@ public class LabReportController {
      * Downloads a lab report by its ID.
      *
      * @param id The ID of the report to download.
-     * @return A ResponseEntity containing the report data as a byte array, or a not found response if the report is not found.
+     * @param version The content hash the download URL is versioned with, if any.
+     * @param requestHeaders The request headers, which may carry conditional and Range headers.
+     * @return A ResponseEntity streaming the report data, or the requested byte range of it, or a not found response if the report is not found.
      */
     @GetMapping("/{id}/download")
-    public ResponseEntity<byte[]> downloadLabReport(@PathVariable String id) {
+    public ResponseEntity<StreamingResponseBody> downloadLabReport(@PathVariable String id,
+            @RequestParam(name = "v", required = false) String version, @RequestHeader HttpHeaders requestHeaders) throws IOException {
         try {
-            byte[] fileData = labReportService.downloadLabReport(id);
-            if (fileData != null) {
-                LabReport labReport = labReportService.getReportById(id).orElse(null);
+            LabReport labReport = labReportService.getReportById(id).orElse(null);
+            if (labReport != null) {
                 HttpHeaders headers = new HttpHeaders();
                 headers.setContentType(MediaType.parseMediaType(labReport.getFileType()));
                 headers.setContentDispositionFormData("attachment", labReport.getFilename());
                 logger.log(Level.INFO, "Retrieved Lab Report with ID: " + id + " for downloading");
-                return new ResponseEntity<>(fileData, headers, HttpStatus.OK);
+                return DownloadResponses.of(() -> labReportService.downloadLabReport(id), labReport.getContentHash(), labReport.getUploadDate(), version, headers, requestHeaders);
             } else {
                 logger.log(Level.INFO, "No Lab Report found with ID: " + id + " for downloading");
                 return ResponseEntity.notFound().build();
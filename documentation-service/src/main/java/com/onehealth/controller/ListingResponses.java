@@ -0,0 +1,43 @@
+package com.onehealth.controller;
+
+import java.util.List;
+import java.util.function.Function;
+
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+/**
+ * Builds the responses of the collection-wide listing endpoints. The body is the list of
+ * documents in the page; if more documents follow, a Link header with the relation "next"
+ * points to the next page, which continues after the ID of the last document in this one.
+ */
+final class ListingResponses {
+
+    // Request parameter carrying the continuation token, the ID of the last document of the previous page.
+    static final String AFTER_PARAMETER = "after";
+
+    private ListingResponses() {
+    }
+
+    /**
+     * Creates the response for a page of a listing.
+     *
+     * @param page The page of documents.
+     * @param id   Returns the ID of a document.
+     * @return A ResponseEntity with the documents of the page and a link to the next page, if any.
+     */
+    static <T> ResponseEntity<List<T>> of(Slice<T> page, Function<T, String> id) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.hasNext() && page.hasContent()) {
+            String after = id.apply(page.getContent().get(page.getNumberOfElements() - 1));
+            String next = ServletUriComponentsBuilder.fromCurrentRequest()
+                    .replaceQueryParam(AFTER_PARAMETER, after)
+                    .build(true)
+                    .toUriString();
+            response.header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+        }
+        return response.body(page.getContent());
+    }
+}
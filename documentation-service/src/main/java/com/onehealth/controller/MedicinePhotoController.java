@@ -2,14 +2,17 @@ package com.onehealth.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import com.onehealth.entity.MedicinePhoto;
+import com.onehealth.entity.Rendition;
 import com.onehealth.exception.DatabaseException;
 import com.onehealth.service.MedicinePhotoService;
+import com.onehealth.service.RenditionService;
+import com.onehealth.service.RenditionSize;
 
 import java.io.IOException;
 import java.util.List;
@@ -30,6 +33,9 @@ public class MedicinePhotoController {
     @Autowired
     private MedicinePhotoService medicinePhotoService;
 
+    @Autowired
+    private RenditionService renditionService;
+
     @GetMapping
     public String show() {
     	return "Hello Medicine photos domentatio controller";
@@ -124,28 +130,28 @@ public class MedicinePhotoController {
      * This endpoint allows users to download the medicine photo file associated with the provided ID.
      *
      * @param id The ID of the MedicinePhoto for which the file is to be downloaded.
-     * @return A ResponseEntity containing the file data and headers for successful download,
+     * @param version The content hash the download URL is versioned with, if any.
+     * @param requestHeaders The request headers, which may carry conditional and Range headers.
+     * @return A ResponseEntity streaming the file data, or the requested byte range of it,
      *         or a not found response if the MedicinePhoto with the given ID is not found.
      * @throws Exception If an error occurs during the download process.
      */
     @GetMapping("/{id}/download")
-    public ResponseEntity<byte[]> downloadMedicinePhoto(@PathVariable String id) {
+    public ResponseEntity<StreamingResponseBody> downloadMedicinePhoto(@PathVariable String id,
+            @RequestParam(name = "v", required = false) String version, @RequestHeader HttpHeaders requestHeaders) throws IOException {
         try {
-            // Retrieve the medicine photo file data using the provided ID
-            byte[] fileData = medicinePhotoService.downloadMedicinePhoto(id);
+            MedicinePhoto medicinePhoto = medicinePhotoService.getMedicinePhotoById(id).orElse(null);
             
-            if (fileData != null) {
-                // If the file data is not null, retrieve the MedicinePhoto object for the provided ID
-                MedicinePhoto medicinePhoto = medicinePhotoService.getMedicinePhotoById(id).orElse(null);
+            if (medicinePhoto != null) {
                 HttpHeaders headers = new HttpHeaders();
                 // Set the content type of the response to match the file's media type
                 headers.setContentType(MediaType.parseMediaType(medicinePhoto.getFileType()));
                 // Set the content disposition header to prompt download with the original filename
                 headers.setContentDispositionFormData("attachment", medicinePhoto.getFilename());
                 logger.log(Level.INFO, "Medicine photo download successful for ID: " + id);
-                return new ResponseEntity<>(fileData, headers, HttpStatus.OK);
+                return DownloadResponses.of(() -> medicinePhotoService.downloadMedicinePhoto(id), medicinePhoto.getContentHash(), medicinePhoto.getUploadDate(), version, headers, requestHeaders);
             } else {
-                // If the file data is null, return a not found response
+                // If the MedicinePhoto is not found, return a not found response
                 logger.log(Level.INFO, "No medicine photo found for download with ID: " + id);
                 return ResponseEntity.notFound().build();
             }
@@ -156,6 +162,43 @@ public class MedicinePhotoController {
         }
     }
     
+    /**
+     * Endpoint to download a rendition of a specific MedicinePhoto, such as its thumbnail or preview.
+     * Renditions are generated in the background after upload, so the original photo is served
+     * until the requested rendition is available.
+     *
+     * @param id   The ID of the MedicinePhoto.
+     * @param size The rendition size, "thumbnail" or "preview".
+     * @param version The content hash the download URL is versioned with, if any.
+     * @param requestHeaders The request headers, which may carry conditional and Range headers.
+     * @return A ResponseEntity streaming the rendition or the original photo, a bad request response
+     *         for an unknown size, or a not found response if the MedicinePhoto with the given ID is not found.
+     */
+    @GetMapping("/{id}/renditions/{size}")
+    public ResponseEntity<StreamingResponseBody> downloadMedicinePhotoRendition(@PathVariable String id, @PathVariable String size,
+            @RequestParam(name = "v", required = false) String version, @RequestHeader HttpHeaders requestHeaders) throws IOException {
+        RenditionSize renditionSize = RenditionSize.fromKey(size);
+        if (renditionSize == null) {
+            logger.log(Level.INFO, "Unknown rendition size requested: " + size);
+            return ResponseEntity.badRequest().build();
+        }
+        MedicinePhoto medicinePhoto = medicinePhotoService.getMedicinePhotoById(id).orElse(null);
+        if (medicinePhoto == null) {
+            logger.log(Level.INFO, "No medicine photo found for rendition with ID: " + id);
+            return ResponseEntity.notFound().build();
+        }
+        Rendition rendition = medicinePhoto.getRenditions() != null ? medicinePhoto.getRenditions().get(renditionSize.getKey()) : null;
+        if (rendition == null) {
+            // The rendition has not been generated (yet), fall back to the original photo.
+            return downloadMedicinePhoto(id, version, requestHeaders);
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.IMAGE_JPEG);
+        logger.log(Level.INFO, "Medicine photo " + renditionSize.getKey() + " download successful for ID: " + id);
+        return DownloadResponses.of(() -> renditionService.getRendition(medicinePhoto.getRenditions(), renditionSize),
+                rendition.getContentHash(), medicinePhoto.getUploadDate(), version, headers, requestHeaders);
+    }
+
     /**
      * Deletes all blog photos associated with a specific blog ID.
      *
@@ -1,17 +1,20 @@
 package com.onehealth.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.onehealth.entity.PatientDocument;
 import com.onehealth.entity.PatientDocument;
 import com.onehealth.exception.DatabaseException;
 import com.onehealth.service.PatientDocumentService;
+import com.onehealth.service.PatientExportService;
 
 import java.io.IOException;
 import java.util.List;
@@ -24,11 +27,13 @@ import java.util.logging.Logger;
 public class PatientDocumentController {
 
     private final PatientDocumentService patientDocumentService;
+    private final PatientExportService patientExportService;
     private static final Logger logger = Logger.getLogger(PatientDocumentController.class.getName());
 
     @Autowired
-    public PatientDocumentController(PatientDocumentService patientDocumentService) {
+    public PatientDocumentController(PatientDocumentService patientDocumentService, PatientExportService patientExportService) {
         this.patientDocumentService = patientDocumentService;
+        this.patientExportService = patientExportService;
     }
 
     /**
@@ -52,16 +57,23 @@ public class PatientDocumentController {
     }
 
     /**
-     * Retrieves all patient documents.
+     * Retrieves a page of all patient documents. If more patient documents follow, the Link
+     * header of the response points to the next page.
      *
-     * @return ResponseEntity with a list of patient documents and status 200 if successful.
+     * @param after The continuation token, which is the ID of the last PatientDocument of the previous page.
+     * @param size  The maximum number of patient documents in the page, capped by the server.
+     * @return A ResponseEntity containing the PatientDocument objects of the page, or a bad request response if the token is invalid.
      */
     @GetMapping
-    public ResponseEntity<?> getAllPatientDocuments() {
+    public ResponseEntity<?> getAllPatientDocuments(@RequestParam(name = ListingResponses.AFTER_PARAMETER, required = false) String after,
+            @RequestParam(name = "size", defaultValue = "${documentation.listing.default-page-size:50}") int size) {
         try {
-            List<PatientDocument> patientDocuments = patientDocumentService.getAllPatientDocuments();
-            logger.log(Level.INFO, "Retrieved " + patientDocuments.size() + " PatientDocuments");
-            return ResponseEntity.ok(patientDocuments);
+            Slice<PatientDocument> patientDocuments = patientDocumentService.getAllPatientDocuments(after, size);
+            logger.log(Level.INFO, "Retrieved " + patientDocuments.getNumberOfElements() + " PatientDocuments");
+            return ListingResponses.of(patientDocuments, PatientDocument::getId);
+        } catch (IllegalArgumentException e) {
+            logger.log(Level.INFO, e.getMessage());
+            return ResponseEntity.badRequest().body(e.getMessage());
         } catch (DatabaseException e) {
             logger.log(Level.SEVERE, "Error occurred while retrieving all PatientDocuments", e);
             return ResponseEntity.status(500).body("Error occurred while retrieving Patient Documents");
@@ -168,20 +180,22 @@ public class PatientDocumentController {
      * Downloads a patient document by its ID.
      *
      * @param id The ID of the document to download.
-     * @return A ResponseEntity containing the document data as a byte array, or a not found response if the document is not found.
+     * @param version The content hash the download URL is versioned with, if any.
+     * @param requestHeaders The request headers, which may carry conditional and Range headers.
+     * @return A ResponseEntity streaming the document data, or the requested byte range of it, or a not found response if the document is not found.
      * @throws Exception 
      */
     @GetMapping("/{id}/download")
-    public ResponseEntity<byte[]> downloadPatientDocument(@PathVariable String id) throws Exception {
+    public ResponseEntity<StreamingResponseBody> downloadPatientDocument(@PathVariable String id,
+            @RequestParam(name = "v", required = false) String version, @RequestHeader HttpHeaders requestHeaders) throws Exception {
         try {
-            byte[] fileData = patientDocumentService.downloadPatientDocument(id);
-            if (fileData != null) {
-                PatientDocument patientDocument = patientDocumentService.getPatientDocumentById(id).orElse(null);
+            PatientDocument patientDocument = patientDocumentService.getPatientDocumentById(id).orElse(null);
+            if (patientDocument != null) {
                 HttpHeaders headers = new HttpHeaders();
                 headers.setContentType(MediaType.parseMediaType(patientDocument.getFileType()));
                 headers.setContentDispositionFormData("attachment", patientDocument.getFilename());
                 logger.log(Level.INFO, "Retrieved Patient Document with ID: " + id + " for downloading");
-                return new ResponseEntity<>(fileData, headers, HttpStatus.OK);
+                return DownloadResponses.of(() -> patientDocumentService.downloadPatientDocument(id), patientDocument.getContentHash(), patientDocument.getUploadDate(), version, headers, requestHeaders);
             } else {
                 logger.log(Level.INFO, "No Patient Document found with ID: " + id + " for downloading");
                 return ResponseEntity.notFound().build();
@@ -193,6 +207,28 @@ public class PatientDocumentController {
     }
     
     
+    /**
+     * Exports all patient documents and prescriptions of a patient as a ZIP archive.
+     * The archive is streamed to the client while it is built, so its size is not limited by memory.
+     *
+     * @param patientId The ID of the patient.
+     * @return ResponseEntity streaming the ZIP archive.
+     */
+    @GetMapping("/{patientId}/export.zip")
+    public ResponseEntity<StreamingResponseBody> exportPatientDocuments(@PathVariable long patientId) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType("application/zip"));
+        headers.setContentDispositionFormData("attachment", "patient-" + patientId + "-documents.zip");
+        return new ResponseEntity<>(outputStream -> {
+            try {
+                patientExportService.writePatientExport(patientId, outputStream);
+            } catch (IOException e) {
+                logger.log(Level.SEVERE, "Error occurred while exporting documents of patient with ID: " + patientId, e);
+                throw e;
+            }
+        }, headers, HttpStatus.OK);
+    }
+
     /**
      * Retrieves all patient documents for a given patient ID and record type.
      *
@@ -0,0 +1,126 @@
+package com.onehealth.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import com.onehealth.dto.UploadSessionStatusDTO;
+import com.onehealth.entity.UploadSession;
+import com.onehealth.service.UploadSessionService;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Optional;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Controller for chunked, resumable uploads of large patient documents.
+ * Each chunk is sent as the raw request body of its own PUT request, so an interrupted
+ * upload only has to resend the chunks missing from the session status.
+ */
+@RestController
+@RequestMapping("/api/documentation/patient-documents/uploads")
+public class PatientDocumentUploadController {
+
+    private final UploadSessionService uploadSessionService;
+    private static final Logger logger = Logger.getLogger(PatientDocumentUploadController.class.getName());
+
+    @Autowired
+    public PatientDocumentUploadController(UploadSessionService uploadSessionService) {
+        this.uploadSessionService = uploadSessionService;
+    }
+
+    /**
+     * Initiates an upload session for a patient document.
+     *
+     * @param patientId  The ID of the patient associated with the document.
+     * @param recordType The record type of the document.
+     * @param filename   The filename of the document.
+     * @param fileType   The file type (MIME type) of the document.
+     * @param totalSize  The size of the document in bytes, checked on commit if given.
+     * @return ResponseEntity with the created upload session and status 200.
+     */
+    @PostMapping
+    public ResponseEntity<UploadSession> initiateUpload(@RequestParam long patientId, @RequestParam String recordType,
+                                                        @RequestParam String filename,
+                                                        @RequestParam(defaultValue = "application/octet-stream") String fileType,
+                                                        @RequestParam(defaultValue = "0") long totalSize) {
+        UploadSession uploadSession = uploadSessionService.initiateUploadSession(patientId, recordType, filename, fileType, totalSize);
+        logger.log(Level.INFO, "Upload session initiated with ID: " + uploadSession.getId());
+        return ResponseEntity.ok(uploadSession);
+    }
+
+    /**
+     * Uploads one chunk of a patient document. Sending a chunk again replaces it.
+     *
+     * @param sessionId The ID of the upload session.
+     * @param index     The index of the chunk, starting at 0.
+     * @param content   The raw request body holding the chunk.
+     * @return ResponseEntity with the status of the upload session, or 404 if the session does not exist.
+     */
+    @PutMapping("/{sessionId}/chunks/{index}")
+    public ResponseEntity<?> uploadChunk(@PathVariable String sessionId, @PathVariable int index, InputStream content) {
+        if (index < 0) {
+            return ResponseEntity.badRequest().body("Chunk index must not be negative");
+        }
+        try {
+            Optional<UploadSessionStatusDTO> status = uploadSessionService.uploadChunk(sessionId, index, content);
+            return status.<ResponseEntity<?>>map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Error occurred while uploading chunk " + index + " of upload session " + sessionId, e);
+            return ResponseEntity.status(500).body("Error occurred while uploading chunk");
+        }
+    }
+
+    /**
+     * Retrieves the chunks received so far, so that an interrupted upload can be resumed.
+     *
+     * @param sessionId The ID of the upload session.
+     * @return ResponseEntity with the status of the upload session, or 404 if the session does not exist.
+     */
+    @GetMapping("/{sessionId}")
+    public ResponseEntity<UploadSessionStatusDTO> getUploadStatus(@PathVariable String sessionId) {
+        return uploadSessionService.getUploadSessionStatus(sessionId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Assembles the uploaded chunks into a new patient document.
+     *
+     * @param sessionId The ID of the upload session.
+     * @return ResponseEntity with a success message and status 200, 404 if the session does not exist,
+     *         or 409 if chunks are missing.
+     */
+    @PostMapping("/{sessionId}/commit")
+    public ResponseEntity<String> commitUpload(@PathVariable String sessionId) {
+        try {
+            Optional<String> documentId = uploadSessionService.commitUploadSession(sessionId);
+            if (documentId.isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+            logger.log(Level.INFO, "Patient Document uploaded successfully. File ID: " + documentId.get());
+            return ResponseEntity.ok("Patient Document uploaded successfully. File ID: " + documentId.get());
+        } catch (IllegalStateException e) {
+            logger.log(Level.INFO, "Upload session " + sessionId + " is incomplete: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Error occurred while committing upload session " + sessionId, e);
+            return ResponseEntity.status(500).body("Error occurred while uploading Patient Document");
+        }
+    }
+
+    /**
+     * Aborts an upload session and discards the chunks received so far.
+     *
+     * @param sessionId The ID of the upload session.
+     * @return ResponseEntity with a success message and status 200.
+     */
+    @DeleteMapping("/{sessionId}")
+    public ResponseEntity<String> abortUpload(@PathVariable String sessionId) {
+        uploadSessionService.abortUploadSession(sessionId);
+        return ResponseEntity.ok("Upload session aborted successfully.");
+    }
+}
@@ -1,12 +1,13 @@
 package com.onehealth.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.onehealth.entity.PharmacyInvoice;
 import com.onehealth.service.PharmacyInvoiceService;
@@ -53,16 +54,23 @@ public class PharmacyInvoiceController {
     }
 
     /**
-     * Retrieves all pharmacy invoices.
+     * Retrieves a page of all pharmacy invoices. If more pharmacy invoices follow, the Link
+     * header of the response points to the next page.
      *
-     * @return A ResponseEntity containing the list of all PharmacyInvoice objects.
+     * @param after The continuation token, which is the ID of the last PharmacyInvoice of the previous page.
+     * @param size  The maximum number of pharmacy invoices in the page, capped by the server.
+     * @return A ResponseEntity containing the PharmacyInvoice objects of the page, or a bad request response if the token is invalid.
      */
     @GetMapping
-    public ResponseEntity<List<PharmacyInvoice>> getAllInvoices() {
+    public ResponseEntity<List<PharmacyInvoice>> getAllInvoices(@RequestParam(name = ListingResponses.AFTER_PARAMETER, required = false) String after,
+            @RequestParam(name = "size", defaultValue = "${documentation.listing.default-page-size:50}") int size) {
         try {
-            List<PharmacyInvoice> pharmacyInvoices = pharmacyInvoiceService.getAllInvoices();
-            logger.log(Level.INFO, "Retrieved " + pharmacyInvoices.size() + " Pharmacy Invoices");
-            return ResponseEntity.ok(pharmacyInvoices);
+            Slice<PharmacyInvoice> pharmacyInvoices = pharmacyInvoiceService.getAllInvoices(after, size);
+            logger.log(Level.INFO, "Retrieved " + pharmacyInvoices.getNumberOfElements() + " Pharmacy Invoices");
+            return ListingResponses.of(pharmacyInvoices, PharmacyInvoice::getId);
+        } catch (IllegalArgumentException e) {
+            logger.log(Level.INFO, e.getMessage());
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             logger.log(Level.SEVERE, "Error occurred while retrieving Pharmacy Invoices");
             throw e;
@@ -158,19 +166,21 @@ public class PharmacyInvoiceController {
      * Downloads a pharmacy invoice by its ID.
      *
      * @param id The ID of the invoice to download.
-     * @return A ResponseEntity containing the invoice data as a byte array, or a not found response if the invoice is not found.
+     * @param version The content hash the download URL is versioned with, if any.
+     * @param requestHeaders The request headers, which may carry conditional and Range headers.
+     * @return A ResponseEntity streaming the invoice data, or the requested byte range of it, or a not found response if the invoice is not found.
      */
     @GetMapping("/{id}/download")
-    public ResponseEntity<byte[]> downloadPharmacyInvoice(@PathVariable String id) {
+    public ResponseEntity<StreamingResponseBody> downloadPharmacyInvoice(@PathVariable String id,
+            @RequestParam(name = "v", required = false) String version, @RequestHeader HttpHeaders requestHeaders) throws IOException {
         try {
-            byte[] fileData = pharmacyInvoiceService.downloadPharmacyInvoice(id);
-            if (fileData != null) {
-                PharmacyInvoice pharmacyInvoice = pharmacyInvoiceService.getInvoiceById(id).orElse(null);
+            PharmacyInvoice pharmacyInvoice = pharmacyInvoiceService.getInvoiceById(id).orElse(null);
+            if (pharmacyInvoice != null) {
                 HttpHeaders headers = new HttpHeaders();
                 headers.setContentType(MediaType.parseMediaType(pharmacyInvoice.getFileType()));
                 headers.setContentDispositionFormData("attachment", pharmacyInvoice.getFilename());
                 logger.log(Level.INFO, "Retrieved Pharmacy Invoice with ID: " + id + " for downloading");
-                return new ResponseEntity<>(fileData, headers, HttpStatus.OK);
+                return DownloadResponses.of(() -> pharmacyInvoiceService.downloadPharmacyInvoice(id), pharmacyInvoice.getContentHash(), pharmacyInvoice.getUploadDate(), version, headers, requestHeaders);
             } else {
                 logger.log(Level.INFO, "No Pharmacy Invoice found with ID: " + id + " for downloading");
                 return ResponseEntity.notFound().build();
@@ -1,11 +1,12 @@
 package com.onehealth.controller;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.onehealth.entity.Prescription;
 import com.onehealth.service.PrescriptionService;
@@ -49,16 +50,23 @@ public class PrescriptionController {
     }
 
     /**
-     * Retrieves all prescriptions.
+     * Retrieves a page of all prescriptions. If more prescriptions follow, the Link
+     * header of the response points to the next page.
      *
-     * @return A ResponseEntity containing the list of all Prescription objects.
+     * @param after The continuation token, which is the ID of the last Prescription of the previous page.
+     * @param size  The maximum number of prescriptions in the page, capped by the server.
+     * @return A ResponseEntity containing the Prescription objects of the page, or a bad request response if the token is invalid.
      */
     @GetMapping
-    public ResponseEntity<List<Prescription>> getAllPrescriptions() {
+    public ResponseEntity<List<Prescription>> getAllPrescriptions(@RequestParam(name = ListingResponses.AFTER_PARAMETER, required = false) String after,
+            @RequestParam(name = "size", defaultValue = "${documentation.listing.default-page-size:50}") int size) {
         try {
-            List<Prescription> prescriptions = prescriptionService.getAllPrescriptions();
-            logger.log(Level.INFO, "Retrieved " + prescriptions.size() + " Prescriptions");
-            return ResponseEntity.ok(prescriptions);
+            Slice<Prescription> prescriptions = prescriptionService.getAllPrescriptions(after, size);
+            logger.log(Level.INFO, "Retrieved " + prescriptions.getNumberOfElements() + " Prescriptions");
+            return ListingResponses.of(prescriptions, Prescription::getId);
+        } catch (IllegalArgumentException e) {
+            logger.log(Level.INFO, e.getMessage());
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             logger.log(Level.SEVERE, "Error occurred while retrieving Prescriptions");
             throw e;
@@ -172,18 +180,20 @@ public class PrescriptionController {
      * Downloads a prescription by its ID.
      *
      * @param id The ID of the prescription to download.
-     * @return A ResponseEntity containing the prescription file data as a byte array if found, or a not found response if not found.
+     * @param version The content hash the download URL is versioned with, if any.
+     * @param requestHeaders The request headers, which may carry conditional and Range headers.
+     * @return A ResponseEntity streaming the prescription file data, or the requested byte range of it if found, or a not found response if not found.
      */
     @GetMapping("/{id}/download")
-    public ResponseEntity<byte[]> downloadPrescription(@PathVariable String id) {
+    public ResponseEntity<StreamingResponseBody> downloadPrescription(@PathVariable String id,
+            @RequestParam(name = "v", required = false) String version, @RequestHeader HttpHeaders requestHeaders) throws IOException {
         try {
-            byte[] fileData = prescriptionService.downloadPrescription(id);
-            if (fileData != null) {
-                Prescription prescription = prescriptionService.getPrescriptionById(id).orElse(null);
+            Prescription prescription = prescriptionService.getPrescriptionById(id).orElse(null);
+            if (prescription != null) {
                 HttpHeaders headers = new HttpHeaders();
                 headers.setContentType(MediaType.parseMediaType(prescription.getFileType()));
                 headers.setContentDispositionFormData("attachment", prescription.getFilename());
-                return new ResponseEntity<>(fileData, headers, HttpStatus.OK);
+                return DownloadResponses.of(() -> prescriptionService.downloadPrescription(id), prescription.getContentHash(), prescription.getUploadDate(), version, headers, requestHeaders);
             } else {
                 logger.log(Level.INFO, "No Prescription file found for download with ID: " + id);
                 return ResponseEntity.notFound().build();
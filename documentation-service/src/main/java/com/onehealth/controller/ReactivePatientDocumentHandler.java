@@ -0,0 +1,245 @@
+package com.onehealth.controller;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ZeroCopyHttpOutputMessage;
+import org.springframework.http.codec.multipart.FilePart;
+import org.springframework.http.codec.multipart.FormFieldPart;
+import org.springframework.http.codec.multipart.Part;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.reactive.function.BodyInserter;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import com.mongodb.client.gridfs.model.GridFSFile;
+import com.onehealth.entity.PatientDocument;
+import com.onehealth.repository.ReactivePatientDocumentRepository;
+import com.onehealth.service.ColdStorageService;
+import com.onehealth.service.ContentCodec;
+import com.onehealth.service.DocumentStorageService;
+import com.onehealth.service.ReactiveDocumentStorageService;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Handles the reactive variants of the patient document upload and download endpoints.
+ * The content is streamed between the client and GridFS as DataBuffers with backpressure,
+ * so a slow client holds neither a thread nor more than a few buffers while it is served.
+ * Byte ranges are not supported on these endpoints; conditional requests and content stored
+ * compressed are handled like on the servlet endpoints.
+ */
+@Component
+public class ReactivePatientDocumentHandler {
+
+    private static final Logger logger = Logger.getLogger(ReactivePatientDocumentHandler.class.getName());
+
+    // Size of the buffers used when content has to be decoded for a client, or read from a file without zero-copy.
+    private static final int DECODE_BUFFER_SIZE = 8192;
+
+    private final ReactivePatientDocumentRepository reactivePatientDocumentRepository;
+    private final ReactiveDocumentStorageService reactiveDocumentStorageService;
+    private final DocumentStorageService documentStorageService;
+    private final ColdStorageService coldStorageService;
+
+    @Autowired
+    public ReactivePatientDocumentHandler(ReactivePatientDocumentRepository reactivePatientDocumentRepository,
+            ReactiveDocumentStorageService reactiveDocumentStorageService, DocumentStorageService documentStorageService,
+            ColdStorageService coldStorageService) {
+        this.reactivePatientDocumentRepository = reactivePatientDocumentRepository;
+        this.reactiveDocumentStorageService = reactiveDocumentStorageService;
+        this.documentStorageService = documentStorageService;
+        this.coldStorageService = coldStorageService;
+    }
+
+    /**
+     * Uploads a patient document from a multipart request with the parts "file", "patientId" and
+     * "recordType". Parts larger than the in-memory limit are buffered on disk by the codec.
+     *
+     * @param request The upload request.
+     * @return A Mono emitting a response with a success message and the ID of the stored document.
+     */
+    public Mono<ServerResponse> uploadPatientDocument(ServerRequest request) {
+        return request.multipartData().flatMap(parts -> {
+            Part file = parts.getFirst("file");
+            String patientId = formField(parts, request, "patientId");
+            String recordType = formField(parts, request, "recordType");
+            if (!(file instanceof FilePart filePart) || patientId == null || recordType == null) {
+                return ServerResponse.badRequest().bodyValue("The file, patientId and recordType parameters are required");
+            }
+            long patientIdValue;
+            try {
+                patientIdValue = Long.parseLong(patientId);
+            } catch (NumberFormatException e) {
+                return ServerResponse.badRequest().bodyValue("Invalid patientId: " + patientId);
+            }
+            MediaType contentType = filePart.headers().getContentType();
+            String fileType = contentType != null ? contentType.toString() : MediaType.APPLICATION_OCTET_STREAM_VALUE;
+            return reactiveDocumentStorageService.storeContent(filePart.content(), filePart.filename(), fileType)
+                    .flatMap(blob -> {
+                        PatientDocument patientDocument = new PatientDocument();
+                        patientDocument.setFilename(filePart.filename());
+                        patientDocument.setFileType(fileType);
+                        patientDocument.setFileSize(Long.toString(blob.getLength()));
+                        patientDocument.setFileId(blob.getFileId());
+                        patientDocument.setContentHash(blob.getHash());
+                        patientDocument.setPatientId(patientIdValue);
+                        patientDocument.setRecordType(recordType);
+                        return reactivePatientDocumentRepository.save(patientDocument);
+                    })
+                    .flatMap(patientDocument -> {
+                        logger.log(Level.INFO, "Patient Document uploaded successfully. File ID: " + patientDocument.getId());
+                        return ServerResponse.ok().bodyValue("Patient Document uploaded successfully. File ID: " + patientDocument.getId());
+                    });
+        }).onErrorResume(e -> {
+            logger.log(Level.SEVERE, "Error occurred while uploading Patient Document", e);
+            return ServerResponse.status(HttpStatus.INTERNAL_SERVER_ERROR).bodyValue("Error occurred while uploading Patient Document");
+        });
+    }
+
+    /**
+     * Downloads the content of a patient document. A request whose conditional headers still match
+     * the document gets a 304 Not Modified response without the content being opened.
+     *
+     * @param request The download request, which may carry a "v" parameter and conditional headers.
+     * @return A Mono emitting a response streaming the content, or a not found response.
+     */
+    public Mono<ServerResponse> downloadPatientDocument(ServerRequest request) {
+        String id = request.pathVariable("id");
+        String version = request.queryParam("v").orElse(null);
+        HttpHeaders requestHeaders = request.headers().asHttpHeaders();
+        return reactivePatientDocumentRepository.findMetadataById(id)
+                .flatMap(patientDocument -> {
+                    HttpHeaders headers = new HttpHeaders();
+                    headers.setContentType(MediaType.parseMediaType(patientDocument.getFileType()));
+                    headers.setContentDispositionFormData("attachment", patientDocument.getFilename());
+                    headers.setCacheControl(DownloadResponses.cacheControl(patientDocument.getContentHash(), version));
+                    if (patientDocument.getUploadDate() != null) {
+                        headers.setLastModified(patientDocument.getUploadDate().getTime());
+                    }
+                    String notModifiedETag = DownloadResponses.notModifiedETag(patientDocument.getContentHash(),
+                            patientDocument.getUploadDate(), requestHeaders);
+                    if (notModifiedETag != null) {
+                        if (!notModifiedETag.isEmpty()) {
+                            headers.setETag(notModifiedETag);
+                        }
+                        headers.setVary(List.of(HttpHeaders.ACCEPT_ENCODING));
+                        return ServerResponse.status(HttpStatus.NOT_MODIFIED).headers(h -> h.addAll(headers)).build();
+                    }
+                    if (patientDocument.getFileId() == null) {
+                        return inlineContent(id, headers);
+                    }
+                    return reactiveDocumentStorageService.getFileResource(patientDocument.getFileId())
+                            .flatMap(resource -> resource.getGridFSFile().flatMap(gridFSFile -> {
+                                logger.log(Level.INFO, "Retrieved Patient Document with ID: " + id + " for downloading");
+                                return storedContent(patientDocument, gridFSFile, resource.getDownloadStream(),
+                                        headers, requestHeaders);
+                            }));
+                })
+                .switchIfEmpty(Mono.defer(() -> {
+                    logger.log(Level.INFO, "No Patient Document found with ID: " + id + " for downloading");
+                    return ServerResponse.notFound().build();
+                }));
+    }
+
+    /**
+     * Streams content stored in GridFS or in the cold store. Compressed content is passed through
+     * to clients accepting its content coding. For other clients it is decoded through the
+     * blocking codec on the bounded elastic scheduler, which keeps the event loop free.
+     */
+    private Mono<ServerResponse> storedContent(PatientDocument patientDocument, GridFSFile gridFSFile,
+            Flux<DataBuffer> storedContent, HttpHeaders headers, HttpHeaders requestHeaders) {
+        Document metadata = gridFSFile.getMetadata();
+        ContentCodec codec = ContentCodec.forContentEncoding(metadata != null ? metadata.getString("contentEncoding") : null);
+        String contentHash = patientDocument.getContentHash();
+        BodyInserter<?, ? super ServerHttpResponse> body;
+        if (codec == ContentCodec.IDENTITY) {
+            headers.setContentLength(gridFSFile.getLength());
+            setETag(headers, contentHash);
+            body = storedBody(gridFSFile, storedContent);
+        } else if (DownloadResponses.acceptsEncoding(requestHeaders, codec.getContentEncoding())) {
+            headers.setVary(List.of(HttpHeaders.ACCEPT_ENCODING));
+            headers.set(HttpHeaders.CONTENT_ENCODING, codec.getContentEncoding());
+            headers.setContentLength(gridFSFile.getLength());
+            setETag(headers, contentHash != null ? contentHash + "-" + codec.getContentEncoding() : null);
+            body = storedBody(gridFSFile, storedContent);
+        } else {
+            headers.setVary(List.of(HttpHeaders.ACCEPT_ENCODING));
+            headers.setContentLength(((Number) metadata.get("originalLength")).longValue());
+            setETag(headers, contentHash);
+            body = BodyInserters.fromDataBuffers(DataBufferUtils.readInputStream(
+                    () -> documentStorageService.getFileResource(patientDocument.getFileId(), null).getInputStream(),
+                    DefaultDataBufferFactory.sharedInstance, DECODE_BUFFER_SIZE)
+                    .subscribeOn(Schedulers.boundedElastic()));
+        }
+        return ServerResponse.ok().headers(h -> h.addAll(headers)).body(body);
+    }
+
+    /**
+     * Sends the stored bytes of a GridFS file as they are. Content moved to the cold store is
+     * sent from its file with zero-copy, where Netty has the kernel transfer it to the socket.
+     */
+    private BodyInserter<?, ? super ServerHttpResponse> storedBody(GridFSFile gridFSFile, Flux<DataBuffer> storedContent) {
+        Resource coldContent = coldStorageService.getColdResource(gridFSFile);
+        if (coldContent == null) {
+            return BodyInserters.fromDataBuffers(storedContent);
+        }
+        return (response, context) -> {
+            try {
+                if (response instanceof ZeroCopyHttpOutputMessage zeroCopyResponse) {
+                    return zeroCopyResponse.writeWith(coldContent.getFile().toPath(), 0, gridFSFile.getLength());
+                }
+                return response.writeWith(DataBufferUtils.read(coldContent, response.bufferFactory(), DECODE_BUFFER_SIZE));
+            } catch (IOException e) {
+                return Mono.error(e);
+            }
+        };
+    }
+
+    /**
+     * Serves the inline content of a document stored before GridFS was used.
+     */
+    private Mono<ServerResponse> inlineContent(String id, HttpHeaders headers) {
+        return reactivePatientDocumentRepository.findById(id)
+                .filter(patientDocument -> patientDocument.getFile() != null)
+                .flatMap(patientDocument -> {
+                    headers.setContentLength(patientDocument.getFile().length);
+                    return ServerResponse.ok().headers(h -> h.addAll(headers))
+                            .body(BodyInserters.fromDataBuffers(Mono.fromSupplier(
+                                    () -> DefaultDataBufferFactory.sharedInstance.wrap(patientDocument.getFile()))));
+                });
+    }
+
+    private void setETag(HttpHeaders headers, String eTag) {
+        if (eTag != null) {
+            headers.setETag("\"" + eTag + "\"");
+        }
+    }
+
+    /**
+     * Reads a parameter from the form fields of a multipart request, falling back to the query
+     * parameters like the @RequestParam binding of the servlet endpoint does.
+     */
+    private String formField(MultiValueMap<String, Part> parts, ServerRequest request, String name) {
+        if (parts.getFirst(name) instanceof FormFieldPart formFieldPart) {
+            return formFieldPart.value();
+        }
+        return request.queryParam(name).orElse(null);
+    }
+}
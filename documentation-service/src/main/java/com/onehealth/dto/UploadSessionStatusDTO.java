@@ -0,0 +1,85 @@
+package com.onehealth.dto;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) class representing the progress of a chunked upload session.
+ * Clients use it to find out which chunks still have to be sent after an interrupted upload.
+ */
+public class UploadSessionStatusDTO {
+
+    private String sessionId;              // The ID of the upload session.
+    private List<Integer> receivedChunks;  // The indexes of the chunks received so far, in ascending order.
+    private long receivedBytes;            // The total number of bytes received so far.
+
+    public UploadSessionStatusDTO() {
+        // Default constructor required for deserialization by Jackson or other serialization frameworks.
+    }
+
+    /**
+     * Constructor for creating an UploadSessionStatusDTO with the specified details.
+     *
+     * @param sessionId      The ID of the upload session.
+     * @param receivedChunks The indexes of the chunks received so far.
+     * @param receivedBytes  The total number of bytes received so far.
+     */
+    public UploadSessionStatusDTO(String sessionId, List<Integer> receivedChunks, long receivedBytes) {
+        this.sessionId = sessionId;
+        this.receivedChunks = receivedChunks;
+        this.receivedBytes = receivedBytes;
+    }
+
+    /**
+     * Getter for the ID of the upload session.
+     *
+     * @return The ID of the upload session.
+     */
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    /**
+     * Setter for the ID of the upload session.
+     *
+     * @param sessionId The ID of the upload session to set.
+     */
+    public void setSessionId(String sessionId) {
+        this.sessionId = sessionId;
+    }
+
+    /**
+     * Getter for the indexes of the chunks received so far.
+     *
+     * @return The indexes of the received chunks, in ascending order.
+     */
+    public List<Integer> getReceivedChunks() {
+        return receivedChunks;
+    }
+
+    /**
+     * Setter for the indexes of the chunks received so far.
+     *
+     * @param receivedChunks The indexes of the received chunks to set.
+     */
+    public void setReceivedChunks(List<Integer> receivedChunks) {
+        this.receivedChunks = receivedChunks;
+    }
+
+    /**
+     * Getter for the total number of bytes received so far.
+     *
+     * @return The total number of bytes received.
+     */
+    public long getReceivedBytes() {
+        return receivedBytes;
+    }
+
+    /**
+     * Setter for the total number of bytes received so far.
+     *
+     * @param receivedBytes The total number of bytes received to set.
+     */
+    public void setReceivedBytes(long receivedBytes) {
+        this.receivedBytes = receivedBytes;
+    }
+}
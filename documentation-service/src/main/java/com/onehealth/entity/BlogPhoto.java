@@ -2,8 +2,10 @@ package com.onehealth.entity;
 
 import java.util.Arrays;
 import java.util.Date;
+import java.util.Map;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 /**
@@ -11,14 +13,18 @@ import org.springframework.data.mongodb.core.mapping.Document;
  * It is annotated with @Document to specify the MongoDB collection it maps to.
  */
 @Document(collection = "blog_photos")
-public class BlogPhoto {
+public class BlogPhoto implements StoredContent {
     @Id
     private String id;
     private String filename;
     private String fileType;
     private String fileSize;
     private byte[] file;
+    private String fileId;
+    private String contentHash;
+    @Indexed
     private long blogId;
+    private Map<String, Rendition> renditions;
     private Date uploadDate;
 
     /**
@@ -91,6 +97,34 @@ public class BlogPhoto {
         this.file = file;
     }
 
+    /**
+     * Getter for the ID of the GridFS file holding the content of the blog photo.
+     */
+    public String getFileId() {
+        return fileId;
+    }
+
+    /**
+     * Setter for the ID of the GridFS file holding the content of the blog photo.
+     */
+    public void setFileId(String fileId) {
+        this.fileId = fileId;
+    }
+
+    /**
+     * Getter for the SHA-256 hash of the content of the blog photo.
+     */
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    /**
+     * Setter for the SHA-256 hash of the content of the blog photo.
+     */
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
     /**
      * Getter for the ID of the blog associated with the photo.
      */
@@ -105,13 +139,27 @@ public class BlogPhoto {
         this.blogId = blogId;
     }
 
+    /**
+     * Getter for the renditions of the blog photo, keyed by rendition size.
+     */
+    public Map<String, Rendition> getRenditions() {
+        return renditions;
+    }
+
+    /**
+     * Setter for the renditions of the blog photo, keyed by rendition size.
+     */
+    public void setRenditions(Map<String, Rendition> renditions) {
+        this.renditions = renditions;
+    }
+
     /**
      * Overrides the toString() method to provide a string representation of the BlogPhoto object.
      */
     @Override
     public String toString() {
         return "BlogPhoto [id=" + id + ", filename=" + filename + ", fileType=" + fileType + ", fileSize=" + fileSize
-                + ", file=" + Arrays.toString(file) + ", blogId=" + blogId + "]";
+                + ", file=" + Arrays.toString(file) + ", fileId=" + fileId + ", contentHash=" + contentHash + ", blogId=" + blogId + ", renditions=" + renditions + "]";
     }
 
     /**
@@ -4,6 +4,7 @@ import java.util.Arrays;
 import java.util.Date;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 /**
@@ -11,13 +12,16 @@ import org.springframework.data.mongodb.core.mapping.Document;
  * It is annotated with @Document to specify the MongoDB collection it maps to.
  */
 @Document(collection = "doctor_documents")
-public class DoctorDocument {
+public class DoctorDocument implements StoredContent {
     @Id
     private String id;
     private String filename;
     private String fileType;
     private String fileSize;
     private byte[] file;
+    private String fileId;
+    private String contentHash;
+    @Indexed
     private long doctorId;
     private Date uploadDate;
     /**
@@ -90,6 +94,34 @@ public class DoctorDocument {
         this.file = file;
     }
 
+    /**
+     * Getter for the ID of the GridFS file holding the content of the doctor document.
+     */
+    public String getFileId() {
+        return fileId;
+    }
+
+    /**
+     * Setter for the ID of the GridFS file holding the content of the doctor document.
+     */
+    public void setFileId(String fileId) {
+        this.fileId = fileId;
+    }
+
+    /**
+     * Getter for the SHA-256 hash of the content of the doctor document.
+     */
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    /**
+     * Setter for the SHA-256 hash of the content of the doctor document.
+     */
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
     /**
      * Getter for the ID of the doctor associated with the document.
      */
@@ -118,7 +150,7 @@ public class DoctorDocument {
     @Override
     public String toString() {
         return "DoctorDocument [id=" + id + ", filename=" + filename + ", fileType=" + fileType + ", fileSize="
-                + fileSize + ", file=" + Arrays.toString(file) + ", doctorId=" + doctorId + "]";
+                + fileSize + ", file=" + Arrays.toString(file) + ", fileId=" + fileId + ", contentHash=" + contentHash + ", doctorId=" + doctorId + "]";
     }
 
     /**
@@ -0,0 +1,181 @@
+package com.onehealth.entity;
+
+import java.util.Date;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * The DocumentBlob class represents a stored file content shared by all documents whose
+ * content is identical. It is keyed by the SHA-256 hash of the content and counts the
+ * documents referencing it, so the GridFS file is removed once the last reference is gone.
+ */
+@Document(collection = "document_blobs")
+public class DocumentBlob {
+
+    @Id
+    private String hash;
+    private String fileId;
+    private long length;
+    private long refCount;
+    private String contentEncoding;
+    private long storedLength;
+    private double compressionRatio;
+    private long codecTimeMillis;
+    private Date createdAt;
+
+    /**
+     * Default constructor for the DocumentBlob class.
+     */
+    public DocumentBlob() {
+        super();
+        this.createdAt = new Date();
+    }
+
+    /**
+     * Parameterized constructor for the DocumentBlob class.
+     */
+    public DocumentBlob(String hash, String fileId, long length, long refCount) {
+        this();
+        this.hash = hash;
+        this.fileId = fileId;
+        this.length = length;
+        this.refCount = refCount;
+    }
+
+    /**
+     * Getter for the SHA-256 hash of the content, which is also the ID of the blob.
+     */
+    public String getHash() {
+        return hash;
+    }
+
+    /**
+     * Setter for the SHA-256 hash of the content, which is also the ID of the blob.
+     */
+    public void setHash(String hash) {
+        this.hash = hash;
+    }
+
+    /**
+     * Getter for the ID of the GridFS file holding the content.
+     */
+    public String getFileId() {
+        return fileId;
+    }
+
+    /**
+     * Setter for the ID of the GridFS file holding the content.
+     */
+    public void setFileId(String fileId) {
+        this.fileId = fileId;
+    }
+
+    /**
+     * Getter for the length of the content in bytes.
+     */
+    public long getLength() {
+        return length;
+    }
+
+    /**
+     * Setter for the length of the content in bytes.
+     */
+    public void setLength(long length) {
+        this.length = length;
+    }
+
+    /**
+     * Getter for the number of documents referencing the content.
+     */
+    public long getRefCount() {
+        return refCount;
+    }
+
+    /**
+     * Setter for the number of documents referencing the content.
+     */
+    public void setRefCount(long refCount) {
+        this.refCount = refCount;
+    }
+
+    /**
+     * Getter for the codec the content is stored with, e.g. "gzip" or "identity".
+     */
+    public String getContentEncoding() {
+        return contentEncoding;
+    }
+
+    /**
+     * Setter for the codec the content is stored with, e.g. "gzip" or "identity".
+     */
+    public void setContentEncoding(String contentEncoding) {
+        this.contentEncoding = contentEncoding;
+    }
+
+    /**
+     * Getter for the number of bytes the encoded content occupies in GridFS.
+     */
+    public long getStoredLength() {
+        return storedLength;
+    }
+
+    /**
+     * Setter for the number of bytes the encoded content occupies in GridFS.
+     */
+    public void setStoredLength(long storedLength) {
+        this.storedLength = storedLength;
+    }
+
+    /**
+     * Getter for the ratio of the original length to the stored length of the content.
+     */
+    public double getCompressionRatio() {
+        return compressionRatio;
+    }
+
+    /**
+     * Setter for the ratio of the original length to the stored length of the content.
+     */
+    public void setCompressionRatio(double compressionRatio) {
+        this.compressionRatio = compressionRatio;
+    }
+
+    /**
+     * Getter for the time in milliseconds spent encoding the content.
+     */
+    public long getCodecTimeMillis() {
+        return codecTimeMillis;
+    }
+
+    /**
+     * Setter for the time in milliseconds spent encoding the content.
+     */
+    public void setCodecTimeMillis(long codecTimeMillis) {
+        this.codecTimeMillis = codecTimeMillis;
+    }
+
+    /**
+     * Getter for the date the content was first stored.
+     */
+    public Date getCreatedAt() {
+        return createdAt;
+    }
+
+    /**
+     * Setter for the date the content was first stored.
+     */
+    public void setCreatedAt(Date createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    /**
+     * Overrides the toString() method to provide a string representation of the DocumentBlob object.
+     */
+    @Override
+    public String toString() {
+        return "DocumentBlob [hash=" + hash + ", fileId=" + fileId + ", length=" + length + ", refCount=" + refCount
+                + ", contentEncoding=" + contentEncoding + ", storedLength=" + storedLength + ", compressionRatio="
+                + compressionRatio + ", codecTimeMillis=" + codecTimeMillis + ", createdAt=" + createdAt + "]";
+    }
+}
@@ -4,10 +4,11 @@ import java.util.Arrays;
 import java.util.Date;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 @Document(collection = "lab_documents")
-public class LabDocument {
+public class LabDocument implements StoredContent {
     
     @Id
     private String id;
@@ -15,6 +16,9 @@ public class LabDocument {
     private String fileType;
     private String fileSize;
     private byte[] file;
+    private String fileId;
+    private String contentHash;
+    @Indexed
     private long labId;
     private Date uploadDate;
     
@@ -48,6 +52,18 @@ public class LabDocument {
 	public void setFile(byte[] file) {
 		this.file = file;
 	}
+	public String getFileId() {
+		return fileId;
+	}
+	public void setFileId(String fileId) {
+		this.fileId = fileId;
+	}
+	public String getContentHash() {
+		return contentHash;
+	}
+	public void setContentHash(String contentHash) {
+		this.contentHash = contentHash;
+	}
 	public long getLabId() {
 		return labId;
 	}
@@ -65,7 +81,7 @@ public class LabDocument {
 	@Override
 	public String toString() {
 		return "LabDocument [id=" + id + ", filename=" + filename + ", fileType=" + fileType + ", fileSize="
-				+ fileSize + ", file=" + Arrays.toString(file) + ", labId=" + labId + "]";
+				+ fileSize + ", file=" + Arrays.toString(file) + ", fileId=" + fileId + ", contentHash=" + contentHash + ", labId=" + labId + "]";
 	}
 	public LabDocument() {
 		super();
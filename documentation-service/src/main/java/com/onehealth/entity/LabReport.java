@@ -4,6 +4,7 @@ import java.util.Arrays;
 import java.util.Date;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 /**
@@ -11,7 +12,7 @@ import org.springframework.data.mongodb.core.mapping.Document;
  * It is annotated with @Document to specify the MongoDB collection it maps to.
  */
 @Document(collection = "lab_reports")
-public class LabReport {
+public class LabReport implements StoredContent {
 
     @Id
     private String id;
@@ -19,6 +20,9 @@ public class LabReport {
     private String fileType;
     private String fileSize;
     private byte[] file;
+    private String fileId;
+    private String contentHash;
+    @Indexed
     private long orderId;
     private Date uploadDate;
 
@@ -28,7 +32,7 @@ public class LabReport {
     @Override
     public String toString() {
         return "LabReport [id=" + id + ", filename=" + filename + ", fileType=" + fileType + ", fileSize=" + fileSize
-                + ", file=" + Arrays.toString(file) + ", orderId=" + orderId + "]";
+                + ", file=" + Arrays.toString(file) + ", fileId=" + fileId + ", contentHash=" + contentHash + ", orderId=" + orderId + "]";
     }
 
     /**
@@ -101,6 +105,34 @@ public class LabReport {
         this.file = file;
     }
 
+    /**
+     * Getter for the ID of the GridFS file holding the content of the lab report.
+     */
+    public String getFileId() {
+        return fileId;
+    }
+
+    /**
+     * Setter for the ID of the GridFS file holding the content of the lab report.
+     */
+    public void setFileId(String fileId) {
+        this.fileId = fileId;
+    }
+
+    /**
+     * Getter for the SHA-256 hash of the content of the lab report.
+     */
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    /**
+     * Setter for the SHA-256 hash of the content of the lab report.
+     */
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
     /**
      * Getter for the ID of the order associated with the lab report.
      */
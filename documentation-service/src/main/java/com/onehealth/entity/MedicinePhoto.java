@@ -2,8 +2,10 @@ package com.onehealth.entity;
 
 import java.util.Arrays;
 import java.util.Date;
+import java.util.Map;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 /**
@@ -11,15 +13,19 @@ import org.springframework.data.mongodb.core.mapping.Document;
  * It stores information about medicine photos, including the image file, metadata, and associated medicine details.
  */
 @Document(collection = "medicine_photos")
-public class MedicinePhoto {
+public class MedicinePhoto implements StoredContent {
     @Id
     private String id;              // The unique ID of the medicine photo document
     private String filename;        // The filename of the uploaded image
     private String fileType;        // The file type (MIME type) of the uploaded image
     private String fileSize;        // The size of the uploaded image file
     private byte[] file;            // The byte array representing the uploaded image data
+    private String fileId;          // The ID of the GridFS file holding the uploaded image data
+    private String contentHash;     // The SHA-256 hash of the uploaded image data
     private String medicine_name;   // The name of the medicine associated with the photo
+    @Indexed
     private long medicineId;        // The ID of the medicine associated with the photo
+    private Map<String, Rendition> renditions; // The downscaled copies of the image, keyed by rendition size
     private Date uploadDate;
     /**
      * Override of the toString() method to display the entity's properties.
@@ -29,8 +35,8 @@ public class MedicinePhoto {
     @Override
     public String toString() {
         return "MedicinePhoto [id=" + id + ", filename=" + filename + ", fileType=" + fileType + ", fileSize="
-                + fileSize + ", file=" + Arrays.toString(file) + ", medicine_name=" + medicine_name + ", medicineId="
-                + medicineId + "]";
+                + fileSize + ", file=" + Arrays.toString(file) + ", fileId=" + fileId + ", contentHash=" + contentHash + ", medicine_name=" + medicine_name + ", medicineId="
+                + medicineId + ", renditions=" + renditions + "]";
     }
 
     /**
@@ -157,6 +163,42 @@ public class MedicinePhoto {
         this.file = file;
     }
 
+    /**
+     * Getter for the ID of the GridFS file holding the uploaded image data.
+     *
+     * @return The ID of the GridFS file holding the uploaded image data.
+     */
+    public String getFileId() {
+        return fileId;
+    }
+
+    /**
+     * Setter for the ID of the GridFS file holding the uploaded image data.
+     *
+     * @param fileId The ID of the GridFS file holding the uploaded image data to set.
+     */
+    public void setFileId(String fileId) {
+        this.fileId = fileId;
+    }
+
+    /**
+     * Getter for the SHA-256 hash of the uploaded image data.
+     *
+     * @return The SHA-256 hash of the uploaded image data.
+     */
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    /**
+     * Setter for the SHA-256 hash of the uploaded image data.
+     *
+     * @param contentHash The SHA-256 hash of the uploaded image data to set.
+     */
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
     /**
      * Getter for the name of the medicine associated with the photo.
      *
@@ -193,6 +235,24 @@ public class MedicinePhoto {
         this.medicineId = medicineId;
     }
 
+    /**
+     * Getter for the downscaled copies of the image, keyed by rendition size.
+     *
+     * @return The renditions of the medicine photo.
+     */
+    public Map<String, Rendition> getRenditions() {
+        return renditions;
+    }
+
+    /**
+     * Setter for the downscaled copies of the image, keyed by rendition size.
+     *
+     * @param renditions The renditions of the medicine photo to set.
+     */
+    public void setRenditions(Map<String, Rendition> renditions) {
+        this.renditions = renditions;
+    }
+
 	public Date getUploadDate() {
 		return uploadDate;
 	}
@@ -4,10 +4,12 @@ import java.util.Arrays;
 import java.util.Date;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 @Document(collection = "patient_documents")
-public class PatientDocument {
+@CompoundIndex(name = "patientId_recordType", def = "{ 'patientId' : 1, 'recordType' : 1 }")
+public class PatientDocument implements StoredContent {
     
     @Id
     private String id;
@@ -15,6 +17,8 @@ public class PatientDocument {
     private String fileType;
     private String fileSize;
     private byte[] file;
+    private String fileId;
+    private String contentHash;
     private long patientId;
     private String recordType;
     private Date uploadDate;
@@ -65,6 +69,18 @@ public class PatientDocument {
 	public void setFile(byte[] file) {
 		this.file = file;
 	}
+	public String getFileId() {
+		return fileId;
+	}
+	public void setFileId(String fileId) {
+		this.fileId = fileId;
+	}
+	public String getContentHash() {
+		return contentHash;
+	}
+	public void setContentHash(String contentHash) {
+		this.contentHash = contentHash;
+	}
 	public long getPatientId() {
 		return patientId;
 	}
@@ -86,7 +102,7 @@ public class PatientDocument {
 	@Override
 	public String toString() {
 		return "PatientDocument [id=" + id + ", filename=" + filename + ", fileType=" + fileType + ", fileSize="
-				+ fileSize + ", file=" + Arrays.toString(file) + ", patientId=" + patientId + ", recordType="
+				+ fileSize + ", file=" + Arrays.toString(file) + ", fileId=" + fileId + ", contentHash=" + contentHash + ", patientId=" + patientId + ", recordType="
 				+ recordType + ", uploadDate=" + uploadDate + "]";
 	}
 }
\ No newline at end of file
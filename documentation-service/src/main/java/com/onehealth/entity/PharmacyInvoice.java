@@ -4,6 +4,8 @@ import java.util.Arrays;
 import java.util.Date;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 /**
@@ -11,7 +13,8 @@ import org.springframework.data.mongodb.core.mapping.Document;
  * It is annotated with @Document to specify the MongoDB collection it maps to.
  */
 @Document(collection = "pharmacy_invoices")
-public class PharmacyInvoice {
+@CompoundIndex(name = "uploadDate_id", def = "{ 'uploadDate' : 1, '_id' : 1 }")
+public class PharmacyInvoice implements StoredContent {
 
     @Id
     private String id;
@@ -19,6 +22,9 @@ public class PharmacyInvoice {
     private String fileType;
     private String fileSize;
     private byte[] file;
+    private String fileId;
+    private String contentHash;
+    @Indexed
     private long orderId;
     private Date uploadDate;
     /**
@@ -27,7 +33,7 @@ public class PharmacyInvoice {
     @Override
     public String toString() {
         return "PharmacyInvoice [id=" + id + ", filename=" + filename + ", fileType=" + fileType + ", fileSize=" + fileSize
-                + ", file=" + Arrays.toString(file) + ", orderId=" + orderId + "]";
+                + ", file=" + Arrays.toString(file) + ", fileId=" + fileId + ", contentHash=" + contentHash + ", orderId=" + orderId + "]";
     }
 
     /**
@@ -100,6 +106,34 @@ public class PharmacyInvoice {
         this.file = file;
     }
 
+    /**
+     * Getter for the ID of the GridFS file holding the content of the pharmacy invoice.
+     */
+    public String getFileId() {
+        return fileId;
+    }
+
+    /**
+     * Setter for the ID of the GridFS file holding the content of the pharmacy invoice.
+     */
+    public void setFileId(String fileId) {
+        this.fileId = fileId;
+    }
+
+    /**
+     * Getter for the SHA-256 hash of the content of the pharmacy invoice.
+     */
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    /**
+     * Setter for the SHA-256 hash of the content of the pharmacy invoice.
+     */
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
     /**
      * Getter for the ID of the order associated with the pharmacy invoice.
      */
@@ -4,6 +4,8 @@ import java.util.Arrays;
 import java.util.Date;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 /**
@@ -11,7 +13,8 @@ import org.springframework.data.mongodb.core.mapping.Document;
  * It is annotated with @Document to specify the MongoDB collection it maps to.
  */
 @Document(collection = "prescriptions")
-public class Prescription {
+@CompoundIndex(name = "uploadDate_id", def = "{ 'uploadDate' : 1, '_id' : 1 }")
+public class Prescription implements StoredContent {
 
     @Id
     private String id;
@@ -19,7 +22,11 @@ public class Prescription {
     private String fileType;
     private String fileSize;
     private byte[] file;
+    private String fileId;
+    private String contentHash;
+    @Indexed
     private long appointmentId;
+    @Indexed
     private long patientId;
     private Date uploadDate;
 
@@ -29,7 +36,7 @@ public class Prescription {
     @Override
     public String toString() {
         return "Prescription [id=" + id + ", filename=" + filename + ", fileType=" + fileType + ", fileSize=" + fileSize
-                + ", file=" + Arrays.toString(file) + ", appointmentId=" + appointmentId + ", patientId=" + patientId
+                + ", file=" + Arrays.toString(file) + ", fileId=" + fileId + ", contentHash=" + contentHash + ", appointmentId=" + appointmentId + ", patientId=" + patientId
                 + "]";
     }
 
@@ -103,6 +110,34 @@ public class Prescription {
         this.file = file;
     }
 
+    /**
+     * Getter for the ID of the GridFS file holding the content of the prescription.
+     */
+    public String getFileId() {
+        return fileId;
+    }
+
+    /**
+     * Setter for the ID of the GridFS file holding the content of the prescription.
+     */
+    public void setFileId(String fileId) {
+        this.fileId = fileId;
+    }
+
+    /**
+     * Getter for the SHA-256 hash of the content of the prescription.
+     */
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    /**
+     * Setter for the SHA-256 hash of the content of the prescription.
+     */
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
     /**
      * Getter for the ID of the appointment associated with the prescription.
      */
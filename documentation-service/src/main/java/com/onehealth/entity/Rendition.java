@@ -0,0 +1,96 @@
+package com.onehealth.entity;
+
+/**
+ * The Rendition class represents a downscaled copy of a photo, such as a thumbnail or a preview.
+ * It is embedded in the photo it was generated from and references its content by hash and GridFS file ID.
+ */
+public class Rendition {
+
+    private String fileId;
+    private String contentHash;
+    private int width;
+    private int height;
+
+    /**
+     * Default constructor for the Rendition class.
+     */
+    public Rendition() {
+        super();
+    }
+
+    /**
+     * Parameterized constructor for the Rendition class.
+     */
+    public Rendition(String fileId, String contentHash, int width, int height) {
+        super();
+        this.fileId = fileId;
+        this.contentHash = contentHash;
+        this.width = width;
+        this.height = height;
+    }
+
+    /**
+     * Getter for the ID of the GridFS file holding the rendition.
+     */
+    public String getFileId() {
+        return fileId;
+    }
+
+    /**
+     * Setter for the ID of the GridFS file holding the rendition.
+     */
+    public void setFileId(String fileId) {
+        this.fileId = fileId;
+    }
+
+    /**
+     * Getter for the SHA-256 hash of the rendition.
+     */
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    /**
+     * Setter for the SHA-256 hash of the rendition.
+     */
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
+    /**
+     * Getter for the width of the rendition in pixels.
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Setter for the width of the rendition in pixels.
+     */
+    public void setWidth(int width) {
+        this.width = width;
+    }
+
+    /**
+     * Getter for the height of the rendition in pixels.
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Setter for the height of the rendition in pixels.
+     */
+    public void setHeight(int height) {
+        this.height = height;
+    }
+
+    /**
+     * Overrides the toString() method to provide a string representation of the Rendition object.
+     */
+    @Override
+    public String toString() {
+        return "Rendition [fileId=" + fileId + ", contentHash=" + contentHash + ", width=" + width + ", height="
+                + height + "]";
+    }
+}
@@ -0,0 +1,21 @@
+package com.onehealth.entity;
+
+/**
+ * The StoredContent interface is implemented by the documents whose content is kept by the
+ * DocumentStorageService: in GridFS, referenced by the ID of the file and the hash of the
+ * content, or inline for documents stored before GridFS was used.
+ */
+public interface StoredContent {
+
+    byte[] getFile();
+
+    void setFile(byte[] file);
+
+    String getFileId();
+
+    void setFileId(String fileId);
+
+    String getContentHash();
+
+    void setContentHash(String contentHash);
+}
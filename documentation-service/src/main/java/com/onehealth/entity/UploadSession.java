@@ -0,0 +1,141 @@
+package com.onehealth.entity;
+
+import java.util.Date;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * The UploadSession class represents a chunked upload of a patient document in progress.
+ * The chunks themselves are kept in GridFS until the session is committed, at which point
+ * they are assembled into the stored content of a new PatientDocument.
+ */
+@Document(collection = "upload_sessions")
+public class UploadSession {
+
+    @Id
+    private String id;
+    private long patientId;
+    private String recordType;
+    private String filename;
+    private String fileType;
+    private long totalSize;
+    @Indexed
+    private Date createdAt;
+
+    /**
+     * Default constructor for the UploadSession class.
+     */
+    public UploadSession() {
+        super();
+        this.createdAt = new Date();
+    }
+
+    /**
+     * Getter for the ID of the upload session.
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Setter for the ID of the upload session.
+     */
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    /**
+     * Getter for the ID of the patient the document is uploaded for.
+     */
+    public long getPatientId() {
+        return patientId;
+    }
+
+    /**
+     * Setter for the ID of the patient the document is uploaded for.
+     */
+    public void setPatientId(long patientId) {
+        this.patientId = patientId;
+    }
+
+    /**
+     * Getter for the record type of the uploaded document.
+     */
+    public String getRecordType() {
+        return recordType;
+    }
+
+    /**
+     * Setter for the record type of the uploaded document.
+     */
+    public void setRecordType(String recordType) {
+        this.recordType = recordType;
+    }
+
+    /**
+     * Getter for the filename of the uploaded document.
+     */
+    public String getFilename() {
+        return filename;
+    }
+
+    /**
+     * Setter for the filename of the uploaded document.
+     */
+    public void setFilename(String filename) {
+        this.filename = filename;
+    }
+
+    /**
+     * Getter for the file type (MIME type) of the uploaded document.
+     */
+    public String getFileType() {
+        return fileType;
+    }
+
+    /**
+     * Setter for the file type (MIME type) of the uploaded document.
+     */
+    public void setFileType(String fileType) {
+        this.fileType = fileType;
+    }
+
+    /**
+     * Getter for the announced size of the uploaded document in bytes, or 0 if unknown.
+     */
+    public long getTotalSize() {
+        return totalSize;
+    }
+
+    /**
+     * Setter for the announced size of the uploaded document in bytes, or 0 if unknown.
+     */
+    public void setTotalSize(long totalSize) {
+        this.totalSize = totalSize;
+    }
+
+    /**
+     * Getter for the date the upload session was initiated.
+     */
+    public Date getCreatedAt() {
+        return createdAt;
+    }
+
+    /**
+     * Setter for the date the upload session was initiated.
+     */
+    public void setCreatedAt(Date createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    /**
+     * Overrides the toString() method to provide a string representation of the UploadSession object.
+     */
+    @Override
+    public String toString() {
+        return "UploadSession [id=" + id + ", patientId=" + patientId + ", recordType=" + recordType + ", filename="
+                + filename + ", fileType=" + fileType + ", totalSize=" + totalSize + ", createdAt=" + createdAt + "]";
+    }
+}
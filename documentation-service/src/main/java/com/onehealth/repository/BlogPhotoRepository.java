@@ -1,8 +1,10 @@
 package com.onehealth.repository;
 
 import java.util.List;
+import java.util.Optional;
 
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 
 import com.onehealth.entity.BlogPhoto;
 
@@ -18,6 +20,7 @@ public interface BlogPhotoRepository extends MongoRepository<BlogPhoto, String>
      * @param blogId The ID of the blog for which BlogPhotos are to be retrieved.
      * @return A list of BlogPhoto objects associated with the specified blogId.
      */
+    @Query(fields = "{ 'file' : 0 }")
     List<BlogPhoto> findByBlogId(long blogId);
     
     /**
@@ -26,4 +29,13 @@ public interface BlogPhotoRepository extends MongoRepository<BlogPhoto, String>
      * @param blogId The ID of the blog.
      */
     void deleteByBlogId(long blogId);
+
+    /**
+     * Finds a BlogPhoto by its ID without its inline file content.
+     *
+     * @param id The ID of the BlogPhoto.
+     * @return An Optional containing the BlogPhoto with the file field excluded, or an empty Optional if not found.
+     */
+    @Query(value = "{ '_id' : ?0 }", fields = "{ 'file' : 0 }")
+    Optional<BlogPhoto> findMetadataById(String id);
 }
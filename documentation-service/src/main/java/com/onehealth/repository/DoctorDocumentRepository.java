@@ -1,8 +1,10 @@
 package com.onehealth.repository;
 
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import com.onehealth.entity.DoctorDocument;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * The DoctorDocumentRepository interface extends the MongoRepository interface
@@ -16,5 +18,15 @@ public interface DoctorDocumentRepository extends MongoRepository<DoctorDocument
      * @param doctorId The ID of the doctor for which DoctorDocuments are to be retrieved.
      * @return A list of DoctorDocument objects associated with the specified doctorId.
      */
+    @Query(fields = "{ 'file' : 0 }")
     List<DoctorDocument> findByDoctorId(long doctorId);
+
+    /**
+     * Finds a DoctorDocument by its ID without its inline file content.
+     *
+     * @param id The ID of the DoctorDocument.
+     * @return An Optional containing the DoctorDocument with the file field excluded, or an empty Optional if not found.
+     */
+    @Query(value = "{ '_id' : ?0 }", fields = "{ 'file' : 0 }")
+    Optional<DoctorDocument> findMetadataById(String id);
 }
@@ -1,7 +1,12 @@
 package com.onehealth.repository;
 import java.util.List;
+import java.util.Optional;
 
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 
 import com.onehealth.entity.LabDocument;
 
@@ -13,6 +18,7 @@ public interface LabDocumentRepository extends MongoRepository<LabDocument, Stri
      * @param labId The ID of the lab.
      * @return A list of lab documents for the given lab ID.
      */
+    @Query(fields = "{ 'file' : 0 }")
     List<LabDocument> findByLabId(long labId);
 
     /**
@@ -21,5 +27,32 @@ public interface LabDocumentRepository extends MongoRepository<LabDocument, Stri
      * @param labId The ID of the lab.
      */
     void deleteByLabId(long labId);
-}
 
+    /**
+     * Finds the first page of all LabDocuments in ID order, without their inline file content.
+     *
+     * @param pageable The size of the page, sorted by ID.
+     * @return A slice of LabDocument objects with the file field excluded.
+     */
+    @Query(value = "{}", fields = "{ 'file' : 0 }")
+    Slice<LabDocument> findAllMetadata(Pageable pageable);
+
+    /**
+     * Finds the page of LabDocuments following the given ID in ID order, without their inline file content.
+     *
+     * @param id       The ID of the last LabDocument of the previous page.
+     * @param pageable The size of the page, sorted by ID.
+     * @return A slice of LabDocument objects with the file field excluded.
+     */
+    @Query(fields = "{ 'file' : 0 }")
+    Slice<LabDocument> findByIdGreaterThan(ObjectId id, Pageable pageable);
+
+    /**
+     * Finds a LabDocument by its ID without its inline file content.
+     *
+     * @param id The ID of the LabDocument.
+     * @return An Optional containing the LabDocument with the file field excluded, or an empty Optional if not found.
+     */
+    @Query(value = "{ '_id' : ?0 }", fields = "{ 'file' : 0 }")
+    Optional<LabDocument> findMetadataById(String id);
+}
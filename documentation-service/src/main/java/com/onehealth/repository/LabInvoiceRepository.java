@@ -2,7 +2,11 @@ package com.onehealth.repository;
 
 import java.util.Optional;
 
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import com.onehealth.entity.LabInvoice;
 
 /**
@@ -20,5 +24,34 @@ public interface LabInvoiceRepository extends MongoRepository<LabInvoice, String
      * @return An Optional containing the LabInvoice associated with the specified orderId,
      *         or an empty Optional if no LabInvoice with the orderId exists.
      */
+    @Query(fields = "{ 'file' : 0 }")
     Optional<LabInvoice> findByOrderId(long orderId);
+
+    /**
+     * Finds the first page of all LabInvoices in ID order, without their inline file content.
+     *
+     * @param pageable The size of the page, sorted by ID.
+     * @return A slice of LabInvoice objects with the file field excluded.
+     */
+    @Query(value = "{}", fields = "{ 'file' : 0 }")
+    Slice<LabInvoice> findAllMetadata(Pageable pageable);
+
+    /**
+     * Finds the page of LabInvoices following the given ID in ID order, without their inline file content.
+     *
+     * @param id       The ID of the last LabInvoice of the previous page.
+     * @param pageable The size of the page, sorted by ID.
+     * @return A slice of LabInvoice objects with the file field excluded.
+     */
+    @Query(fields = "{ 'file' : 0 }")
+    Slice<LabInvoice> findByIdGreaterThan(ObjectId id, Pageable pageable);
+
+    /**
+     * Finds a LabInvoice by its ID without its inline file content.
+     *
+     * @param id The ID of the LabInvoice.
+     * @return An Optional containing the LabInvoice with the file field excluded, or an empty Optional if not found.
+     */
+    @Query(value = "{ '_id' : ?0 }", fields = "{ 'file' : 0 }")
+    Optional<LabInvoice> findMetadataById(String id);
 }
@@ -1,6 +1,10 @@
 package com.onehealth.repository;
 
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import com.onehealth.entity.LabReport;
 
 import java.util.Optional;
@@ -20,5 +24,34 @@ public interface LabReportRepository extends MongoRepository<LabReport, String>
      * @return An Optional containing the LabReport associated with the specified orderId,
      *         or an empty Optional if no LabReport with the orderId exists.
      */
+    @Query(fields = "{ 'file' : 0 }")
     Optional<LabReport> findByOrderId(long orderId);
+
+    /**
+     * Finds the first page of all LabReports in ID order, without their inline file content.
+     *
+     * @param pageable The size of the page, sorted by ID.
+     * @return A slice of LabReport objects with the file field excluded.
+     */
+    @Query(value = "{}", fields = "{ 'file' : 0 }")
+    Slice<LabReport> findAllMetadata(Pageable pageable);
+
+    /**
+     * Finds the page of LabReports following the given ID in ID order, without their inline file content.
+     *
+     * @param id       The ID of the last LabReport of the previous page.
+     * @param pageable The size of the page, sorted by ID.
+     * @return A slice of LabReport objects with the file field excluded.
+     */
+    @Query(fields = "{ 'file' : 0 }")
+    Slice<LabReport> findByIdGreaterThan(ObjectId id, Pageable pageable);
+
+    /**
+     * Finds a LabReport by its ID without its inline file content.
+     *
+     * @param id The ID of the LabReport.
+     * @return An Optional containing the LabReport with the file field excluded, or an empty Optional if not found.
+     */
+    @Query(value = "{ '_id' : ?0 }", fields = "{ 'file' : 0 }")
+    Optional<LabReport> findMetadataById(String id);
 }
@@ -1,8 +1,10 @@
 package com.onehealth.repository;
 
 import java.util.List;
+import java.util.Optional;
 
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 
 import com.onehealth.entity.MedicinePhoto;
 
@@ -19,6 +21,7 @@ public interface MedicinePhotoRepository extends MongoRepository<MedicinePhoto,
      * @param medicineId The ID of the medicine to retrieve photos for.
      * @return A list of MedicinePhoto objects associated with the given medicine ID.
      */
+    @Query(fields = "{ 'file' : 0 }")
     List<MedicinePhoto> findByMedicineId(long medicineId);
     
     
@@ -28,4 +31,13 @@ public interface MedicinePhotoRepository extends MongoRepository<MedicinePhoto,
      * @param medId The ID of the Medicine.
      */
     void deleteByMedicineId(long medId);
+
+    /**
+     * Finds a MedicinePhoto by its ID without its inline file content.
+     *
+     * @param id The ID of the MedicinePhoto.
+     * @return An Optional containing the MedicinePhoto with the file field excluded, or an empty Optional if not found.
+     */
+    @Query(value = "{ '_id' : ?0 }", fields = "{ 'file' : 0 }")
+    Optional<MedicinePhoto> findMetadataById(String id);
 }
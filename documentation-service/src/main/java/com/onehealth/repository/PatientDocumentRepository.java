@@ -1,7 +1,12 @@
 package com.onehealth.repository;
 import java.util.List;
+import java.util.Optional;
 
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 
 import com.onehealth.entity.PatientDocument;
 
@@ -18,6 +23,7 @@ public interface PatientDocumentRepository extends MongoRepository<PatientDocume
      * @param patientId The ID of the patient.
      * @return A list of patient documents for the given patient ID.
      */
+    @Query(fields = "{ 'file' : 0 }")
     List<PatientDocument> findByPatientId(long patientId);
 
     /**
@@ -34,7 +40,34 @@ public interface PatientDocumentRepository extends MongoRepository<PatientDocume
      * @param recordType The record type of the documents.
      * @return A list of patient documents matching the given criteria.
      */
+    @Query(fields = "{ 'file' : 0 }")
     List<PatientDocument> findByPatientIdAndRecordType(long patientId, String recordType);
 
-}
+    /**
+     * Finds the first page of all PatientDocuments in ID order, without their inline file content.
+     *
+     * @param pageable The size of the page, sorted by ID.
+     * @return A slice of PatientDocument objects with the file field excluded.
+     */
+    @Query(value = "{}", fields = "{ 'file' : 0 }")
+    Slice<PatientDocument> findAllMetadata(Pageable pageable);
+
+    /**
+     * Finds the page of PatientDocuments following the given ID in ID order, without their inline file content.
+     *
+     * @param id       The ID of the last PatientDocument of the previous page.
+     * @param pageable The size of the page, sorted by ID.
+     * @return A slice of PatientDocument objects with the file field excluded.
+     */
+    @Query(fields = "{ 'file' : 0 }")
+    Slice<PatientDocument> findByIdGreaterThan(ObjectId id, Pageable pageable);
 
+    /**
+     * Finds a PatientDocument by its ID without its inline file content.
+     *
+     * @param id The ID of the PatientDocument.
+     * @return An Optional containing the PatientDocument with the file field excluded, or an empty Optional if not found.
+     */
+    @Query(value = "{ '_id' : ?0 }", fields = "{ 'file' : 0 }")
+    Optional<PatientDocument> findMetadataById(String id);
+}
@@ -1,6 +1,10 @@
 package com.onehealth.repository;
 
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import com.onehealth.entity.PharmacyInvoice;
 
 import java.util.Optional;
@@ -20,5 +24,34 @@ public interface PharmacyInvoiceRepository extends MongoRepository<PharmacyInvoi
      * @return An Optional containing the PharmacyInvoice associated with the specified orderId,
      *         or an empty Optional if no PharmacyInvoice with the orderId exists.
      */
+    @Query(fields = "{ 'file' : 0 }")
     Optional<PharmacyInvoice> findByOrderId(long orderId);
+
+    /**
+     * Finds the first page of all PharmacyInvoices in ID order, without their inline file content.
+     *
+     * @param pageable The size of the page, sorted by ID.
+     * @return A slice of PharmacyInvoice objects with the file field excluded.
+     */
+    @Query(value = "{}", fields = "{ 'file' : 0 }")
+    Slice<PharmacyInvoice> findAllMetadata(Pageable pageable);
+
+    /**
+     * Finds the page of PharmacyInvoices following the given ID in ID order, without their inline file content.
+     *
+     * @param id       The ID of the last PharmacyInvoice of the previous page.
+     * @param pageable The size of the page, sorted by ID.
+     * @return A slice of PharmacyInvoice objects with the file field excluded.
+     */
+    @Query(fields = "{ 'file' : 0 }")
+    Slice<PharmacyInvoice> findByIdGreaterThan(ObjectId id, Pageable pageable);
+
+    /**
+     * Finds a PharmacyInvoice by its ID without its inline file content.
+     *
+     * @param id The ID of the PharmacyInvoice.
+     * @return An Optional containing the PharmacyInvoice with the file field excluded, or an empty Optional if not found.
+     */
+    @Query(value = "{ '_id' : ?0 }", fields = "{ 'file' : 0 }")
+    Optional<PharmacyInvoice> findMetadataById(String id);
 }
@@ -1,6 +1,10 @@
 package com.onehealth.repository;
 
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import com.onehealth.entity.Prescription;
 
 import java.util.List;
@@ -21,6 +25,7 @@ public interface PrescriptionRepository extends MongoRepository<Prescription, St
      * @return An Optional containing the Prescription associated with the specified appointmentId,
      *         or an empty Optional if no Prescription with the appointmentId exists.
      */
+    @Query(fields = "{ 'file' : 0 }")
     Optional<Prescription> findByAppointmentId(long appointmentId);
 
     /**
@@ -32,5 +37,34 @@ public interface PrescriptionRepository extends MongoRepository<Prescription, St
      * @return A List containing all Prescriptions associated with the specified patientId,
      *         or an empty List if no Prescriptions are associated with the patientId.
      */
+    @Query(fields = "{ 'file' : 0 }")
     List<Prescription> findByPatientId(long patientId);
+
+    /**
+     * Finds the first page of all Prescriptions in ID order, without their inline file content.
+     *
+     * @param pageable The size of the page, sorted by ID.
+     * @return A slice of Prescription objects with the file field excluded.
+     */
+    @Query(value = "{}", fields = "{ 'file' : 0 }")
+    Slice<Prescription> findAllMetadata(Pageable pageable);
+
+    /**
+     * Finds the page of Prescriptions following the given ID in ID order, without their inline file content.
+     *
+     * @param id       The ID of the last Prescription of the previous page.
+     * @param pageable The size of the page, sorted by ID.
+     * @return A slice of Prescription objects with the file field excluded.
+     */
+    @Query(fields = "{ 'file' : 0 }")
+    Slice<Prescription> findByIdGreaterThan(ObjectId id, Pageable pageable);
+
+    /**
+     * Finds a Prescription by its ID without its inline file content.
+     *
+     * @param id The ID of the Prescription.
+     * @return An Optional containing the Prescription with the file field excluded, or an empty Optional if not found.
+     */
+    @Query(value = "{ '_id' : ?0 }", fields = "{ 'file' : 0 }")
+    Optional<Prescription> findMetadataById(String id);
 }
@@ -0,0 +1,24 @@
+package com.onehealth.repository;
+
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+
+import com.onehealth.entity.PatientDocument;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive repository interface for patient documents, used by the reactive document endpoints.
+ * Queries do not block the calling thread; their results are emitted once MongoDB answers.
+ */
+public interface ReactivePatientDocumentRepository extends ReactiveMongoRepository<PatientDocument, String> {
+
+    /**
+     * Finds a PatientDocument by its ID without its inline file content.
+     *
+     * @param id The ID of the PatientDocument.
+     * @return A Mono emitting the PatientDocument with the file field excluded, or completing empty if not found.
+     */
+    @Query(value = "{ '_id' : ?0 }", fields = "{ 'file' : 0 }")
+    Mono<PatientDocument> findMetadataById(String id);
+}
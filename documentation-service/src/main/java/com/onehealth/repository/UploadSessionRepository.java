@@ -0,0 +1,22 @@
+package com.onehealth.repository;
+
+import java.util.Date;
+import java.util.List;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import com.onehealth.entity.UploadSession;
+
+/**
+ * Repository interface for managing UploadSession entities in the MongoDB database.
+ */
+public interface UploadSessionRepository extends MongoRepository<UploadSession, String> {
+
+    /**
+     * Finds the upload sessions initiated before the given date.
+     *
+     * @param cutoff The date before which the sessions were initiated.
+     * @return A list of UploadSession objects initiated before the cutoff.
+     */
+    List<UploadSession> findByCreatedAtBefore(Date cutoff);
+}
@@ -2,7 +2,9 @@ package com.onehealth.service;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.Optional;
 
+import org.springframework.core.io.Resource;
 import org.springframework.web.multipart.MultipartFile;
 
 import com.onehealth.entity.BlogPhoto;
@@ -58,4 +60,20 @@ public interface BlogPhotoService {
      * @throws DatabaseException 
      */
 	void deleteBlogPhotosByBlogId(long blogId) throws DatabaseException;
+
+    /**
+     * Retrieves a specific BlogPhoto identified by its ID, without its file content.
+     *
+     * @param id The ID of the BlogPhoto to retrieve.
+     * @return An Optional containing the BlogPhoto object if found, or an empty Optional if not found.
+     */
+    Optional<BlogPhoto> getBlogPhotoById(String id);
+
+    /**
+     * Downloads the file data of a specific BlogPhoto identified by its ID.
+     *
+     * @param id The ID of the BlogPhoto for which the file is to be downloaded.
+     * @return The Resource streaming the file content, or null if the BlogPhoto with the given ID is not found.
+     */
+    Resource downloadBlogPhoto(String id);
 }
@@ -0,0 +1,41 @@
+package com.onehealth.service;
+
+import org.springframework.core.io.Resource;
+
+import com.mongodb.client.gridfs.model.GridFSFile;
+
+/**
+ * The ColdStorageService interface provides methods to move document content that is no longer
+ * read often out of GridFS into a filesystem store, and to read it back from there. A moved
+ * GridFS file keeps its files document as a stub, whose metadata marks it as cold, while its
+ * chunks are deleted after a grace period, once no download reads them anymore. The stored
+ * bytes are kept on disk as they were in GridFS, under a path derived from the SHA-256 hash of
+ * the content.
+ */
+public interface ColdStorageService {
+
+    /**
+     * Returns the copy of a GridFS file in the cold store, if the file has been moved there.
+     * Every call counts as a read of the file for the hit rates of the tiers.
+     *
+     * @param gridFSFile The GridFS file to be read.
+     * @return The Resource holding the stored bytes on disk, or null if the file is in GridFS.
+     */
+    Resource getColdResource(GridFSFile gridFSFile);
+
+    /**
+     * Deletes the copy of a content in the cold store, once its GridFS file has been deleted.
+     * Does nothing if the content was never moved to the cold store.
+     *
+     * @param contentHash The SHA-256 hash of the content.
+     */
+    void deleteColdResource(String contentHash);
+
+    /**
+     * Moves the content of the documents uploaded longer ago than the configured age into the
+     * cold store, for the collections configured to be tiered.
+     *
+     * @return The number of GridFS files moved to the cold store.
+     */
+    int tierColdContent();
+}
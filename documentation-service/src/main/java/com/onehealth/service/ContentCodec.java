@@ -0,0 +1,95 @@
+package com.onehealth.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The codecs document content can be stored with. The name of each codec is the HTTP
+ * content coding it produces, so stored bytes can be sent to clients that accept the
+ * coding without re-encoding them.
+ */
+public enum ContentCodec {
+
+    /**
+     * Stores the content as it was uploaded.
+     */
+    IDENTITY("identity") {
+        @Override
+        public OutputStream encode(OutputStream target) {
+            return target;
+        }
+
+        @Override
+        public InputStream decode(InputStream source) {
+            return source;
+        }
+    },
+
+    /**
+     * Compresses the content with gzip.
+     */
+    GZIP("gzip") {
+        @Override
+        public OutputStream encode(OutputStream target) throws IOException {
+            return new GZIPOutputStream(target, BUFFER_SIZE);
+        }
+
+        @Override
+        public InputStream decode(InputStream source) throws IOException {
+            return new GZIPInputStream(source, BUFFER_SIZE);
+        }
+    };
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final String contentEncoding;
+
+    ContentCodec(String contentEncoding) {
+        this.contentEncoding = contentEncoding;
+    }
+
+    /**
+     * Returns the HTTP content coding produced by this codec.
+     *
+     * @return The content coding, e.g. "gzip".
+     */
+    public String getContentEncoding() {
+        return contentEncoding;
+    }
+
+    /**
+     * Wraps a stream so that content written to it is encoded with this codec.
+     *
+     * @param target The stream receiving the encoded content.
+     * @return The stream to write the original content to.
+     * @throws IOException If an I/O error occurs while writing the codec header.
+     */
+    public abstract OutputStream encode(OutputStream target) throws IOException;
+
+    /**
+     * Wraps a stream of encoded content so that the original content can be read from it.
+     *
+     * @param source The stream of encoded content.
+     * @return The stream to read the original content from.
+     * @throws IOException If an I/O error occurs while reading the codec header.
+     */
+    public abstract InputStream decode(InputStream source) throws IOException;
+
+    /**
+     * Returns the codec producing the given HTTP content coding.
+     *
+     * @param contentEncoding The content coding, or null for content stored before compression was used.
+     * @return The matching codec, or IDENTITY if the content coding is null or unknown.
+     */
+    public static ContentCodec forContentEncoding(String contentEncoding) {
+        for (ContentCodec codec : values()) {
+            if (codec.contentEncoding.equalsIgnoreCase(contentEncoding)) {
+                return codec;
+            }
+        }
+        return IDENTITY;
+    }
+}
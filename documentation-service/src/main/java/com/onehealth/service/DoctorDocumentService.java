@@ -4,6 +4,7 @@ import java.io.IOException;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.core.io.Resource;
 import org.springframework.web.multipart.MultipartFile;
 
 import com.onehealth.entity.DoctorDocument;
@@ -58,7 +59,7 @@ public interface DoctorDocumentService {
      * Downloads the file content of a DoctorDocument with the given ID.
      * 
      * @param id The ID of the DoctorDocument to be downloaded.
-     * @return The byte array representing the file content of the DoctorDocument.
+     * @return The Resource streaming the content of the DoctorDocument.
      */
-    byte[] downloadDoctorDocument(String id);
+    Resource downloadDoctorDocument(String id);
 }
@@ -0,0 +1,110 @@
+package com.onehealth.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.SortedMap;
+
+import org.springframework.core.io.Resource;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.onehealth.entity.DocumentBlob;
+import com.onehealth.entity.StoredContent;
+
+/**
+ * The DocumentStorageService interface provides methods to store, read and delete
+ * the binary content of uploaded documents. Content is kept in GridFS so that the
+ * document entities only hold a reference to the stored file. Identical contents are
+ * stored once and shared between documents through a reference-counted DocumentBlob.
+ */
+public interface DocumentStorageService {
+
+    /**
+     * Stores the content of an uploaded file, or takes a new reference on the stored content
+     * if an identical file was uploaded before.
+     *
+     * @param file The MultipartFile whose content is to be stored.
+     * @return The DocumentBlob holding the content, with its hash and GridFS file ID.
+     * @throws IOException If an I/O error occurs while reading the uploaded file.
+     */
+    DocumentBlob storeFile(MultipartFile file) throws IOException;
+
+    /**
+     * Stores content generated by the service itself, such as photo renditions, or takes a new
+     * reference on the stored content if identical content was stored before.
+     *
+     * @param content     The content to be stored.
+     * @param filename    The filename to store the content under.
+     * @param contentType The content type of the content.
+     * @return The DocumentBlob holding the content, with its hash and GridFS file ID.
+     * @throws IOException If an I/O error occurs while storing the content.
+     */
+    DocumentBlob storeContent(byte[] content, String filename, String contentType) throws IOException;
+
+    /**
+     * Stores one chunk of a chunked upload. A chunk that is sent again replaces the
+     * previously stored chunk with the same index.
+     *
+     * @param sessionId The ID of the upload session.
+     * @param index     The index of the chunk within the upload, starting at 0.
+     * @param content   The content of the chunk.
+     * @throws IOException If an I/O error occurs while reading the chunk.
+     */
+    void storeUploadChunk(String sessionId, int index, InputStream content) throws IOException;
+
+    /**
+     * Returns the chunks stored so far for a chunked upload.
+     *
+     * @param sessionId The ID of the upload session.
+     * @return The lengths of the stored chunks, keyed by chunk index.
+     */
+    SortedMap<Integer, Long> getUploadChunks(String sessionId);
+
+    /**
+     * Assembles the chunks of a chunked upload into stored content. The chunks are read back
+     * one after another, so the assembled file is never held in memory.
+     *
+     * @param sessionId   The ID of the upload session.
+     * @param filename    The filename of the uploaded document.
+     * @param contentType The content type of the uploaded document.
+     * @return The DocumentBlob holding the assembled content.
+     * @throws IOException           If an I/O error occurs while reading the chunks.
+     * @throws IllegalStateException If no chunks were uploaded or a chunk is missing.
+     */
+    DocumentBlob storeUploadChunks(String sessionId, String filename, String contentType) throws IOException;
+
+    /**
+     * Deletes all chunks stored for a chunked upload.
+     *
+     * @param sessionId The ID of the upload session.
+     */
+    void deleteUploadChunks(String sessionId);
+
+    /**
+     * Opens the content of a document for streaming. Documents stored before GridFS was used keep
+     * their content inline, so the inline content is served when no GridFS file is referenced.
+     *
+     * @param fileId        The ID of the GridFS file, or null for inline documents.
+     * @param inlineContent The inline content of the document.
+     * @return The Resource holding the file content, or null if there is no content to serve.
+     */
+    Resource getFileResource(String fileId, byte[] inlineContent);
+
+    /**
+     * Releases the reference a document holds on its stored content. The GridFS file is
+     * deleted once no document references it anymore. Does nothing if both arguments are null.
+     *
+     * @param contentHash The SHA-256 hash of the content, or null for documents stored before deduplication.
+     * @param fileId      The ID of the GridFS file holding the content.
+     */
+    void releaseFile(String contentHash, String fileId);
+
+    /**
+     * Keeps the stored content of a document that is updated. The content is only set by
+     * uploads, which take a reference on it, so an update cannot point the document at other
+     * content or drop it: the references of the stored document replace those of the update.
+     *
+     * @param update The document as sent with the update, whose content references are replaced.
+     * @param stored The document as stored, or null if it is not stored.
+     */
+    void keepStoredContent(StoredContent update, StoredContent stored);
+}
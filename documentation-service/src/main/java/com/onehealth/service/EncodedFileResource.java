@@ -0,0 +1,65 @@
+package com.onehealth.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+
+/**
+ * A Resource for document content that is stored encoded, e.g. gzip-compressed.
+ * Reading it yields the original content, while the stored bytes remain available
+ * through {@link #getEncodedResource()} for clients that accept the content coding.
+ */
+public class EncodedFileResource extends AbstractResource {
+
+    private final Resource encodedResource;
+    private final ContentCodec codec;
+    private final long contentLength;
+
+    /**
+     * Creates a resource decoding the given stored content.
+     *
+     * @param encodedResource The Resource holding the stored, encoded bytes.
+     * @param codec           The codec the content is stored with.
+     * @param contentLength   The length of the original content in bytes.
+     */
+    public EncodedFileResource(Resource encodedResource, ContentCodec codec, long contentLength) {
+        this.encodedResource = encodedResource;
+        this.codec = codec;
+        this.contentLength = contentLength;
+    }
+
+    /**
+     * Returns the Resource holding the stored, encoded bytes.
+     *
+     * @return The encoded Resource.
+     */
+    public Resource getEncodedResource() {
+        return encodedResource;
+    }
+
+    /**
+     * Returns the HTTP content coding of the stored bytes.
+     *
+     * @return The content coding, e.g. "gzip".
+     */
+    public String getContentEncoding() {
+        return codec.getContentEncoding();
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        return codec.decode(encodedResource.getInputStream());
+    }
+
+    @Override
+    public long contentLength() {
+        return contentLength;
+    }
+
+    @Override
+    public String getDescription() {
+        return codec.getContentEncoding() + "-encoded " + encodedResource.getDescription();
+    }
+}
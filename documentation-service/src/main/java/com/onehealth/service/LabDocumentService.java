@@ -1,5 +1,7 @@
 package com.onehealth.service;
 
+import org.springframework.core.io.Resource;
+import org.springframework.data.domain.Slice;
 import org.springframework.web.multipart.MultipartFile;
 
 import com.onehealth.entity.LabDocument;
@@ -25,12 +27,15 @@ public interface LabDocumentService {
     String storeLabDocument(MultipartFile file, long labId) throws IOException;
 
     /**
-     * Retrieves all lab documents in the system.
+     * Retrieves a page of all lab documents in the order of their IDs.
      *
-     * @return A list of lab documents.
+     * @param after The ID of the last LabDocument of the previous page, or null for the first page.
+     * @param size  The maximum number of lab documents in the page, capped at the configured maximum page size.
+     * @return A Slice of lab documents, telling whether more of them follow.
+     * @throws IllegalArgumentException If the ID to continue after is not a valid ID.
      * @throws DatabaseException If there's an error while retrieving lab documents from the repository.
      */
-    List<LabDocument> getAllLabDocuments() throws DatabaseException;
+    Slice<LabDocument> getAllLabDocuments(String after, int size) throws DatabaseException;
 
     /**
      * Retrieves lab documents associated with a specific lab.
@@ -79,7 +84,7 @@ public interface LabDocumentService {
      * Downloads the file content of a LabDocument with the given ID.
      * 
      * @param id The ID of the LabDocument to be downloaded.
-     * @return The byte array representing the file content of the LabDocument.
+     * @return The Resource streaming the content of the LabDocument.
      */
-    byte[] downloadLabDocument(String id);
+    Resource downloadLabDocument(String id);
 }
\ No newline at end of file
@@ -1,11 +1,12 @@
 package com.onehealth.service;
 
+import org.springframework.core.io.Resource;
+import org.springframework.data.domain.Slice;
 import org.springframework.web.multipart.MultipartFile;
 
 import com.onehealth.entity.LabInvoice;
 
 import java.io.IOException;
-import java.util.List;
 import java.util.Optional;
 
 /**
@@ -25,11 +26,14 @@ public interface LabInvoiceService {
     String storeLabInvoice(MultipartFile file, long orderId) throws IOException;
 
     /**
-     * Retrieves a list of all LabInvoices from the database.
-     * 
-     * @return A List of all LabInvoices.
+     * Retrieves a page of all LabInvoices in the order of their IDs.
+     *
+     * @param after The ID of the last LabInvoice of the previous page, or null for the first page.
+     * @param size  The maximum number of LabInvoices in the page, capped at the configured maximum page size.
+     * @return A Slice of LabInvoices, telling whether more of them follow.
+     * @throws IllegalArgumentException If the ID to continue after is not a valid ID.
      */
-    List<LabInvoice> getAllInvoices();
+    Slice<LabInvoice> getAllInvoices(String after, int size);
 
     /**
      * Retrieves a LabInvoice with the given orderId.
@@ -65,7 +69,7 @@ public interface LabInvoiceService {
      * Downloads the file content of a LabInvoice with the given ID.
      * 
      * @param id The ID of the LabInvoice to be downloaded.
-     * @return The byte array representing the file content of the LabInvoice.
+     * @return The Resource streaming the content of the LabInvoice.
      */
-    byte[] downloadLabInvoice(String id);
+    Resource downloadLabInvoice(String id);
 }
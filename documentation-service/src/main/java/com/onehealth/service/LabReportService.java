@@ -1,11 +1,12 @@
 package com.onehealth.service;
 
+import org.springframework.core.io.Resource;
+import org.springframework.data.domain.Slice;
 import org.springframework.web.multipart.MultipartFile;
 
 import com.onehealth.entity.LabReport;
 
 import java.io.IOException;
-import java.util.List;
 import java.util.Optional;
 
 /**
@@ -25,11 +26,14 @@ public interface LabReportService {
     String storeLabReport(MultipartFile file, long orderId) throws IOException;
 
     /**
-     * Retrieves a list of all LabReports from the database.
-     * 
-     * @return A List of all LabReports.
+     * Retrieves a page of all LabReports in the order of their IDs.
+     *
+     * @param after The ID of the last LabReport of the previous page, or null for the first page.
+     * @param size  The maximum number of LabReports in the page, capped at the configured maximum page size.
+     * @return A Slice of LabReports, telling whether more of them follow.
+     * @throws IllegalArgumentException If the ID to continue after is not a valid ID.
      */
-    List<LabReport> getAllReports();
+    Slice<LabReport> getAllReports(String after, int size);
 
     /**
      * Retrieves a LabReport with the given orderId.
@@ -65,7 +69,7 @@ public interface LabReportService {
      * Downloads the file content of a LabReport with the given ID.
      * 
      * @param id The ID of the LabReport to be downloaded.
-     * @return The byte array representing the file content of the LabReport.
+     * @return The Resource streaming the content of the LabReport.
      */
-    byte[] downloadLabReport(String id);
+    Resource downloadLabReport(String id);
 }
@@ -3,6 +3,7 @@ import java.io.IOException;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.core.io.Resource;
 import org.springframework.web.multipart.MultipartFile;
 
 import com.onehealth.entity.MedicinePhoto;
@@ -55,9 +56,9 @@ public interface MedicinePhotoService {
      * Downloads the file data of a specific MedicinePhoto identified by its ID.
      *
      * @param id The ID of the MedicinePhoto for which the file is to be downloaded.
-     * @return The file data as a byte array for successful download, or null if the MedicinePhoto with the given ID is not found.
+     * @return The Resource streaming the file content for successful download, or null if the MedicinePhoto with the given ID is not found.
      */
-    byte[] downloadMedicinePhoto(String id);
+    Resource downloadMedicinePhoto(String id);
     
     /**
      * Retrieves a specific MedicinePhoto object identified by its ID.
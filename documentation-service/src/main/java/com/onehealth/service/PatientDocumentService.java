@@ -1,5 +1,7 @@
 package com.onehealth.service;
 
+import org.springframework.core.io.Resource;
+import org.springframework.data.domain.Slice;
 import org.springframework.web.multipart.MultipartFile;
 
 import com.onehealth.entity.PatientDocument;
@@ -27,12 +29,15 @@ public interface PatientDocumentService {
     String storePatientDocument(MultipartFile file, long patientId,String recordType) throws IOException;
 
     /**
-     * Retrieves all patient documents in the system.
+     * Retrieves a page of all patient documents in the order of their IDs.
      *
-     * @return A list of patient documents.
+     * @param after The ID of the last PatientDocument of the previous page, or null for the first page.
+     * @param size  The maximum number of patient documents in the page, capped at the configured maximum page size.
+     * @return A Slice of patient documents, telling whether more of them follow.
+     * @throws IllegalArgumentException If the ID to continue after is not a valid ID.
      * @throws DatabaseException If there's an error while retrieving patient documents from the repository.
      */
-    List<PatientDocument> getAllPatientDocuments() throws DatabaseException;
+    Slice<PatientDocument> getAllPatientDocuments(String after, int size) throws DatabaseException;
 
     /**
      * Retrieves patient documents associated with a specific patient.
@@ -81,9 +86,9 @@ public interface PatientDocumentService {
      * Downloads the file content of a PatientDocument with the given ID.
      * 
      * @param id The ID of the PatientDocument to be downloaded.
-     * @return The byte array representing the file content of the PatientDocument.
+     * @return The Resource streaming the content of the PatientDocument.
      */
-    byte[] downloadPatientDocument(String id);
+    Resource downloadPatientDocument(String id);
     
     
     /**
@@ -0,0 +1,20 @@
+package com.onehealth.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Service interface for exporting all records of a patient as a single ZIP archive.
+ * The archive is written while the records are read, so it is never held in memory.
+ */
+public interface PatientExportService {
+
+    /**
+     * Writes a ZIP archive holding the patient documents and prescriptions of a patient.
+     *
+     * @param patientId    The ID of the patient.
+     * @param outputStream The stream the archive is written to. It is not closed.
+     * @throws IOException If an I/O error occurs while reading a document or writing the archive.
+     */
+    void writePatientExport(long patientId, OutputStream outputStream) throws IOException;
+}
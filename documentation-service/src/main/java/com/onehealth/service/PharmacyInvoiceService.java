@@ -1,11 +1,12 @@
 package com.onehealth.service;
 
+import org.springframework.core.io.Resource;
+import org.springframework.data.domain.Slice;
 import org.springframework.web.multipart.MultipartFile;
 
 import com.onehealth.entity.PharmacyInvoice;
 
 import java.io.IOException;
-import java.util.List;
 import java.util.Optional;
 
 /**
@@ -25,11 +26,14 @@ public interface PharmacyInvoiceService {
     String storePharmacyInvoice(MultipartFile file, long orderId) throws IOException;
 
     /**
-     * Retrieves a list of all PharmacyInvoices from the database.
-     * 
-     * @return A List of all PharmacyInvoices.
+     * Retrieves a page of all PharmacyInvoices in the order of their IDs.
+     *
+     * @param after The ID of the last PharmacyInvoice of the previous page, or null for the first page.
+     * @param size  The maximum number of PharmacyInvoices in the page, capped at the configured maximum page size.
+     * @return A Slice of PharmacyInvoices, telling whether more of them follow.
+     * @throws IllegalArgumentException If the ID to continue after is not a valid ID.
      */
-    List<PharmacyInvoice> getAllInvoices();
+    Slice<PharmacyInvoice> getAllInvoices(String after, int size);
 
     /**
      * Retrieves a PharmacyInvoice with the given orderId.
@@ -65,7 +69,7 @@ public interface PharmacyInvoiceService {
      * Downloads the file content of a PharmacyInvoice with the given ID.
      * 
      * @param id The ID of the PharmacyInvoice to be downloaded.
-     * @return The byte array representing the file content of the PharmacyInvoice.
+     * @return The Resource streaming the content of the PharmacyInvoice.
      */
-    byte[] downloadPharmacyInvoice(String id);
+    Resource downloadPharmacyInvoice(String id);
 }
@@ -1,5 +1,7 @@
 package com.onehealth.service;
 
+import org.springframework.core.io.Resource;
+import org.springframework.data.domain.Slice;
 import org.springframework.web.multipart.MultipartFile;
 
 import com.onehealth.entity.Prescription;
@@ -26,11 +28,14 @@ public interface PrescriptionService {
     String storePrescription(MultipartFile file, long appointmentId, long patientId) throws IOException;
 
     /**
-     * Retrieves a list of all Prescriptions from the database.
-     * 
-     * @return A List of all Prescriptions.
+     * Retrieves a page of all Prescriptions in the order of their IDs.
+     *
+     * @param after The ID of the last Prescription of the previous page, or null for the first page.
+     * @param size  The maximum number of Prescriptions in the page, capped at the configured maximum page size.
+     * @return A Slice of Prescriptions, telling whether more of them follow.
+     * @throws IllegalArgumentException If the ID to continue after is not a valid ID.
      */
-    List<Prescription> getAllPrescriptions();
+    Slice<Prescription> getAllPrescriptions(String after, int size);
 
     /**
      * Retrieves a Prescription with the given appointmentId.
@@ -74,7 +79,7 @@ public interface PrescriptionService {
      * Downloads the file content of a Prescription with the given ID.
      * 
      * @param id The ID of the Prescription to be downloaded.
-     * @return The byte array representing the file content of the Prescription.
+     * @return The Resource streaming the content of the Prescription.
      */
-    byte[] downloadPrescription(String id);
+    Resource downloadPrescription(String id);
 }
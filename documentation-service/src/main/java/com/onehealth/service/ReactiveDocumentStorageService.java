@@ -0,0 +1,36 @@
+package com.onehealth.service;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.data.mongodb.gridfs.ReactiveGridFsResource;
+
+import com.onehealth.entity.DocumentBlob;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * The ReactiveDocumentStorageService interface provides non-blocking access to the document
+ * content kept in GridFS. It shares the GridFS bucket and the reference-counted DocumentBlobs
+ * with the DocumentStorageService, so content stored through either can be read through both.
+ */
+public interface ReactiveDocumentStorageService {
+
+    /**
+     * Streams content into GridFS, or takes a new reference on the stored content if identical
+     * content was stored before. Only the buffers in flight are held in memory.
+     *
+     * @param content     The content to be stored.
+     * @param filename    The filename to store the content under.
+     * @param contentType The content type of the content.
+     * @return A Mono emitting the DocumentBlob holding the content.
+     */
+    Mono<DocumentBlob> storeContent(Flux<DataBuffer> content, String filename, String contentType);
+
+    /**
+     * Opens a GridFS file for streaming.
+     *
+     * @param fileId The ID of the GridFS file.
+     * @return A Mono emitting the ReactiveGridFsResource, or completing empty if there is no such file.
+     */
+    Mono<ReactiveGridFsResource> getFileResource(String fileId);
+}
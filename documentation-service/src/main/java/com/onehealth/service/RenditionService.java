@@ -0,0 +1,56 @@
+package com.onehealth.service;
+
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.core.io.Resource;
+
+import com.onehealth.entity.Rendition;
+
+/**
+ * The RenditionService interface provides methods to generate, read and release the
+ * downscaled renditions of uploaded photos, so listing pages do not have to download
+ * full-resolution images.
+ */
+public interface RenditionService {
+
+    /**
+     * Schedules the generation of all renditions of a photo on the bounded rendition worker pool.
+     * Once generated, each rendition is stored and recorded in the "renditions" field of the photo.
+     * Content types that are not images are ignored.
+     *
+     * @param photoClass  The entity class of the photo, e.g. MedicinePhoto.
+     * @param photoId     The ID of the photo.
+     * @param fileId      The ID of the GridFS file holding the original image.
+     * @param contentType The content type of the original image.
+     */
+    void generateRenditions(Class<?> photoClass, String photoId, String fileId, String contentType);
+
+    /**
+     * Opens a generated rendition for streaming.
+     *
+     * @param renditions The renditions of a photo, may be null.
+     * @param size       The requested rendition size.
+     * @return The Resource holding the rendition, or null if it has not been generated.
+     */
+    Resource getRendition(Map<String, Rendition> renditions, RenditionSize size);
+
+    /**
+     * Releases the stored content of the renditions of a photo that is deleted.
+     *
+     * @param renditions The renditions of the photo, may be null.
+     */
+    void releaseRenditions(Map<String, Rendition> renditions);
+
+    /**
+     * Removes a photo and returns it, without its inline content, as it was when it was removed,
+     * so that the caller releases its content and renditions. Reading and removing the photo is a
+     * single step: a rendition recorded before is in the returned photo, while one recorded later
+     * finds the photo gone and is released by its generation.
+     *
+     * @param photoClass The entity class of the photo, e.g. MedicinePhoto.
+     * @param photoId    The ID of the photo.
+     * @return The removed photo, or an empty Optional if there was no such photo.
+     */
+    <T> Optional<T> removePhoto(Class<T> photoClass, String photoId);
+}
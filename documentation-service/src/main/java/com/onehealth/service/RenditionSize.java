@@ -0,0 +1,59 @@
+package com.onehealth.service;
+
+/**
+ * The fixed sizes photo renditions are generated in. Each rendition fits into a square
+ * of the given dimension, keeping the aspect ratio of the original image.
+ */
+public enum RenditionSize {
+
+    /**
+     * Tiles on listing pages.
+     */
+    THUMBNAIL("thumbnail", 120),
+
+    /**
+     * Detail views that do not need the full-resolution image.
+     */
+    PREVIEW("preview", 480);
+
+    private final String key;
+    private final int maxDimension;
+
+    RenditionSize(String key, int maxDimension) {
+        this.key = key;
+        this.maxDimension = maxDimension;
+    }
+
+    /**
+     * Returns the key the rendition is stored under and requested by.
+     *
+     * @return The rendition key, e.g. "thumbnail".
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * Returns the maximum width and height of the rendition in pixels.
+     *
+     * @return The maximum dimension of the rendition.
+     */
+    public int getMaxDimension() {
+        return maxDimension;
+    }
+
+    /**
+     * Returns the rendition size with the given key.
+     *
+     * @param key The rendition key, case-insensitive.
+     * @return The matching rendition size, or null if there is none.
+     */
+    public static RenditionSize fromKey(String key) {
+        for (RenditionSize size : values()) {
+            if (size.key.equalsIgnoreCase(key)) {
+                return size;
+            }
+        }
+        return null;
+    }
+}
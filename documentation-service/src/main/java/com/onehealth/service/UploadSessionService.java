@@ -0,0 +1,65 @@
+package com.onehealth.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Optional;
+
+import com.onehealth.dto.UploadSessionStatusDTO;
+import com.onehealth.entity.UploadSession;
+
+/**
+ * Service interface for chunked, resumable uploads of patient documents.
+ * A client initiates an upload session, sends the file as numbered chunks in any order,
+ * queries which chunks have been received after an interruption, and finally commits the
+ * session, which assembles the chunks into a new PatientDocument.
+ */
+public interface UploadSessionService {
+
+    /**
+     * Initiates a new upload session.
+     *
+     * @param patientId  The ID of the patient the document is uploaded for.
+     * @param recordType The record type of the document.
+     * @param filename   The filename of the document.
+     * @param fileType   The file type (MIME type) of the document.
+     * @param totalSize  The size of the document in bytes, or 0 if unknown.
+     * @return The created UploadSession.
+     */
+    UploadSession initiateUploadSession(long patientId, String recordType, String filename, String fileType, long totalSize);
+
+    /**
+     * Stores one chunk of an upload session.
+     *
+     * @param sessionId The ID of the upload session.
+     * @param index     The index of the chunk, starting at 0.
+     * @param content   The content of the chunk.
+     * @return The status of the upload session after storing the chunk, or an empty Optional if the session does not exist.
+     * @throws IOException If there is an error reading or storing the chunk.
+     */
+    Optional<UploadSessionStatusDTO> uploadChunk(String sessionId, int index, InputStream content) throws IOException;
+
+    /**
+     * Retrieves the chunks received so far for an upload session.
+     *
+     * @param sessionId The ID of the upload session.
+     * @return The status of the upload session, or an empty Optional if the session does not exist.
+     */
+    Optional<UploadSessionStatusDTO> getUploadSessionStatus(String sessionId);
+
+    /**
+     * Assembles the chunks of an upload session into a new PatientDocument and closes the session.
+     *
+     * @param sessionId The ID of the upload session.
+     * @return The ID of the stored PatientDocument, or an empty Optional if the session does not exist.
+     * @throws IOException           If there is an error reading the chunks or storing the document.
+     * @throws IllegalStateException If a chunk is missing or the assembled size does not match the announced size.
+     */
+    Optional<String> commitUploadSession(String sessionId) throws IOException;
+
+    /**
+     * Aborts an upload session and deletes the chunks received so far.
+     *
+     * @param sessionId The ID of the upload session.
+     */
+    void abortUploadSession(String sessionId);
+}
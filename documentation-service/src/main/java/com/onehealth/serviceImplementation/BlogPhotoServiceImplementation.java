@@ -2,17 +2,22 @@ package com.onehealth.serviceImplementation;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.Optional;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import com.onehealth.entity.DocumentBlob;
 import com.onehealth.entity.BlogPhoto;
 import com.onehealth.exception.DatabaseException;
 import com.onehealth.repository.BlogPhotoRepository;
 import com.onehealth.service.BlogPhotoService;
+import com.onehealth.service.DocumentStorageService;
+import com.onehealth.service.RenditionService;
 
 /**
  * Service implementation class that handles operations related to BlogPhotos.
@@ -24,6 +29,14 @@ public class BlogPhotoServiceImplementation implements BlogPhotoService {
     @Autowired
     private BlogPhotoRepository blogPhotoRepository;
 
+    // Autowired DocumentStorageService to store the file content in GridFS.
+    @Autowired
+    private DocumentStorageService documentStorageService;
+
+    // Autowired RenditionService to generate the thumbnails and previews of the photos.
+    @Autowired
+    private RenditionService renditionService;
+
     // Logger for logging service actions.
     private static final Logger logger = Logger.getLogger(BlogPhotoServiceImplementation.class.getName());
 
@@ -49,6 +62,10 @@ public class BlogPhotoServiceImplementation implements BlogPhotoService {
      */
     @Override
     public void updateBlogPhoto(BlogPhoto blogPhoto) throws DatabaseException {
+        Optional<BlogPhoto> existing = blogPhotoRepository.findById(blogPhoto.getId());
+        documentStorageService.keepStoredContent(blogPhoto, existing.orElse(null));
+        // Renditions are generated by the service, so they are kept like the content.
+        blogPhoto.setRenditions(existing.map(BlogPhoto::getRenditions).orElse(null));
         blogPhotoRepository.save(blogPhoto);
         logger.log(Level.INFO, "BlogPhoto updated successfully with ID: " + blogPhoto.getId());
     }
@@ -68,9 +85,12 @@ public class BlogPhotoServiceImplementation implements BlogPhotoService {
             blogPhoto.setFilename(file.getOriginalFilename());
             blogPhoto.setFileType(file.getContentType());
             blogPhoto.setFileSize(Long.toString(file.getSize()));
-            blogPhoto.setFile(file.getBytes());
+            DocumentBlob blob = documentStorageService.storeFile(file);
+            blogPhoto.setFileId(blob.getFileId());
+            blogPhoto.setContentHash(blob.getHash());
             blogPhoto.setBlogId(blogId);
             blogPhotoRepository.save(blogPhoto);
+            renditionService.generateRenditions(BlogPhoto.class, blogPhoto.getId(), blob.getFileId(), file.getContentType());
             logger.log(Level.INFO, "BlogPhoto stored successfully with ID: " + blogPhoto.getId());
             return blogPhoto.getId();
         } catch (IOException e) {
@@ -87,7 +107,11 @@ public class BlogPhotoServiceImplementation implements BlogPhotoService {
      */
     @Override
     public void deleteBlogPhoto(String id) throws DatabaseException {
-        blogPhotoRepository.deleteById(id);
+        // The photo is read as it is removed, so that a rendition recorded meanwhile is released too.
+        renditionService.removePhoto(BlogPhoto.class, id).ifPresent(document -> {
+            documentStorageService.releaseFile(document.getContentHash(), document.getFileId());
+            renditionService.releaseRenditions(document.getRenditions());
+        });
         logger.log(Level.INFO, "BlogPhoto deleted successfully with ID: " + id);
     }
     
@@ -100,11 +124,52 @@ public class BlogPhotoServiceImplementation implements BlogPhotoService {
     @Override
     public void deleteBlogPhotosByBlogId(long blogId) throws DatabaseException {
         try {
-        	blogPhotoRepository.deleteByBlogId(blogId);
+        	// Each photo is removed the way a single photo is, so that its renditions are all released.
+        	for (BlogPhoto photo : blogPhotoRepository.findByBlogId(blogId)) {
+        		renditionService.removePhoto(BlogPhoto.class, photo.getId()).ifPresent(document -> {
+        			documentStorageService.releaseFile(document.getContentHash(), document.getFileId());
+        			renditionService.releaseRenditions(document.getRenditions());
+        		});
+        	}
             logger.log(Level.INFO, "Deleted all Patient Documents for patient ID: " + blogId);
         } catch (Exception e) {
             logger.log(Level.SEVERE, "Error occurred while deleting Patient Documents for patient ID: " + blogId, e);
             throw new DatabaseException("Error occurred while deleting Patient Documents");
         }
     }
+
+    /**
+     * Retrieves a specific BlogPhoto identified by its ID, without its file content.
+     *
+     * @param id The ID of the BlogPhoto to retrieve.
+     * @return An Optional containing the BlogPhoto object if found, or an empty Optional if not found.
+     */
+    @Override
+    public Optional<BlogPhoto> getBlogPhotoById(String id) {
+        Optional<BlogPhoto> blogPhotoOptional = blogPhotoRepository.findMetadataById(id);
+        if (blogPhotoOptional.isPresent()) {
+            logger.log(Level.INFO, "BlogPhoto with ID " + id + " found in the database.");
+        } else {
+            logger.log(Level.INFO, "BlogPhoto with ID " + id + " not found in the database.");
+        }
+        return blogPhotoOptional;
+    }
+
+    /**
+     * Downloads the file data of a specific BlogPhoto identified by its ID.
+     *
+     * @param id The ID of the BlogPhoto for which the file is to be downloaded.
+     * @return The Resource streaming the file content, or null if the BlogPhoto with the given ID is not found.
+     */
+    @Override
+    public Resource downloadBlogPhoto(String id) {
+        Optional<BlogPhoto> blogPhotoOptional = blogPhotoRepository.findById(id);
+        if (blogPhotoOptional.isPresent()) {
+            logger.log(Level.INFO, "File for BlogPhoto with ID " + id + " downloaded successfully.");
+            return documentStorageService.getFileResource(blogPhotoOptional.get().getFileId(), blogPhotoOptional.get().getFile());
+        } else {
+            logger.log(Level.INFO, "No BlogPhoto found with ID: " + id);
+            return null;
+        }
+    }
 }
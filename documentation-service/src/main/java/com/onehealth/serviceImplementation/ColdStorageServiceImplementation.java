@@ -0,0 +1,403 @@
+package com.onehealth.serviceImplementation;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.gridfs.GridFsTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.mongodb.client.gridfs.model.GridFSFile;
+import com.mongodb.client.result.UpdateResult;
+import com.onehealth.service.ColdStorageService;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Service implementation class that moves the content of old documents from GridFS into a
+ * directory on the filesystem. Invoices and prescriptions are rarely read once a few weeks have
+ * passed, so their chunks only take the place of hot data in the MongoDB working set.
+ * <p>
+ * The stored bytes are copied to a content-addressed path, {@code <root>/ab/cd/<sha256>}, and
+ * synced to disk before the GridFS file is marked as cold; the files document stays behind as the
+ * stub through which the content is found. Its chunks are only deleted by a later run, once the
+ * grace period has passed, so that downloads which opened the GridFS stream before the file was
+ * marked, resumed ones included, can still read to the end. Content shared through deduplication
+ * with a document that is still hot is moved as well, and served from disk for both. When several
+ * instances of the service run, the root directory has to be a volume they share.
+ */
+@Service
+public class ColdStorageServiceImplementation implements ColdStorageService {
+
+    // Logger for logging service actions.
+    private static final Logger logger = Logger.getLogger(ColdStorageServiceImplementation.class.getName());
+
+    // Metadata keys marking a GridFS file whose content was moved to the cold store.
+    private static final String STORAGE_TIER_KEY = "storageTier";
+    private static final String CONTENT_HASH_KEY = "contentHash";
+    private static final String TIERED_AT_KEY = "tieredAt";
+    // Set on a cold file while its chunks are kept for the grace period, to the time it was marked cold.
+    private static final String COLD_SINCE_KEY = "coldSince";
+    private static final String COLD_TIER = "cold";
+    private static final String HOT_TIER = "hot";
+
+    // Autowired GridFsTemplate to read the files to be moved and find the ones moved already.
+    @Autowired
+    private GridFsTemplate gridFsTemplate;
+
+    // Autowired MongoTemplate to read the tiered collections and turn GridFS files into stubs.
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    // Autowired MeterRegistry to report the size and the hit rate of the tiers.
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Name of the GridFS bucket the document content is stored in.
+    @Value("${spring.data.mongodb.gridfs.bucket:fs}")
+    private String bucket;
+
+    // Whether content is moved to the cold store periodically; content moved already is served either way.
+    @Value("${documentation.tiering.enabled:false}")
+    private boolean enabled;
+
+    // Directory holding the content moved to the cold store.
+    @Value("${documentation.tiering.path:/var/lib/documentation/cold-store}")
+    private String path;
+
+    // Documents uploaded longer ago than this many days have their content moved to the cold store.
+    @Value("${documentation.tiering.age-days:30}")
+    private long ageDays;
+
+    // Collections whose documents have their content moved to the cold store.
+    @Value("${documentation.tiering.collections:lab_invoices,pharmacy_invoices,prescriptions}")
+    private String[] collections;
+
+    // Time the chunks of a file are kept after it was marked cold, for the downloads reading them already.
+    @Value("${documentation.tiering.chunk-grace-ms:86400000}")
+    private long chunkGraceMillis;
+
+    // Number of documents read from a collection at a time while tiering.
+    @Value("${documentation.tiering.batch-size:100}")
+    private int batchSize;
+
+    // Upload date and ID of the last document tiered in each collection since the service started.
+    private final Map<String, Document> positions = new ConcurrentHashMap<>();
+
+    // Sizes of the tiers as of the last tiering run.
+    private final AtomicLong hotBytes = new AtomicLong();
+    private final AtomicLong coldBytes = new AtomicLong();
+    private final AtomicLong hotFiles = new AtomicLong();
+    private final AtomicLong coldFiles = new AtomicLong();
+
+    private Counter hotReads;
+    private Counter coldReads;
+
+    @PostConstruct
+    void init() {
+        checkColdStore();
+        registerMeters();
+    }
+
+    private void registerMeters() {
+        hotReads = Counter.builder("documentation.storage.reads")
+                .description("Reads of stored document content, by the tier serving them")
+                .tag("tier", HOT_TIER)
+                .register(meterRegistry);
+        coldReads = Counter.builder("documentation.storage.reads")
+                .description("Reads of stored document content, by the tier serving them")
+                .tag("tier", COLD_TIER)
+                .register(meterRegistry);
+        Gauge.builder("documentation.storage.hit.ratio", this, service -> service.hotHitRatio())
+                .description("Share of the reads of stored document content served by the hot tier")
+                .register(meterRegistry);
+        registerTierGauges(HOT_TIER, hotBytes, hotFiles);
+        registerTierGauges(COLD_TIER, coldBytes, coldFiles);
+    }
+
+    /**
+     * Fails the startup if tiering is enabled but the cold store is not a writable directory, rather
+     * than failing every tiering run.
+     */
+    private void checkColdStore() {
+        if (enabled && !(Files.isDirectory(Paths.get(path)) && Files.isWritable(Paths.get(path)))) {
+            throw new IllegalStateException("The cold store " + path + " is not a writable directory; create it, set"
+                    + " documentation.tiering.path to one, or disable tiering with documentation.tiering.enabled=false");
+        }
+    }
+
+    /**
+     * Returns the copy of a GridFS file in the cold store, if the file has been moved there.
+     * Every call counts as a read of the file for the hit rates of the tiers.
+     *
+     * @param gridFSFile The GridFS file to be read.
+     * @return The Resource holding the stored bytes on disk, or null if the file is in GridFS.
+     */
+    @Override
+    public Resource getColdResource(GridFSFile gridFSFile) {
+        Document metadata = gridFSFile.getMetadata();
+        if (metadata == null || !COLD_TIER.equals(metadata.getString(STORAGE_TIER_KEY))) {
+            hotReads.increment();
+            return null;
+        }
+        coldReads.increment();
+        return new FileSystemResource(pathFor(metadata.getString(CONTENT_HASH_KEY)));
+    }
+
+    /**
+     * Deletes the copy of a content in the cold store, once its GridFS file has been deleted.
+     * Does nothing if the content was never moved to the cold store.
+     *
+     * @param contentHash The SHA-256 hash of the content.
+     */
+    @Override
+    public void deleteColdResource(String contentHash) {
+        try {
+            if (Files.deleteIfExists(pathFor(contentHash))) {
+                logger.log(Level.INFO, "Deleted content " + contentHash + " from the cold store");
+            }
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Error occurred while deleting content " + contentHash + " from the cold store: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Moves the content of the documents uploaded longer ago than the configured age into the
+     * cold store, for the collections configured to be tiered. Each collection is read in the
+     * order of the upload dates, continuing after the last document tiered since the service
+     * started, so a run only reads the documents that became old since the previous run. The
+     * chunks of the files marked cold longer ago than the grace period are deleted first.
+     *
+     * @return The number of GridFS files moved to the cold store.
+     */
+    @Override
+    public int tierColdContent() {
+        int purged = deleteRetainedChunks();
+        if (purged > 0) {
+            logger.log(Level.INFO, "Deleted the chunks of " + purged + " files moved to the cold store before the grace period");
+        }
+        Date cutoff = new Date(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(ageDays));
+        int moved = 0;
+        for (String collection : collections) {
+            moved += tierCollection(collection.trim(), cutoff);
+        }
+        refreshTierSizes();
+        logger.log(Level.INFO, "Moved " + moved + " files to the cold store. The hot tier holds " + hotBytes.get()
+                + " bytes in " + hotFiles.get() + " files, the cold tier " + coldBytes.get() + " bytes in "
+                + coldFiles.get() + " files; " + String.format("%.1f", hotHitRatio() * 100) + "% of reads hit the hot tier");
+        return moved;
+    }
+
+    /**
+     * Periodically moves the content of old documents to the cold store, if tiering is enabled.
+     */
+    @Scheduled(initialDelayString = "${documentation.tiering.interval-ms:3600000}",
+            fixedDelayString = "${documentation.tiering.interval-ms:3600000}")
+    public void tierColdContentPeriodically() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            tierColdContent();
+        } catch (Exception e) {
+            logger.log(Level.WARNING, "Error occurred while moving content to the cold store: " + e.getMessage());
+        }
+    }
+
+    private int tierCollection(String collection, Date cutoff) {
+        int moved = 0;
+        while (true) {
+            Query query = Query.query(Criteria.where("uploadDate").lt(cutoff).and("contentHash").ne(null));
+            Document position = positions.get(collection);
+            if (position != null) {
+                query.addCriteria(new Criteria().orOperator(
+                        Criteria.where("uploadDate").gt(position.getDate("uploadDate")),
+                        Criteria.where("uploadDate").is(position.getDate("uploadDate")).and("_id").gt(position.get("_id"))));
+            }
+            query.with(Sort.by("uploadDate", "_id")).limit(batchSize);
+            query.fields().include("uploadDate", "fileId", "contentHash");
+            List<Document> documents = mongoTemplate.find(query, Document.class, collection);
+            if (documents.isEmpty()) {
+                return moved;
+            }
+
+            Map<ObjectId, String> contentHashes = new HashMap<>();
+            for (Document document : documents) {
+                String fileId = document.getString("fileId");
+                if (fileId != null && ObjectId.isValid(fileId)) {
+                    contentHashes.put(new ObjectId(fileId), document.getString("contentHash"));
+                }
+            }
+            // Only the files that are still in GridFS are moved.
+            List<GridFSFile> gridFSFiles = new ArrayList<>();
+            gridFsTemplate.find(Query.query(Criteria.where("_id").in(contentHashes.keySet())
+                    .and("metadata." + STORAGE_TIER_KEY).ne(COLD_TIER))).into(gridFSFiles);
+            for (GridFSFile gridFSFile : gridFSFiles) {
+                if (moveToColdStore(gridFSFile, contentHashes.get(gridFSFile.getObjectId()))) {
+                    moved++;
+                }
+            }
+
+            positions.put(collection, documents.get(documents.size() - 1));
+            if (documents.size() < batchSize) {
+                return moved;
+            }
+        }
+    }
+
+    /**
+     * Copies the stored bytes of a GridFS file to the cold store, then marks the file as cold.
+     * Readers find the copy as soon as the file is marked, but a download may have opened the
+     * GridFS stream just before, so the chunks are kept until the grace period has passed, see
+     * deleteRetainedChunks.
+     *
+     * @return Whether the file was moved.
+     */
+    private boolean moveToColdStore(GridFSFile gridFSFile, String contentHash) {
+        ObjectId fileId = gridFSFile.getObjectId();
+        Path target = pathFor(contentHash);
+        try {
+            Files.createDirectories(target.getParent());
+            Path temporary = Files.createTempFile(target.getParent(), contentHash, ".tmp");
+            try {
+                try (InputStream content = gridFsTemplate.getResource(gridFSFile).getInputStream()) {
+                    Files.copy(content, temporary, StandardCopyOption.REPLACE_EXISTING);
+                }
+                try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                    channel.force(true);
+                }
+                if (Files.size(temporary) != gridFSFile.getLength()) {
+                    throw new IOException("Copied " + Files.size(temporary) + " of " + gridFSFile.getLength() + " bytes");
+                }
+                Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(temporary);
+            }
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Error occurred while copying GridFS file " + fileId + " to the cold store: " + e.getMessage());
+            return false;
+        }
+
+        UpdateResult result = mongoTemplate.updateFirst(
+                Query.query(Criteria.where("_id").is(fileId).and("metadata." + STORAGE_TIER_KEY).ne(COLD_TIER)),
+                new Update().set("metadata." + STORAGE_TIER_KEY, COLD_TIER)
+                        .set("metadata." + CONTENT_HASH_KEY, contentHash)
+                        .set("metadata." + TIERED_AT_KEY, new Date())
+                        .set("metadata." + COLD_SINCE_KEY, new Date()),
+                bucket + ".files");
+        if (result.getModifiedCount() == 0) {
+            // The file was either deleted while it was copied, or moved by another instance sharing the store.
+            if (gridFsTemplate.findOne(Query.query(Criteria.where("_id").is(fileId))) == null) {
+                deleteColdResource(contentHash);
+            }
+            return false;
+        }
+        logger.log(Level.INFO, "Moved GridFS file " + fileId + " of " + gridFSFile.getLength() + " bytes to the cold store");
+        return true;
+    }
+
+    /**
+     * Deletes the chunks of the files marked cold longer ago than the grace period. Downloads started
+     * since a file was marked read the copy in the cold store, so by then nobody reads the chunks.
+     *
+     * @return The number of files whose chunks were deleted.
+     */
+    private int deleteRetainedChunks() {
+        Date graceStart = new Date(System.currentTimeMillis() - chunkGraceMillis);
+        int purged = 0;
+        while (true) {
+            Query query = Query.query(Criteria.where("metadata." + COLD_SINCE_KEY).lt(graceStart)).limit(batchSize);
+            query.fields().include("_id");
+            List<Document> files = mongoTemplate.find(query, Document.class, bucket + ".files");
+            for (Document file : files) {
+                Object fileId = file.get("_id");
+                mongoTemplate.remove(Query.query(Criteria.where("files_id").is(fileId)), bucket + ".chunks");
+                mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(fileId)),
+                        new Update().unset("metadata." + COLD_SINCE_KEY), bucket + ".files");
+                purged++;
+            }
+            if (files.size() < batchSize) {
+                return purged;
+            }
+        }
+    }
+
+    /**
+     * Recomputes the number of files and bytes held by each tier.
+     */
+    private void refreshTierSizes() {
+        long[] hot = {0, 0};
+        long[] cold = {0, 0};
+        Aggregation aggregation = Aggregation.newAggregation(Aggregation.group("metadata." + STORAGE_TIER_KEY)
+                .sum("length").as("bytes")
+                .count().as("files"));
+        for (Document tier : mongoTemplate.aggregate(aggregation, bucket + ".files", Document.class)) {
+            long[] sizes = COLD_TIER.equals(tier.get("_id")) ? cold : hot;
+            sizes[0] += ((Number) tier.get("bytes")).longValue();
+            sizes[1] += ((Number) tier.get("files")).longValue();
+        }
+        hotBytes.set(hot[0]);
+        hotFiles.set(hot[1]);
+        coldBytes.set(cold[0]);
+        coldFiles.set(cold[1]);
+    }
+
+    private double hotHitRatio() {
+        double reads = hotReads.count() + coldReads.count();
+        return reads > 0 ? hotReads.count() / reads : 1;
+    }
+
+    private void registerTierGauges(String tier, AtomicLong bytes, AtomicLong files) {
+        Gauge.builder("documentation.storage.tier.size", bytes, AtomicLong::get)
+                .description("Bytes of stored document content held by the tier, as of the last tiering run")
+                .baseUnit("bytes")
+                .tag("tier", tier)
+                .register(meterRegistry);
+        Gauge.builder("documentation.storage.tier.files", files, AtomicLong::get)
+                .description("GridFS files whose content is held by the tier, as of the last tiering run")
+                .tag("tier", tier)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the path of a content in the cold store. The first two pairs of hex digits of the
+     * hash name two levels of directories, which keeps the directories small.
+     */
+    private Path pathFor(String contentHash) {
+        if (contentHash == null || !contentHash.matches("[0-9a-f]{64}")) {
+            throw new IllegalArgumentException("Invalid content hash: " + contentHash);
+        }
+        return Paths.get(path, contentHash.substring(0, 2), contentHash.substring(2, 4), contentHash);
+    }
+}
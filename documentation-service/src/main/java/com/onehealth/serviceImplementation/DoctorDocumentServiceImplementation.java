@@ -1,12 +1,15 @@
 package com.onehealth.serviceImplementation;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import com.onehealth.entity.DocumentBlob;
 import com.onehealth.entity.DoctorDocument;
 import com.onehealth.repository.DoctorDocumentRepository;
 import com.onehealth.service.DoctorDocumentService;
+import com.onehealth.service.DocumentStorageService;
 
 import java.io.IOException;
 import java.util.List;
@@ -27,6 +30,10 @@ public class DoctorDocumentServiceImplementation implements DoctorDocumentServic
     @Autowired
     private DoctorDocumentRepository doctorDocumentRepository;
 
+    // Autowired DocumentStorageService to store the file content in GridFS.
+    @Autowired
+    private DocumentStorageService documentStorageService;
+
     /**
      * Stores a new DoctorDocument in the repository.
      *
@@ -42,7 +49,9 @@ public class DoctorDocumentServiceImplementation implements DoctorDocumentServic
             doctorDocument.setFilename(file.getOriginalFilename());
             doctorDocument.setFileType(file.getContentType());
             doctorDocument.setFileSize(Long.toString(file.getSize()));
-            doctorDocument.setFile(file.getBytes());
+            DocumentBlob blob = documentStorageService.storeFile(file);
+            doctorDocument.setFileId(blob.getFileId());
+            doctorDocument.setContentHash(blob.getHash());
             doctorDocument.setDoctorId(doctorId);
             doctorDocumentRepository.save(doctorDocument);
             logger.log(Level.INFO, "DoctorDocument stored successfully with ID: " + doctorDocument.getId());
@@ -82,7 +91,7 @@ public class DoctorDocumentServiceImplementation implements DoctorDocumentServic
     public Optional<DoctorDocument> getDoctorDocumentById(String id) {
         try {
             logger.log(Level.INFO, "Retrieving DoctorDocument with ID: " + id);
-            Optional<DoctorDocument> doctorDocumentOptional = doctorDocumentRepository.findById(id);
+            Optional<DoctorDocument> doctorDocumentOptional = doctorDocumentRepository.findMetadataById(id);
             if (doctorDocumentOptional.isPresent()) {
                 logger.log(Level.INFO, "Retrieved DoctorDocument with ID: " + id);
             } else {
@@ -104,6 +113,8 @@ public class DoctorDocumentServiceImplementation implements DoctorDocumentServic
     public void updateDoctorDocument(DoctorDocument updatedDoctorDocument) {
         try {
             logger.log(Level.INFO, "Updating DoctorDocument with ID: " + updatedDoctorDocument.getId());
+            Optional<DoctorDocument> existing = doctorDocumentRepository.findById(updatedDoctorDocument.getId());
+            documentStorageService.keepStoredContent(updatedDoctorDocument, existing.orElse(null));
             doctorDocumentRepository.save(updatedDoctorDocument);
             logger.log(Level.INFO, "DoctorDocument updated successfully with ID: " + updatedDoctorDocument.getId());
         } catch (Exception e) {
@@ -121,6 +132,7 @@ public class DoctorDocumentServiceImplementation implements DoctorDocumentServic
     public void deleteDoctorDocumentById(String id) {
         try {
             logger.log(Level.INFO, "Deleting DoctorDocument with ID: " + id);
+            doctorDocumentRepository.findMetadataById(id).ifPresent(document -> documentStorageService.releaseFile(document.getContentHash(), document.getFileId()));
             doctorDocumentRepository.deleteById(id);
             logger.log(Level.INFO, "DoctorDocument deleted successfully with ID: " + id);
         } catch (Exception e) {
@@ -133,16 +145,16 @@ public class DoctorDocumentServiceImplementation implements DoctorDocumentServic
      * Downloads the content of a DoctorDocument with the given ID from the repository.
      *
      * @param id The ID of the DoctorDocument to download.
-     * @return The byte array representing the content of the DoctorDocument, or null if not found.
+     * @return The Resource streaming the content of the DoctorDocument, or null if not found.
      */
     @Override
-    public byte[] downloadDoctorDocument(String id) {
+    public Resource downloadDoctorDocument(String id) {
         try {
             logger.log(Level.INFO, "Downloading DoctorDocument with ID: " + id);
             Optional<DoctorDocument> doctorDocumentOptional = doctorDocumentRepository.findById(id);
             if (doctorDocumentOptional.isPresent()) {
                 logger.log(Level.INFO, "Retrieved DoctorDocument with ID: " + id);
-                return doctorDocumentOptional.get().getFile();
+                return documentStorageService.getFileResource(doctorDocumentOptional.get().getFileId(), doctorDocumentOptional.get().getFile());
             }
             logger.log(Level.INFO, "No DoctorDocument found with ID: " + id);
             return null;
@@ -0,0 +1,496 @@
+package com.onehealth.serviceImplementation;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.core.io.Resource;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.gridfs.GridFsTemplate;
+import org.springframework.data.mongodb.gridfs.GridFsUpload;
+import org.springframework.stereotype.Service;
+import org.springframework.util.InvalidMimeTypeException;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.mongodb.MongoException;
+import com.mongodb.MongoGridFSException;
+import com.mongodb.client.gridfs.GridFSBucket;
+import com.mongodb.client.gridfs.GridFSBuckets;
+import com.mongodb.client.gridfs.GridFSUploadStream;
+import com.mongodb.client.gridfs.model.GridFSFile;
+import com.mongodb.client.gridfs.model.GridFSUploadOptions;
+import com.mongodb.client.result.DeleteResult;
+import com.onehealth.entity.DocumentBlob;
+import com.onehealth.entity.StoredContent;
+import com.onehealth.service.ColdStorageService;
+import com.onehealth.service.ContentCodec;
+import com.onehealth.service.DocumentStorageService;
+import com.onehealth.service.EncodedFileResource;
+
+/**
+ * Service implementation class that keeps document content in GridFS.
+ * Uploads are streamed from the multipart input stream, so at most one chunk
+ * of the file is held in memory at any time. Contents are addressed by their
+ * SHA-256 hash: an upload whose content is already stored only increments the
+ * reference count of the existing DocumentBlob and writes nothing to GridFS.
+ * New content is compressed with gzip unless its content type is compressed already.
+ */
+@Service
+public class DocumentStorageServiceImplementation implements DocumentStorageService {
+
+    // Logger for logging service actions.
+    private static final Logger logger = Logger.getLogger(DocumentStorageServiceImplementation.class.getName());
+
+    // Metadata keys describing how a document content is stored in GridFS.
+    private static final String CONTENT_TYPE_KEY = "_contentType";
+    private static final String CONTENT_ENCODING_KEY = "contentEncoding";
+    private static final String ORIGINAL_LENGTH_KEY = "originalLength";
+
+    // Metadata keys identifying the chunks of a chunked upload in GridFS.
+    private static final String UPLOAD_SESSION_KEY = "uploadSessionId";
+    private static final String CHUNK_INDEX_KEY = "chunkIndex";
+
+    // Autowired GridFsTemplate to interact with the GridFS bucket.
+    @Autowired
+    private GridFsTemplate gridFsTemplate;
+
+    // Autowired MongoTemplate to update the reference counts of the blobs atomically.
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    // Autowired MongoDatabaseFactory to stream encoded content into the GridFS bucket.
+    @Autowired
+    private MongoDatabaseFactory mongoDatabaseFactory;
+
+    // Autowired ColdStorageService to serve and delete the content moved out of GridFS.
+    @Autowired
+    private ColdStorageService coldStorageService;
+
+    // Name of the GridFS bucket the document content is stored in.
+    @Value("${spring.data.mongodb.gridfs.bucket:fs}")
+    private String bucket;
+
+    // Whether document content is compressed before it is stored.
+    @Value("${documentation.storage.compression.enabled:true}")
+    private boolean compressionEnabled;
+
+    // Content types that are compressed already and are stored as they are.
+    @Value("${documentation.storage.compression.excluded-types:image/jpeg,image/png,image/gif,image/webp,video/*,audio/*,application/zip,application/gzip}")
+    private String[] compressionExcludedTypes;
+
+    // Size of the GridFS chunks, which also bounds the memory used per upload.
+    @Value("${documentation.storage.gridfs.chunk-size:261120}")
+    private int chunkSize;
+
+    /**
+     * Stores the content of an uploaded file, or takes a new reference on the stored content
+     * if an identical file was uploaded before. The file is hashed in a first pass, so a
+     * duplicate upload is short-circuited before anything is written to GridFS.
+     *
+     * @param file The MultipartFile whose content is to be stored.
+     * @return The DocumentBlob holding the content, with its hash and GridFS file ID.
+     * @throws IOException If an I/O error occurs while reading the uploaded file.
+     */
+    @Override
+    public DocumentBlob storeFile(MultipartFile file) throws IOException {
+        return store(file, file.getOriginalFilename(), file.getContentType(), file.getSize());
+    }
+
+    /**
+     * Stores content generated by the service itself, such as photo renditions, or takes a new
+     * reference on the stored content if identical content was stored before.
+     *
+     * @param content     The content to be stored.
+     * @param filename    The filename to store the content under.
+     * @param contentType The content type of the content.
+     * @return The DocumentBlob holding the content, with its hash and GridFS file ID.
+     * @throws IOException If an I/O error occurs while storing the content.
+     */
+    @Override
+    public DocumentBlob storeContent(byte[] content, String filename, String contentType) throws IOException {
+        return store(new ByteArrayResource(content), filename, contentType, content.length);
+    }
+
+    /**
+     * Stores one chunk of a chunked upload. A chunk that is sent again replaces the
+     * previously stored chunk with the same index.
+     *
+     * @param sessionId The ID of the upload session.
+     * @param index     The index of the chunk within the upload, starting at 0.
+     * @param content   The content of the chunk.
+     * @throws IOException If an I/O error occurs while reading the chunk.
+     */
+    @Override
+    public void storeUploadChunk(String sessionId, int index, InputStream content) throws IOException {
+        GridFsUpload<ObjectId> upload = GridFsUpload.fromStream(content)
+                .filename(sessionId + "." + index)
+                .metadata(new Document(UPLOAD_SESSION_KEY, sessionId).append(CHUNK_INDEX_KEY, index))
+                .chunkSize(chunkSize)
+                .build();
+        ObjectId chunkId = gridFsTemplate.store(upload);
+        // Drop any earlier copy of this chunk, e.g. from a retried request.
+        gridFsTemplate.delete(uploadChunks(sessionId)
+                .addCriteria(Criteria.where("metadata." + CHUNK_INDEX_KEY).is(index))
+                .addCriteria(Criteria.where("_id").ne(chunkId)));
+        logger.log(Level.INFO, "Stored chunk " + index + " of upload session " + sessionId);
+    }
+
+    /**
+     * Returns the chunks stored so far for a chunked upload.
+     *
+     * @param sessionId The ID of the upload session.
+     * @return The lengths of the stored chunks, keyed by chunk index.
+     */
+    @Override
+    public SortedMap<Integer, Long> getUploadChunks(String sessionId) {
+        SortedMap<Integer, Long> chunks = new TreeMap<>();
+        for (GridFSFile chunk : gridFsTemplate.find(uploadChunks(sessionId))) {
+            chunks.put(chunk.getMetadata().getInteger(CHUNK_INDEX_KEY), chunk.getLength());
+        }
+        return chunks;
+    }
+
+    /**
+     * Assembles the chunks of a chunked upload into stored content. The chunks are read back
+     * one after another, so the assembled file is never held in memory.
+     *
+     * @param sessionId   The ID of the upload session.
+     * @param filename    The filename of the uploaded document.
+     * @param contentType The content type of the uploaded document.
+     * @return The DocumentBlob holding the assembled content.
+     * @throws IOException           If an I/O error occurs while reading the chunks.
+     * @throws IllegalStateException If no chunks were uploaded or a chunk is missing.
+     */
+    @Override
+    public DocumentBlob storeUploadChunks(String sessionId, String filename, String contentType) throws IOException {
+        List<GridFSFile> chunks = new ArrayList<>();
+        gridFsTemplate.find(uploadChunks(sessionId).with(Sort.by("metadata." + CHUNK_INDEX_KEY))).into(chunks);
+        if (chunks.isEmpty()) {
+            throw new IllegalStateException("No chunks were uploaded for upload session " + sessionId);
+        }
+        long size = 0;
+        for (int index = 0; index < chunks.size(); index++) {
+            if (chunks.get(index).getMetadata().getInteger(CHUNK_INDEX_KEY) != index) {
+                throw new IllegalStateException("Chunk " + index + " of upload session " + sessionId + " is missing");
+            }
+            size += chunks.get(index).getLength();
+        }
+        InputStreamSource assembled = () -> new SequenceInputStream(new Enumeration<InputStream>() {
+            private final Iterator<GridFSFile> remaining = chunks.iterator();
+
+            @Override
+            public boolean hasMoreElements() {
+                return remaining.hasNext();
+            }
+
+            @Override
+            public InputStream nextElement() {
+                try {
+                    return gridFsTemplate.getResource(remaining.next()).getInputStream();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        });
+        return store(assembled, filename, contentType, size);
+    }
+
+    /**
+     * Deletes all chunks stored for a chunked upload.
+     *
+     * @param sessionId The ID of the upload session.
+     */
+    @Override
+    public void deleteUploadChunks(String sessionId) {
+        gridFsTemplate.delete(uploadChunks(sessionId));
+        logger.log(Level.INFO, "Deleted chunks of upload session " + sessionId);
+    }
+
+    /**
+     * Opens the content of a document for streaming. Documents stored before GridFS was used keep
+     * their content inline, so the inline content is served when no GridFS file is referenced.
+     * The GridFS chunks are only read once the returned Resource is consumed. Content moved to
+     * the cold store is returned as a file Resource. Compressed content is returned as an
+     * EncodedFileResource, which decodes it while it is read.
+     *
+     * @param fileId        The ID of the GridFS file, or null for inline documents.
+     * @param inlineContent The inline content of the document.
+     * @return The Resource holding the file content, or null if there is no content to serve.
+     */
+    @Override
+    public Resource getFileResource(String fileId, byte[] inlineContent) {
+        if (fileId == null) {
+            return inlineContent != null ? new ByteArrayResource(inlineContent) : null;
+        }
+        GridFSFile gridFSFile = gridFsTemplate.findOne(byId(fileId));
+        if (gridFSFile == null) {
+            logger.log(Level.INFO, "No GridFS file found with ID: " + fileId);
+            return null;
+        }
+        Resource resource = coldStorageService.getColdResource(gridFSFile);
+        if (resource == null) {
+            resource = gridFsTemplate.getResource(gridFSFile);
+        }
+        Document metadata = gridFSFile.getMetadata();
+        ContentCodec codec = ContentCodec.forContentEncoding(metadata != null ? metadata.getString(CONTENT_ENCODING_KEY) : null);
+        if (codec == ContentCodec.IDENTITY) {
+            return resource;
+        }
+        return new EncodedFileResource(resource, codec, ((Number) metadata.get(ORIGINAL_LENGTH_KEY)).longValue());
+    }
+
+    /**
+     * Releases the reference a document holds on its stored content. The GridFS file is
+     * deleted once no document references it anymore. Does nothing if both arguments are null.
+     *
+     * @param contentHash The SHA-256 hash of the content, or null for documents stored before deduplication.
+     * @param fileId      The ID of the GridFS file holding the content.
+     */
+    @Override
+    public void releaseFile(String contentHash, String fileId) {
+        if (contentHash == null) {
+            // Content stored before deduplication is never shared.
+            if (fileId != null) {
+                gridFsTemplate.delete(byId(fileId));
+                logger.log(Level.INFO, "Deleted GridFS file with ID: " + fileId);
+            }
+            return;
+        }
+        DocumentBlob blob = mongoTemplate.findAndModify(blobByHash(contentHash), new Update().inc("refCount", -1),
+                FindAndModifyOptions.options().returnNew(true), DocumentBlob.class);
+        if (blob == null) {
+            logger.log(Level.INFO, "No stored content found with hash: " + contentHash);
+            return;
+        }
+        if (blob.getRefCount() <= 0) {
+            // Only remove the blob if no upload took a new reference in the meantime.
+            DeleteResult result = mongoTemplate.remove(
+                    blobByHash(contentHash).addCriteria(Criteria.where("refCount").lte(0)), DocumentBlob.class);
+            if (result.getDeletedCount() > 0) {
+                gridFsTemplate.delete(byId(blob.getFileId()));
+                coldStorageService.deleteColdResource(contentHash);
+                logger.log(Level.INFO, "Deleted GridFS file with ID: " + blob.getFileId());
+            }
+        }
+    }
+
+    /**
+     * Keeps the stored content of a document that is updated, see DocumentStorageService.
+     *
+     * @param update The document as sent with the update, whose content references are replaced.
+     * @param stored The document as stored, or null if it is not stored.
+     */
+    @Override
+    public void keepStoredContent(StoredContent update, StoredContent stored) {
+        update.setFileId(stored != null ? stored.getFileId() : null);
+        update.setFile(stored != null ? stored.getFile() : null);
+        update.setContentHash(stored != null ? stored.getContentHash() : null);
+    }
+
+    /**
+     * Stores the given content, or takes a new reference on it if it is stored already. The
+     * content is hashed in a first pass, so a duplicate is short-circuited before anything is
+     * written to GridFS; the source must therefore be readable twice.
+     */
+    private DocumentBlob store(InputStreamSource source, String filename, String contentType, long size)
+            throws IOException {
+        try {
+            String hash = sha256(source);
+            while (true) {
+                DocumentBlob blob = acquire(hash);
+                if (blob != null) {
+                    logger.log(Level.INFO, "Reusing stored content " + hash + " for file " + filename);
+                    return blob;
+                }
+                blob = new DocumentBlob(hash, null, size, 1);
+                upload(source, filename, contentType, blob);
+                try {
+                    mongoTemplate.insert(blob);
+                    logger.log(Level.INFO, "Stored file " + filename + " in GridFS with ID: " + blob.getFileId()
+                            + " using " + blob.getContentEncoding() + ", compression ratio " + blob.getCompressionRatio());
+                    return blob;
+                } catch (DuplicateKeyException e) {
+                    // The same content was stored concurrently; drop this copy and reference that one.
+                    gridFsTemplate.delete(byId(blob.getFileId()));
+                }
+            }
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Error occurred while storing file in GridFS: " + e.getMessage());
+            throw e;
+        }
+    }
+
+    /**
+     * Atomically takes a new reference on the blob with the given hash.
+     *
+     * @return The referenced blob, or null if the content is not stored yet.
+     */
+    private DocumentBlob acquire(String hash) {
+        return mongoTemplate.findAndModify(blobByHash(hash), new Update().inc("refCount", 1),
+                FindAndModifyOptions.options().returnNew(true), DocumentBlob.class);
+    }
+
+    /**
+     * Streams the content through the codec chosen for its content type into a new GridFS file,
+     * and records the file ID, codec, stored length, compression ratio and codec time on the blob.
+     */
+    private void upload(InputStreamSource source, String filename, String contentType, DocumentBlob blob)
+            throws IOException {
+        ContentCodec codec = codecFor(contentType);
+        GridFSUploadOptions options = new GridFSUploadOptions()
+                .chunkSizeBytes(chunkSize)
+                .metadata(new Document(CONTENT_TYPE_KEY, contentType)
+                        .append(CONTENT_ENCODING_KEY, codec.getContentEncoding())
+                        .append(ORIGINAL_LENGTH_KEY, blob.getLength()));
+        GridFSBucket gridFsBucket = GridFSBuckets.create(mongoDatabaseFactory.getMongoDatabase(), bucket);
+        GridFSUploadStream uploadStream = gridFsBucket.openUploadStream(filename, options);
+        MeteredOutputStream stored = new MeteredOutputStream(uploadStream);
+        MeteredOutputStream encoded;
+        try (InputStream content = source.getInputStream()) {
+            encoded = new MeteredOutputStream(codec.encode(stored));
+            content.transferTo(encoded);
+            // Closing writes what the codec still buffers, and only then completes the GridFS file.
+            encoded.close();
+        } catch (IOException | RuntimeException e) {
+            discard(gridFsBucket, uploadStream);
+            throw e;
+        }
+
+        blob.setFileId(uploadStream.getObjectId().toHexString());
+        blob.setContentEncoding(codec.getContentEncoding());
+        blob.setStoredLength(stored.bytes);
+        blob.setCompressionRatio(stored.bytes > 0 ? (double) blob.getLength() / stored.bytes : 1);
+        // Time spent in the codec itself, excluding the writes to GridFS it triggered.
+        blob.setCodecTimeMillis(TimeUnit.NANOSECONDS.toMillis(encoded.nanos - stored.nanos));
+    }
+
+    /**
+     * Removes the chunks written by a failed upload. An upload that failed while it was being closed
+     * can no longer be aborted, so its chunks, and its file if it was written, are deleted by ID.
+     */
+    private void discard(GridFSBucket gridFsBucket, GridFSUploadStream uploadStream) {
+        try {
+            uploadStream.abort();
+        } catch (MongoGridFSException closed) {
+            try {
+                gridFsBucket.delete(uploadStream.getObjectId());
+            } catch (MongoException e) {
+                // Deleting an upload whose file was not written yet reports it as missing, after removing the chunks.
+                logger.log(Level.FINE, "Discarded failed upload " + uploadStream.getObjectId() + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Picks the codec for a content type. Formats that are compressed already, such as
+     * JPEG or PNG images, are stored as they are.
+     */
+    private ContentCodec codecFor(String contentType) {
+        if (!compressionEnabled || contentType == null) {
+            return ContentCodec.IDENTITY;
+        }
+        try {
+            MimeType mimeType = MimeTypeUtils.parseMimeType(contentType);
+            for (String excludedType : compressionExcludedTypes) {
+                if (MimeTypeUtils.parseMimeType(excludedType.trim()).includes(mimeType)) {
+                    return ContentCodec.IDENTITY;
+                }
+            }
+        } catch (InvalidMimeTypeException e) {
+            logger.log(Level.INFO, "Compressing content with unparsable content type: " + contentType);
+        }
+        return ContentCodec.GZIP;
+    }
+
+    private String sha256(InputStreamSource source) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported by this JVM", e);
+        }
+        try (InputStream content = new DigestInputStream(source.getInputStream(), digest)) {
+            content.transferTo(OutputStream.nullOutputStream());
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Counts the bytes written through a stream and the time spent writing them.
+     */
+    private static final class MeteredOutputStream extends FilterOutputStream {
+
+        private long bytes;
+        private long nanos;
+
+        MeteredOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            long start = System.nanoTime();
+            out.write(b);
+            nanos += System.nanoTime() - start;
+            bytes++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            long start = System.nanoTime();
+            out.write(b, off, len);
+            nanos += System.nanoTime() - start;
+            bytes += len;
+        }
+
+        @Override
+        public void close() throws IOException {
+            long start = System.nanoTime();
+            out.close();
+            nanos += System.nanoTime() - start;
+        }
+    }
+
+    private Query uploadChunks(String sessionId) {
+        return Query.query(Criteria.where("metadata." + UPLOAD_SESSION_KEY).is(sessionId));
+    }
+
+    private Query blobByHash(String hash) {
+        return Query.query(Criteria.where("_id").is(hash));
+    }
+
+    private Query byId(String fileId) {
+        return Query.query(Criteria.where("_id").is(new ObjectId(fileId)));
+    }
+}
@@ -0,0 +1,46 @@
+package com.onehealth.serviceImplementation;
+
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Reads the collection-wide listings one page at a time, in the order of the document IDs.
+ * A page continues after the last ID of the previous page instead of skipping the documents
+ * before it, so every page is read from the _id index in the same time, however far into the
+ * collection it lies and however large the collection grows.
+ */
+final class KeysetPages {
+
+    private KeysetPages() {
+    }
+
+    /**
+     * Reads a page of a listing.
+     *
+     * @param after       The ID of the last document of the previous page, or null for the first page.
+     * @param size        The requested page size, capped at maxPageSize.
+     * @param maxPageSize The largest page the server returns.
+     * @param first       Reads the first page of the listing.
+     * @param next        Reads the page following the given ID.
+     * @return The page, which knows whether further documents follow it.
+     * @throws IllegalArgumentException If the ID to continue after is not a valid document ID.
+     */
+    static <T> Slice<T> page(String after, int size, int maxPageSize, Function<Pageable, Slice<T>> first,
+            BiFunction<ObjectId, Pageable, Slice<T>> next) {
+        Pageable pageable = PageRequest.of(0, Math.max(1, Math.min(size, maxPageSize)), Sort.by(Sort.Direction.ASC, "id"));
+        if (after == null || after.isEmpty()) {
+            return first.apply(pageable);
+        }
+        // Range queries on the ID are not converted from String like equality queries are, so the ObjectId is passed as such.
+        if (!ObjectId.isValid(after)) {
+            throw new IllegalArgumentException("Invalid page token: " + after);
+        }
+        return next.apply(new ObjectId(after), pageable);
+    }
+}
@@ -1,13 +1,18 @@
 package com.onehealth.serviceImplementation;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import com.onehealth.entity.DocumentBlob;
 import com.onehealth.entity.LabDocument;
 import com.onehealth.entity.LabDocument;
 import com.onehealth.exception.DatabaseException;
 import com.onehealth.repository.LabDocumentRepository;
+import com.onehealth.service.DocumentStorageService;
 import com.onehealth.service.LabDocumentService;
 
 import java.io.IOException;
@@ -20,11 +25,17 @@ import java.util.logging.Logger;
 public class LabDocumentServiceImpl implements LabDocumentService {
 
     private final LabDocumentRepository labDocumentRepository;
+    private final DocumentStorageService documentStorageService;
+    private final int maxPageSize;
     private static final Logger logger = Logger.getLogger(LabDocumentServiceImpl.class.getName());
 
     @Autowired
-    public LabDocumentServiceImpl(LabDocumentRepository labDocumentRepository) {
+    public LabDocumentServiceImpl(LabDocumentRepository labDocumentRepository,
+            DocumentStorageService documentStorageService,
+            @Value("${documentation.listing.max-page-size:200}") int maxPageSize) {
         this.labDocumentRepository = labDocumentRepository;
+        this.documentStorageService = documentStorageService;
+        this.maxPageSize = maxPageSize;
     }
 
     /**
@@ -42,7 +53,9 @@ public class LabDocumentServiceImpl implements LabDocumentService {
             labDocument.setFilename(file.getOriginalFilename());
             labDocument.setFileType(file.getContentType());
             labDocument.setFileSize(Long.toString(file.getSize()));
-            labDocument.setFile(file.getBytes());
+            DocumentBlob blob = documentStorageService.storeFile(file);
+            labDocument.setFileId(blob.getFileId());
+            labDocument.setContentHash(blob.getHash());
             labDocument.setLabId(labId);
             labDocumentRepository.save(labDocument);
             logger.log(Level.INFO, "Stored Lab Document with ID: " + labDocument.getId() + " for lab ID: " + labId);
@@ -54,17 +67,22 @@ public class LabDocumentServiceImpl implements LabDocumentService {
     }
 
     /**
-     * Retrieves all lab documents.
+     * Retrieves a page of all LabDocuments in the order of their IDs, read from the _id index.
      *
-     * @return A list of lab documents.
-     * @throws DatabaseException If there's an error while retrieving lab documents from the repository.
+     * @param after The ID of the last LabDocument of the previous page, or null for the first page.
+     * @param size  The maximum number of LabDocuments in the page, capped at the maximum page size.
+     * @return A Slice of LabDocument objects, telling whether more of them follow.
+     * @throws DatabaseException If there's an error while retrieving LabDocuments from the repository.
      */
     @Override
-    public List<LabDocument> getAllLabDocuments() throws DatabaseException {
+    public Slice<LabDocument> getAllLabDocuments(String after, int size) throws DatabaseException {
         try {
-            List<LabDocument> labDocuments = labDocumentRepository.findAll();
-            logger.log(Level.INFO, "Retrieved " + labDocuments.size() + " LabDocuments");
+            Slice<LabDocument> labDocuments = KeysetPages.page(after, size, maxPageSize,
+                    labDocumentRepository::findAllMetadata, labDocumentRepository::findByIdGreaterThan);
+            logger.log(Level.INFO, "Retrieved " + labDocuments.getNumberOfElements() + " LabDocuments");
             return labDocuments;
+        } catch (IllegalArgumentException e) {
+            throw e;
         } catch (Exception e) {
             logger.log(Level.SEVERE, "Error occurred while retrieving all LabDocuments", e);
             throw new DatabaseException("Error occurred while retrieving LabDocuments");
@@ -100,7 +118,7 @@ public class LabDocumentServiceImpl implements LabDocumentService {
     @Override
     public Optional<LabDocument> getLabDocumentById(String id) throws DatabaseException {
         try {
-            Optional<LabDocument> labDocument = labDocumentRepository.findById(id);
+            Optional<LabDocument> labDocument = labDocumentRepository.findMetadataById(id);
             logger.log(Level.INFO, "Retrieved Lab Document with ID: " + id);
             return labDocument;
         } catch (Exception e) {
@@ -118,6 +136,8 @@ public class LabDocumentServiceImpl implements LabDocumentService {
     @Override
     public void updateLabDocument(LabDocument updatedLabDocument) throws DatabaseException {
         try {
+            Optional<LabDocument> existing = labDocumentRepository.findById(updatedLabDocument.getId());
+            documentStorageService.keepStoredContent(updatedLabDocument, existing.orElse(null));
             labDocumentRepository.save(updatedLabDocument);
             logger.log(Level.INFO, "Updated Lab Document with ID: " + updatedLabDocument.getId());
         } catch (Exception e) {
@@ -135,6 +155,7 @@ public class LabDocumentServiceImpl implements LabDocumentService {
     @Override
     public void deleteLabDocumentById(String id) throws DatabaseException {
         try {
+            labDocumentRepository.findMetadataById(id).ifPresent(document -> documentStorageService.releaseFile(document.getContentHash(), document.getFileId()));
             labDocumentRepository.deleteById(id);
             logger.log(Level.INFO, "Deleted Lab Document with ID: " + id);
         } catch (Exception e) {
@@ -152,6 +173,7 @@ public class LabDocumentServiceImpl implements LabDocumentService {
     @Override
     public void deleteLabDocumentsByLabId(long labId) throws DatabaseException {
         try {
+            labDocumentRepository.findByLabId(labId).forEach(document -> documentStorageService.releaseFile(document.getContentHash(), document.getFileId()));
             labDocumentRepository.deleteByLabId(labId);
             logger.log(Level.INFO, "Deleted all Lab Documents for lab ID: " + labId);
         } catch (Exception e) {
@@ -165,16 +187,16 @@ public class LabDocumentServiceImpl implements LabDocumentService {
      * Downloads the content of a LabDocument with the given ID from the repository.
      *
      * @param id The ID of the LabDocument to download.
-     * @return The byte array representing the content of the LabDocument, or null if not found.
+     * @return The Resource streaming the content of the LabDocument, or null if not found.
      */
     @Override
-    public byte[] downloadLabDocument(String id) {
+    public Resource downloadLabDocument(String id) {
         try {
             logger.log(Level.INFO, "Downloading LabDocument with ID: " + id);
             Optional<LabDocument> labDocumentOptional = labDocumentRepository.findById(id);
             if (labDocumentOptional.isPresent()) {
                 logger.log(Level.INFO, "Retrieved LabDocument with ID: " + id);
-                return labDocumentOptional.get().getFile();
+                return documentStorageService.getFileResource(labDocumentOptional.get().getFileId(), labDocumentOptional.get().getFile());
             }
             logger.log(Level.INFO, "No LabDocument found with ID: " + id);
             return null;
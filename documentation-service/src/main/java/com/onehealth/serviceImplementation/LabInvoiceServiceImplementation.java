@@ -1,15 +1,19 @@
 package com.onehealth.serviceImplementation;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import com.onehealth.entity.DocumentBlob;
 import com.onehealth.entity.LabInvoice;
 import com.onehealth.repository.LabInvoiceRepository;
+import com.onehealth.service.DocumentStorageService;
 import com.onehealth.service.LabInvoiceService;
 
 import java.io.IOException;
-import java.util.List;
 import java.util.Optional;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -27,6 +31,14 @@ public class LabInvoiceServiceImplementation implements LabInvoiceService {
     @Autowired
     private LabInvoiceRepository labInvoiceRepository;
 
+    // Autowired DocumentStorageService to store the file content in GridFS.
+    @Autowired
+    private DocumentStorageService documentStorageService;
+
+    // Largest page of the collection-wide listing, which keeps its response time flat as the collection grows.
+    @Value("${documentation.listing.max-page-size:200}")
+    private int maxPageSize;
+
     /**
      * Stores a new LabInvoice in the repository.
      *
@@ -42,7 +54,9 @@ public class LabInvoiceServiceImplementation implements LabInvoiceService {
             labInvoice.setFilename(file.getOriginalFilename());
             labInvoice.setFileType(file.getContentType());
             labInvoice.setFileSize(Long.toString(file.getSize()));
-            labInvoice.setFile(file.getBytes());
+            DocumentBlob blob = documentStorageService.storeFile(file);
+            labInvoice.setFileId(blob.getFileId());
+            labInvoice.setContentHash(blob.getHash());
             labInvoice.setOrderId(orderId);
             labInvoiceRepository.save(labInvoice);
             logger.log(Level.INFO, "LabInvoice stored successfully with ID: " + labInvoice.getId());
@@ -54,16 +68,19 @@ public class LabInvoiceServiceImplementation implements LabInvoiceService {
     }
 
     /**
-     * Retrieves all LabInvoices from the repository.
+     * Retrieves a page of all LabInvoices in the order of their IDs, read from the _id index.
      *
-     * @return A list of all LabInvoice objects in the repository.
+     * @param after The ID of the last LabInvoice of the previous page, or null for the first page.
+     * @param size  The maximum number of LabInvoices in the page, capped at the maximum page size.
+     * @return A Slice of LabInvoice objects, telling whether more of them follow.
      */
     @Override
-    public List<LabInvoice> getAllInvoices() {
+    public Slice<LabInvoice> getAllInvoices(String after, int size) {
         try {
             logger.log(Level.INFO, "Retrieving all LabInvoices");
-            List<LabInvoice> labInvoices = labInvoiceRepository.findAll();
-            logger.log(Level.INFO, "Retrieved " + labInvoices.size() + " LabInvoices");
+            Slice<LabInvoice> labInvoices = KeysetPages.page(after, size, maxPageSize,
+                    labInvoiceRepository::findAllMetadata, labInvoiceRepository::findByIdGreaterThan);
+            logger.log(Level.INFO, "Retrieved " + labInvoices.getNumberOfElements() + " LabInvoices");
             return labInvoices;
         } catch (Exception e) {
             logger.log(Level.SEVERE, "Error occurred while retrieving all LabInvoices");
@@ -104,7 +121,7 @@ public class LabInvoiceServiceImplementation implements LabInvoiceService {
     public Optional<LabInvoice> getInvoiceById(String id) {
         try {
             logger.log(Level.INFO, "Retrieving LabInvoice with ID: " + id);
-            Optional<LabInvoice> labInvoiceOptional = labInvoiceRepository.findById(id);
+            Optional<LabInvoice> labInvoiceOptional = labInvoiceRepository.findMetadataById(id);
             if (labInvoiceOptional.isPresent()) {
                 logger.log(Level.INFO, "Retrieved LabInvoice with ID: " + id);
             } else {
@@ -126,6 +143,8 @@ public class LabInvoiceServiceImplementation implements LabInvoiceService {
     public void updateLabInvoice(LabInvoice updatedLabInvoice) {
         try {
             logger.log(Level.INFO, "Updating LabInvoice with ID: " + updatedLabInvoice.getId());
+            Optional<LabInvoice> existing = labInvoiceRepository.findById(updatedLabInvoice.getId());
+            documentStorageService.keepStoredContent(updatedLabInvoice, existing.orElse(null));
             labInvoiceRepository.save(updatedLabInvoice);
             logger.log(Level.INFO, "LabInvoice updated successfully with ID: " + updatedLabInvoice.getId());
         } catch (Exception e) {
@@ -143,6 +162,7 @@ public class LabInvoiceServiceImplementation implements LabInvoiceService {
     public void deleteLabInvoiceById(String id) {
         try {
             logger.log(Level.INFO, "Deleting LabInvoice with ID: " + id);
+            labInvoiceRepository.findMetadataById(id).ifPresent(document -> documentStorageService.releaseFile(document.getContentHash(), document.getFileId()));
             labInvoiceRepository.deleteById(id);
             logger.log(Level.INFO, "LabInvoice deleted successfully with ID: " + id);
         } catch (Exception e) {
@@ -155,16 +175,16 @@ public class LabInvoiceServiceImplementation implements LabInvoiceService {
      * Downloads the content of a LabInvoice with the given ID from the repository.
      *
      * @param id The ID of the LabInvoice to download.
-     * @return The byte array representing the content of the LabInvoice, or null if not found.
+     * @return The Resource streaming the content of the LabInvoice, or null if not found.
      */
     @Override
-    public byte[] downloadLabInvoice(String id) {
+    public Resource downloadLabInvoice(String id) {
         try {
             logger.log(Level.INFO, "Downloading LabInvoice with ID: " + id);
             Optional<LabInvoice> labInvoiceOptional = labInvoiceRepository.findById(id);
             if (labInvoiceOptional.isPresent()) {
                 logger.log(Level.INFO, "Retrieved LabInvoice with ID: " + id);
-                return labInvoiceOptional.get().getFile();
+                return documentStorageService.getFileResource(labInvoiceOptional.get().getFileId(), labInvoiceOptional.get().getFile());
             }
             logger.log(Level.INFO, "No LabInvoice found with ID: " + id);
             return null;
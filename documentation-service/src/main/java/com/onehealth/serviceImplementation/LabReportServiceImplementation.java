@@ -1,15 +1,19 @@
 package com.onehealth.serviceImplementation;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import com.onehealth.entity.DocumentBlob;
 import com.onehealth.entity.LabReport;
 import com.onehealth.repository.LabReportRepository;
+import com.onehealth.service.DocumentStorageService;
 import com.onehealth.service.LabReportService;
 
 import java.io.IOException;
-import java.util.List;
 import java.util.Optional;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -27,6 +31,14 @@ public class LabReportServiceImplementation implements LabReportService {
     @Autowired
     private LabReportRepository labReportRepository;
 
+    // Autowired DocumentStorageService to store the file content in GridFS.
+    @Autowired
+    private DocumentStorageService documentStorageService;
+
+    // Largest page of the collection-wide listing, which keeps its response time flat as the collection grows.
+    @Value("${documentation.listing.max-page-size:200}")
+    private int maxPageSize;
+
     /**
      * Stores a new LabReport in the repository.
      *
@@ -42,7 +54,9 @@ public class LabReportServiceImplementation implements LabReportService {
             labReport.setFilename(file.getOriginalFilename());
             labReport.setFileType(file.getContentType());
             labReport.setFileSize(Long.toString(file.getSize()));
-            labReport.setFile(file.getBytes());
+            DocumentBlob blob = documentStorageService.storeFile(file);
+            labReport.setFileId(blob.getFileId());
+            labReport.setContentHash(blob.getHash());
             labReport.setOrderId(orderId);
             labReportRepository.save(labReport);
             logger.log(Level.INFO, "LabReport stored successfully with ID: " + labReport.getId());
@@ -54,16 +68,19 @@ public class LabReportServiceImplementation implements LabReportService {
     }
 
     /**
-     * Retrieves all LabReports from the repository.
+     * Retrieves a page of all LabReports in the order of their IDs, read from the _id index.
      *
-     * @return A list of all LabReport objects in the repository.
+     * @param after The ID of the last LabReport of the previous page, or null for the first page.
+     * @param size  The maximum number of LabReports in the page, capped at the maximum page size.
+     * @return A Slice of LabReport objects, telling whether more of them follow.
      */
     @Override
-    public List<LabReport> getAllReports() {
+    public Slice<LabReport> getAllReports(String after, int size) {
         try {
             logger.log(Level.INFO, "Retrieving all LabReports");
-            List<LabReport> labReports = labReportRepository.findAll();
-            logger.log(Level.INFO, "Retrieved " + labReports.size() + " LabReports");
+            Slice<LabReport> labReports = KeysetPages.page(after, size, maxPageSize,
+                    labReportRepository::findAllMetadata, labReportRepository::findByIdGreaterThan);
+            logger.log(Level.INFO, "Retrieved " + labReports.getNumberOfElements() + " LabReports");
             return labReports;
         } catch (Exception e) {
             logger.log(Level.SEVERE, "Error occurred while retrieving all LabReports");
@@ -104,7 +121,7 @@ public class LabReportServiceImplementation implements LabReportService {
     public Optional<LabReport> getReportById(String id) {
         try {
             logger.log(Level.INFO, "Retrieving LabReport with ID: " + id);
-            Optional<LabReport> labReportOptional = labReportRepository.findById(id);
+            Optional<LabReport> labReportOptional = labReportRepository.findMetadataById(id);
             if (labReportOptional.isPresent()) {
                 logger.log(Level.INFO, "Retrieved LabReport with ID: " + id);
             } else {
@@ -126,6 +143,8 @@ public class LabReportServiceImplementation implements LabReportService {
     public void updateLabReport(LabReport updatedLabReport) {
         try {
             logger.log(Level.INFO, "Updating LabReport with ID: " + updatedLabReport.getId());
+            Optional<LabReport> existing = labReportRepository.findById(updatedLabReport.getId());
+            documentStorageService.keepStoredContent(updatedLabReport, existing.orElse(null));
             labReportRepository.save(updatedLabReport);
             logger.log(Level.INFO, "LabReport updated successfully with ID: " + updatedLabReport.getId());
         } catch (Exception e) {
@@ -143,6 +162,7 @@ public class LabReportServiceImplementation implements LabReportService {
     public void deleteLabReportById(String id) {
         try {
             logger.log(Level.INFO, "Deleting LabReport with ID: " + id);
+            labReportRepository.findMetadataById(id).ifPresent(document -> documentStorageService.releaseFile(document.getContentHash(), document.getFileId()));
             labReportRepository.deleteById(id);
             logger.log(Level.INFO, "LabReport deleted successfully with ID: " + id);
         } catch (Exception e) {
@@ -155,16 +175,16 @@ public class LabReportServiceImplementation implements LabReportService {
      * Downloads the file associated with a LabReport with the given ID from the repository.
      *
      * @param id The ID of the LabReport to download.
-     * @return The byte array representing the file associated with the LabReport, or null if not found.
+     * @return The Resource streaming the file associated with the LabReport, or null if not found.
      */
     @Override
-    public byte[] downloadLabReport(String id) {
+    public Resource downloadLabReport(String id) {
         try {
             logger.log(Level.INFO, "Downloading LabReport with ID: " + id);
             Optional<LabReport> labReportOptional = labReportRepository.findById(id);
             if (labReportOptional.isPresent()) {
                 logger.log(Level.INFO, "Retrieved LabReport with ID: " + id);
-                return labReportOptional.get().getFile();
+                return documentStorageService.getFileResource(labReportOptional.get().getFileId(), labReportOptional.get().getFile());
             }
             logger.log(Level.INFO, "No LabReport found with ID: " + id);
             return null;
@@ -1,12 +1,16 @@
 package com.onehealth.serviceImplementation;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
+import com.onehealth.entity.DocumentBlob;
 import com.onehealth.entity.MedicinePhoto;
 import com.onehealth.exception.DatabaseException;
 import com.onehealth.repository.MedicinePhotoRepository;
+import com.onehealth.service.DocumentStorageService;
 import com.onehealth.service.MedicinePhotoService;
+import com.onehealth.service.RenditionService;
 
 import java.io.IOException;
 import java.util.List;
@@ -26,6 +30,14 @@ public class MedicinePhotoServiceImplementation implements MedicinePhotoService
     @Autowired
     private MedicinePhotoRepository medicinePhotoRepository;
 
+    // Autowired DocumentStorageService to store the file content in GridFS.
+    @Autowired
+    private DocumentStorageService documentStorageService;
+
+    // Autowired RenditionService to generate the thumbnails and previews of the photos.
+    @Autowired
+    private RenditionService renditionService;
+
     /**
      * Stores a new MedicinePhoto object in the database.
      *
@@ -43,10 +55,13 @@ public class MedicinePhotoServiceImplementation implements MedicinePhotoService
             medicinePhoto.setFilename(file.getOriginalFilename());
             medicinePhoto.setFileType(file.getContentType());
             medicinePhoto.setFileSize(Long.toString(file.getSize()));
-            medicinePhoto.setFile(file.getBytes());
+            DocumentBlob blob = documentStorageService.storeFile(file);
+            medicinePhoto.setFileId(blob.getFileId());
+            medicinePhoto.setContentHash(blob.getHash());
             medicinePhoto.setMedicine_name(medicineName);
             medicinePhoto.setMedicineId(medicineId);
             medicinePhotoRepository.save(medicinePhoto);
+            renditionService.generateRenditions(MedicinePhoto.class, medicinePhoto.getId(), blob.getFileId(), file.getContentType());
             logger.log(Level.INFO, "MedicinePhoto stored successfully with ID: " + medicinePhoto.getId());
             return medicinePhoto.getId();
         } catch (IOException e) {
@@ -63,6 +78,10 @@ public class MedicinePhotoServiceImplementation implements MedicinePhotoService
      */
     @Override
     public void updateMedicinePhoto(MedicinePhoto updatedMedicinePhoto) throws DatabaseException {
+        Optional<MedicinePhoto> existing = medicinePhotoRepository.findById(updatedMedicinePhoto.getId());
+        documentStorageService.keepStoredContent(updatedMedicinePhoto, existing.orElse(null));
+        // Renditions are generated by the service, so they are kept like the content.
+        updatedMedicinePhoto.setRenditions(existing.map(MedicinePhoto::getRenditions).orElse(null));
         medicinePhotoRepository.save(updatedMedicinePhoto);
         logger.log(Level.INFO, "MedicinePhoto updated successfully with ID: " + updatedMedicinePhoto.getId());
     }
@@ -75,7 +94,11 @@ public class MedicinePhotoServiceImplementation implements MedicinePhotoService
      */
     @Override
     public void deleteMedicinePhotoById(String id) throws DatabaseException {
-        medicinePhotoRepository.deleteById(id);
+        // The photo is read as it is removed, so that a rendition recorded meanwhile is released too.
+        renditionService.removePhoto(MedicinePhoto.class, id).ifPresent(document -> {
+            documentStorageService.releaseFile(document.getContentHash(), document.getFileId());
+            renditionService.releaseRenditions(document.getRenditions());
+        });
         logger.log(Level.INFO, "MedicinePhoto deleted successfully with ID: " + id);
     }
 
@@ -103,7 +126,7 @@ public class MedicinePhotoServiceImplementation implements MedicinePhotoService
         logger.info("Attempting to retrieve MedicinePhoto with ID: " + id);
         
         // Call the repository method to retrieve the MedicinePhoto.
-        Optional<MedicinePhoto> medicinePhotoOptional = medicinePhotoRepository.findById(id);
+        Optional<MedicinePhoto> medicinePhotoOptional = medicinePhotoRepository.findMetadataById(id);
 
         // Logging: Log the result of the retrieval attempt.
         if (medicinePhotoOptional.isPresent()) {
@@ -119,9 +142,9 @@ public class MedicinePhotoServiceImplementation implements MedicinePhotoService
      * Downloads the file data of a specific MedicinePhoto identified by its ID.
      *
      * @param id The ID of the MedicinePhoto for which the file is to be downloaded.
-     * @return The file data as a byte array for successful download, or null if the MedicinePhoto with the given ID is not found.
+     * @return The Resource streaming the file content for successful download, or null if the MedicinePhoto with the given ID is not found.
      */
-    public byte[] downloadMedicinePhoto(String id) {
+    public Resource downloadMedicinePhoto(String id) {
         // Logging: Log the attempt to download the file of a MedicinePhoto by ID.
         logger.info("Attempting to download file for MedicinePhoto with ID: " + id);
         
@@ -133,7 +156,7 @@ public class MedicinePhotoServiceImplementation implements MedicinePhotoService
             logger.log(Level.INFO,"File for MedicinePhoto with ID " + id + " downloaded successfully.");
             
             // Return the file data as a byte array.
-            return medicinePhotoOptional.get().getFile();
+            return documentStorageService.getFileResource(medicinePhotoOptional.get().getFileId(), medicinePhotoOptional.get().getFile());
         } else {
             // Logging: Log that the MedicinePhoto with the given ID was not found.
             logger.log(Level.SEVERE,"File for MedicinePhoto with ID " + id + " not found.");
@@ -147,7 +170,13 @@ public class MedicinePhotoServiceImplementation implements MedicinePhotoService
 	public void deleteByMedicineId(long medId) throws DatabaseException{
 		// TODO Auto-generated method stub
 		try {
-			medicinePhotoRepository.deleteByMedicineId(medId);
+			// Each photo is removed the way a single photo is, so that its renditions are all released.
+			for (MedicinePhoto photo : medicinePhotoRepository.findByMedicineId(medId)) {
+				renditionService.removePhoto(MedicinePhoto.class, photo.getId()).ifPresent(document -> {
+					documentStorageService.releaseFile(document.getContentHash(), document.getFileId());
+					renditionService.releaseRenditions(document.getRenditions());
+				});
+			}
             logger.log(Level.INFO, "Deleted all Medicine Photos for Medicine ID: " + medId);
         } catch (Exception e) {
             logger.log(Level.SEVERE, "Error occurred while deleting Medicine photos for Medicine ID: " + medId, e);
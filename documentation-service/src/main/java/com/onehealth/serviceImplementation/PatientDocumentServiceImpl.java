@@ -1,13 +1,18 @@
 package com.onehealth.serviceImplementation;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import com.onehealth.entity.DocumentBlob;
 import com.onehealth.entity.PatientDocument;
 import com.onehealth.entity.PatientDocument;
 import com.onehealth.exception.DatabaseException;
 import com.onehealth.repository.PatientDocumentRepository;
+import com.onehealth.service.DocumentStorageService;
 import com.onehealth.service.PatientDocumentService;
 
 import java.io.IOException;
@@ -20,11 +25,17 @@ import java.util.logging.Logger;
 public class PatientDocumentServiceImpl implements PatientDocumentService {
 
     private final PatientDocumentRepository patientDocumentRepository;
+    private final DocumentStorageService documentStorageService;
+    private final int maxPageSize;
     private static final Logger logger = Logger.getLogger(PatientDocumentServiceImpl.class.getName());
 
     @Autowired
-    public PatientDocumentServiceImpl(PatientDocumentRepository patientDocumentRepository) {
+    public PatientDocumentServiceImpl(PatientDocumentRepository patientDocumentRepository,
+            DocumentStorageService documentStorageService,
+            @Value("${documentation.listing.max-page-size:200}") int maxPageSize) {
         this.patientDocumentRepository = patientDocumentRepository;
+        this.documentStorageService = documentStorageService;
+        this.maxPageSize = maxPageSize;
     }
 
     /**
@@ -42,7 +53,9 @@ public class PatientDocumentServiceImpl implements PatientDocumentService {
             patientDocument.setFilename(file.getOriginalFilename());
             patientDocument.setFileType(file.getContentType());
             patientDocument.setFileSize(Long.toString(file.getSize()));
-            patientDocument.setFile(file.getBytes());
+            DocumentBlob blob = documentStorageService.storeFile(file);
+            patientDocument.setFileId(blob.getFileId());
+            patientDocument.setContentHash(blob.getHash());
             patientDocument.setPatientId(patientId);
             patientDocument.setRecordType(recordType);
             patientDocumentRepository.save(patientDocument);
@@ -55,17 +68,22 @@ public class PatientDocumentServiceImpl implements PatientDocumentService {
     }
 
     /**
-     * Retrieves all patient documents.
+     * Retrieves a page of all PatientDocuments in the order of their IDs, read from the _id index.
      *
-     * @return A list of patient documents.
-     * @throws DatabaseException If there's an error while retrieving patient documents from the repository.
+     * @param after The ID of the last PatientDocument of the previous page, or null for the first page.
+     * @param size  The maximum number of PatientDocuments in the page, capped at the maximum page size.
+     * @return A Slice of PatientDocument objects, telling whether more of them follow.
+     * @throws DatabaseException If there's an error while retrieving PatientDocuments from the repository.
      */
     @Override
-    public List<PatientDocument> getAllPatientDocuments() throws DatabaseException {
+    public Slice<PatientDocument> getAllPatientDocuments(String after, int size) throws DatabaseException {
         try {
-            List<PatientDocument> patientDocuments = patientDocumentRepository.findAll();
-            logger.log(Level.INFO, "Retrieved " + patientDocuments.size() + " PatientDocuments");
+            Slice<PatientDocument> patientDocuments = KeysetPages.page(after, size, maxPageSize,
+                    patientDocumentRepository::findAllMetadata, patientDocumentRepository::findByIdGreaterThan);
+            logger.log(Level.INFO, "Retrieved " + patientDocuments.getNumberOfElements() + " PatientDocuments");
             return patientDocuments;
+        } catch (IllegalArgumentException e) {
+            throw e;
         } catch (Exception e) {
             logger.log(Level.SEVERE, "Error occurred while retrieving all PatientDocuments", e);
             throw new DatabaseException("Error occurred while retrieving PatientDocuments");
@@ -101,7 +119,7 @@ public class PatientDocumentServiceImpl implements PatientDocumentService {
     @Override
     public Optional<PatientDocument> getPatientDocumentById(String id) throws DatabaseException {
         try {
-            Optional<PatientDocument> patientDocument = patientDocumentRepository.findById(id);
+            Optional<PatientDocument> patientDocument = patientDocumentRepository.findMetadataById(id);
             logger.log(Level.INFO, "Retrieved Patient Document with ID: " + id);
             return patientDocument;
         } catch (Exception e) {
@@ -119,6 +137,8 @@ public class PatientDocumentServiceImpl implements PatientDocumentService {
     @Override
     public void updatePatientDocument(PatientDocument updatedPatientDocument) throws DatabaseException {
         try {
+            Optional<PatientDocument> existing = patientDocumentRepository.findById(updatedPatientDocument.getId());
+            documentStorageService.keepStoredContent(updatedPatientDocument, existing.orElse(null));
             patientDocumentRepository.save(updatedPatientDocument);
             logger.log(Level.INFO, "Updated Patient Document with ID: " + updatedPatientDocument.getId());
         } catch (Exception e) {
@@ -136,6 +156,7 @@ public class PatientDocumentServiceImpl implements PatientDocumentService {
     @Override
     public void deletePatientDocumentById(String id) throws DatabaseException {
         try {
+            patientDocumentRepository.findMetadataById(id).ifPresent(document -> documentStorageService.releaseFile(document.getContentHash(), document.getFileId()));
             patientDocumentRepository.deleteById(id);
             logger.log(Level.INFO, "Deleted Patient Document with ID: " + id);
         } catch (Exception e) {
@@ -153,6 +174,7 @@ public class PatientDocumentServiceImpl implements PatientDocumentService {
     @Override
     public void deletePatientDocumentsByPatientId(long patientId) throws DatabaseException {
         try {
+            patientDocumentRepository.findByPatientId(patientId).forEach(document -> documentStorageService.releaseFile(document.getContentHash(), document.getFileId()));
             patientDocumentRepository.deleteByPatientId(patientId);
             logger.log(Level.INFO, "Deleted all Patient Documents for patient ID: " + patientId);
         } catch (Exception e) {
@@ -166,16 +188,16 @@ public class PatientDocumentServiceImpl implements PatientDocumentService {
      * Downloads the content of a PatientDocument with the given ID from the repository.
      *
      * @param id The ID of the PatientDocument to download.
-     * @return The byte array representing the content of the PatientDocument, or null if not found.
+     * @return The Resource streaming the content of the PatientDocument, or null if not found.
      */
     @Override
-    public byte[] downloadPatientDocument(String id) {
+    public Resource downloadPatientDocument(String id) {
         try {
             logger.log(Level.INFO, "Downloading PatientDocument with ID: " + id);
             Optional<PatientDocument> patientDocumentOptional = patientDocumentRepository.findById(id);
             if (patientDocumentOptional.isPresent()) {
                 logger.log(Level.INFO, "Retrieved PatientDocument with ID: " + id);
-                return patientDocumentOptional.get().getFile();
+                return documentStorageService.getFileResource(patientDocumentOptional.get().getFileId(), patientDocumentOptional.get().getFile());
             }
             logger.log(Level.INFO, "No PatientDocument found with ID: " + id);
             return null;
@@ -0,0 +1,171 @@
+package com.onehealth.serviceImplementation;
+
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.Resource;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StreamUtils;
+
+import com.onehealth.entity.PatientDocument;
+import com.onehealth.entity.Prescription;
+import com.onehealth.repository.PatientDocumentRepository;
+import com.onehealth.repository.PrescriptionRepository;
+import com.onehealth.service.DocumentStorageService;
+import com.onehealth.service.PatientExportService;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Date;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+@Service
+public class PatientExportServiceImpl implements PatientExportService {
+
+    private final MongoTemplate mongoTemplate;
+    private final PatientDocumentRepository patientDocumentRepository;
+    private final PrescriptionRepository prescriptionRepository;
+    private final DocumentStorageService documentStorageService;
+    private static final Logger logger = Logger.getLogger(PatientExportServiceImpl.class.getName());
+    private static final int EXPORT_BATCH_SIZE = 100;
+
+    @Autowired
+    public PatientExportServiceImpl(MongoTemplate mongoTemplate, PatientDocumentRepository patientDocumentRepository,
+            PrescriptionRepository prescriptionRepository, DocumentStorageService documentStorageService) {
+        this.mongoTemplate = mongoTemplate;
+        this.patientDocumentRepository = patientDocumentRepository;
+        this.prescriptionRepository = prescriptionRepository;
+        this.documentStorageService = documentStorageService;
+    }
+
+    /**
+     * Writes a ZIP archive holding the patient documents and prescriptions of a patient.
+     * The documents are read in batches ordered by ID without their inline content, and the
+     * content of each document is streamed into its archive entry, so memory use does not
+     * grow with the number of documents. Each batch is read completely before its content is
+     * streamed, so no Mongo cursor stays open while a slow client downloads the archive, and
+     * the next batch continues after the last ID written. Most documents are compressed
+     * formats already, so the entries are deflated at the fastest level.
+     *
+     * @param patientId    The ID of the patient.
+     * @param outputStream The stream the archive is written to. It is not closed.
+     * @throws IOException If an I/O error occurs while reading a document or writing the archive.
+     */
+    @Override
+    public void writePatientExport(long patientId, OutputStream outputStream) throws IOException {
+        logger.log(Level.INFO, "Exporting documents of patient with ID: " + patientId);
+        ZipOutputStream zipOutputStream = new ZipOutputStream(outputStream);
+        zipOutputStream.setLevel(Deflater.BEST_SPEED);
+        int count = 0;
+
+        List<PatientDocument> patientDocuments;
+        String lastId = null;
+        do {
+            patientDocuments = mongoTemplate.find(batchQuery(patientId, lastId), PatientDocument.class);
+            for (PatientDocument patientDocument : patientDocuments) {
+                Resource content = documentStorageService.getFileResource(patientDocument.getFileId(),
+                        patientDocument.getFileId() == null ? inlineContent(patientDocument) : null);
+                String folder = "patient-documents/" + (patientDocument.getRecordType() != null ? sanitize(patientDocument.getRecordType()) + "/" : "");
+                if (writeEntry(zipOutputStream, folder, patientDocument.getId(), patientDocument.getFilename(),
+                        patientDocument.getUploadDate(), content)) {
+                    count++;
+                }
+                lastId = patientDocument.getId();
+            }
+        } while (patientDocuments.size() == EXPORT_BATCH_SIZE);
+
+        List<Prescription> prescriptions;
+        lastId = null;
+        do {
+            prescriptions = mongoTemplate.find(batchQuery(patientId, lastId), Prescription.class);
+            for (Prescription prescription : prescriptions) {
+                Resource content = documentStorageService.getFileResource(prescription.getFileId(),
+                        prescription.getFileId() == null ? inlineContent(prescription) : null);
+                if (writeEntry(zipOutputStream, "prescriptions/", prescription.getId(), prescription.getFilename(),
+                        prescription.getUploadDate(), content)) {
+                    count++;
+                }
+                lastId = prescription.getId();
+            }
+        } while (prescriptions.size() == EXPORT_BATCH_SIZE);
+
+        zipOutputStream.finish();
+        logger.log(Level.INFO, "Exported " + count + " documents of patient with ID: " + patientId);
+    }
+
+    /**
+     * Creates the query for the next batch of documents of a patient, ordered by ID and starting
+     * after the given ID. The inline content of documents stored before GridFS was used is
+     * excluded so the batches stay small.
+     *
+     * @param lastId The ID of the last document already exported, or null for the first batch.
+     */
+    private Query batchQuery(long patientId, String lastId) {
+        Criteria criteria = Criteria.where("patientId").is(patientId);
+        if (lastId != null) {
+            // Range queries on the ID are not converted from String like equality queries are.
+            criteria = criteria.and("_id").gt(new ObjectId(lastId));
+        }
+        Query query = Query.query(criteria).with(Sort.by(Sort.Direction.ASC, "_id")).limit(EXPORT_BATCH_SIZE);
+        query.fields().exclude("file");
+        return query;
+    }
+
+    /**
+     * Loads the inline content of a patient document stored before GridFS was used.
+     */
+    private byte[] inlineContent(PatientDocument patientDocument) {
+        return patientDocumentRepository.findById(patientDocument.getId()).map(PatientDocument::getFile).orElse(null);
+    }
+
+    /**
+     * Loads the inline content of a prescription stored before GridFS was used.
+     */
+    private byte[] inlineContent(Prescription prescription) {
+        return prescriptionRepository.findById(prescription.getId()).map(Prescription::getFile).orElse(null);
+    }
+
+    /**
+     * Writes the content of a document as an archive entry. The entry name is prefixed with the
+     * document ID, so documents sharing a filename do not shadow each other.
+     *
+     * @return true if the entry was written, false if the document has no content.
+     */
+    private boolean writeEntry(ZipOutputStream zipOutputStream, String folder, String id, String filename,
+            Date uploadDate, Resource content) throws IOException {
+        if (content == null) {
+            return false;
+        }
+        ZipEntry entry = new ZipEntry(folder + id + "-" + sanitize(filename));
+        if (uploadDate != null) {
+            entry.setTime(uploadDate.getTime());
+        }
+        zipOutputStream.putNextEntry(entry);
+        try (InputStream inputStream = content.getInputStream()) {
+            StreamUtils.copy(inputStream, zipOutputStream);
+        }
+        zipOutputStream.closeEntry();
+        return true;
+    }
+
+    /**
+     * Strips path separators from a filename, so an entry cannot escape its folder when extracted.
+     */
+    private String sanitize(String filename) {
+        if (filename == null || filename.isBlank()) {
+            return "document";
+        }
+        String name = filename.replace('\\', '/');
+        name = name.substring(name.lastIndexOf('/') + 1);
+        return name.isEmpty() || name.equals("..") ? "document" : name;
+    }
+}
@@ -1,15 +1,19 @@
 package com.onehealth.serviceImplementation;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import com.onehealth.entity.DocumentBlob;
 import com.onehealth.entity.PharmacyInvoice;
 import com.onehealth.repository.PharmacyInvoiceRepository;
+import com.onehealth.service.DocumentStorageService;
 import com.onehealth.service.PharmacyInvoiceService;
 
 import java.io.IOException;
-import java.util.List;
 import java.util.Optional;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -27,6 +31,14 @@ public class PharmacyInvoiceServiceImplementation implements PharmacyInvoiceServ
     @Autowired
     private PharmacyInvoiceRepository pharmacyInvoiceRepository;
 
+    // Autowired DocumentStorageService to store the file content in GridFS.
+    @Autowired
+    private DocumentStorageService documentStorageService;
+
+    // Largest page of the collection-wide listing, which keeps its response time flat as the collection grows.
+    @Value("${documentation.listing.max-page-size:200}")
+    private int maxPageSize;
+
     /**
      * Stores a new PharmacyInvoice in the repository.
      *
@@ -42,7 +54,9 @@ public class PharmacyInvoiceServiceImplementation implements PharmacyInvoiceServ
             pharmacyInvoice.setFilename(file.getOriginalFilename());
             pharmacyInvoice.setFileType(file.getContentType());
             pharmacyInvoice.setFileSize(Long.toString(file.getSize()));
-            pharmacyInvoice.setFile(file.getBytes());
+            DocumentBlob blob = documentStorageService.storeFile(file);
+            pharmacyInvoice.setFileId(blob.getFileId());
+            pharmacyInvoice.setContentHash(blob.getHash());
             pharmacyInvoice.setOrderId(orderId);
             pharmacyInvoiceRepository.save(pharmacyInvoice);
             logger.log(Level.INFO, "PharmacyInvoice stored successfully with ID: " + pharmacyInvoice.getId());
@@ -54,16 +68,19 @@ public class PharmacyInvoiceServiceImplementation implements PharmacyInvoiceServ
     }
 
     /**
-     * Retrieves all PharmacyInvoices from the repository.
+     * Retrieves a page of all PharmacyInvoices in the order of their IDs, read from the _id index.
      *
-     * @return A list of all PharmacyInvoice objects in the repository.
+     * @param after The ID of the last PharmacyInvoice of the previous page, or null for the first page.
+     * @param size  The maximum number of PharmacyInvoices in the page, capped at the maximum page size.
+     * @return A Slice of PharmacyInvoice objects, telling whether more of them follow.
      */
     @Override
-    public List<PharmacyInvoice> getAllInvoices() {
+    public Slice<PharmacyInvoice> getAllInvoices(String after, int size) {
         try {
             logger.log(Level.INFO, "Retrieving all PharmacyInvoices");
-            List<PharmacyInvoice> pharmacyInvoices = pharmacyInvoiceRepository.findAll();
-            logger.log(Level.INFO, "Retrieved " + pharmacyInvoices.size() + " PharmacyInvoices");
+            Slice<PharmacyInvoice> pharmacyInvoices = KeysetPages.page(after, size, maxPageSize,
+                    pharmacyInvoiceRepository::findAllMetadata, pharmacyInvoiceRepository::findByIdGreaterThan);
+            logger.log(Level.INFO, "Retrieved " + pharmacyInvoices.getNumberOfElements() + " PharmacyInvoices");
             return pharmacyInvoices;
         } catch (Exception e) {
             logger.log(Level.SEVERE, "Error occurred while retrieving all PharmacyInvoices");
@@ -104,7 +121,7 @@ public class PharmacyInvoiceServiceImplementation implements PharmacyInvoiceServ
     public Optional<PharmacyInvoice> getInvoiceById(String id) {
         try {
             logger.log(Level.INFO, "Retrieving PharmacyInvoice with ID: " + id);
-            Optional<PharmacyInvoice> pharmacyInvoiceOptional = pharmacyInvoiceRepository.findById(id);
+            Optional<PharmacyInvoice> pharmacyInvoiceOptional = pharmacyInvoiceRepository.findMetadataById(id);
             if (pharmacyInvoiceOptional.isPresent()) {
                 logger.log(Level.INFO, "Retrieved PharmacyInvoice with ID: " + id);
             } else {
@@ -126,6 +143,8 @@ public class PharmacyInvoiceServiceImplementation implements PharmacyInvoiceServ
     public void updatePharmacyInvoice(PharmacyInvoice updatedPharmacyInvoice) {
         try {
             logger.log(Level.INFO, "Updating PharmacyInvoice with ID: " + updatedPharmacyInvoice.getId());
+            Optional<PharmacyInvoice> existing = pharmacyInvoiceRepository.findById(updatedPharmacyInvoice.getId());
+            documentStorageService.keepStoredContent(updatedPharmacyInvoice, existing.orElse(null));
             pharmacyInvoiceRepository.save(updatedPharmacyInvoice);
             logger.log(Level.INFO, "PharmacyInvoice updated successfully with ID: " + updatedPharmacyInvoice.getId());
         } catch (Exception e) {
@@ -143,6 +162,7 @@ public class PharmacyInvoiceServiceImplementation implements PharmacyInvoiceServ
     public void deletePharmacyInvoiceById(String id) {
         try {
             logger.log(Level.INFO, "Deleting PharmacyInvoice with ID: " + id);
+            pharmacyInvoiceRepository.findMetadataById(id).ifPresent(document -> documentStorageService.releaseFile(document.getContentHash(), document.getFileId()));
             pharmacyInvoiceRepository.deleteById(id);
             logger.log(Level.INFO, "PharmacyInvoice deleted successfully with ID: " + id);
         } catch (Exception e) {
@@ -155,16 +175,16 @@ public class PharmacyInvoiceServiceImplementation implements PharmacyInvoiceServ
      * Downloads the file associated with a PharmacyInvoice with the given ID from the repository.
      *
      * @param id The ID of the PharmacyInvoice to download.
-     * @return The byte array representing the file associated with the PharmacyInvoice, or null if not found.
+     * @return The Resource streaming the file associated with the PharmacyInvoice, or null if not found.
      */
     @Override
-    public byte[] downloadPharmacyInvoice(String id) {
+    public Resource downloadPharmacyInvoice(String id) {
         try {
             logger.log(Level.INFO, "Downloading PharmacyInvoice with ID: " + id);
             Optional<PharmacyInvoice> pharmacyInvoiceOptional = pharmacyInvoiceRepository.findById(id);
             if (pharmacyInvoiceOptional.isPresent()) {
                 logger.log(Level.INFO, "Retrieved PharmacyInvoice with ID: " + id);
-                return pharmacyInvoiceOptional.get().getFile();
+                return documentStorageService.getFileResource(pharmacyInvoiceOptional.get().getFileId(), pharmacyInvoiceOptional.get().getFile());
             }
             logger.log(Level.INFO, "No PharmacyInvoice found with ID: " + id);
             return null;
@@ -1,11 +1,16 @@
 package com.onehealth.serviceImplementation;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import com.onehealth.entity.DocumentBlob;
 import com.onehealth.entity.Prescription;
 import com.onehealth.repository.PrescriptionRepository;
+import com.onehealth.service.DocumentStorageService;
 import com.onehealth.service.PrescriptionService;
 
 import java.io.IOException;
@@ -27,6 +32,14 @@ public class PrescriptionServiceImplementation implements PrescriptionService {
     @Autowired
     private PrescriptionRepository prescriptionRepository;
 
+    // Autowired DocumentStorageService to store the file content in GridFS.
+    @Autowired
+    private DocumentStorageService documentStorageService;
+
+    // Largest page of the collection-wide listing, which keeps its response time flat as the collection grows.
+    @Value("${documentation.listing.max-page-size:200}")
+    private int maxPageSize;
+
     /**
      * Stores a new Prescription in the repository.
      *
@@ -43,7 +56,9 @@ public class PrescriptionServiceImplementation implements PrescriptionService {
             prescription.setFilename(file.getOriginalFilename());
             prescription.setFileType(file.getContentType());
             prescription.setFileSize(Long.toString(file.getSize()));
-            prescription.setFile(file.getBytes());
+            DocumentBlob blob = documentStorageService.storeFile(file);
+            prescription.setFileId(blob.getFileId());
+            prescription.setContentHash(blob.getHash());
             prescription.setAppointmentId(appointmentId);
             prescription.setPatientId(patientId);
             prescriptionRepository.save(prescription);
@@ -56,16 +71,19 @@ public class PrescriptionServiceImplementation implements PrescriptionService {
     }
 
     /**
-     * Retrieves all Prescriptions from the repository.
+     * Retrieves a page of all Prescriptions in the order of their IDs, read from the _id index.
      *
-     * @return A list of all Prescription objects in the repository.
+     * @param after The ID of the last Prescription of the previous page, or null for the first page.
+     * @param size  The maximum number of Prescriptions in the page, capped at the maximum page size.
+     * @return A Slice of Prescription objects, telling whether more of them follow.
      */
     @Override
-    public List<Prescription> getAllPrescriptions() {
+    public Slice<Prescription> getAllPrescriptions(String after, int size) {
         try {
             logger.log(Level.INFO, "Retrieving all Prescriptions");
-            List<Prescription> prescriptions = prescriptionRepository.findAll();
-            logger.log(Level.INFO, "Retrieved " + prescriptions.size() + " Prescriptions");
+            Slice<Prescription> prescriptions = KeysetPages.page(after, size, maxPageSize,
+                    prescriptionRepository::findAllMetadata, prescriptionRepository::findByIdGreaterThan);
+            logger.log(Level.INFO, "Retrieved " + prescriptions.getNumberOfElements() + " Prescriptions");
             return prescriptions;
         } catch (Exception e) {
             logger.log(Level.SEVERE, "Error occurred while retrieving all Prescriptions");
@@ -125,7 +143,7 @@ public class PrescriptionServiceImplementation implements PrescriptionService {
     public Optional<Prescription> getPrescriptionById(String id) {
         try {
             logger.log(Level.INFO, "Retrieving Prescription with ID: " + id);
-            Optional<Prescription> prescriptionOptional = prescriptionRepository.findById(id);
+            Optional<Prescription> prescriptionOptional = prescriptionRepository.findMetadataById(id);
             if (prescriptionOptional.isPresent()) {
                 logger.log(Level.INFO, "Retrieved Prescription with ID: " + id);
             } else {
@@ -147,6 +165,8 @@ public class PrescriptionServiceImplementation implements PrescriptionService {
     public void updatePrescription(Prescription updatedPrescription) {
         try {
             logger.log(Level.INFO, "Updating Prescription with ID: " + updatedPrescription.getId());
+            Optional<Prescription> existing = prescriptionRepository.findById(updatedPrescription.getId());
+            documentStorageService.keepStoredContent(updatedPrescription, existing.orElse(null));
             prescriptionRepository.save(updatedPrescription);
             logger.log(Level.INFO, "Prescription updated successfully with ID: " + updatedPrescription.getId());
         } catch (Exception e) {
@@ -164,6 +184,7 @@ public class PrescriptionServiceImplementation implements PrescriptionService {
     public void deletePrescriptionById(String id) {
         try {
             logger.log(Level.INFO, "Deleting Prescription with ID: " + id);
+            prescriptionRepository.findMetadataById(id).ifPresent(document -> documentStorageService.releaseFile(document.getContentHash(), document.getFileId()));
             prescriptionRepository.deleteById(id);
             logger.log(Level.INFO, "Prescription deleted successfully with ID: " + id);
         } catch (Exception e) {
@@ -176,16 +197,16 @@ public class PrescriptionServiceImplementation implements PrescriptionService {
      * Downloads the file associated with a Prescription with the given ID from the repository.
      *
      * @param id The ID of the Prescription to download.
-     * @return The byte array representing the file associated with the Prescription, or null if not found.
+     * @return The Resource streaming the file associated with the Prescription, or null if not found.
      */
     @Override
-    public byte[] downloadPrescription(String id) {
+    public Resource downloadPrescription(String id) {
         try {
             logger.log(Level.INFO, "Downloading Prescription with ID: " + id);
             Optional<Prescription> prescriptionOptional = prescriptionRepository.findById(id);
             if (prescriptionOptional.isPresent()) {
                 logger.log(Level.INFO, "Retrieved Prescription with ID: " + id);
-                return prescriptionOptional.get().getFile();
+                return documentStorageService.getFileResource(prescriptionOptional.get().getFileId(), prescriptionOptional.get().getFile());
             }
             logger.log(Level.INFO, "No Prescription found with ID: " + id);
             return null;
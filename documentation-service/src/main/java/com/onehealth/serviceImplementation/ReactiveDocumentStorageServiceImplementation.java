@@ -0,0 +1,138 @@
+package com.onehealth.serviceImplementation;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.gridfs.ReactiveGridFsResource;
+import org.springframework.data.mongodb.gridfs.ReactiveGridFsTemplate;
+import org.springframework.data.mongodb.gridfs.ReactiveGridFsUpload;
+import org.springframework.stereotype.Service;
+
+import com.onehealth.entity.DocumentBlob;
+import com.onehealth.service.ContentCodec;
+import com.onehealth.service.ReactiveDocumentStorageService;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Service implementation class that streams document content to and from GridFS without blocking.
+ * A reactive upload can only be read once, so its content is hashed while it is written to GridFS
+ * and deduplicated afterwards: if the same content is stored already, the new GridFS file is
+ * deleted again and a reference on the existing DocumentBlob is taken instead.
+ * Content is stored uncompressed, since the codecs work on blocking streams; content stored
+ * compressed through the DocumentStorageService is read as it is stored.
+ */
+@Service
+public class ReactiveDocumentStorageServiceImplementation implements ReactiveDocumentStorageService {
+
+    // Logger for logging service actions.
+    private static final Logger logger = Logger.getLogger(ReactiveDocumentStorageServiceImplementation.class.getName());
+
+    // Metadata keys describing how a document content is stored in GridFS, as written by DocumentStorageServiceImplementation.
+    private static final String CONTENT_TYPE_KEY = "_contentType";
+    private static final String CONTENT_ENCODING_KEY = "contentEncoding";
+
+    // Autowired ReactiveGridFsTemplate to interact with the GridFS bucket.
+    @Autowired
+    private ReactiveGridFsTemplate reactiveGridFsTemplate;
+
+    // Autowired ReactiveMongoTemplate to update the reference counts of the blobs atomically.
+    @Autowired
+    private ReactiveMongoTemplate reactiveMongoTemplate;
+
+    // Size of the GridFS chunks, which also bounds the memory used per upload.
+    @Value("${documentation.storage.gridfs.chunk-size:261120}")
+    private int chunkSize;
+
+    /**
+     * Streams content into GridFS, or takes a new reference on the stored content if identical
+     * content was stored before. Only the buffers in flight are held in memory.
+     *
+     * @param content     The content to be stored.
+     * @param filename    The filename to store the content under.
+     * @param contentType The content type of the content.
+     * @return A Mono emitting the DocumentBlob holding the content.
+     */
+    @Override
+    public Mono<DocumentBlob> storeContent(Flux<DataBuffer> content, String filename, String contentType) {
+        return Mono.defer(() -> {
+            MessageDigest digest = sha256();
+            AtomicLong length = new AtomicLong();
+            Flux<DataBuffer> hashedContent = content.doOnNext(buffer -> {
+                length.addAndGet(buffer.readableByteCount());
+                try (DataBuffer.ByteBufferIterator iterator = buffer.readableByteBuffers()) {
+                    iterator.forEachRemaining(digest::update);
+                }
+            });
+            ReactiveGridFsUpload<ObjectId> upload = ReactiveGridFsUpload.fromPublisher(hashedContent)
+                    .filename(filename)
+                    .metadata(new Document(CONTENT_TYPE_KEY, contentType)
+                            .append(CONTENT_ENCODING_KEY, ContentCodec.IDENTITY.getContentEncoding()))
+                    .chunkSize(chunkSize)
+                    .build();
+            return reactiveGridFsTemplate.store(upload).flatMap(fileId -> {
+                DocumentBlob blob = new DocumentBlob(HexFormat.of().formatHex(digest.digest()), fileId.toHexString(),
+                        length.get(), 1);
+                blob.setContentEncoding(ContentCodec.IDENTITY.getContentEncoding());
+                blob.setStoredLength(length.get());
+                blob.setCompressionRatio(1);
+                return reference(blob, filename);
+            });
+        }).doOnError(e -> logger.log(Level.SEVERE, "Error occurred while storing file in GridFS: " + e.getMessage()));
+    }
+
+    /**
+     * Opens a GridFS file for streaming.
+     *
+     * @param fileId The ID of the GridFS file.
+     * @return A Mono emitting the ReactiveGridFsResource, or completing empty if there is no such file.
+     */
+    @Override
+    public Mono<ReactiveGridFsResource> getFileResource(String fileId) {
+        return reactiveGridFsTemplate.findOne(Query.query(Criteria.where("_id").is(new ObjectId(fileId))))
+                .flatMap(reactiveGridFsTemplate::getResource);
+    }
+
+    /**
+     * Takes a reference on the blob with the hash of freshly stored content. If the content was
+     * stored before, the fresh GridFS file is deleted; otherwise the fresh blob is inserted.
+     */
+    private Mono<DocumentBlob> reference(DocumentBlob stored, String filename) {
+        return reactiveMongoTemplate.findAndModify(Query.query(Criteria.where("_id").is(stored.getHash())),
+                        new Update().inc("refCount", 1), FindAndModifyOptions.options().returnNew(true), DocumentBlob.class)
+                .flatMap(existing -> reactiveGridFsTemplate
+                        .delete(Query.query(Criteria.where("_id").is(new ObjectId(stored.getFileId()))))
+                        .doOnSuccess(deleted -> logger.log(Level.INFO,
+                                "Reusing stored content " + existing.getHash() + " for file " + filename))
+                        .thenReturn(existing))
+                .switchIfEmpty(Mono.defer(() -> reactiveMongoTemplate.insert(stored)
+                        .doOnSuccess(blob -> logger.log(Level.INFO,
+                                "Stored file " + filename + " in GridFS with ID: " + blob.getFileId()))
+                        // The same content was stored concurrently; reference that copy instead.
+                        .onErrorResume(DuplicateKeyException.class, e -> reference(stored, filename))));
+    }
+
+    private MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported by this JVM", e);
+        }
+    }
+}
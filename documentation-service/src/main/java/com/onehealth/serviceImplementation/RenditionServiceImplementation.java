@@ -0,0 +1,214 @@
+package com.onehealth.serviceImplementation;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.imageio.ImageIO;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import com.mongodb.client.result.UpdateResult;
+import com.onehealth.entity.DocumentBlob;
+import com.onehealth.entity.Rendition;
+import com.onehealth.service.DocumentStorageService;
+import com.onehealth.service.RenditionService;
+import com.onehealth.service.RenditionSize;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Service implementation class that generates photo renditions in the background.
+ * Decoding and scaling images is memory and CPU intensive, so it runs on a small worker
+ * pool with a bounded queue; when the queue is full the renditions of a photo are skipped
+ * and its rendition endpoint keeps serving the original image.
+ */
+@Service
+public class RenditionServiceImplementation implements RenditionService {
+
+    // Logger for logging service actions.
+    private static final Logger logger = Logger.getLogger(RenditionServiceImplementation.class.getName());
+
+    // Autowired DocumentStorageService to read the originals and store the renditions.
+    @Autowired
+    private DocumentStorageService documentStorageService;
+
+    // Autowired MongoTemplate to record the renditions on the photo documents.
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    // Number of worker threads generating renditions.
+    @Value("${documentation.renditions.pool-size:2}")
+    private int poolSize;
+
+    // Number of photos that may wait for their renditions before new ones are skipped.
+    @Value("${documentation.renditions.queue-capacity:100}")
+    private int queueCapacity;
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    void startExecutor() {
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("rendition-"));
+    }
+
+    @PreDestroy
+    void stopExecutor() {
+        executor.shutdown();
+    }
+
+    /**
+     * Schedules the generation of all renditions of a photo on the bounded rendition worker pool.
+     * Once generated, each rendition is stored and recorded in the "renditions" field of the photo.
+     * Content types that are not images are ignored.
+     *
+     * @param photoClass  The entity class of the photo, e.g. MedicinePhoto.
+     * @param photoId     The ID of the photo.
+     * @param fileId      The ID of the GridFS file holding the original image.
+     * @param contentType The content type of the original image.
+     */
+    @Override
+    public void generateRenditions(Class<?> photoClass, String photoId, String fileId, String contentType) {
+        if (contentType == null || !contentType.startsWith("image/")) {
+            return;
+        }
+        try {
+            executor.execute(() -> generate(photoClass, photoId, fileId));
+        } catch (RejectedExecutionException e) {
+            logger.log(Level.WARNING, "Rendition queue is full, skipping renditions of photo with ID: " + photoId);
+        }
+    }
+
+    /**
+     * Opens a generated rendition for streaming.
+     *
+     * @param renditions The renditions of a photo, may be null.
+     * @param size       The requested rendition size.
+     * @return The Resource holding the rendition, or null if it has not been generated.
+     */
+    @Override
+    public Resource getRendition(Map<String, Rendition> renditions, RenditionSize size) {
+        if (renditions == null || !renditions.containsKey(size.getKey())) {
+            return null;
+        }
+        return documentStorageService.getFileResource(renditions.get(size.getKey()).getFileId(), null);
+    }
+
+    /**
+     * Releases the stored content of the renditions of a photo that is deleted.
+     *
+     * @param renditions The renditions of the photo, may be null.
+     */
+    @Override
+    public void releaseRenditions(Map<String, Rendition> renditions) {
+        if (renditions == null) {
+            return;
+        }
+        for (Rendition rendition : renditions.values()) {
+            documentStorageService.releaseFile(rendition.getContentHash(), rendition.getFileId());
+        }
+    }
+
+    /**
+     * Removes a photo and returns it, without its inline content, as it was when it was removed,
+     * so that the caller releases its content and renditions. Reading and removing the photo is a
+     * single step: a rendition recorded before is in the returned photo, while one recorded later
+     * finds the photo gone and is released by its generation.
+     *
+     * @param photoClass The entity class of the photo, e.g. MedicinePhoto.
+     * @param photoId    The ID of the photo.
+     * @return The removed photo, or an empty Optional if there was no such photo.
+     */
+    @Override
+    public <T> Optional<T> removePhoto(Class<T> photoClass, String photoId) {
+        Query query = Query.query(Criteria.where("_id").is(photoId));
+        query.fields().exclude("file");
+        return Optional.ofNullable(mongoTemplate.findAndRemove(query, photoClass));
+    }
+
+    private void generate(Class<?> photoClass, String photoId, String fileId) {
+        try {
+            Resource original = documentStorageService.getFileResource(fileId, null);
+            if (original == null) {
+                return;
+            }
+            BufferedImage image;
+            try (InputStream content = original.getInputStream()) {
+                image = ImageIO.read(content);
+            }
+            if (image == null) {
+                logger.log(Level.INFO, "No image reader available for photo with ID: " + photoId);
+                return;
+            }
+            for (RenditionSize size : RenditionSize.values()) {
+                BufferedImage scaled = scale(image, size.getMaxDimension());
+                ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+                ImageIO.write(scaled, "jpg", encoded);
+                DocumentBlob blob = documentStorageService.storeContent(encoded.toByteArray(),
+                        photoId + "-" + size.getKey() + ".jpg", "image/jpeg");
+                Rendition rendition = new Rendition(blob.getFileId(), blob.getHash(), scaled.getWidth(), scaled.getHeight());
+                UpdateResult result = mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(photoId)),
+                        new Update().set("renditions." + size.getKey(), rendition), photoClass);
+                if (result.getMatchedCount() == 0) {
+                    // The photo was removed before the rendition could be recorded, see removePhoto, so
+                    // nothing else releases it.
+                    documentStorageService.releaseFile(blob.getHash(), blob.getFileId());
+                    return;
+                }
+            }
+            logger.log(Level.INFO, "Generated renditions of photo with ID: " + photoId);
+        } catch (IOException | RuntimeException e) {
+            logger.log(Level.SEVERE, "Error occurred while generating renditions of photo with ID: " + photoId, e);
+        }
+    }
+
+    /**
+     * Scales an image down to fit into a square of the given dimension. The image is halved
+     * repeatedly before the final step, which keeps bilinear interpolation from aliasing.
+     * Images that fit already are only converted to RGB.
+     */
+    private BufferedImage scale(BufferedImage image, int maxDimension) {
+        double factor = Math.min(1.0, (double) maxDimension / Math.max(image.getWidth(), image.getHeight()));
+        int targetWidth = Math.max(1, (int) Math.round(image.getWidth() * factor));
+        int targetHeight = Math.max(1, (int) Math.round(image.getHeight() * factor));
+        BufferedImage current = image;
+        do {
+            int width = Math.max(targetWidth, current.getWidth() / 2);
+            int height = Math.max(targetHeight, current.getHeight() / 2);
+            if (current != image && width == current.getWidth() && height == current.getHeight()) {
+                break;
+            }
+            BufferedImage next = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = next.createGraphics();
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            // JPEG has no alpha channel, so transparent areas are painted white.
+            graphics.drawImage(current, 0, 0, width, height, Color.WHITE, null);
+            graphics.dispose();
+            current = next;
+        } while (current.getWidth() > targetWidth || current.getHeight() > targetHeight);
+        return current;
+    }
+}
@@ -0,0 +1,185 @@
+package com.onehealth.serviceImplementation;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.onehealth.dto.UploadSessionStatusDTO;
+import com.onehealth.entity.DocumentBlob;
+import com.onehealth.entity.PatientDocument;
+import com.onehealth.entity.UploadSession;
+import com.onehealth.repository.PatientDocumentRepository;
+import com.onehealth.repository.UploadSessionRepository;
+import com.onehealth.service.DocumentStorageService;
+import com.onehealth.service.UploadSessionService;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Optional;
+import java.util.SortedMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+@Service
+public class UploadSessionServiceImpl implements UploadSessionService {
+
+    private final UploadSessionRepository uploadSessionRepository;
+    private final PatientDocumentRepository patientDocumentRepository;
+    private final DocumentStorageService documentStorageService;
+    private static final Logger logger = Logger.getLogger(UploadSessionServiceImpl.class.getName());
+
+    // Upload sessions that are not committed within this many hours are discarded.
+    @Value("${documentation.upload-session.expiry-hours:24}")
+    private long expiryHours;
+
+    @Autowired
+    public UploadSessionServiceImpl(UploadSessionRepository uploadSessionRepository,
+            PatientDocumentRepository patientDocumentRepository, DocumentStorageService documentStorageService) {
+        this.uploadSessionRepository = uploadSessionRepository;
+        this.patientDocumentRepository = patientDocumentRepository;
+        this.documentStorageService = documentStorageService;
+    }
+
+    /**
+     * Initiates a new upload session.
+     *
+     * @param patientId  The ID of the patient the document is uploaded for.
+     * @param recordType The record type of the document.
+     * @param filename   The filename of the document.
+     * @param fileType   The file type (MIME type) of the document.
+     * @param totalSize  The size of the document in bytes, or 0 if unknown.
+     * @return The created UploadSession.
+     */
+    @Override
+    public UploadSession initiateUploadSession(long patientId, String recordType, String filename, String fileType,
+            long totalSize) {
+        UploadSession uploadSession = new UploadSession();
+        uploadSession.setPatientId(patientId);
+        uploadSession.setRecordType(recordType);
+        uploadSession.setFilename(filename);
+        uploadSession.setFileType(fileType);
+        uploadSession.setTotalSize(totalSize);
+        uploadSessionRepository.save(uploadSession);
+        logger.log(Level.INFO, "Initiated upload session with ID: " + uploadSession.getId() + " for patient ID: " + patientId);
+        return uploadSession;
+    }
+
+    /**
+     * Stores one chunk of an upload session.
+     *
+     * @param sessionId The ID of the upload session.
+     * @param index     The index of the chunk, starting at 0.
+     * @param content   The content of the chunk.
+     * @return The status of the upload session after storing the chunk, or an empty Optional if the session does not exist.
+     * @throws IOException If there is an error reading or storing the chunk.
+     */
+    @Override
+    public Optional<UploadSessionStatusDTO> uploadChunk(String sessionId, int index, InputStream content) throws IOException {
+        if (!uploadSessionRepository.existsById(sessionId)) {
+            logger.log(Level.INFO, "No upload session found with ID: " + sessionId);
+            return Optional.empty();
+        }
+        try {
+            documentStorageService.storeUploadChunk(sessionId, index, content);
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Error storing chunk " + index + " of upload session " + sessionId, e);
+            throw e;
+        }
+        return Optional.of(status(sessionId));
+    }
+
+    /**
+     * Retrieves the chunks received so far for an upload session.
+     *
+     * @param sessionId The ID of the upload session.
+     * @return The status of the upload session, or an empty Optional if the session does not exist.
+     */
+    @Override
+    public Optional<UploadSessionStatusDTO> getUploadSessionStatus(String sessionId) {
+        if (!uploadSessionRepository.existsById(sessionId)) {
+            logger.log(Level.INFO, "No upload session found with ID: " + sessionId);
+            return Optional.empty();
+        }
+        return Optional.of(status(sessionId));
+    }
+
+    /**
+     * Assembles the chunks of an upload session into a new PatientDocument and closes the session.
+     *
+     * @param sessionId The ID of the upload session.
+     * @return The ID of the stored PatientDocument, or an empty Optional if the session does not exist.
+     * @throws IOException           If there is an error reading the chunks or storing the document.
+     * @throws IllegalStateException If a chunk is missing or the assembled size does not match the announced size.
+     */
+    @Override
+    public Optional<String> commitUploadSession(String sessionId) throws IOException {
+        Optional<UploadSession> uploadSessionOptional = uploadSessionRepository.findById(sessionId);
+        if (uploadSessionOptional.isEmpty()) {
+            logger.log(Level.INFO, "No upload session found with ID: " + sessionId);
+            return Optional.empty();
+        }
+        UploadSession uploadSession = uploadSessionOptional.get();
+        long receivedBytes = status(sessionId).getReceivedBytes();
+        if (uploadSession.getTotalSize() > 0 && receivedBytes != uploadSession.getTotalSize()) {
+            throw new IllegalStateException("Upload session " + sessionId + " received " + receivedBytes
+                    + " of " + uploadSession.getTotalSize() + " bytes");
+        }
+        try {
+            DocumentBlob blob = documentStorageService.storeUploadChunks(sessionId, uploadSession.getFilename(),
+                    uploadSession.getFileType());
+            PatientDocument patientDocument = new PatientDocument();
+            patientDocument.setFilename(uploadSession.getFilename());
+            patientDocument.setFileType(uploadSession.getFileType());
+            patientDocument.setFileSize(Long.toString(blob.getLength()));
+            patientDocument.setFileId(blob.getFileId());
+            patientDocument.setContentHash(blob.getHash());
+            patientDocument.setPatientId(uploadSession.getPatientId());
+            patientDocument.setRecordType(uploadSession.getRecordType());
+            patientDocumentRepository.save(patientDocument);
+            abortUploadSession(sessionId);
+            logger.log(Level.INFO, "Stored Patient Document with ID: " + patientDocument.getId() + " from upload session " + sessionId);
+            return Optional.of(patientDocument.getId());
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Error committing upload session " + sessionId, e);
+            throw new IOException("Error storing Patient Document", e);
+        }
+    }
+
+    /**
+     * Aborts an upload session and deletes the chunks received so far.
+     *
+     * @param sessionId The ID of the upload session.
+     */
+    @Override
+    public void abortUploadSession(String sessionId) {
+        documentStorageService.deleteUploadChunks(sessionId);
+        uploadSessionRepository.deleteById(sessionId);
+        logger.log(Level.INFO, "Closed upload session with ID: " + sessionId);
+    }
+
+    /**
+     * Periodically discards upload sessions that were never committed, together with their chunks.
+     */
+    @Scheduled(initialDelayString = "${documentation.upload-session.cleanup-interval-ms:3600000}",
+            fixedDelayString = "${documentation.upload-session.cleanup-interval-ms:3600000}")
+    public void discardExpiredUploadSessions() {
+        Date cutoff = new Date(System.currentTimeMillis() - TimeUnit.HOURS.toMillis(expiryHours));
+        try {
+            for (UploadSession uploadSession : uploadSessionRepository.findByCreatedAtBefore(cutoff)) {
+                abortUploadSession(uploadSession.getId());
+            }
+        } catch (Exception e) {
+            logger.log(Level.WARNING, "Error occurred while discarding expired upload sessions: " + e.getMessage());
+        }
+    }
+
+    private UploadSessionStatusDTO status(String sessionId) {
+        SortedMap<Integer, Long> chunks = documentStorageService.getUploadChunks(sessionId);
+        long receivedBytes = chunks.values().stream().mapToLong(Long::longValue).sum();
+        return new UploadSessionStatusDTO(sessionId, new ArrayList<>(chunks.keySet()), receivedBytes);
+    }
+}
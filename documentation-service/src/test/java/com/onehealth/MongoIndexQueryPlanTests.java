@@ -0,0 +1,210 @@
+package com.onehealth;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.bson.Document;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.type.filter.AnnotationTypeFilter;
+import org.springframework.core.type.filter.AssignableTypeFilter;
+import org.springframework.core.type.filter.TypeFilter;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.SimpleMongoClientDatabaseFactory;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentProperty;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.core.support.AbstractRepositoryMetadata;
+import org.springframework.data.repository.query.parser.Part;
+import org.springframework.data.repository.query.parser.PartTree;
+import org.springframework.util.ClassUtils;
+
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.onehealth.config.MongoIndexConfig;
+
+import de.flapdoodle.embed.mongo.distribution.Version;
+import de.flapdoodle.embed.mongo.transitions.Mongod;
+import de.flapdoodle.embed.mongo.transitions.RunningMongodProcess;
+import de.flapdoodle.reverse.TransitionWalker;
+
+/**
+ * Verifies that every derived query of the repositories is served by an index. The indexes are
+ * created the way MongoIndexConfig creates them at startup, then each query is explained and
+ * its winning plan must not contain a collection scan.
+ * <p>
+ * Needs a real mongod, so it only runs in the "query-plans" Maven profile, which CI enables with
+ * mvn -Pquery-plans test; a plain build skips it rather than failing when it cannot download
+ * mongod. In that profile it runs against an embedded mongod, downloaded from fastdl.mongodb.org
+ * on first use and cached under ~/.embedmongo, or against the MongoDB given by the
+ * "documentation.test.mongodb.uri" system property, such as one of the version used in
+ * production. It is never skipped there: a build that cannot get a mongod fails here rather than
+ * passing without checking the plans.
+ */
+@EnabledIfSystemProperty(named = "documentation.test.query-plans", matches = "true",
+		disabledReason = "the query plans are checked in the query-plans profile")
+class MongoIndexQueryPlanTests {
+
+	private static final String ENTITY_PACKAGE = "com.onehealth.entity";
+	private static final String REPOSITORY_PACKAGE = "com.onehealth.repository";
+	private static final String BUCKET = "documents";
+
+	private static TransitionWalker.ReachedState<RunningMongodProcess> mongod;
+	private static MongoClient mongoClient;
+	private static MongoTemplate mongoTemplate;
+	private static MongoMappingContext mappingContext;
+
+	@BeforeAll
+	static void connect() throws ClassNotFoundException {
+		String uri = System.getProperty("documentation.test.mongodb.uri");
+		if (uri == null) {
+			mongod = Mongod.instance().start(Version.Main.V6_0);
+			uri = "mongodb://" + mongod.current().getServerAddress();
+		}
+		mongoClient = MongoClients.create(MongoClientSettings.builder()
+				.applyConnectionString(new ConnectionString(uri))
+				.applyToClusterSettings(cluster -> cluster.serverSelectionTimeout(10, TimeUnit.SECONDS))
+				.build());
+
+		mappingContext = new MongoMappingContext();
+		mappingContext.setInitialEntitySet(scan(ENTITY_PACKAGE, new AnnotationTypeFilter(
+				org.springframework.data.mongodb.core.mapping.Document.class), false));
+		mappingContext.afterPropertiesSet();
+		MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+		converter.afterPropertiesSet();
+		mongoTemplate = new MongoTemplate(new SimpleMongoClientDatabaseFactory(mongoClient,
+				"documentation_index_test_" + UUID.randomUUID().toString().replace("-", "")), converter);
+
+		new MongoIndexConfig(mongoTemplate, Runnable::run, BUCKET).ensureIndexes();
+	}
+
+	@AfterAll
+	static void dropDatabase() {
+		if (mongoClient != null) {
+			mongoTemplate.getDb().drop();
+			mongoClient.close();
+		}
+		if (mongod != null) {
+			mongod.close();
+		}
+	}
+
+	@Test
+	void derivedRepositoryQueriesUseAnIndex() throws ClassNotFoundException {
+		List<String> collectionScans = new ArrayList<>();
+		int explained = 0;
+		for (Class<?> repository : scan(REPOSITORY_PACKAGE, new AssignableTypeFilter(Repository.class), true)) {
+			Class<?> domainType = AbstractRepositoryMetadata.getMetadata(repository).getDomainType();
+			for (Method method : repository.getDeclaredMethods()) {
+				Query query = method.getAnnotation(Query.class);
+				if (query != null && !query.value().isEmpty()) {
+					// String queries select by _id or read a whole collection on purpose.
+					continue;
+				}
+				Document filter = filterFor(new PartTree(method.getName(), domainType));
+				if (usesCollectionScan(mongoTemplate.getCollectionName(domainType), filter)) {
+					collectionScans.add(repository.getSimpleName() + "." + method.getName() + " " + filter.toJson());
+				}
+				explained++;
+			}
+		}
+		assertThat(explained).isPositive();
+		assertThat(collectionScans).as("Queries answered by a collection scan").isEmpty();
+	}
+
+	@Test
+	void uploadChunkQueryUsesAnIndex() {
+		assertThat(usesCollectionScan(BUCKET + ".files", new Document("metadata.uploadSessionId", "session"))).isFalse();
+	}
+
+	@Test
+	void retainedChunksQueryUsesAnIndex() {
+		assertThat(usesCollectionScan(BUCKET + ".files", new Document("metadata.coldSince", new Document("$lt", new Date()))))
+				.isFalse();
+	}
+
+	/**
+	 * Builds a filter with placeholder values matching the criteria of a derived query.
+	 */
+	private static Document filterFor(PartTree partTree) {
+		Document filter = new Document();
+		for (Part part : partTree.getParts()) {
+			MongoPersistentProperty property = mappingContext.getPersistentPropertyPath(part.getProperty()).getLeafProperty();
+			Object value = placeholder(property.getType());
+			switch (part.getType()) {
+				case SIMPLE_PROPERTY -> filter.append(property.getFieldName(), value);
+				case BEFORE, LESS_THAN -> filter.append(property.getFieldName(), new Document("$lt", value));
+				case AFTER, GREATER_THAN -> filter.append(property.getFieldName(), new Document("$gt", value));
+				default -> throw new IllegalStateException("No placeholder filter for " + part.getType() + ", extend this test");
+			}
+		}
+		return filter;
+	}
+
+	private static Object placeholder(Class<?> type) {
+		if (type == long.class || type == Long.class) {
+			return 1L;
+		}
+		if (type == Date.class) {
+			return new Date();
+		}
+		return "placeholder";
+	}
+
+	/**
+	 * Explains a find on a collection and checks whether the winning plan scans the collection.
+	 */
+	private static boolean usesCollectionScan(String collection, Document filter) {
+		Document explain = mongoTemplate.getDb().runCommand(new Document("explain",
+				new Document("find", collection).append("filter", filter)).append("verbosity", "queryPlanner"));
+		Document queryPlanner = explain.get("queryPlanner", Document.class);
+		return containsStage(queryPlanner.get("winningPlan"), "COLLSCAN");
+	}
+
+	private static boolean containsStage(Object plan, String stage) {
+		if (plan instanceof Document document) {
+			if (stage.equals(document.getString("stage"))) {
+				return true;
+			}
+			return document.values().stream().anyMatch(value -> containsStage(value, stage));
+		}
+		if (plan instanceof List<?> list) {
+			return list.stream().anyMatch(value -> containsStage(value, stage));
+		}
+		return false;
+	}
+
+	private static Set<Class<?>> scan(String basePackage, TypeFilter filter,
+			boolean interfaces) throws ClassNotFoundException {
+		ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false) {
+			@Override
+			protected boolean isCandidateComponent(AnnotatedBeanDefinition beanDefinition) {
+				return interfaces ? beanDefinition.getMetadata().isInterface() : beanDefinition.getMetadata().isConcrete();
+			}
+		};
+		scanner.addIncludeFilter(filter);
+		Set<Class<?>> classes = new HashSet<>();
+		for (BeanDefinition candidate : scanner.findCandidateComponents(basePackage)) {
+			classes.add(ClassUtils.forName(candidate.getBeanClassName(), MongoIndexQueryPlanTests.class.getClassLoader()));
+		}
+		return classes;
+	}
+}
@@ -1,17 +1,95 @@
 package com.onehealth.config;
 
-import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
 
+import io.netty.channel.ChannelOption;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.client.HttpClientRequest;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * Configures the WebClients used to call the other services through the API gateway.
+ * <p>
+ * All clients share one pool of connections. The pool is bounded, and so is the queue of calls
+ * waiting for a connection; connections are kept alive between calls, and evicted once idle for
+ * longer than the gateway is likely to keep them open. Each downstream service has its own
+ * client, built once at startup, with its own response timeout. The clients are built from
+ * Spring Boot's WebClient.Builder, so every call is timed by Micrometer as
+ * "http.client.requests", tagged with the URI template of the call; the pool publishes its
+ * state under "reactor.netty.connection.provider". The calls to each downstream service are
+ * guarded by a circuit breaker and a bulkhead of their own, see DownstreamResilience.
+ */
 @Configuration
 public class WebClientConfig {
-	
+
+	@Value("${apiGatewayUrl}")
+	private String apiGatewayUrl;
+
+	@Autowired
+	private DownstreamResilience downstreamResilience;
+
+	@Bean(destroyMethod = "dispose")
+	public ConnectionProvider downstreamConnectionProvider(
+			@Value("${webclient.pool.max-connections:100}") int maxConnections,
+			@Value("${webclient.pool.pending-acquire-max-count:200}") int pendingAcquireMaxCount,
+			@Value("${webclient.pool.pending-acquire-timeout-ms:2000}") long pendingAcquireTimeoutMillis,
+			@Value("${webclient.pool.max-idle-time-ms:30000}") long maxIdleTimeMillis,
+			@Value("${webclient.pool.max-life-time-ms:300000}") long maxLifeTimeMillis) {
+		return ConnectionProvider.builder("downstream")
+				.maxConnections(maxConnections)
+				.pendingAcquireMaxCount(pendingAcquireMaxCount)
+				.pendingAcquireTimeout(Duration.ofMillis(pendingAcquireTimeoutMillis))
+				.maxIdleTime(Duration.ofMillis(maxIdleTimeMillis))
+				.maxLifeTime(Duration.ofMillis(maxLifeTimeMillis))
+				.evictInBackground(Duration.ofMillis(maxIdleTimeMillis))
+				.metrics(true)
+				.build();
+	}
+
+	/**
+	 * Spring Boot builds every WebClient.Builder on this connector, in place of one with a pool of its own.
+	 */
 	@Bean
-//	@LoadBalanced
-	public WebClient.Builder webClientBuilder() {
-		return WebClient.builder();
+	public ClientHttpConnector downstreamClientHttpConnector(ConnectionProvider downstreamConnectionProvider,
+			@Value("${webclient.connect-timeout-ms:2000}") int connectTimeoutMillis) {
+		HttpClient httpClient = HttpClient.create(downstreamConnectionProvider)
+				.option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMillis)
+				.keepAlive(true);
+		return new ReactorClientHttpConnector(httpClient);
+	}
+
+	/**
+	 * Client of the Patient Management service.
+	 */
+	@Bean
+	public WebClient patientWebClient(WebClient.Builder webClientBuilder,
+			@Value("${webclient.downstream.patient.response-timeout-ms:2000}") long responseTimeoutMillis) {
+		return downstreamWebClient(webClientBuilder.filter(downstreamResilience.filter("patient")), responseTimeoutMillis);
+	}
+
+	/**
+	 * Client of the Lab Test Management service.
+	 */
+	@Bean
+	public WebClient testsWebClient(WebClient.Builder webClientBuilder,
+			@Value("${webclient.downstream.tests.response-timeout-ms:2000}") long responseTimeoutMillis) {
+		return downstreamWebClient(webClientBuilder.filter(downstreamResilience.filter("tests")), responseTimeoutMillis);
+	}
+
+	private WebClient downstreamWebClient(WebClient.Builder webClientBuilder, long responseTimeoutMillis) {
+		Duration responseTimeout = Duration.ofMillis(responseTimeoutMillis);
+		return webClientBuilder
+				.baseUrl(apiGatewayUrl)
+				.defaultRequest(request -> request.httpRequest(httpRequest ->
+						httpRequest.<HttpClientRequest>getNativeRequest().responseTimeout(responseTimeout)))
+				.build();
 	}
-	
 }
@@ -10,6 +10,7 @@ import com.onehealth.exception.ResourceNotFoundException;
 import com.onehealth.exception.ServiceNotAvailableException;
 import com.onehealth.repository.LabCartRepository;
 import com.onehealth.service.LabCartService;
+import com.onehealth.service.PatientService;
 import java.util.List;
 import java.util.logging.Logger;
 
@@ -23,6 +24,9 @@ public class LabCartController {
 
     @Autowired
     private LabCartService labCartService;
+
+    @Autowired
+    private PatientService patientService;
     
     @Autowired 
     private LabCartRepository repository;
@@ -124,15 +128,20 @@ public class LabCartController {
     /**
      * Clears the LabCart with the specified cartId.
      *
-     * @param cartId The unique identifier of the LabCart to clear.
+     * Called by the Lab Test Order Management service when an order is placed; a repeated
+     * delivery of the same order carries the same idempotency key and leaves the cart as it is.
+     *
+     * @param cartId         The unique identifier of the LabCart to clear.
+     * @param idempotencyKey The idempotency key of the request, if any.
      * @return A ResponseEntity with a success message if clearing is successful.
      * @throws ResourceNotFoundException If the LabCart with the provided cartId is not found.
      */
     @PostMapping("/clearCart/{cartId}")
-    public ResponseEntity<?> clearCart(@PathVariable long cartId) throws ResourceNotFoundException {
+    public ResponseEntity<?> clearCart(@PathVariable long cartId,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) throws ResourceNotFoundException {
         try {
             // Clear the LabCart with the provided cartId.
-            labCartService.clearCart(cartId);
+            labCartService.clearCart(cartId, idempotencyKey);
 
             // Return a ResponseEntity with a success message.
             return ResponseEntity.ok("Cart cleared successfully!!");
@@ -142,6 +151,19 @@ public class LabCartController {
         }
     }
 
+    /**
+     * Evicts the profile of a patient from the local cache, so that the next lookup fetches it
+     * from the Patient Management service again. To be called when the profile changes.
+     *
+     * @param patientId The unique identifier of the patient.
+     * @return A ResponseEntity with a success message.
+     */
+    @DeleteMapping("/patient-cache/{patientId}")
+    public ResponseEntity<String> evictPatient(@PathVariable long patientId) {
+        patientService.evictPatient(patientId);
+        return ResponseEntity.ok("Patient evicted from the cache successfully!!");
+    }
+
     /**
      * Retrieves a list of all LabCarts.
      *
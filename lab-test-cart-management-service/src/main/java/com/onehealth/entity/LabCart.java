@@ -25,6 +25,9 @@ public class LabCart {
 	@JsonIgnore
 	private Set<LabCartItem> lab_cart_items = new HashSet<>();
 	private long patientId;
+	// Idempotency key of the order event that cleared the cart last, so a repeated delivery is recognised
+	@JsonIgnore
+	private String lastClearKey;
 	
 	
 	public long getCart_id() {
@@ -45,6 +48,12 @@ public class LabCart {
 	public void setPatient_id(long patient_id) {
 		this.patientId = patient_id;
 	}
+	public String getLastClearKey() {
+		return lastClearKey;
+	}
+	public void setLastClearKey(String lastClearKey) {
+		this.lastClearKey = lastClearKey;
+	}
 	@Override
 	public String toString() {
 		return "LabCart [cart_id=" + cart_id + ", lab_cart_items=" + lab_cart_items + ", patient_id=" + patientId + "]";
@@ -3,8 +3,14 @@ package com.onehealth.exception;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ResponseStatus;
 
+/**
+ * Exception thrown when a service the cart depends on is not available, such as a downstream
+ * service whose calls are refused by its circuit breaker or bulkhead.
+ * It returns a 503 (SERVICE_UNAVAILABLE) HTTP status, so that the client may retry later. It is
+ * unchecked, so that it passes unchanged through the blocking of a reactive call.
+ */
 @ResponseStatus(value = HttpStatus.SERVICE_UNAVAILABLE)
-public class ServiceNotAvailableException extends Exception {
+public class ServiceNotAvailableException extends RuntimeException {
 
 	/**
 	 * 
@@ -51,11 +51,14 @@ public interface LabCartService {
 	LabCart getCartById(long cartId) throws ResourceNotFoundException;
 
 	/**
-	 * Clears all items from the lab cart specified by its unique identifier.
+	 * Clears all items from the lab cart specified by its unique identifier. A repeated request
+	 * with the idempotency key of the last clear leaves the cart as it is, so items added after
+	 * an order are not removed when the order event is delivered again.
 	 *
-	 * @param cartId The unique identifier of the lab cart to be cleared.
+	 * @param cartId         The unique identifier of the lab cart to be cleared.
+	 * @param idempotencyKey The idempotency key of the request, or null if it has none.
 	 * @throws ResourceNotFoundException If the lab cart is not found.
 	 */
-	void clearCart(long cartId) throws ResourceNotFoundException;
+	void clearCart(long cartId, String idempotencyKey) throws ResourceNotFoundException;
 
 }
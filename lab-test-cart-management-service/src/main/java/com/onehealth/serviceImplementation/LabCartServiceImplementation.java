@@ -7,7 +7,7 @@ import java.util.logging.Logger;
 import java.util.stream.Collectors;
 import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 import com.onehealth.dto.CartItemRequest;
@@ -19,6 +19,7 @@ import com.onehealth.exception.ResourceNotFoundException;
 import com.onehealth.exception.ServiceNotAvailableException;
 import com.onehealth.repository.LabCartRepository;
 import com.onehealth.service.LabCartService;
+import com.onehealth.service.PatientService;
 
 import jakarta.transaction.Transactional;
 
@@ -38,10 +39,11 @@ public class LabCartServiceImplementation implements LabCartService {
 	private ModelMapper mapper;
 	
 	@Autowired
-	private WebClient.Builder webClientBuilder;
+	private PatientService patientService;
 	
-	@Value("${apiGatewayUrl}")
-	private String apiGatewayUrl;
+	@Autowired
+	@Qualifier("testsWebClient")
+	private WebClient testsWebClient;
 	
 	
 	private static final Logger logger = Logger.getLogger(LabCartServiceImplementation.class.getName());
@@ -58,12 +60,7 @@ public class LabCartServiceImplementation implements LabCartService {
 
 	    // Fetch patient details from Patient Management service
 	    logger.info("Fetching Patient Details With ID : "+itemRequest.getPatient_id());
-	    Patient patientDto = webClientBuilder.build()
-	            .get()
-	            .uri(apiGatewayUrl+"/patientProfile/byPatientId/{patientId}",itemRequest.getPatient_id())
-	            .retrieve()
-	            .bodyToMono(Patient.class)
-	            .block();
+	    Patient patientDto = patientService.getPatient(itemRequest.getPatient_id()).block();
 	    System.out.println(patientDto);
 	    if (patientDto == null) {
 	        logger.warning("Failed to add test to lab cart: Patient not found with ID " + itemRequest.getPatient_id());
@@ -72,10 +69,9 @@ public class LabCartServiceImplementation implements LabCartService {
 
 	    // Fetch test details from Test Management service
 	    logger.info("Fetching Test Details With ID : "+itemRequest.getTest_id());
-	    Tests test = webClientBuilder.build()
+	    Tests test = testsWebClient
 	            .get()
-	            .uri(apiGatewayUrl+"/api/test/singleTest",
-	                    uriBuilder -> uriBuilder.queryParam("test_id", itemRequest.getTest_id()).build())
+	            .uri("/api/test/singleTest?test_id={testId}", itemRequest.getTest_id())
 	            .retrieve()
 	            .bodyToMono(Tests.class)
 	            .block();
@@ -146,12 +142,7 @@ public class LabCartServiceImplementation implements LabCartService {
 	@Override
 	public LabCart getCart(long patientId) throws ResourceNotFoundException, ServiceNotAvailableException {
 		logger.info("Fetching Patient Details With ID : "+patientId);
-	    Patient patientDto = webClientBuilder.build()
-		    .get()
-		    .uri(apiGatewayUrl+"/patientProfile/byPatientId/{patientId}", patientId)
-		    .retrieve()
-		    .bodyToMono(Patient.class)
-		    .block();
+	    Patient patientDto = patientService.getPatient(patientId).block();
 	    
 
 		if (patientDto == null) {
@@ -207,17 +198,24 @@ public class LabCartServiceImplementation implements LabCartService {
 	}	
 	
 	/**
-	 * Clears a lab cart by removing all items from it.
+	 * Clears a lab cart by removing all items from it, unless it was cleared last by a request
+	 * with the same idempotency key.
 	 *
-	 * @param cartId The unique identifier of the lab cart to clear.
+	 * @param cartId         The unique identifier of the lab cart to clear.
+	 * @param idempotencyKey The idempotency key of the request, or null if it has none.
 	 * @throws ResourceNotFoundException If the lab cart is not found.
 	 */
 	@Override
-	public void clearCart(long cartId) throws ResourceNotFoundException {
-		logger.info("Clearing cart with cart id " + cartId);
+	public void clearCart(long cartId, String idempotencyKey) throws ResourceNotFoundException {
 		LabCart cart = getCartById(cartId);
+		if (idempotencyKey != null && idempotencyKey.equals(cart.getLastClearKey())) {
+			logger.info("Cart with cart id " + cartId + " was already cleared for " + idempotencyKey);
+			return;
+		}
+		logger.info("Clearing cart with cart id " + cartId);
 		
 		cart.getCart_items().clear();
+		cart.setLastClearKey(idempotencyKey);
 		labCartRepository.save(cart);
 	}
 	
@@ -0,0 +1,43 @@
+package com.onehealth.config;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+/**
+ * Runs request handling on virtual threads when spring.threads.virtual.enabled is true, the
+ * property Spring Boot 3.2 reads for the same purpose. Tomcat then hands every request to a new
+ * virtual thread instead of a worker of its bounded pool, so a request waiting on the database
+ * or blocking on a call to another service does not hold a platform thread; the services run
+ * on the thread of the request and so on a virtual thread as well. The application task
+ * executor starts a virtual thread per task too.
+ * <p>
+ * By default the service runs on Netty, whose few event loop threads must never block. The
+ * mode is opt-in and needs Java 21, so this class is only compiled by the Maven profile
+ * "virtual-threads", which builds for Java 21: build with that profile and start the service
+ * with the Spring profile "virtual-threads", which also switches it to Tomcat.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+	@Bean(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+	public AsyncTaskExecutor applicationTaskExecutor() {
+		return new TaskExecutorAdapter(Executors.newVirtualThreadPerTaskExecutor());
+	}
+
+	@Bean
+	public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+		ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+		return protocolHandler -> protocolHandler.setExecutor(executor);
+	}
+}
@@ -2,9 +2,11 @@ package com.onehealth;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.web.bind.annotation.GetMapping;
 
 @SpringBootApplication
+@EnableScheduling
 public class LabTestManagementServiceApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,39 @@
+package com.onehealth.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.onehealth.entity.Tests;
+
+/**
+ * Moves the sequence the test IDs are taken from past the IDs already in use at startup.
+ * <p>
+ * The IDs used to be generated by an identity column, so in a database that has tests from
+ * before, the sequence created for the entity starts below their IDs. The sequence is only
+ * moved while it is behind the highest ID; once it is ahead, this does nothing.
+ */
+@Component
+public class TestsSequenceInitializer implements ApplicationRunner {
+
+	private static final Logger logger = LoggerFactory.getLogger(TestsSequenceInitializer.class);
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Override
+	public void run(ApplicationArguments args) {
+		Long position = jdbcTemplate.query(
+				"SELECT setval('" + Tests.ID_SEQUENCE + "', m.max_id) FROM"
+						+ " (SELECT COALESCE(MAX(test_id), 0) AS max_id FROM tests) m, " + Tests.ID_SEQUENCE + " s"
+						+ " WHERE s.last_value <= m.max_id",
+				resultSet -> resultSet.next() ? resultSet.getLong(1) : null);
+		if (position != null) {
+			logger.info("Moved the sequence {} past the existing test IDs, to {}", Tests.ID_SEQUENCE, position);
+		}
+	}
+}
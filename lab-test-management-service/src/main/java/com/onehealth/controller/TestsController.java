@@ -4,6 +4,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -16,14 +17,24 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.onehealth.dto.CityAndName;
+import com.onehealth.dto.TestImportReport;
+import com.onehealth.dto.TestSearchResult;
+import com.onehealth.dto.TestSuggestion;
 import com.onehealth.dto.TestsDto;
 import com.onehealth.dto.TestsUpdateRequest;
 import com.onehealth.entity.Tests;
 import com.onehealth.exception.DatabaseException;
 import com.onehealth.exception.LabNotFoundException;
 import com.onehealth.exception.TestNotFoundException;
+import com.onehealth.service.LabService;
+import com.onehealth.service.TestImportService;
+import com.onehealth.service.TestSearchService;
+import com.onehealth.service.TestSuggestService;
 import com.onehealth.service.TestsService;
 
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
 
 
 
@@ -40,6 +51,18 @@ public class TestsController {
 
 	    @Autowired
 	    private TestsService testsService;
+
+	    @Autowired
+	    private LabService labService;
+
+	    @Autowired
+	    private TestImportService testImportService;
+
+	    @Autowired
+	    private TestSearchService testSearchService;
+
+	    @Autowired
+	    private TestSuggestService testSuggestService;
 	    
 	    /**
 	     * Endpoint to fetch all tests.
@@ -163,6 +186,76 @@ public class TestsController {
 	    
 	    
 	    
+	    /**
+	     * Endpoint to add many tests to a lab at once, given as a JSON array. The array is read as it
+	     * arrives, so it may be large.
+	     *
+	     * @param labId The ID of the lab the tests are added to.
+	     * @param tests The tests to be added.
+	     * @return ResponseEntity with the report of the import, or a not found status if there is no such lab.
+	     */
+	    @PostMapping(value = "/import/{labId}", consumes = MediaType.APPLICATION_JSON_VALUE)
+	    public Mono<ResponseEntity<?>> importTests(@PathVariable long labId, @RequestBody Flux<TestsDto> tests) {
+	        logger.info("Received request to import tests into lab with labId: {}", labId);
+	        return toImportResponse(testImportService.importTests(labId, tests));
+	    }
+
+	    /**
+	     * Endpoint to add many tests to a lab at once, given as a CSV file with a header line. The
+	     * file is read as it arrives, so it may be large.
+	     *
+	     * @param labId The ID of the lab the tests are added to.
+	     * @param lines The lines of the file.
+	     * @return ResponseEntity with the report of the import, or a not found status if there is no such lab.
+	     */
+	    @PostMapping(value = "/import/{labId}", consumes = "text/csv")
+	    public Mono<ResponseEntity<?>> importTestsFromCsv(@PathVariable long labId, @RequestBody Flux<String> lines) {
+	        logger.info("Received request to import tests from CSV into lab with labId: {}", labId);
+	        return toImportResponse(testImportService.importTestsFromCsv(labId, lines));
+	    }
+
+	    private Mono<ResponseEntity<?>> toImportResponse(Mono<TestImportReport> report) {
+	        return report
+	                .<ResponseEntity<?>>map(result -> new ResponseEntity<>(result, HttpStatus.OK))
+	                .onErrorResume(LabNotFoundException.class, e -> {
+	                    logger.warn(e.getMessage());
+	                    return Mono.just(ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage()));
+	                });
+	    }
+
+	    /**
+	     * Endpoint to search the approved tests of active labs by words, which may be partial or
+	     * misspelled, such as "lipid prof" or "hba1c".
+	     *
+	     * @param query The words searched for.
+	     * @param city  The city of the labs, optional.
+	     * @param limit The number of tests returned at most, 20 by default and 100 at most.
+	     * @return ResponseEntity containing the matching tests, most relevant first, and HTTP status.
+	     */
+	    @GetMapping("/search")
+	    public ResponseEntity<List<TestSearchResult>> searchTests(@RequestParam("q") String query,
+	            @RequestParam(value = "city", required = false) String city,
+	            @RequestParam(value = "limit", defaultValue = "20") int limit) {
+	        logger.info("Searching tests for query: {} and city: {}", query, city);
+	        List<TestSearchResult> results = testSearchService.searchTests(query, city, limit);
+	        logger.debug("Found {} tests", results.size());
+	        return new ResponseEntity<>(results, HttpStatus.OK);
+	    }
+
+	    /**
+	     * Endpoint to complete what is typed into a search box to test names and lab cities, the ones
+	     * offered by the most labs first. It is meant to be called on every keystroke, instead of
+	     * fetching all tests of a city and filtering them.
+	     *
+	     * @param prefix The text typed so far; it may start any word of a completion.
+	     * @return ResponseEntity containing at most 10 completions and HTTP status.
+	     */
+	    @GetMapping("/suggest")
+	    public ResponseEntity<List<TestSuggestion>> suggest(@RequestParam(value = "prefix", defaultValue = "") String prefix) {
+	        logger.debug("Suggesting completions for prefix: {}", prefix);
+	        return new ResponseEntity<>(testSuggestService.suggest(prefix), HttpStatus.OK);
+	    }
+
 	    /**
 	     * Retrieves a list of tests by their category.
 	     *
@@ -214,6 +307,25 @@ public class TestsController {
 	        return ResponseEntity.ok("Lab active status updated for labId: " + labId);
 	    }
 
+	    /**
+	     * Copies the current details of a lab into all its tests.
+	     *
+	     * @param labId The ID of the lab.
+	     * @return A ResponseEntity with a success message if the update was successful, or a not found status if there is no such lab.
+	     */
+	    @PostMapping("/updateLabDetails/{labId}")
+	    public Mono<ResponseEntity<String>> updateLabDetails(@PathVariable(value = "labId") long labId) {
+	        return testsService.updateLabDetails(labId)
+	                .then(Mono.fromSupplier(() -> {
+	                    logger.info("Updated lab details for labId: {}", labId);
+	                    return ResponseEntity.ok("Lab details updated for labId: " + labId);
+	                }))
+	                .onErrorResume(LabNotFoundException.class, e -> {
+	                    logger.warn(e.getMessage());
+	                    return Mono.just(ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage()));
+	                });
+	    }
+
 	    /**
 	     * Deletes all tests associated with a lab.
 	     *
@@ -227,6 +339,20 @@ public class TestsController {
 	        return ResponseEntity.ok("Deleted All tests for labId: " + labId);
 	    }
 
+	    /**
+	     * Evicts a lab from the local cache, so that the next test written for it fetches the lab
+	     * again. The Labs Management service evicts labs through the calls that follow its changes;
+	     * this is for a lab changed by other means.
+	     *
+	     * @param labId The ID of the lab.
+	     * @return A ResponseEntity with a success message.
+	     */
+	    @DeleteMapping("/lab-cache/{labId}")
+	    public ResponseEntity<String> evictLab(@PathVariable long labId) {
+	        labService.evictLab(labId);
+	        return ResponseEntity.ok("Lab evicted from the cache for labId: " + labId);
+	    }
+
 	    /**
 	     * Sets the approval status of a test.
 	     *
@@ -0,0 +1,43 @@
+package com.onehealth.dto;
+
+/**
+ * A row of a test import that could not be imported, with the reason.
+ */
+public class TestImportError {
+
+	// Position of the row in the input: the index in a JSON array or the line number in a CSV file, from 1
+	private long row;
+
+	private String message;
+
+	public TestImportError() {
+		super();
+	}
+
+	public TestImportError(long row, String message) {
+		super();
+		this.row = row;
+		this.message = message;
+	}
+
+	public long getRow() {
+		return row;
+	}
+
+	public void setRow(long row) {
+		this.row = row;
+	}
+
+	public String getMessage() {
+		return message;
+	}
+
+	public void setMessage(String message) {
+		this.message = message;
+	}
+
+	@Override
+	public String toString() {
+		return "TestImportError [row=" + row + ", message=" + message + "]";
+	}
+}
@@ -0,0 +1,56 @@
+package com.onehealth.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The outcome of a test import: how many rows were imported, and which rows were not and why.
+ */
+public class TestImportReport {
+
+	private long imported;
+
+	private long failed;
+
+	private List<TestImportError> errors = new ArrayList<>();
+
+	public TestImportReport() {
+		super();
+	}
+
+	public TestImportReport(long imported, List<TestImportError> errors) {
+		super();
+		this.imported = imported;
+		this.failed = errors.size();
+		this.errors = errors;
+	}
+
+	public long getImported() {
+		return imported;
+	}
+
+	public void setImported(long imported) {
+		this.imported = imported;
+	}
+
+	public long getFailed() {
+		return failed;
+	}
+
+	public void setFailed(long failed) {
+		this.failed = failed;
+	}
+
+	public List<TestImportError> getErrors() {
+		return errors;
+	}
+
+	public void setErrors(List<TestImportError> errors) {
+		this.errors = errors;
+	}
+
+	@Override
+	public String toString() {
+		return "TestImportReport [imported=" + imported + ", failed=" + failed + "]";
+	}
+}
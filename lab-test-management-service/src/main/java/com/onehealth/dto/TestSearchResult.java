@@ -0,0 +1,104 @@
+package com.onehealth.dto;
+
+/**
+ * A test found by a search of the test catalog, with its relevance to the search.
+ */
+public class TestSearchResult {
+
+	private long test_id;
+	private String testName;
+	private String testCategory;
+	private int price;
+	private long labId;
+	private String labName;
+	private String labCity;
+	private float score;
+
+	public TestSearchResult() {
+		super();
+	}
+
+	public TestSearchResult(long test_id, String testName, String testCategory, int price, long labId, String labName,
+			String labCity, float score) {
+		super();
+		this.test_id = test_id;
+		this.testName = testName;
+		this.testCategory = testCategory;
+		this.price = price;
+		this.labId = labId;
+		this.labName = labName;
+		this.labCity = labCity;
+		this.score = score;
+	}
+
+	public long getTest_id() {
+		return test_id;
+	}
+
+	public void setTest_id(long test_id) {
+		this.test_id = test_id;
+	}
+
+	public String getTestName() {
+		return testName;
+	}
+
+	public void setTestName(String testName) {
+		this.testName = testName;
+	}
+
+	public String getTestCategory() {
+		return testCategory;
+	}
+
+	public void setTestCategory(String testCategory) {
+		this.testCategory = testCategory;
+	}
+
+	public int getPrice() {
+		return price;
+	}
+
+	public void setPrice(int price) {
+		this.price = price;
+	}
+
+	public long getLabId() {
+		return labId;
+	}
+
+	public void setLabId(long labId) {
+		this.labId = labId;
+	}
+
+	public String getLabName() {
+		return labName;
+	}
+
+	public void setLabName(String labName) {
+		this.labName = labName;
+	}
+
+	public String getLabCity() {
+		return labCity;
+	}
+
+	public void setLabCity(String labCity) {
+		this.labCity = labCity;
+	}
+
+	public float getScore() {
+		return score;
+	}
+
+	public void setScore(float score) {
+		this.score = score;
+	}
+
+	@Override
+	public String toString() {
+		return "TestSearchResult [test_id=" + test_id + ", testName=" + testName + ", testCategory=" + testCategory
+				+ ", price=" + price + ", labId=" + labId + ", labName=" + labName + ", labCity=" + labCity
+				+ ", score=" + score + "]";
+	}
+}
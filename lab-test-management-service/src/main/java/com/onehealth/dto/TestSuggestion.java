@@ -0,0 +1,53 @@
+package com.onehealth.dto;
+
+/**
+ * A completion of what is typed into a search box: a test name or a lab city.
+ */
+public class TestSuggestion {
+
+	// TEST for a test name, CITY for a lab city
+	private String type;
+	private String text;
+	// Number of active labs offering the test, or in the city
+	private long labs;
+
+	public TestSuggestion() {
+		super();
+	}
+
+	public TestSuggestion(String type, String text, long labs) {
+		super();
+		this.type = type;
+		this.text = text;
+		this.labs = labs;
+	}
+
+	public String getType() {
+		return type;
+	}
+
+	public void setType(String type) {
+		this.type = type;
+	}
+
+	public String getText() {
+		return text;
+	}
+
+	public void setText(String text) {
+		this.text = text;
+	}
+
+	public long getLabs() {
+		return labs;
+	}
+
+	public void setLabs(long labs) {
+		this.labs = labs;
+	}
+
+	@Override
+	public String toString() {
+		return "TestSuggestion [type=" + type + ", text=" + text + ", labs=" + labs + "]";
+	}
+}
@@ -4,6 +4,7 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
 
 /**
  * The TestDto entity class represents the structure of a test in the system.
@@ -12,13 +13,26 @@ import jakarta.persistence.Id;
 @Entity
 public class Tests {
 
+	/**
+	 * Name of the sequence the test IDs are taken from.
+	 */
+	public static final String ID_SEQUENCE = "tests_seq";
+
+	/**
+	 * Number of IDs taken from the sequence at a time. Hibernate hands them out in memory, so
+	 * inserting many tests costs one round trip to the sequence per this many tests, and the
+	 * inserts themselves can be batched, which an identity column would prevent.
+	 */
+	public static final int ID_ALLOCATION_SIZE = 100;
+
 	/**
 	 * Primary key for the test entity.
 	 *
 	 * @return The test ID.
 	 */
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = ID_SEQUENCE)
+	@SequenceGenerator(name = ID_SEQUENCE, sequenceName = ID_SEQUENCE, allocationSize = ID_ALLOCATION_SIZE)
 	private long test_id;
 
 	/**
@@ -1,7 +1,9 @@
 package com.onehealth.repository;
 import java.util.List;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
@@ -22,6 +24,17 @@ public interface TestRepository extends JpaRepository<Tests, Long> {
 	 * @return A list of Tests matching the provided lab ID.
 	 */
 	List<Tests> findByLabId(long lab_id);
+
+	/**
+	 * Retrieves the tests with an ID greater than the given one, in order of ID. Paging through
+	 * the tests this way costs the same for every page, unlike an offset.
+	 *
+	 * @param after    The ID after which the page starts, 0 for the first page.
+	 * @param pageable The number of tests in the page.
+	 * @return The tests of the page.
+	 */
+	@Query("SELECT t FROM Tests t WHERE t.test_id > :after ORDER BY t.test_id")
+	List<Tests> findPageAfter(@Param("after") long after, Pageable pageable);
 	
 	/**
      * Retrieves a list of tests by their category.
@@ -51,12 +64,67 @@ public interface TestRepository extends JpaRepository<Tests, Long> {
     List<Tests> findByLabCity(@Param("labCity") String labCity);
 
     /**
-     * Deletes all tests associated with a lab by lab ID.
+     * Counts the active labs offering each test name, among approved tests, the most offered first.
+     *
+     * @param pageable The number of test names returned at most.
+     * @return Pairs of the test name and the number of labs.
+     */
+    @Query("SELECT t.testName, COUNT(DISTINCT t.labId) FROM Tests t WHERE t.isLabActive = true AND t.test_approval = true"
+            + " AND t.testName IS NOT NULL GROUP BY t.testName ORDER BY COUNT(DISTINCT t.labId) DESC")
+    List<Object[]> countLabsByTestName(Pageable pageable);
+
+    /**
+     * Counts the active labs with approved tests in each city, the city with the most labs first.
+     *
+     * @param pageable The number of cities returned at most.
+     * @return Pairs of the city and the number of labs.
+     */
+    @Query("SELECT t.labCity, COUNT(DISTINCT t.labId) FROM Tests t WHERE t.isLabActive = true AND t.test_approval = true"
+            + " AND t.labCity IS NOT NULL GROUP BY t.labCity ORDER BY COUNT(DISTINCT t.labId) DESC")
+    List<Object[]> countLabsByLabCity(Pageable pageable);
+
+    /**
+     * Deletes all tests associated with a lab by lab ID, in a single statement.
      *
      * @param labId The ID of the lab from which to delete tests.
+     * @return The number of tests deleted.
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM Tests t WHERE t.labId = :labId")
+    int deleteByLabId(@Param("labId") long labId);
+
+    /**
+     * Sets the lab active status of all tests associated with a lab, in a single statement.
+     *
+     * @param labId  The ID of the lab.
+     * @param active The new active status of the lab.
+     * @return The number of tests updated.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Tests t SET t.isLabActive = :active WHERE t.labId = :labId")
+    int updateLabActiveByLabId(@Param("labId") long labId, @Param("active") boolean active);
+
+    /**
+     * Sets the lab details copied into all tests associated with a lab, in a single statement.
+     *
+     * @param labId      The ID of the lab.
+     * @param labName    The name of the lab.
+     * @param labAddress The address of the lab.
+     * @param labCity    The city of the lab.
+     * @param labArea    The area of the lab.
+     * @param pincode    The postal code of the lab.
+     * @param active     The active status of the lab.
+     * @return The number of tests updated.
      */
     @Transactional
-    void deleteByLabId(long labId);
+    @Modifying
+    @Query("UPDATE Tests t SET t.labName = :labName, t.labAddress = :labAddress, t.labCity = :labCity,"
+            + " t.labArea = :labArea, t.pincode = :pincode, t.isLabActive = :active WHERE t.labId = :labId")
+    int updateLabDetailsByLabId(@Param("labId") long labId, @Param("labName") String labName,
+            @Param("labAddress") String labAddress, @Param("labCity") String labCity, @Param("labArea") String labArea,
+            @Param("pincode") int pincode, @Param("active") boolean active);
 
 	
 
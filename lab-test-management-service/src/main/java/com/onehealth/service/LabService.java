@@ -0,0 +1,27 @@
+package com.onehealth.service;
+
+import com.onehealth.dto.LabManagement;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * The LabService interface provides methods to look up labs in the Labs Management service. The
+ * labs are kept in a local cache, as their details are copied into every test written for them.
+ */
+public interface LabService {
+
+	/**
+	 * Looks up a lab.
+	 *
+	 * @param labId The ID of the lab.
+	 * @return A Mono emitting the lab, or completing empty if there is no such lab.
+	 */
+	Mono<LabManagement> getLab(long labId);
+
+	/**
+	 * Removes a lab from the cache, so that the next lookup fetches it again.
+	 *
+	 * @param labId The ID of the lab.
+	 */
+	void evictLab(long labId);
+}
@@ -0,0 +1,37 @@
+package com.onehealth.service;
+
+import com.onehealth.dto.TestImportReport;
+import com.onehealth.dto.TestsDto;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * The TestImportService interface provides methods to add many tests to a lab at once, such as
+ * the whole price list of a lab being onboarded. The rows are read as they arrive and stored in
+ * batches; a row that is invalid or cannot be stored is reported rather than failing the import.
+ */
+public interface TestImportService {
+
+	/**
+	 * Imports tests given as objects, such as the elements of a JSON array.
+	 *
+	 * @param labId The ID of the lab the tests are added to.
+	 * @param tests The tests; their lab ID, if set, must be the one of the lab.
+	 * @return A Mono emitting the report of the import, or a LabNotFoundException if there is no such lab.
+	 */
+	Mono<TestImportReport> importTests(long labId, Flux<TestsDto> tests);
+
+	/**
+	 * Imports tests given as the lines of a CSV file. The first line is a header naming the
+	 * columns, which are the fields of TestsDto: testName and price are required, and
+	 * test_description, testCategory, home_sample, test_approval and gov_appro_cert_path optional.
+	 * A quoted value may contain commas and line breaks; the rows are numbered by the line they
+	 * start on.
+	 *
+	 * @param labId The ID of the lab the tests are added to.
+	 * @param lines The lines of the file.
+	 * @return A Mono emitting the report of the import, or a LabNotFoundException if there is no such lab.
+	 */
+	Mono<TestImportReport> importTestsFromCsv(long labId, Flux<String> lines);
+}
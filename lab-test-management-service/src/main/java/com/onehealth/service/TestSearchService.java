@@ -0,0 +1,51 @@
+package com.onehealth.service;
+
+import java.util.List;
+
+import com.onehealth.dto.TestSearchResult;
+import com.onehealth.entity.Tests;
+
+/**
+ * The TestSearchService interface provides methods to search the test catalog by words, which
+ * may be partial or misspelled, and to keep the search index up to date with the catalog.
+ */
+public interface TestSearchService {
+
+	/**
+	 * Searches the approved tests of active labs.
+	 *
+	 * @param query The words searched for.
+	 * @param city  The city of the labs, or null for all cities.
+	 * @param limit The number of tests returned at most.
+	 * @return The matching tests, most relevant first, and the cheapest first among equally relevant ones.
+	 */
+	List<TestSearchResult> searchTests(String query, String city, int limit);
+
+	/**
+	 * Adds a test to the search index, or updates it there, after it has been stored.
+	 *
+	 * @param test The test as stored.
+	 */
+	void indexTest(Tests test);
+
+	/**
+	 * Removes a test from the search index, after it has been deleted.
+	 *
+	 * @param testId The ID of the test.
+	 */
+	void removeTest(long testId);
+
+	/**
+	 * Indexes the tests of a lab again, after they have been updated all at once.
+	 *
+	 * @param labId The ID of the lab.
+	 */
+	void reindexLab(long labId);
+
+	/**
+	 * Removes the tests of a lab from the search index, after they have been deleted all at once.
+	 *
+	 * @param labId The ID of the lab.
+	 */
+	void removeLab(long labId);
+}
@@ -0,0 +1,26 @@
+package com.onehealth.service;
+
+import java.util.List;
+
+import com.onehealth.dto.TestSuggestion;
+
+/**
+ * The TestSuggestService interface provides completions of the test names and lab cities typed
+ * into a search box, from a prefix index refreshed from the catalog now and then.
+ */
+public interface TestSuggestService {
+
+	/**
+	 * Completes a prefix to the test names and lab cities it starts a word of, the ones offered
+	 * by the most labs first.
+	 *
+	 * @param prefix The text typed so far.
+	 * @return The completions, at most 10.
+	 */
+	List<TestSuggestion> suggest(String prefix);
+
+	/**
+	 * Rebuilds the prefix index from the test names and lab cities in the catalog.
+	 */
+	void refresh();
+}
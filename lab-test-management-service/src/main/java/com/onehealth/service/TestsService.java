@@ -10,6 +10,8 @@ import com.onehealth.exception.DatabaseException;
 import com.onehealth.exception.LabNotFoundException;
 import com.onehealth.exception.TestNotFoundException;
 
+import reactor.core.publisher.Mono;
+
 /**
  * The TestsService interface provides methods to interact with the Tests entity.
  * It defines the service layer operations for managing tests.
@@ -107,6 +109,14 @@ public interface TestsService {
      */
     void setLabActiveStatus(long labId, boolean status) throws DatabaseException;
 
+    /**
+     * Copies the current details of a laboratory into all its tests.
+     *
+     * @param labId The ID of the laboratory.
+     * @return A Mono completing once the tests are updated, or emitting a LabNotFoundException if the laboratory is not found.
+     */
+    Mono<Void> updateLabDetails(long labId);
+
     /**
      * Deletes all tests associated with a laboratory by lab ID.
      *
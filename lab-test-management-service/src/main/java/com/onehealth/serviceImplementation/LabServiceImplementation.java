@@ -0,0 +1,74 @@
+package com.onehealth.serviceImplementation;
+
+import java.time.Duration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import com.onehealth.dto.LabManagement;
+import com.onehealth.service.LabService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+
+/**
+ * This class implements the LabService interface with a StaleWhileRevalidateCache in front of
+ * the Labs Management service.
+ * <p>
+ * Concurrent lookups of a lab that is not cached share one call to the service, so adding many
+ * tests to the same lab fetches it once. A cached lab is fresh for the configured time to live;
+ * a lookup after that still gets the cached lab at once, while it is fetched again in the
+ * background. If the service cannot be reached, the cached lab keeps being used until it is
+ * older than the configured maximum staleness. Labs that do not exist are cached as well, for a
+ * shorter time. The Labs Management service evicts a lab whenever it changes, through its
+ * outbox, so the time to live only bounds how long a missed eviction goes unnoticed. The hits
+ * and misses are published as "cache.gets" with the cache name "labs", and the hit ratio as
+ * "lab.cache.hit.ratio".
+ */
+@Service
+public class LabServiceImplementation implements LabService {
+
+	private static final Logger logger = LoggerFactory.getLogger(LabServiceImplementation.class);
+
+	private final WebClient labsWebClient;
+	private final StaleWhileRevalidateCache<Long, LabManagement> labs;
+
+	@Autowired
+	public LabServiceImplementation(@Qualifier("labsWebClient") WebClient labsWebClient,
+			MeterRegistry meterRegistry,
+			@Value("${lab-cache.maximum-size:10000}") long maximumSize,
+			@Value("${lab-cache.ttl-ms:300000}") long ttlMillis,
+			@Value("${lab-cache.max-stale-ms:1800000}") long maxStaleMillis,
+			@Value("${lab-cache.negative-ttl-ms:5000}") long negativeTtlMillis) {
+		this.labsWebClient = labsWebClient;
+		this.labs = new StaleWhileRevalidateCache<>("lab", this::fetchLab, meterRegistry, maximumSize,
+				Duration.ofMillis(ttlMillis), Duration.ofMillis(maxStaleMillis), Duration.ofMillis(negativeTtlMillis));
+	}
+
+	@Override
+	public Mono<LabManagement> getLab(long labId) {
+		return labs.get(labId);
+	}
+
+	@Override
+	public void evictLab(long labId) {
+		logger.info("Evicting lab from the cache: {}", labId);
+		labs.invalidate(labId);
+	}
+
+	private Mono<LabManagement> fetchLab(long labId) {
+		logger.info("Fetching lab from the Labs Management service: {}", labId);
+		return labsWebClient
+				.get()
+				.uri("/api/labs/{labId}", labId)
+				.retrieve()
+				.bodyToMono(LabManagement.class)
+				.onErrorResume(WebClientResponseException.NotFound.class, e -> Mono.empty());
+	}
+}
@@ -0,0 +1,155 @@
+package com.onehealth.serviceImplementation;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.benmanes.caffeine.cache.AsyncCacheLoader;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import reactor.core.publisher.Mono;
+
+/**
+ * A bounded in-process cache in front of another service, which keeps answering from the cache
+ * while the cached values are fetched again.
+ * <p>
+ * Concurrent lookups of a key that is not cached share one fetch. A cached value is fresh for the
+ * time to live; a lookup after that still gets the cached value at once, while it is fetched
+ * again in the background. If the fetch fails, for instance while the circuit breaker of the
+ * service is open, the cached value keeps being used until it is older than the maximum
+ * staleness. Keys without a value are cached as well, for the shorter negative time to live. The
+ * hits and misses are published as "cache.gets" with the cache name "&lt;name&gt;s", and the hit
+ * ratio as "&lt;name&gt;.cache.hit.ratio".
+ *
+ * @param <K> The type of the keys.
+ * @param <V> The type of the values.
+ */
+class StaleWhileRevalidateCache<K, V> {
+
+	private static final Logger logger = LoggerFactory.getLogger(StaleWhileRevalidateCache.class);
+
+	private final String name;
+	private final Function<K, Mono<V>> fetcher;
+	private final AsyncLoadingCache<K, Cached<V>> cache;
+
+	/**
+	 * @param name          The name of what is cached, such as "patient".
+	 * @param fetcher       Fetches the value of a key from the service; completes empty if there is no such value.
+	 * @param meterRegistry The registry of the cache metrics.
+	 * @param maximumSize   The number of entries kept at most.
+	 * @param ttl           The time a value is used without being fetched again.
+	 * @param maxStale      The time a value is used at most, while it cannot be fetched again.
+	 * @param negativeTtl   The time a missing value is cached.
+	 */
+	StaleWhileRevalidateCache(String name, Function<K, Mono<V>> fetcher, MeterRegistry meterRegistry,
+			long maximumSize, Duration ttl, Duration maxStale, Duration negativeTtl) {
+		this.name = name;
+		this.fetcher = fetcher;
+		this.cache = Caffeine.newBuilder()
+				.maximumSize(maximumSize)
+				.refreshAfterWrite(ttl)
+				.expireAfter(new CachedExpiry<K, V>(maxStale.toNanos(), negativeTtl.toNanos()))
+				.recordStats()
+				.buildAsync(new Loader());
+		CaffeineCacheMetrics.monitor(meterRegistry, cache.synchronous(), name + "s");
+		Gauge.builder(name + ".cache.hit.ratio", cache, c -> c.synchronous().stats().hitRate())
+				.description("Share of the " + name + " lookups answered from the cache")
+				.register(meterRegistry);
+	}
+
+	/**
+	 * Looks up the value of a key, from the cache if it is there.
+	 *
+	 * @param key The key.
+	 * @return A Mono emitting the value, or completing empty if there is no such value.
+	 */
+	Mono<V> get(K key) {
+		// The future may be shared with concurrent lookups, so a cancelled subscriber must not cancel it.
+		return Mono.fromFuture(() -> cache.get(key), true)
+				.flatMap(cached -> Mono.justOrEmpty(cached.value()));
+	}
+
+	/**
+	 * Removes a key from the cache, so that the next lookup fetches its value again.
+	 *
+	 * @param key The key.
+	 */
+	void invalidate(K key) {
+		cache.synchronous().invalidate(key);
+	}
+
+	private Mono<Cached<V>> fetch(K key) {
+		return fetcher.apply(key)
+				.map(value -> new Cached<>(value, System.nanoTime()))
+				.switchIfEmpty(Mono.fromSupplier(() -> new Cached<>(null, System.nanoTime())));
+	}
+
+	/**
+	 * A value as fetched from the service, or null if there is no such value, with the time it was
+	 * fetched at.
+	 */
+	private record Cached<V>(V value, long fetchedAt) {
+	}
+
+	private class Loader implements AsyncCacheLoader<K, Cached<V>> {
+
+		@Override
+		public CompletableFuture<Cached<V>> asyncLoad(K key, Executor executor) {
+			return fetch(key).toFuture();
+		}
+
+		/**
+		 * A value that cannot be fetched again is kept as it is; it still expires according to the
+		 * time it was fetched at.
+		 */
+		@Override
+		public CompletableFuture<Cached<V>> asyncReload(K key, Cached<V> oldValue, Executor executor) {
+			return fetch(key)
+					.onErrorResume(e -> {
+						logger.warn("Failed to refresh {} {}, keeping the cached one: {}", name, key, e.getMessage());
+						return Mono.just(oldValue);
+					})
+					.toFuture();
+		}
+	}
+
+	/**
+	 * Expires an entry once it is older than the maximum staleness, or the negative time to live
+	 * if there is no value, counted from the time it was fetched at.
+	 */
+	private static class CachedExpiry<K, V> implements Expiry<K, Cached<V>> {
+
+		private final long maxStaleNanos;
+		private final long negativeTtlNanos;
+
+		CachedExpiry(long maxStaleNanos, long negativeTtlNanos) {
+			this.maxStaleNanos = maxStaleNanos;
+			this.negativeTtlNanos = negativeTtlNanos;
+		}
+
+		@Override
+		public long expireAfterCreate(K key, Cached<V> cached, long currentTime) {
+			long lifetime = cached.value() != null ? maxStaleNanos : negativeTtlNanos;
+			return Math.max(0, cached.fetchedAt() + lifetime - currentTime);
+		}
+
+		@Override
+		public long expireAfterUpdate(K key, Cached<V> cached, long currentTime, long currentDuration) {
+			return expireAfterCreate(key, cached, currentTime);
+		}
+
+		@Override
+		public long expireAfterRead(K key, Cached<V> cached, long currentTime, long currentDuration) {
+			return currentDuration;
+		}
+	}
+}
@@ -0,0 +1,295 @@
+package com.onehealth.serviceImplementation;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.onehealth.dto.LabManagement;
+import com.onehealth.dto.TestImportError;
+import com.onehealth.dto.TestImportReport;
+import com.onehealth.dto.TestsDto;
+import com.onehealth.entity.Tests;
+import com.onehealth.exception.LabNotFoundException;
+import com.onehealth.repository.TestRepository;
+import com.onehealth.service.LabService;
+import com.onehealth.service.TestImportService;
+import com.onehealth.service.TestSearchService;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
+
+/**
+ * This class implements the TestImportService interface.
+ * <p>
+ * The lab is looked up once per import. The rows are validated as they are read, and the valid
+ * ones stored in batches, each in a transaction of its own; the test IDs come from a pooled
+ * sequence, so Hibernate sends the inserts of a batch to the database in JDBC batches. A batch
+ * is only read once the previous one is stored, so a large import does not pile up in memory.
+ * If a batch cannot be stored, its rows are stored one by one, so that only the rows at fault
+ * are reported.
+ */
+@Service
+public class TestImportServiceImplementation implements TestImportService {
+
+	private static final Logger logger = LoggerFactory.getLogger(TestImportServiceImplementation.class);
+
+	@Autowired
+	private LabService labService;
+
+	@Autowired
+	private TestRepository testRepository;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private TestSearchService testSearchService;
+
+	// The longest CSV record read, which bounds the memory taken by a quote that is not closed
+	static final int MAX_CSV_RECORD_LENGTH = 64 * 1024;
+
+	@Value("${test-import.batch-size:1000}")
+	private int batchSize;
+
+	@Override
+	public Mono<TestImportReport> importTests(long labId, Flux<TestsDto> tests) {
+		return importRows(labId, tests.index((index, test) -> new ImportRow(index + 1, test, null)));
+	}
+
+	@Override
+	public Mono<TestImportReport> importTestsFromCsv(long labId, Flux<String> lines) {
+		// The rows are numbered by their first line, so that they can be found in the file; the header is line 1.
+		Flux<ImportRow> rows = csvRecords(lines).switchOnFirst((first, all) -> {
+			if (!first.hasValue()) {
+				return Flux.<ImportRow>empty();
+			}
+			Map<String, Integer> columns = parseCsvHeader(first.get().getT2());
+			String missing = !columns.containsKey("testName") ? "testName" : !columns.containsKey("price") ? "price" : null;
+			if (missing != null) {
+				return Flux.just(new ImportRow(1, null, "The header has no column " + missing));
+			}
+			return all.skip(1)
+					.filter(record -> !record.getT2().isBlank())
+					.map(record -> parseCsvRow(record.getT1(), record.getT2(), columns));
+		});
+		return importRows(labId, rows);
+	}
+
+	private Mono<TestImportReport> importRows(long labId, Flux<ImportRow> rows) {
+		return labService.getLab(labId)
+				.switchIfEmpty(Mono.error(() -> new LabNotFoundException("Lab Not Found with Lab Id : " + labId)))
+				.flatMap(lab -> {
+					logger.info("Importing tests into lab with lab_id: {}", labId);
+					long start = System.nanoTime();
+					AtomicLong rowsRead = new AtomicLong();
+					AtomicLong imported = new AtomicLong();
+					Queue<TestImportError> errors = new ConcurrentLinkedQueue<>();
+					return rows
+							.doOnNext(row -> rowsRead.set(row.row()))
+							// Input that cannot be read ends the import; the rows read until then are kept.
+							.onErrorResume(e -> {
+								errors.add(new TestImportError(rowsRead.get() + 1, "Could not read the row: "
+										+ NestedExceptionUtils.getMostSpecificCause(e).getMessage()));
+								return Flux.empty();
+							})
+							.filter(row -> {
+								String error = row.error() != null ? row.error() : validate(row.test(), labId);
+								if (error != null) {
+									errors.add(new TestImportError(row.row(), error));
+								}
+								return error == null;
+							})
+							.buffer(batchSize)
+							.concatMap(batch -> Mono.fromRunnable(() -> storeBatch(batch, lab, labId, imported, errors))
+									.subscribeOn(Schedulers.boundedElastic()), 1)
+							.then(Mono.fromSupplier(() -> {
+								List<TestImportError> sortedErrors = new ArrayList<>(errors);
+								sortedErrors.sort(Comparator.comparingLong(TestImportError::getRow));
+								logger.info("Imported {} tests into lab with lab_id: {} in {} ms, {} rows failed",
+										imported.get(), labId, (System.nanoTime() - start) / 1_000_000, sortedErrors.size());
+								return new TestImportReport(imported.get(), sortedErrors);
+							}));
+				});
+	}
+
+	static String validate(TestsDto test, long labId) {
+		if (test == null) {
+			return "The row is empty";
+		}
+		if (test.getTestName() == null || test.getTestName().isBlank()) {
+			return "testName is required";
+		}
+		if (test.getPrice() < 0) {
+			return "price must not be negative";
+		}
+		if (test.getLabId() != 0 && test.getLabId() != labId) {
+			return "labId " + test.getLabId() + " is not the lab being imported into";
+		}
+		return null;
+	}
+
+	private void storeBatch(List<ImportRow> batch, LabManagement lab, long labId, AtomicLong imported,
+			Queue<TestImportError> errors) {
+		List<Tests> tests = batch.stream().map(row -> newTest(row.test(), lab, labId)).toList();
+		try {
+			transactionTemplate.executeWithoutResult(status -> testRepository.saveAll(tests));
+			tests.forEach(testSearchService::indexTest);
+			imported.addAndGet(tests.size());
+			return;
+		} catch (RuntimeException e) {
+			logger.warn("Could not store a batch of {} tests, storing them one by one: {}", tests.size(),
+					NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+		}
+		for (ImportRow row : batch) {
+			try {
+				Tests test = transactionTemplate.execute(status -> testRepository.save(newTest(row.test(), lab, labId)));
+				testSearchService.indexTest(test);
+				imported.incrementAndGet();
+			} catch (RuntimeException e) {
+				errors.add(new TestImportError(row.row(), "Could not store the row: "
+						+ NestedExceptionUtils.getMostSpecificCause(e).getMessage()));
+			}
+		}
+	}
+
+	private Tests newTest(TestsDto test, LabManagement lab, long labId) {
+		test.setLabId(labId);
+		return TestsServiceImplementation.newTest(test, lab);
+	}
+
+	static Map<String, Integer> parseCsvHeader(String record) {
+		List<String> names = splitCsvLine(record);
+		Map<String, Integer> columns = new HashMap<>();
+		for (int i = 0; i < names.size(); i++) {
+			// A byte order mark left by spreadsheet programs is not part of the first name.
+			columns.put(names.get(i).replace("\uFEFF", "").trim(), i);
+		}
+		return columns;
+	}
+
+	static ImportRow parseCsvRow(long row, String record, Map<String, Integer> columns) {
+		List<String> values = splitCsvLine(record);
+		TestsDto test = new TestsDto();
+		test.setTestName(value(values, columns, "testName"));
+		test.setTest_description(value(values, columns, "test_description"));
+		test.setTestCategory(value(values, columns, "testCategory"));
+		test.setHome_sample(value(values, columns, "home_sample"));
+		test.setGov_appro_cert_path(value(values, columns, "gov_appro_cert_path"));
+		test.setTest_approval(Boolean.parseBoolean(value(values, columns, "test_approval")));
+		String price = value(values, columns, "price");
+		try {
+			test.setPrice(Integer.parseInt(price == null ? "" : price.trim()));
+		} catch (NumberFormatException e) {
+			return new ImportRow(row, test, "price is not a whole number: " + price);
+		}
+		return new ImportRow(row, test, null);
+	}
+
+	private static String value(List<String> values, Map<String, Integer> columns, String column) {
+		Integer index = columns.get(column);
+		if (index == null || index >= values.size() || values.get(index).isEmpty()) {
+			return null;
+		}
+		return values.get(index);
+	}
+
+	/**
+	 * Joins the lines of a CSV file into its records. A quoted value may contain line breaks, so a
+	 * record goes on over the following lines while a quote is open; the line breaks within it are
+	 * kept as "\n". A quote that is never closed would take the rest of the file into one record,
+	 * so a record longer than MAX_CSV_RECORD_LENGTH characters, or one still open at the end of
+	 * the file, ends the import with an IllegalArgumentException.
+	 *
+	 * @param lines The lines of the file.
+	 * @return The records, each with the number of the line it starts on, from 1.
+	 */
+	static Flux<Tuple2<Long, String>> csvRecords(Flux<String> lines) {
+		return Flux.defer(() -> {
+			StringBuilder record = new StringBuilder();
+			AtomicLong lineNumber = new AtomicLong();
+			AtomicLong firstLine = new AtomicLong();
+			AtomicBoolean quoted = new AtomicBoolean();
+			return lines.<Tuple2<Long, String>>handle((line, sink) -> {
+				long number = lineNumber.incrementAndGet();
+				if (quoted.get()) {
+					record.append('\n');
+				} else {
+					record.setLength(0);
+					firstLine.set(number);
+				}
+				if (record.length() + line.length() > MAX_CSV_RECORD_LENGTH) {
+					sink.error(new IllegalArgumentException("The record starting on line " + firstLine.get()
+							+ " is longer than " + MAX_CSV_RECORD_LENGTH + " characters; a quote may not be closed"));
+					return;
+				}
+				record.append(line);
+				// Quotes written twice within a quoted value leave it open, so only an odd count changes it.
+				if (line.chars().filter(c -> c == '"').count() % 2 == 1) {
+					quoted.set(!quoted.get());
+				}
+				if (!quoted.get()) {
+					sink.next(Tuples.of(firstLine.get(), record.toString()));
+				}
+			}).concatWith(Mono.defer(() -> quoted.get()
+					? Mono.error(new IllegalArgumentException("The quoted value of the record starting on line "
+							+ firstLine.get() + " is not closed"))
+					: Mono.empty()));
+		});
+	}
+
+	/**
+	 * Splits a CSV record into its values. A value may be quoted, so that it can contain commas
+	 * and line breaks, and a quote within a quoted value is written twice.
+	 */
+	static List<String> splitCsvLine(String record) {
+		List<String> values = new ArrayList<>();
+		StringBuilder value = new StringBuilder();
+		boolean quoted = false;
+		for (int i = 0; i < record.length(); i++) {
+			char c = record.charAt(i);
+			if (quoted) {
+				if (c == '"' && i + 1 < record.length() && record.charAt(i + 1) == '"') {
+					value.append('"');
+					i++;
+				} else if (c == '"') {
+					quoted = false;
+				} else {
+					value.append(c);
+				}
+			} else if (c == '"') {
+				quoted = true;
+			} else if (c == ',') {
+				values.add(value.toString());
+				value.setLength(0);
+			} else {
+				value.append(c);
+			}
+		}
+		values.add(value.toString());
+		return values;
+	}
+
+	/**
+	 * A row of the input with its position, and the reason it cannot be imported if it was found
+	 * to be invalid while it was read.
+	 */
+	record ImportRow(long row, TestsDto test, String error) {
+	}
+}
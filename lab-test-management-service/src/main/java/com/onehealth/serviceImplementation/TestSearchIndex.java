@@ -0,0 +1,758 @@
+package com.onehealth.serviceImplementation;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import com.onehealth.entity.Tests;
+
+/**
+ * An in-memory search index over the test catalog.
+ * <p>
+ * The name, category and description of every test are split into words, and each word points
+ * to the tests it occurs in, per field, as a sorted list of small integers. A word of a query
+ * matches the equal word, its configured synonyms, the words it is a prefix of, and words that
+ * share enough trigrams with it, so that misspelled and partial words are found too. A test
+ * matches a query if it matches every word of it; it scores the best match of each word,
+ * weighted by the field, how closely the words match and how rare the matched word is. Tests
+ * are ranked by score, and by price where the scores are equal.
+ * <p>
+ * The scores of a word are summed up in an array indexed by ordinal, so a search costs about
+ * the number of matches of its rarest word; the other words only look up the tests matched so
+ * far, or are summed up the same way if they match fewer tests than that. The arrays are reused
+ * across searches.
+ * <p>
+ * Searches share a read lock; changes take the write lock, and are cheap enough to be made
+ * while the catalog is being written: a replaced test only changes the lists of the words it
+ * gained or lost, and the tests of a lab are removed from each list in a single pass. While the
+ * index is being loaded, tests removed in the meantime are remembered, so that the load does
+ * not bring them back.
+ */
+class TestSearchIndex {
+
+	private static final int NAME = 0;
+	private static final int CATEGORY = 1;
+	private static final int DESCRIPTION = 2;
+
+	// Weights of a match in the name, category and description of a test
+	private static final float[] FIELD_WEIGHTS = { 3f, 1.5f, 1f };
+
+	// Similarity of a query word to a word it is not equal to, depending on how it matches
+	private static final float SYNONYM_SIMILARITY = 0.9f;
+	private static final float PREFIX_SIMILARITY = 0.8f;
+	private static final float FUZZY_SIMILARITY = 0.7f;
+
+	// Descriptions are cut to this many distinct words, to bound the size of the index
+	private static final int MAX_DESCRIPTION_WORDS = 64;
+
+	// Lookups of a test in a list of matches that cost about as much as reading the whole list, see search
+	private static final int LOOKUP_COST = 16;
+
+	private static final Set<String> STOP_WORDS = Set.of("a", "an", "and", "for", "in", "of", "on", "or", "the", "to",
+			"with");
+
+	private final Map<String, List<String>> synonyms = new HashMap<>();
+	private final double minFuzzySimilarity;
+	private final int maxExpansions;
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+	private final List<Doc> docs = new ArrayList<>();
+	private final Deque<Integer> freeOrdinals = new ArrayDeque<>();
+	private final Map<Long, Integer> ordinalsByTestId = new HashMap<>();
+	// What searches filter and rank by, by ordinal, so that they only read the tests they return
+	private final BitSet searchable = new BitSet();
+	private int[] cityIds = new int[0];
+	private int[] prices = new int[0];
+	private final Map<String, Integer> cityIdsByName = new HashMap<>();
+	private final Map<String, Term> terms = new HashMap<>();
+	private final NavigableSet<String> vocabulary = new TreeSet<>();
+	private final Map<String, Set<String>> termsByTrigram = new HashMap<>();
+	private boolean loading;
+	private final Set<Long> removedWhileLoading = new HashSet<>();
+	private final Queue<Scores> spareScores = new ConcurrentLinkedQueue<>();
+
+	/**
+	 * @param synonymGroups      Groups of words that are searched for together, each given as the words separated by spaces.
+	 * @param minFuzzySimilarity The share of trigrams, from 0 to 1, two words need to have in common to match.
+	 * @param maxExpansions      The number of words a query word matches by prefix, and by trigrams, at most.
+	 */
+	TestSearchIndex(Collection<String> synonymGroups, double minFuzzySimilarity, int maxExpansions) {
+		for (String group : synonymGroups) {
+			List<String> words = tokenize(group, Integer.MAX_VALUE);
+			for (String word : words) {
+				List<String> others = synonyms.computeIfAbsent(word, w -> new ArrayList<>());
+				words.stream().filter(other -> !other.equals(word) && !others.contains(other)).forEach(others::add);
+			}
+		}
+		this.minFuzzySimilarity = minFuzzySimilarity;
+		this.maxExpansions = maxExpansions;
+	}
+
+	/**
+	 * Adds a test to the index, or replaces it if it is indexed already.
+	 */
+	void put(Tests test) {
+		lock.writeLock().lock();
+		try {
+			doPut(test);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Removes a test from the index.
+	 */
+	void remove(long testId) {
+		lock.writeLock().lock();
+		try {
+			doRemove(testId);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Replaces all tests of a lab in the index with the given ones.
+	 */
+	void replaceLab(long labId, List<Tests> tests) {
+		lock.writeLock().lock();
+		try {
+			Set<Long> kept = new HashSet<>();
+			tests.forEach(test -> kept.add(test.getTest_id()));
+			List<Long> removed = testIdsOfLab(labId);
+			removed.removeIf(kept::contains);
+			doRemoveAll(removed);
+			tests.forEach(this::doPut);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Removes all tests of a lab from the index.
+	 */
+	void removeLab(long labId) {
+		lock.writeLock().lock();
+		try {
+			doRemoveAll(testIdsOfLab(labId));
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Marks the start of a load of the whole catalog, see load.
+	 */
+	void startLoading() {
+		lock.writeLock().lock();
+		try {
+			loading = true;
+			removedWhileLoading.clear();
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Adds a test read by the load of the whole catalog, unless it has been added or removed
+	 * since the load started, in which case the test as read may be out of date.
+	 */
+	void load(Tests test) {
+		lock.writeLock().lock();
+		try {
+			if (!ordinalsByTestId.containsKey(test.getTest_id()) && !removedWhileLoading.contains(test.getTest_id())) {
+				doPut(test);
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Marks the end of a load of the whole catalog.
+	 */
+	void finishLoading() {
+		lock.writeLock().lock();
+		try {
+			loading = false;
+			removedWhileLoading.clear();
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * @return The number of tests in the index.
+	 */
+	int size() {
+		lock.readLock().lock();
+		try {
+			return ordinalsByTestId.size();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Searches the index for tests of active labs that are approved.
+	 *
+	 * @param query The words searched for.
+	 * @param city  The city of the labs, or null for all cities.
+	 * @param limit The number of tests returned at most.
+	 * @return The best matching tests, best first.
+	 */
+	List<Hit> search(String query, String city, int limit) {
+		List<String> words = tokenize(query, Integer.MAX_VALUE);
+		if (words.isEmpty() || limit <= 0) {
+			return List.of();
+		}
+		lock.readLock().lock();
+		try {
+			Integer cityId = city == null ? null : cityIdsByName.get(city.toLowerCase(Locale.ROOT));
+			if (city != null && cityId == null) {
+				return List.of();
+			}
+			List<List<Expansion>> expansions = new ArrayList<>();
+			for (String word : words) {
+				List<Expansion> wordExpansions = expand(word);
+				if (wordExpansions.isEmpty()) {
+					return List.of();
+				}
+				expansions.add(wordExpansions);
+			}
+			// The candidates are taken from the word matching the fewest tests, and narrowed down by the others.
+			expansions.sort(Comparator.comparingLong(TestSearchIndex::postingsSize));
+			Scores scores = spareScores.poll();
+			if (scores == null) {
+				scores = new Scores();
+			}
+			try {
+				scores.add(expansions.get(0), docs.size());
+				Candidates candidates = firstCandidates(scores, cityId);
+				scores.clear();
+				for (int i = 1; i < expansions.size() && candidates.size > 0; i++) {
+					List<Expansion> wordExpansions = expansions.get(i);
+					long lookups = (long) candidates.size * wordExpansions.size() * FIELD_WEIGHTS.length;
+					if (postingsSize(wordExpansions) < lookups * LOOKUP_COST) {
+						scores.add(wordExpansions, docs.size());
+						candidates.narrow(scores);
+						scores.clear();
+					} else {
+						candidates.narrow(wordExpansions);
+					}
+				}
+				return top(candidates, limit);
+			} finally {
+				spareScores.add(scores);
+			}
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	private void doPut(Tests test) {
+		Integer ordinal = ordinalsByTestId.get(test.getTest_id());
+		Doc previous = null;
+		if (ordinal != null) {
+			previous = docs.get(ordinal);
+		} else {
+			ordinal = freeOrdinals.isEmpty() ? docs.size() : freeOrdinals.pop();
+			if (ordinal == docs.size()) {
+				docs.add(null);
+			}
+			ordinalsByTestId.put(test.getTest_id(), ordinal);
+		}
+		String[][] fieldTerms = new String[3][];
+		fieldTerms[NAME] = internTerms(tokenize(test.getTestName(), Integer.MAX_VALUE));
+		fieldTerms[CATEGORY] = internTerms(tokenize(test.getTestCategory(), Integer.MAX_VALUE));
+		fieldTerms[DESCRIPTION] = internTerms(tokenize(test.getTest_description(), MAX_DESCRIPTION_WORDS));
+		docs.set(ordinal, new Doc(test.getTest_id(), intern(test.getTestName()), intern(test.getTestCategory()),
+				test.getPrice(), test.getLabId(), intern(test.getLabName()), intern(test.getLabCity()), fieldTerms));
+		if (prices.length <= ordinal) {
+			prices = Arrays.copyOf(prices, Math.max(16, docs.size() + docs.size() / 2));
+			cityIds = Arrays.copyOf(cityIds, prices.length);
+		}
+		prices[ordinal] = test.getPrice();
+		cityIds[ordinal] = test.getLabCity() == null ? -1
+				: cityIdsByName.computeIfAbsent(test.getLabCity().toLowerCase(Locale.ROOT), c -> cityIdsByName.size());
+		searchable.set(ordinal, test.isLabActive() && test.isTest_approval());
+		// Only the lists of the words the test gained or lost change, so that a change of its lab costs nothing.
+		for (int field = 0; field < fieldTerms.length; field++) {
+			String[] previousTerms = previous == null ? new String[0] : previous.fieldTerms()[field];
+			for (String term : fieldTerms[field]) {
+				if (!Arrays.asList(previousTerms).contains(term)) {
+					terms.get(term).postings[field].add(ordinal);
+				}
+			}
+			for (String term : previousTerms) {
+				if (!Arrays.asList(fieldTerms[field]).contains(term)) {
+					Term indexed = terms.get(term);
+					indexed.postings[field].remove(ordinal);
+					if (indexed.size() == 0) {
+						dropTerm(term);
+					}
+				}
+			}
+		}
+	}
+
+	private void doRemove(long testId) {
+		if (loading) {
+			removedWhileLoading.add(testId);
+		}
+		Integer ordinal = ordinalsByTestId.remove(testId);
+		if (ordinal == null) {
+			return;
+		}
+		Doc doc = docs.get(ordinal);
+		for (int field = 0; field < doc.fieldTerms().length; field++) {
+			for (String term : doc.fieldTerms()[field]) {
+				Term indexed = terms.get(term);
+				indexed.postings[field].remove(ordinal);
+				if (indexed.size() == 0) {
+					dropTerm(term);
+				}
+			}
+		}
+		docs.set(ordinal, null);
+		searchable.clear(ordinal);
+		freeOrdinals.push(ordinal);
+	}
+
+	/**
+	 * Removes many tests, going through the list of each of their words once rather than once per test.
+	 */
+	private void doRemoveAll(List<Long> testIds) {
+		if (testIds.size() == 1) {
+			doRemove(testIds.get(0));
+			return;
+		}
+		BitSet removed = new BitSet(docs.size());
+		Map<Term, boolean[]> affected = new HashMap<>();
+		for (long testId : testIds) {
+			if (loading) {
+				removedWhileLoading.add(testId);
+			}
+			Integer ordinal = ordinalsByTestId.remove(testId);
+			if (ordinal == null) {
+				continue;
+			}
+			Doc doc = docs.get(ordinal);
+			for (int field = 0; field < doc.fieldTerms().length; field++) {
+				for (String term : doc.fieldTerms()[field]) {
+					affected.computeIfAbsent(terms.get(term), t -> new boolean[FIELD_WEIGHTS.length])[field] = true;
+				}
+			}
+			removed.set(ordinal);
+			docs.set(ordinal, null);
+			searchable.clear(ordinal);
+			freeOrdinals.push(ordinal);
+		}
+		affected.forEach((term, fields) -> {
+			for (int field = 0; field < fields.length; field++) {
+				if (fields[field]) {
+					term.postings[field].removeAll(removed);
+				}
+			}
+			if (term.size() == 0) {
+				dropTerm(term.word);
+			}
+		});
+	}
+
+	private List<Long> testIdsOfLab(long labId) {
+		List<Long> testIds = new ArrayList<>();
+		for (Doc doc : docs) {
+			if (doc != null && doc.labId() == labId) {
+				testIds.add(doc.testId());
+			}
+		}
+		return testIds;
+	}
+
+	/**
+	 * Returns the indexed instances of the words, adding the words that are new to the index.
+	 */
+	private String[] internTerms(List<String> words) {
+		String[] interned = new String[words.size()];
+		for (int i = 0; i < interned.length; i++) {
+			String word = words.get(i);
+			Term term = terms.get(word);
+			if (term == null) {
+				term = new Term(word);
+				terms.put(word, term);
+				vocabulary.add(word);
+				for (String trigram : trigrams(word)) {
+					termsByTrigram.computeIfAbsent(trigram, t -> new HashSet<>()).add(word);
+				}
+			}
+			interned[i] = term.word;
+		}
+		return interned;
+	}
+
+	private void dropTerm(String word) {
+		terms.remove(word);
+		vocabulary.remove(word);
+		for (String trigram : trigrams(word)) {
+			Set<String> words = termsByTrigram.get(trigram);
+			words.remove(word);
+			if (words.isEmpty()) {
+				termsByTrigram.remove(trigram);
+			}
+		}
+	}
+
+	/**
+	 * Finds the indexed words a query word matches, with the weight of a match in each field.
+	 */
+	private List<Expansion> expand(String word) {
+		Map<String, Float> similarities = new HashMap<>();
+		if (terms.containsKey(word)) {
+			similarities.put(word, 1f);
+		}
+		for (String synonym : synonyms.getOrDefault(word, List.of())) {
+			if (terms.containsKey(synonym)) {
+				similarities.merge(synonym, SYNONYM_SIMILARITY, Math::max);
+			}
+		}
+		int prefixed = 0;
+		// A single letter is too short to be taken as the start of a word.
+		NavigableSet<String> prefixedTerms = word.length() < 2 ? Collections.emptyNavigableSet()
+				: vocabulary.subSet(word, false, word + Character.MAX_VALUE, false);
+		for (String term : prefixedTerms) {
+			if (prefixed++ == maxExpansions) {
+				break;
+			}
+			// A prefix matches a short word better than a long one.
+			float similarity = PREFIX_SIMILARITY * (0.5f + 0.5f * word.length() / term.length());
+			similarities.merge(term, similarity, Math::max);
+		}
+		if (word.length() >= 3) {
+			fuzzyMatches(word).forEach((term, similarity) -> similarities.merge(term, similarity, Math::max));
+		}
+
+		double liveDocs = ordinalsByTestId.size();
+		List<Expansion> expansions = new ArrayList<>(similarities.size());
+		similarities.forEach((matched, similarity) -> {
+			Term term = terms.get(matched);
+			// Rare words tell more about a test than common ones.
+			float idf = (float) Math.log(1 + liveDocs / term.size());
+			float[] weights = new float[FIELD_WEIGHTS.length];
+			for (int field = 0; field < weights.length; field++) {
+				weights[field] = similarity * FIELD_WEIGHTS[field] * idf;
+			}
+			expansions.add(new Expansion(term, weights));
+		});
+		return expansions;
+	}
+
+	/**
+	 * Finds the indexed words sharing enough trigrams with a query word, with their similarity.
+	 */
+	private Map<String, Float> fuzzyMatches(String word) {
+		Set<String> wordTrigrams = trigrams(word);
+		Map<String, Integer> shared = new HashMap<>();
+		for (String trigram : wordTrigrams) {
+			for (String term : termsByTrigram.getOrDefault(trigram, Set.of())) {
+				shared.merge(term, 1, Integer::sum);
+			}
+		}
+		List<Map.Entry<String, Float>> matches = new ArrayList<>();
+		shared.forEach((term, count) -> {
+			// Dice coefficient; a word of n characters has n + 1 trigrams, see trigrams.
+			float dice = Math.min(1f, 2f * count / (wordTrigrams.size() + term.length() + 1));
+			if (dice >= minFuzzySimilarity) {
+				matches.add(Map.entry(term, FUZZY_SIMILARITY * dice));
+			}
+		});
+		matches.sort(Map.Entry.<String, Float>comparingByValue().reversed());
+		Map<String, Float> best = new HashMap<>();
+		matches.stream().limit(maxExpansions).forEach(match -> best.put(match.getKey(), match.getValue()));
+		return best;
+	}
+
+	private Candidates firstCandidates(Scores scores, Integer cityId) {
+		Candidates candidates = new Candidates(scores.matched);
+		for (int i = 0; i < scores.matched; i++) {
+			int ordinal = scores.ordinals[i];
+			if (searchable.get(ordinal) && (cityId == null || cityIds[ordinal] == cityId)) {
+				candidates.add(ordinal, scores.scores[ordinal]);
+			}
+		}
+		return candidates;
+	}
+
+	private List<Hit> top(Candidates candidates, int limit) {
+		// The worst of the best tests found so far is at the head of the queue.
+		Comparator<Hit> ranking = Comparator.comparingDouble(Hit::score)
+				.thenComparing(Comparator.comparingInt((Hit hit) -> hit.doc().price()).reversed());
+		PriorityQueue<Hit> best = new PriorityQueue<>(limit + 1, ranking);
+		for (int i = 0; i < candidates.size; i++) {
+			int ordinal = candidates.ordinals[i];
+			float score = candidates.scores[i];
+			Hit worst = best.size() == limit ? best.peek() : null;
+			if (worst != null && (score < worst.score() || score == worst.score() && prices[ordinal] >= worst.doc().price())) {
+				continue;
+			}
+			best.add(new Hit(docs.get(ordinal), score));
+			if (best.size() > limit) {
+				best.poll();
+			}
+		}
+		List<Hit> hits = new ArrayList<>(best);
+		hits.sort(ranking.reversed());
+		return hits;
+	}
+
+	private static long postingsSize(List<Expansion> expansions) {
+		long size = 0;
+		for (Expansion expansion : expansions) {
+			size += expansion.term().size();
+		}
+		return size;
+	}
+
+	/**
+	 * Splits a text into its distinct words, in lower case and without stop words.
+	 */
+	static List<String> tokenize(String text, int maxWords) {
+		if (text == null || text.isBlank()) {
+			return List.of();
+		}
+		Set<String> words = new LinkedHashSet<>();
+		for (String word : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+			if (!word.isEmpty() && !STOP_WORDS.contains(word)) {
+				words.add(word);
+				if (words.size() == maxWords) {
+					break;
+				}
+			}
+		}
+		return new ArrayList<>(words);
+	}
+
+	/**
+	 * Returns the trigrams of a word, padded so that a word of n characters has n + 1 of them, and
+	 * the ones at its start weigh more.
+	 */
+	static Set<String> trigrams(String word) {
+		String padded = "  " + word + " ";
+		Set<String> trigrams = new HashSet<>();
+		for (int i = 0; i + 3 <= padded.length(); i++) {
+			trigrams.add(padded.substring(i, i + 3));
+		}
+		return trigrams;
+	}
+
+	private static String intern(String value) {
+		return value == null ? null : value.intern();
+	}
+
+	/**
+	 * What the index keeps of a test: what a search returns, and the words it is indexed by.
+	 */
+	record Doc(long testId, String testName, String testCategory, int price, long labId, String labName,
+			String labCity, String[][] fieldTerms) {
+	}
+
+	/**
+	 * A test found by a search, with its score.
+	 */
+	record Hit(Doc doc, float score) {
+	}
+
+	private record Expansion(Term term, float[] weights) {
+	}
+
+	/**
+	 * An indexed word, with the ordinals of the tests it occurs in, per field.
+	 */
+	private static final class Term {
+
+		final String word;
+		final IntList[] postings = { new IntList(), new IntList(), new IntList() };
+
+		Term(String word) {
+			this.word = word;
+		}
+
+		int size() {
+			return postings[NAME].size + postings[CATEGORY].size + postings[DESCRIPTION].size;
+		}
+	}
+
+	/**
+	 * The tests matching the words of a query handled so far, with their scores.
+	 */
+	private static final class Candidates {
+
+		final int[] ordinals;
+		final float[] scores;
+		int size;
+
+		Candidates(int capacity) {
+			ordinals = new int[capacity];
+			scores = new float[capacity];
+		}
+
+		void add(int ordinal, float score) {
+			ordinals[size] = ordinal;
+			scores[size] = score;
+			size++;
+		}
+
+		/**
+		 * Keeps the tests that also match one of the given words, adding the best match to their score.
+		 */
+		void narrow(List<Expansion> expansions) {
+			int kept = 0;
+			for (int i = 0; i < size; i++) {
+				float best = 0;
+				for (Expansion expansion : expansions) {
+					for (int field = 0; field < FIELD_WEIGHTS.length; field++) {
+						float weight = expansion.weights()[field];
+						if (weight > best && expansion.term().postings[field].contains(ordinals[i])) {
+							best = weight;
+						}
+					}
+				}
+				if (best > 0) {
+					ordinals[kept] = ordinals[i];
+					scores[kept] = scores[i] + best;
+					kept++;
+				}
+			}
+			size = kept;
+		}
+
+		/**
+		 * Keeps the tests that also have a score for the next word, adding it to their score.
+		 */
+		void narrow(Scores wordScores) {
+			int kept = 0;
+			for (int i = 0; i < size; i++) {
+				float best = wordScores.scores[ordinals[i]];
+				if (best > 0) {
+					ordinals[kept] = ordinals[i];
+					scores[kept] = scores[i] + best;
+					kept++;
+				}
+			}
+			size = kept;
+		}
+	}
+
+	/**
+	 * The best match of a word for each test, indexed by ordinal, with the ordinals that have one.
+	 * Only the entries that were set are cleared again, so a search does not pay for the size of
+	 * the catalog.
+	 */
+	private static final class Scores {
+
+		float[] scores = new float[0];
+		int[] ordinals = new int[0];
+		int matched;
+
+		void add(List<Expansion> expansions, int ordinalCount) {
+			if (scores.length < ordinalCount) {
+				scores = new float[ordinalCount + ordinalCount / 8];
+				ordinals = new int[scores.length];
+			}
+			for (Expansion expansion : expansions) {
+				for (int field = 0; field < FIELD_WEIGHTS.length; field++) {
+					IntList postings = expansion.term().postings[field];
+					float weight = expansion.weights()[field];
+					for (int i = 0; i < postings.size; i++) {
+						int ordinal = postings.values[i];
+						float score = scores[ordinal];
+						if (score == 0) {
+							ordinals[matched++] = ordinal;
+						}
+						if (weight > score) {
+							scores[ordinal] = weight;
+						}
+					}
+				}
+			}
+		}
+
+		void clear() {
+			for (int i = 0; i < matched; i++) {
+				scores[ordinals[i]] = 0;
+			}
+			matched = 0;
+		}
+	}
+
+	/**
+	 * A sorted list of distinct ints. Ordinals are mostly added in increasing order, which appends.
+	 */
+	private static final class IntList {
+
+		int[] values = new int[2];
+		int size;
+
+		void add(int value) {
+			int index = size == 0 || values[size - 1] < value ? -(size + 1) : Arrays.binarySearch(values, 0, size, value);
+			if (index >= 0) {
+				return;
+			}
+			index = -(index + 1);
+			if (size == values.length) {
+				values = Arrays.copyOf(values, size * 2);
+			}
+			System.arraycopy(values, index, values, index + 1, size - index);
+			values[index] = value;
+			size++;
+		}
+
+		void remove(int value) {
+			int index = Arrays.binarySearch(values, 0, size, value);
+			if (index >= 0) {
+				System.arraycopy(values, index + 1, values, index, size - index - 1);
+				size--;
+				if (size > 8 && size < values.length / 4) {
+					values = Arrays.copyOf(values, values.length / 2);
+				}
+			}
+		}
+
+		void removeAll(BitSet removed) {
+			int kept = 0;
+			for (int i = 0; i < size; i++) {
+				if (!removed.get(values[i])) {
+					values[kept++] = values[i];
+				}
+			}
+			size = kept;
+			if (size > 8 && size < values.length / 4) {
+				values = Arrays.copyOf(values, values.length / 2);
+			}
+		}
+
+		boolean contains(int value) {
+			return Arrays.binarySearch(values, 0, size, value) >= 0;
+		}
+	}
+}
@@ -0,0 +1,110 @@
+package com.onehealth.serviceImplementation;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import com.onehealth.dto.TestSearchResult;
+import com.onehealth.entity.Tests;
+import com.onehealth.repository.TestRepository;
+import com.onehealth.service.TestSearchService;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * This class implements the TestSearchService interface on an in-memory index of the whole
+ * catalog, see TestSearchIndex.
+ * <p>
+ * The index is loaded from the database at startup, page by page, and kept up to date by the
+ * changes made through this service afterwards. Searches made while it is loading only find
+ * the tests loaded so far. The number of indexed tests is published as "test.search.index.size".
+ */
+@Service
+public class TestSearchServiceImplementation implements TestSearchService, ApplicationRunner {
+
+	private static final Logger logger = LoggerFactory.getLogger(TestSearchServiceImplementation.class);
+
+	// Number of results returned by a search at most
+	private static final int MAX_LIMIT = 100;
+
+	private final TestRepository testRepository;
+	private final TestSearchIndex index;
+	private final int loadPageSize;
+
+	@Autowired
+	public TestSearchServiceImplementation(TestRepository testRepository, MeterRegistry meterRegistry,
+			@Value("${test-search.synonyms:}") List<String> synonyms,
+			@Value("${test-search.fuzzy-min-similarity:0.5}") double minFuzzySimilarity,
+			@Value("${test-search.max-expansions:20}") int maxExpansions,
+			@Value("${test-search.load-page-size:10000}") int loadPageSize) {
+		this.testRepository = testRepository;
+		this.index = new TestSearchIndex(synonyms, minFuzzySimilarity, maxExpansions);
+		this.loadPageSize = loadPageSize;
+		Gauge.builder("test.search.index.size", index, TestSearchIndex::size)
+				.description("Number of tests in the search index")
+				.register(meterRegistry);
+	}
+
+	/**
+	 * Loads the index from the database at startup.
+	 */
+	@Override
+	public void run(ApplicationArguments args) {
+		logger.info("Loading the test search index");
+		long start = System.nanoTime();
+		index.startLoading();
+		try {
+			long after = 0;
+			List<Tests> page;
+			do {
+				page = testRepository.findPageAfter(after, PageRequest.ofSize(loadPageSize));
+				page.forEach(index::load);
+				if (!page.isEmpty()) {
+					after = page.get(page.size() - 1).getTest_id();
+				}
+			} while (page.size() == loadPageSize);
+		} finally {
+			index.finishLoading();
+		}
+		logger.info("Loaded {} tests into the test search index in {} ms", index.size(),
+				(System.nanoTime() - start) / 1_000_000);
+	}
+
+	@Override
+	public List<TestSearchResult> searchTests(String query, String city, int limit) {
+		int boundedLimit = Math.max(1, Math.min(limit, MAX_LIMIT));
+		String cityFilter = city == null || city.isBlank() ? null : city.trim();
+		return index.search(query, cityFilter, boundedLimit).stream()
+				.map(hit -> new TestSearchResult(hit.doc().testId(), hit.doc().testName(), hit.doc().testCategory(),
+						hit.doc().price(), hit.doc().labId(), hit.doc().labName(), hit.doc().labCity(), hit.score()))
+				.toList();
+	}
+
+	@Override
+	public void indexTest(Tests test) {
+		index.put(test);
+	}
+
+	@Override
+	public void removeTest(long testId) {
+		index.remove(testId);
+	}
+
+	@Override
+	public void reindexLab(long labId) {
+		index.replaceLab(labId, testRepository.findByLabId(labId));
+	}
+
+	@Override
+	public void removeLab(long labId) {
+		index.removeLab(labId);
+	}
+}
@@ -0,0 +1,156 @@
+package com.onehealth.serviceImplementation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * An immutable prefix index over the test names and lab cities, ranked by popularity.
+ * <p>
+ * Every entry is filed under its text and under the rest of its text from each later word on, so
+ * that "prof" completes "Lipid Profile" as well as "Profile". The keys are kept in a sorted
+ * array, so the keys starting with a prefix are a range of it, found by binary search. A segment
+ * tree over the popularity of the keys gives the most popular key of any range, so the best
+ * completions are taken one by one from the ranges left over, without reading the whole range.
+ * A completion costs O(k log n) for k completions, whatever the length of the range.
+ */
+class TestSuggestIndex {
+
+	private final Entry[] entries;
+	private final String[] keys;
+	private final int[] entryOfKey;
+	// The index of the most popular key in each node of the segment tree; the leaves start at keys.length.
+	private final int[] best;
+
+	/**
+	 * @param entries The entries to complete, at most one per normalized text.
+	 */
+	TestSuggestIndex(List<Entry> entries) {
+		this.entries = entries.toArray(Entry[]::new);
+		List<Key> keyList = new ArrayList<>();
+		for (int i = 0; i < this.entries.length; i++) {
+			String text = normalize(this.entries[i].text());
+			for (int start = 0; start < text.length(); start++) {
+				if (start == 0 || Character.isLetterOrDigit(text.charAt(start))
+						&& !Character.isLetterOrDigit(text.charAt(start - 1))) {
+					keyList.add(new Key(text.substring(start), i));
+				}
+			}
+		}
+		keyList.sort(Comparator.comparing(Key::key));
+		keys = new String[keyList.size()];
+		entryOfKey = new int[keyList.size()];
+		for (int i = 0; i < keys.length; i++) {
+			keys[i] = keyList.get(i).key();
+			entryOfKey[i] = keyList.get(i).entry();
+		}
+		int n = keys.length;
+		best = new int[2 * n];
+		for (int i = 0; i < n; i++) {
+			best[n + i] = i;
+		}
+		for (int node = n - 1; node > 0; node--) {
+			best[node] = better(best[2 * node], best[2 * node + 1]);
+		}
+	}
+
+	/**
+	 * Finds the most popular entries with a word starting with the given prefix.
+	 *
+	 * @param prefix The start of the text, from the start of any of its words; blank for the most popular entries.
+	 * @param limit  The number of entries returned at most.
+	 * @return The entries, most popular first.
+	 */
+	List<Entry> complete(String prefix, int limit) {
+		String normalized = normalize(prefix);
+		int from = lowerBound(normalized);
+		int to = lowerBound(normalized + Character.MAX_VALUE);
+		List<Entry> completions = new ArrayList<>(limit);
+		if (from >= to || limit <= 0) {
+			return completions;
+		}
+		// The ranges left to take completions from, by their most popular key.
+		PriorityQueue<int[]> ranges = new PriorityQueue<>((a, b) -> compare(a[2], b[2]));
+		ranges.add(new int[] { from, to, best(from, to) });
+		Set<Integer> taken = new HashSet<>();
+		while (completions.size() < limit && !ranges.isEmpty()) {
+			int[] range = ranges.poll();
+			int key = range[2];
+			// An entry is found by each of its words; it is only returned for the first one.
+			if (taken.add(entryOfKey[key])) {
+				completions.add(entries[entryOfKey[key]]);
+			}
+			if (range[0] < key) {
+				ranges.add(new int[] { range[0], key, best(range[0], key) });
+			}
+			if (key + 1 < range[1]) {
+				ranges.add(new int[] { key + 1, range[1], best(key + 1, range[1]) });
+			}
+		}
+		return completions;
+	}
+
+	/**
+	 * @return The number of entries in the index.
+	 */
+	int size() {
+		return entries.length;
+	}
+
+	/**
+	 * Returns the most popular key in [from, to).
+	 */
+	private int best(int from, int to) {
+		int n = keys.length;
+		int result = -1;
+		for (int lo = from + n, hi = to + n; lo < hi; lo >>= 1, hi >>= 1) {
+			if ((lo & 1) == 1) {
+				result = result < 0 ? best[lo] : better(result, best[lo]);
+				lo++;
+			}
+			if ((hi & 1) == 1) {
+				hi--;
+				result = result < 0 ? best[hi] : better(result, best[hi]);
+			}
+		}
+		return result;
+	}
+
+	private int better(int key, int other) {
+		return compare(key, other) <= 0 ? key : other;
+	}
+
+	/**
+	 * Orders keys by the popularity of their entries, most popular first, and then alphabetically.
+	 */
+	private int compare(int key, int other) {
+		int byPopularity = Long.compare(entries[entryOfKey[other]].popularity(), entries[entryOfKey[key]].popularity());
+		return byPopularity != 0 ? byPopularity : Integer.compare(key, other);
+	}
+
+	private int lowerBound(String key) {
+		int index = Arrays.binarySearch(keys, key);
+		return index >= 0 ? index : -(index + 1);
+	}
+
+	/**
+	 * Puts a text in lower case, with its words separated by single spaces.
+	 */
+	static String normalize(String text) {
+		return text == null ? "" : String.join(" ", text.toLowerCase(Locale.ROOT).trim().split("\\s+"));
+	}
+
+	/**
+	 * A text to complete to, of the given type, with the number of labs it is found at.
+	 */
+	record Entry(String text, String type, long popularity) {
+	}
+
+	private record Key(String key, int entry) {
+	}
+}
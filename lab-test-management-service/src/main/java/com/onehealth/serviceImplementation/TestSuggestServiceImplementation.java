@@ -0,0 +1,105 @@
+package com.onehealth.serviceImplementation;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.onehealth.dto.TestSuggestion;
+import com.onehealth.repository.TestRepository;
+import com.onehealth.service.TestSuggestService;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * This class implements the TestSuggestService interface on an immutable prefix index, see
+ * TestSuggestIndex.
+ * <p>
+ * The index is built from the test names and lab cities counted in the database, capped to the
+ * ones offered by the most labs, and replaced as a whole on every refresh, so completions never
+ * wait for a lock. Spellings of a name that only differ in case are one entry, shown as spelled
+ * by the most labs. If a refresh fails, the previous index is kept until the next one. The
+ * number of entries is published as "test.suggest.index.size".
+ */
+@Service
+public class TestSuggestServiceImplementation implements TestSuggestService {
+
+	private static final Logger logger = LoggerFactory.getLogger(TestSuggestServiceImplementation.class);
+
+	// Number of completions returned
+	private static final int SUGGESTIONS = 10;
+
+	private static final String TEST = "TEST";
+	private static final String CITY = "CITY";
+
+	private final TestRepository testRepository;
+	private final int maxTestNames;
+	private final int maxCities;
+	private volatile TestSuggestIndex index = new TestSuggestIndex(List.of());
+
+	@Autowired
+	public TestSuggestServiceImplementation(TestRepository testRepository, MeterRegistry meterRegistry,
+			@Value("${test-suggest.max-test-names:50000}") int maxTestNames,
+			@Value("${test-suggest.max-cities:5000}") int maxCities) {
+		this.testRepository = testRepository;
+		this.maxTestNames = maxTestNames;
+		this.maxCities = maxCities;
+		Gauge.builder("test.suggest.index.size", this, service -> service.index.size())
+				.description("Number of test names and lab cities in the suggestion index")
+				.register(meterRegistry);
+	}
+
+	@Override
+	public List<TestSuggestion> suggest(String prefix) {
+		return index.complete(prefix, SUGGESTIONS).stream()
+				.map(entry -> new TestSuggestion(entry.type(), entry.text(), entry.popularity()))
+				.toList();
+	}
+
+	/**
+	 * Rebuilds the index at startup, and then at a fixed delay.
+	 */
+	@Override
+	@Scheduled(fixedDelayString = "${test-suggest.refresh-interval-ms:300000}")
+	public void refresh() {
+		long start = System.nanoTime();
+		try {
+			List<TestSuggestIndex.Entry> entries = new ArrayList<>();
+			entries.addAll(entries(TEST, testRepository.countLabsByTestName(PageRequest.ofSize(maxTestNames))));
+			entries.addAll(entries(CITY, testRepository.countLabsByLabCity(PageRequest.ofSize(maxCities))));
+			index = new TestSuggestIndex(entries);
+			logger.info("Refreshed the test suggestion index with {} entries in {} ms", entries.size(),
+					(System.nanoTime() - start) / 1_000_000);
+		} catch (RuntimeException e) {
+			logger.warn("Could not refresh the test suggestion index, keeping the previous one: {}", e.getMessage());
+		}
+	}
+
+	/**
+	 * Merges the counted texts that are equal once normalized, keeping the spelling counted most.
+	 * The counts come most first, so the first spelling seen is the one kept.
+	 */
+	private List<TestSuggestIndex.Entry> entries(String type, List<Object[]> counts) {
+		Map<String, TestSuggestIndex.Entry> entries = new LinkedHashMap<>();
+		for (Object[] count : counts) {
+			String text = ((String) count[0]).trim();
+			String key = TestSuggestIndex.normalize(text);
+			if (key.isEmpty()) {
+				continue;
+			}
+			long labs = ((Number) count[1]).longValue();
+			entries.merge(key, new TestSuggestIndex.Entry(text, type, labs),
+					(kept, other) -> new TestSuggestIndex.Entry(kept.text(), type, kept.popularity() + other.popularity()));
+		}
+		return new ArrayList<>(entries.values());
+	}
+}
@@ -4,9 +4,7 @@ import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.web.reactive.function.client.WebClient;
 
 import com.onehealth.dto.CityAndName;
 import com.onehealth.dto.LabManagement;
@@ -17,7 +15,12 @@ import com.onehealth.exception.DatabaseException;
 import com.onehealth.exception.LabNotFoundException;
 import com.onehealth.exception.TestNotFoundException;
 import com.onehealth.repository.TestRepository;
+import com.onehealth.service.LabService;
+import com.onehealth.service.TestSearchService;
 import com.onehealth.service.TestsService;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 /**
  * The TestsServiceImplementation class is an implementation of the TestsService interface.
  * It provides the business logic for handling test-related operations and interacts with the database through the TestRepository.
@@ -31,10 +34,10 @@ public class TestsServiceImplementation implements TestsService{
     private TestRepository testRepository;
     
     @Autowired
-    private WebClient.Builder webClientBuilder;
-    
-    @Value("${apiGatewayUrl}")
-	private String apiGatewayUrl;
+    private LabService labService;
+
+    @Autowired
+    private TestSearchService testSearchService;
 	
     /**
      * Retrieve a list of all tests.
@@ -82,6 +85,7 @@ public class TestsServiceImplementation implements TestsService{
         if (isValidId) {
             logger.info("Deleting test with test_id: {}", test_id);
             testRepository.deleteById(test_id);
+            testSearchService.removeTest(test_id);
         } else {
             logger.warn("Test with test_id {} not found.", test_id);
             throw new TestNotFoundException("Test Not Found with test_id : " + test_id);
@@ -100,12 +104,7 @@ public class TestsServiceImplementation implements TestsService{
     public void updateTestDetails(TestsUpdateRequest test) throws DatabaseException, TestNotFoundException, LabNotFoundException {
         logger.info("Updating test with test_id: {}", test.getTest_id());
         boolean isValidId = testRepository.existsById(test.getTest_id());
-        LabManagement labManagement = webClientBuilder.build()
-			 	.get()
-	            .uri(apiGatewayUrl+"/api/labs/{lab_id}",test.getLabId())
-	            .retrieve()
-	            .bodyToMono(LabManagement.class)
-	            .block(); 
+        LabManagement labManagement = labService.getLab(test.getLabId()).block();
         if(labManagement == null) {
         	throw new LabNotFoundException("Lab Not Found With Id : "+test.getLabId() );
         }
@@ -130,7 +129,7 @@ public class TestsServiceImplementation implements TestsService{
             
             
             // TODO Auto-generated method stub
-            testRepository.save(updateTest);
+            testSearchService.indexTest(testRepository.save(updateTest));
         } else {
             logger.warn("Test with test_id {} not found.", test.getTest_id());
             logger.error("Operation failed !!");
@@ -162,16 +161,26 @@ public class TestsServiceImplementation implements TestsService{
     public void addNewTest(TestsDto testDto) throws DatabaseException, LabNotFoundException {
     	
     	logger.info("Fetching Lab lab with lab_id: {}", testDto.getLabId());
-    	LabManagement labManagement = webClientBuilder.build()
-				 	.get()
-		            .uri(apiGatewayUrl+"/api/labs/{lab_id}",testDto.getLabId())
-		            .retrieve()
-		            .bodyToMono(LabManagement.class)
-		            .block();
+    	LabManagement labManagement = labService.getLab(testDto.getLabId()).block();
     	if(labManagement == null) {
     		throw new LabNotFoundException("Lab Not Found with Lab Id : "+testDto.getLabId());
     	}
     	
+        Tests test = newTest(testDto, labManagement);
+
+        logger.info("Adding a new test");
+        // Save the mapped Tests object
+        testSearchService.indexTest(testRepository.save(test));
+    }
+
+    /**
+     * Creates a test from its details and the details of its lab.
+     *
+     * @param testDto       The details of the test.
+     * @param labManagement The lab of the test.
+     * @return The test, not stored yet.
+     */
+    static Tests newTest(TestsDto testDto, LabManagement labManagement) {
         Tests test = new Tests();
         test.setTestName(testDto.getTestName());
         test.setHome_sample(testDto.getHome_sample());
@@ -189,10 +198,7 @@ public class TestsServiceImplementation implements TestsService{
         test.setLabArea(labManagement.getArea());
         test.setPincode(labManagement.getPincode());
         test.setTestCategory(testDto.getTestCategory());
-
-        logger.info("Adding a new test");
-        // Save the mapped Tests object
-        testRepository.save(test);
+        return test;
     }
     
     
@@ -236,7 +242,8 @@ public class TestsServiceImplementation implements TestsService{
     }
 
     /**
-     * Sets the active status of tests associated with a lab.
+     * Sets the active status of tests associated with a lab. Called by the Labs Management
+     * service when the status of the lab changes, so the lab is evicted from the cache as well.
      *
      * @param labId  The ID of the lab.
      * @param status The new active status to set.
@@ -244,23 +251,50 @@ public class TestsServiceImplementation implements TestsService{
      */
     @Override
     public void setLabActiveStatus(long labId, boolean status) throws DatabaseException {
-        List<Tests> tests =  getAllTestByLabId(labId);
-
-        tests.forEach(test -> test.setLabActive(status));
+        labService.evictLab(labId);
+        int updated = testRepository.updateLabActiveByLabId(labId, status);
+        testSearchService.reindexLab(labId);
+        logger.info("Set lab active status to {} for {} tests associated with lab ID: {}", status, updated, labId);
+    }
 
-        testRepository.saveAll(tests);
-        logger.info("Set lab active status to {} for tests associated with lab ID: {}", status, labId);
+    /**
+     * Copies the current details of a lab into all its tests. Called by the Labs Management
+     * service when the lab is updated, so the lab is fetched again rather than taken from the cache.
+     * The lab is fetched without blocking, and the tests are updated and indexed again on the
+     * bounded elastic scheduler, since the request is handled on an event loop thread.
+     *
+     * @param labId The ID of the lab.
+     * @return A Mono completing once the tests are updated, or emitting a LabNotFoundException if the lab is not found.
+     */
+    @Override
+    public Mono<Void> updateLabDetails(long labId) {
+        return Mono.defer(() -> {
+                    labService.evictLab(labId);
+                    return labService.getLab(labId);
+                })
+                .switchIfEmpty(Mono.error(() -> new LabNotFoundException("Lab Not Found with Lab Id : " + labId)))
+                .flatMap(labManagement -> Mono.fromRunnable(() -> {
+                    int updated = testRepository.updateLabDetailsByLabId(labId, labManagement.getLab_name(),
+                            labManagement.getAddress(), labManagement.getCity(), labManagement.getArea(),
+                            labManagement.getPincode(), labManagement.isActive());
+                    testSearchService.reindexLab(labId);
+                    logger.info("Updated lab details of {} tests associated with lab ID: {}", updated, labId);
+                }).subscribeOn(Schedulers.boundedElastic()))
+                .then();
     }
 
     /**
-     * Deletes all tests associated with a lab.
+     * Deletes all tests associated with a lab. Called by the Labs Management service when the lab
+     * is deleted, so the lab is evicted from the cache as well.
      *
      * @param labId The ID of the lab from which to delete tests.
      */
     @Override
     public void deleteAllTestsFromLabId(long labId) {
-        testRepository.deleteByLabId(labId);
-        logger.info("Deleted all tests associated with lab ID: {}", labId);
+        labService.evictLab(labId);
+        int deleted = testRepository.deleteByLabId(labId);
+        testSearchService.removeLab(labId);
+        logger.info("Deleted all {} tests associated with lab ID: {}", deleted, labId);
     } 
 
     /**
@@ -275,7 +309,7 @@ public class TestsServiceImplementation implements TestsService{
         Tests test = testRepository.findById(testId)
                 .orElseThrow(() -> new TestNotFoundException("Test Not Found With Test Id: " + testId));
         test.setTest_approval(status);
-        testRepository.save(test);
+        testSearchService.indexTest(testRepository.save(test));
         logger.info("Set test approval status to {} for test with ID: {}", status, testId);
     }
 }
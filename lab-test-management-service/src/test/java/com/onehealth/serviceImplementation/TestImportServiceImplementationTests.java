@@ -0,0 +1,189 @@
+package com.onehealth.serviceImplementation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.onehealth.dto.LabManagement;
+import com.onehealth.dto.TestImportError;
+import com.onehealth.dto.TestImportReport;
+import com.onehealth.dto.TestsDto;
+import com.onehealth.entity.Tests;
+import com.onehealth.repository.TestRepository;
+import com.onehealth.service.LabService;
+import com.onehealth.service.TestSearchService;
+import com.onehealth.serviceImplementation.TestImportServiceImplementation.ImportRow;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+
+class TestImportServiceImplementationTests {
+
+	@Test
+	void splitCsvLineSplitsOnCommasOutsideOfQuotes() {
+		assertThat(TestImportServiceImplementation.splitCsvLine("Lipid Profile,800,,true"))
+				.containsExactly("Lipid Profile", "800", "", "true");
+		assertThat(TestImportServiceImplementation.splitCsvLine("\"Panel, basic\",100,"))
+				.containsExactly("Panel, basic", "100", "");
+		assertThat(TestImportServiceImplementation.splitCsvLine("")).containsExactly("");
+	}
+
+	@Test
+	void splitCsvLineUnquotesDoubledQuotesAndKeepsLineBreaks() {
+		assertThat(TestImportServiceImplementation.splitCsvLine("\"The \"\"gold\"\" standard\",200"))
+				.containsExactly("The \"gold\" standard", "200");
+		assertThat(TestImportServiceImplementation.splitCsvLine("Glucose,\"Fasting,\nno food for 8 hours\",150"))
+				.containsExactly("Glucose", "Fasting,\nno food for 8 hours", "150");
+	}
+
+	@Test
+	void csvRecordsJoinTheLinesOfAQuotedValue() {
+		List<Tuple2<Long, String>> records = TestImportServiceImplementation.csvRecords(Flux.just(
+				"testName,test_description,price",
+				"Glucose,\"Fasting,",
+				"no \"\"food\"\"",
+				"for 8 hours\",150",
+				"Calcium,,250")).collectList().block();
+
+		assertThat(records).extracting(Tuple2::getT1).containsExactly(1L, 2L, 5L);
+		assertThat(records).extracting(Tuple2::getT2).containsExactly("testName,test_description,price",
+				"Glucose,\"Fasting,\nno \"\"food\"\"\nfor 8 hours\",150", "Calcium,,250");
+	}
+
+	@Test
+	void csvRecordsRejectAQuoteThatIsNotClosed() {
+		assertThatThrownBy(() -> TestImportServiceImplementation.csvRecords(Flux.just(
+				"testName,price", "Calcium,250", "\"Glucose,150", "Urea,100")).collectList().block())
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("The quoted value of the record starting on line 3 is not closed");
+
+		String longLine = "x".repeat(TestImportServiceImplementation.MAX_CSV_RECORD_LENGTH / 2);
+		assertThatThrownBy(() -> TestImportServiceImplementation.csvRecords(Flux.just(
+				"testName,price", "\"Glucose", longLine, longLine, "\",150")).collectList().block())
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessageStartingWith("The record starting on line 2 is longer than");
+	}
+
+	@Test
+	void parseCsvHeaderMapsTrimmedNamesToTheirColumn() {
+		Map<String, Integer> columns = TestImportServiceImplementation.parseCsvHeader("\uFEFFtestName, price ,testCategory");
+
+		assertThat(columns).containsExactlyInAnyOrderEntriesOf(Map.of("testName", 0, "price", 1, "testCategory", 2));
+	}
+
+	@Test
+	void parseCsvRowReadsTheValuesOfTheNamedColumns() {
+		Map<String, Integer> columns = TestImportServiceImplementation.parseCsvHeader("price,testName,test_approval,home_sample");
+
+		ImportRow row = TestImportServiceImplementation.parseCsvRow(4, " 350 ,\"Vitamin D, total\",true", columns);
+
+		assertThat(row.row()).isEqualTo(4);
+		assertThat(row.error()).isNull();
+		assertThat(row.test().getTestName()).isEqualTo("Vitamin D, total");
+		assertThat(row.test().getPrice()).isEqualTo(350);
+		assertThat(row.test().isTest_approval()).isTrue();
+		assertThat(row.test().getHome_sample()).isNull();
+		assertThat(row.test().getTest_description()).isNull();
+	}
+
+	@Test
+	void parseCsvRowReportsAPriceThatIsNotAWholeNumber() {
+		Map<String, Integer> columns = TestImportServiceImplementation.parseCsvHeader("testName,price");
+
+		assertThat(TestImportServiceImplementation.parseCsvRow(2, "Urea,12.5", columns).error())
+				.isEqualTo("price is not a whole number: 12.5");
+		assertThat(TestImportServiceImplementation.parseCsvRow(3, "Urea", columns).error())
+				.isEqualTo("price is not a whole number: null");
+	}
+
+	@Test
+	void validateRequiresANameANonNegativePriceAndTheImportedLab() {
+		assertThat(TestImportServiceImplementation.validate(null, 10)).isEqualTo("The row is empty");
+		assertThat(TestImportServiceImplementation.validate(dto(" ", 100, 0), 10)).isEqualTo("testName is required");
+		assertThat(TestImportServiceImplementation.validate(dto("Urea", -1, 0), 10)).isEqualTo("price must not be negative");
+		assertThat(TestImportServiceImplementation.validate(dto("Urea", 100, 11), 10))
+				.isEqualTo("labId 11 is not the lab being imported into");
+		assertThat(TestImportServiceImplementation.validate(dto("Urea", 0, 10), 10)).isNull();
+		assertThat(TestImportServiceImplementation.validate(dto("Urea", 100, 0), 10)).isNull();
+	}
+
+	@Test
+	void importTestsFromCsvReportsAHeaderWithoutARequiredColumn() {
+		TestImportReport report = importService(mock(TestRepository.class))
+				.importTestsFromCsv(10, Flux.just("testName,testCategory", "Urea,Kidney")).block();
+
+		assertThat(report.getImported()).isZero();
+		assertThat(report.getErrors()).extracting(TestImportError::getRow, TestImportError::getMessage)
+				.containsExactly(tuple(1L, "The header has no column price"));
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	void importTestsFromCsvImportsMultiLineValuesAndNumbersRowsByTheirFirstLine() {
+		TestRepository testRepository = mock(TestRepository.class);
+		when(testRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+		TestImportReport report = importService(testRepository).importTestsFromCsv(10, Flux.just(
+				"testName,test_description,price",
+				"Glucose,\"Fasting,",
+				"no food for 8 hours\",150",
+				"",
+				"Urea,,-5",
+				"Calcium,,250")).block();
+
+		assertThat(report.getImported()).isEqualTo(2);
+		assertThat(report.getErrors()).extracting(TestImportError::getRow, TestImportError::getMessage)
+				.containsExactly(tuple(5L, "price must not be negative"));
+		ArgumentCaptor<List<Tests>> stored = ArgumentCaptor.forClass(List.class);
+		verify(testRepository).saveAll(stored.capture());
+		assertThat(stored.getValue()).extracting(Tests::getTestName).containsExactly("Glucose", "Calcium");
+		assertThat(stored.getValue().get(0).getTest_description()).isEqualTo("Fasting,\nno food for 8 hours");
+		assertThat(stored.getValue()).allSatisfy(test -> {
+			assertThat(test.getLabId()).isEqualTo(10);
+			assertThat(test.getLabCity()).isEqualTo("Pune");
+		});
+	}
+
+	private static TestImportServiceImplementation importService(TestRepository testRepository) {
+		LabManagement lab = new LabManagement();
+		lab.setLab_id(10);
+		lab.setLab_name("City Lab");
+		lab.setCity("Pune");
+		LabService labService = mock(LabService.class);
+		when(labService.getLab(10)).thenReturn(Mono.just(lab));
+		PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+		when(transactionManager.getTransaction(any())).thenReturn(mock(TransactionStatus.class));
+
+		TestImportServiceImplementation importService = new TestImportServiceImplementation();
+		ReflectionTestUtils.setField(importService, "labService", labService);
+		ReflectionTestUtils.setField(importService, "testRepository", testRepository);
+		ReflectionTestUtils.setField(importService, "transactionTemplate", new TransactionTemplate(transactionManager));
+		ReflectionTestUtils.setField(importService, "testSearchService", mock(TestSearchService.class));
+		ReflectionTestUtils.setField(importService, "batchSize", 1000);
+		return importService;
+	}
+
+	private static TestsDto dto(String testName, int price, long labId) {
+		TestsDto test = new TestsDto();
+		test.setTestName(testName);
+		test.setPrice(price);
+		test.setLabId(labId);
+		return test;
+	}
+}
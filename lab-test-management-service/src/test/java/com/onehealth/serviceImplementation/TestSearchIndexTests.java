@@ -0,0 +1,193 @@
+package com.onehealth.serviceImplementation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.onehealth.entity.Tests;
+
+class TestSearchIndexTests {
+
+	private TestSearchIndex index;
+
+	@BeforeEach
+	void createIndex() {
+		index = new TestSearchIndex(List.of("hba1c a1c glycated", "haemoglobin hemoglobin hb"), 0.5, 20);
+	}
+
+	@Test
+	void tokenizeLowersCaseAndDropsStopWordsAndRepeatedWords() {
+		assertThat(TestSearchIndex.tokenize("Test of the Thyroid-Function (TSH) and thyroid", Integer.MAX_VALUE))
+				.containsExactly("test", "thyroid", "function", "tsh");
+		assertThat(TestSearchIndex.tokenize("one two three", 2)).containsExactly("one", "two");
+		assertThat(TestSearchIndex.tokenize("  ", Integer.MAX_VALUE)).isEmpty();
+		assertThat(TestSearchIndex.tokenize(null, Integer.MAX_VALUE)).isEmpty();
+	}
+
+	@Test
+	void searchMatchesEqualWordsSynonymsPrefixesAndMisspellings() {
+		index.put(test(1, "Hemoglobin", "Blood", null, 200, 10, "Pune"));
+		index.put(test(2, "HbA1c", "Diabetes", null, 500, 10, "Pune"));
+		index.put(test(3, "Lipid Profile", "Heart", null, 800, 10, "Pune"));
+
+		assertThat(testIds(index.search("hemoglobin", null, 10))).containsExactly(1L);
+		assertThat(testIds(index.search("haemoglobin", null, 10))).containsExactly(1L);
+		assertThat(testIds(index.search("a1c", null, 10))).containsExactly(2L);
+		assertThat(testIds(index.search("hemo", null, 10))).containsExactly(1L);
+		assertThat(testIds(index.search("hemoglobn", null, 10))).containsExactly(1L);
+		assertThat(testIds(index.search("PROFILE", null, 10))).containsExactly(3L);
+	}
+
+	@Test
+	void searchNeedsEveryWordToMatch() {
+		index.put(test(1, "Lipid Profile", "Heart", null, 800, 10, "Pune"));
+		index.put(test(2, "Liver Profile", "Liver", null, 700, 10, "Pune"));
+
+		assertThat(testIds(index.search("profile", null, 10))).containsExactlyInAnyOrder(1L, 2L);
+		assertThat(testIds(index.search("lipid profile", null, 10))).containsExactly(1L);
+		assertThat(testIds(index.search("lipid xylophone", null, 10))).isEmpty();
+	}
+
+	@Test
+	void searchRanksByFieldAndThenByPrice() {
+		index.put(test(1, "Complete Panel", "General", "includes glucose", 100, 10, "Pune"));
+		index.put(test(2, "Glucose Fasting", "Diabetes", null, 300, 10, "Pune"));
+		index.put(test(3, "Glucose Fasting", "Diabetes", null, 200, 11, "Pune"));
+
+		List<TestSearchIndex.Hit> hits = index.search("glucose", null, 10);
+
+		assertThat(testIds(hits)).containsExactly(3L, 2L, 1L);
+		assertThat(hits.get(0).score()).isEqualTo(hits.get(1).score()).isGreaterThan(hits.get(2).score());
+	}
+
+	@Test
+	void searchReturnsAtMostTheLimit() {
+		for (long id = 1; id <= 5; id++) {
+			index.put(test(id, "Vitamin D", "Vitamins", null, (int) (100 * id), 10, "Pune"));
+		}
+
+		assertThat(testIds(index.search("vitamin", null, 2))).containsExactly(1L, 2L);
+		assertThat(index.search("vitamin", null, 0)).isEmpty();
+		assertThat(index.search(" the ", null, 10)).isEmpty();
+	}
+
+	@Test
+	void searchFiltersByCityIgnoringCase() {
+		index.put(test(1, "Thyroid Profile", "Thyroid", null, 400, 10, "Pune"));
+		index.put(test(2, "Thyroid Profile", "Thyroid", null, 450, 20, "Mumbai"));
+
+		assertThat(testIds(index.search("thyroid", "pune", 10))).containsExactly(1L);
+		assertThat(testIds(index.search("thyroid", "MUMBAI", 10))).containsExactly(2L);
+		assertThat(index.search("thyroid", "Delhi", 10)).isEmpty();
+	}
+
+	@Test
+	void searchSkipsTestsOfInactiveLabsAndUnapprovedTests() {
+		Tests inactiveLab = test(1, "Urine Culture", "Urine", null, 300, 10, "Pune");
+		inactiveLab.setLabActive(false);
+		Tests unapproved = test(2, "Urine Routine", "Urine", null, 150, 10, "Pune");
+		unapproved.setTest_approval(false);
+		index.put(inactiveLab);
+		index.put(unapproved);
+		index.put(test(3, "Urine Sugar", "Urine", null, 100, 10, "Pune"));
+
+		assertThat(testIds(index.search("urine", null, 10))).containsExactly(3L);
+		assertThat(index.size()).isEqualTo(3);
+	}
+
+	@Test
+	void putReplacesAnIndexedTest() {
+		index.put(test(1, "Calcium", "Minerals", null, 250, 10, "Pune"));
+		index.put(test(1, "Iron Studies", "Minerals", null, 600, 10, "Pune"));
+
+		assertThat(index.search("calcium", null, 10)).isEmpty();
+		List<TestSearchIndex.Hit> hits = index.search("iron", null, 10);
+		assertThat(testIds(hits)).containsExactly(1L);
+		assertThat(hits.get(0).doc().price()).isEqualTo(600);
+		assertThat(testIds(index.search("minerals", null, 10))).containsExactly(1L);
+		assertThat(index.size()).isEqualTo(1);
+	}
+
+	@Test
+	void removeDropsTheTestAndItsWords() {
+		index.put(test(1, "Ferritin", "Iron", null, 500, 10, "Pune"));
+		index.put(test(2, "Serum Iron", "Iron", null, 300, 10, "Pune"));
+
+		index.remove(1);
+		index.remove(42);
+
+		assertThat(index.search("ferritin", null, 10)).isEmpty();
+		assertThat(testIds(index.search("iron", null, 10))).containsExactly(2L);
+		assertThat(index.size()).isEqualTo(1);
+
+		// The ordinal of the removed test is reused without bringing back its words.
+		index.put(test(3, "Transferrin", "Iron", null, 700, 10, "Pune"));
+		assertThat(index.search("ferritin", null, 10)).isEmpty();
+		assertThat(testIds(index.search("iron", null, 10))).containsExactly(2L, 3L);
+	}
+
+	@Test
+	void replaceLabReplacesOnlyTheTestsOfThatLab() {
+		index.put(test(1, "Dengue NS1", "Fever", null, 600, 10, "Pune"));
+		index.put(test(2, "Malaria Antigen", "Fever", null, 400, 10, "Pune"));
+		index.put(test(3, "Typhoid Widal", "Fever", null, 300, 20, "Pune"));
+
+		index.replaceLab(10, List.of(test(2, "Malaria Antigen", "Fever", null, 350, 10, "Mumbai"),
+				test(4, "Chikungunya IgM", "Fever", null, 900, 10, "Mumbai")));
+
+		assertThat(index.search("dengue", null, 10)).isEmpty();
+		assertThat(testIds(index.search("fever", null, 10))).containsExactly(3L, 2L, 4L);
+		assertThat(testIds(index.search("malaria", "Mumbai", 10))).containsExactly(2L);
+		assertThat(index.search("malaria", "Pune", 10)).isEmpty();
+		assertThat(index.size()).isEqualTo(3);
+	}
+
+	@Test
+	void removeLabRemovesAllTestsOfThatLab() {
+		index.put(test(1, "Vitamin B12", "Vitamins", null, 700, 10, "Pune"));
+		index.put(test(2, "Vitamin D", "Vitamins", null, 900, 10, "Pune"));
+		index.put(test(3, "Vitamin D", "Vitamins", null, 800, 20, "Pune"));
+
+		index.removeLab(10);
+
+		assertThat(testIds(index.search("vitamin", null, 10))).containsExactly(3L);
+		assertThat(index.size()).isEqualTo(1);
+	}
+
+	@Test
+	void loadDoesNotBringBackOrOverwriteTestsChangedMeanwhile() {
+		index.startLoading();
+		index.put(test(1, "Creatinine", "Kidney", null, 200, 10, "Pune"));
+		index.remove(2);
+		index.load(test(1, "Urea", "Kidney", null, 150, 10, "Pune"));
+		index.load(test(2, "Uric Acid", "Kidney", null, 250, 10, "Pune"));
+		index.load(test(3, "Electrolytes", "Kidney", null, 350, 10, "Pune"));
+		index.finishLoading();
+
+		assertThat(testIds(index.search("kidney", null, 10))).containsExactly(1L, 3L);
+		assertThat(testIds(index.search("creatinine", null, 10))).containsExactly(1L);
+	}
+
+	private static List<Long> testIds(List<TestSearchIndex.Hit> hits) {
+		return hits.stream().map(hit -> hit.doc().testId()).toList();
+	}
+
+	private static Tests test(long testId, String name, String category, String description, int price, long labId,
+			String city) {
+		Tests test = new Tests();
+		test.setTest_id(testId);
+		test.setTestName(name);
+		test.setTestCategory(category);
+		test.setTest_description(description);
+		test.setPrice(price);
+		test.setLabId(labId);
+		test.setLabName("Lab " + labId);
+		test.setLabCity(city);
+		test.setLabActive(true);
+		test.setTest_approval(true);
+		return test;
+	}
+}
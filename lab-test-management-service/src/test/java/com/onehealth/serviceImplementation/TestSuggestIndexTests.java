@@ -0,0 +1,89 @@
+package com.onehealth.serviceImplementation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.onehealth.serviceImplementation.TestSuggestIndex.Entry;
+
+class TestSuggestIndexTests {
+
+	private final TestSuggestIndex index = new TestSuggestIndex(List.of(
+			new Entry("Lipid Profile", "TEST", 40),
+			new Entry("Liver Function Test", "TEST", 25),
+			new Entry("Profile of Kidney", "TEST", 10),
+			new Entry("Lipase", "TEST", 5),
+			new Entry("Lucknow", "CITY", 30)));
+
+	@Test
+	void completeMatchesTheStartOfAnyWordIgnoringCase() {
+		assertThat(texts(index.complete("prof", 10))).containsExactly("Lipid Profile", "Profile of Kidney");
+		assertThat(texts(index.complete("FUNCTION t", 10))).containsExactly("Liver Function Test");
+		assertThat(texts(index.complete("  lipid   pro", 10))).containsExactly("Lipid Profile");
+		assertThat(index.complete("ofile", 10)).isEmpty();
+	}
+
+	@Test
+	void completeRanksByPopularityAndReturnsEveryEntryOnce() {
+		assertThat(texts(index.complete("l", 10)))
+				.containsExactly("Lipid Profile", "Lucknow", "Liver Function Test", "Lipase");
+		// A blank prefix matches every word of every entry, but each entry is returned once.
+		assertThat(texts(index.complete("", 10)))
+				.containsExactly("Lipid Profile", "Lucknow", "Liver Function Test", "Profile of Kidney", "Lipase");
+	}
+
+	@Test
+	void completeBreaksTiesAlphabetically() {
+		TestSuggestIndex tied = new TestSuggestIndex(List.of(new Entry("Zinc", "TEST", 7),
+				new Entry("Magnesium", "TEST", 7), new Entry("Mumbai", "CITY", 7)));
+
+		assertThat(texts(tied.complete("", 10))).containsExactly("Magnesium", "Mumbai", "Zinc");
+	}
+
+	@Test
+	void completeReturnsAtMostTheLimit() {
+		assertThat(texts(index.complete("li", 2))).containsExactly("Lipid Profile", "Liver Function Test");
+		assertThat(index.complete("li", 0)).isEmpty();
+	}
+
+	@Test
+	void completeKeepsTheTypeOfTheEntries() {
+		assertThat(index.complete("luck", 10)).containsExactly(new Entry("Lucknow", "CITY", 30));
+	}
+
+	@Test
+	void completeOnAnEmptyIndexFindsNothing() {
+		TestSuggestIndex empty = new TestSuggestIndex(List.of());
+
+		assertThat(empty.complete("a", 10)).isEmpty();
+		assertThat(empty.complete("", 10)).isEmpty();
+		assertThat(empty.size()).isZero();
+	}
+
+	@Test
+	void completeScalesToManyEntriesSharingAPrefix() {
+		List<Entry> entries = new ArrayList<>();
+		for (int i = 0; i < 10000; i++) {
+			entries.add(new Entry("Test " + i, "TEST", i % 100));
+		}
+		TestSuggestIndex large = new TestSuggestIndex(entries);
+
+		List<Entry> completions = large.complete("test", 3);
+
+		assertThat(completions).extracting(Entry::popularity).containsExactly(99L, 99L, 99L);
+		assertThat(texts(completions)).containsExactly("Test 1099", "Test 1199", "Test 1299");
+	}
+
+	@Test
+	void normalizeLowersCaseAndCollapsesSpaces() {
+		assertThat(TestSuggestIndex.normalize("  Lipid \t PROFILE ")).isEqualTo("lipid profile");
+		assertThat(TestSuggestIndex.normalize(null)).isEmpty();
+	}
+
+	private static List<String> texts(List<Entry> entries) {
+		return entries.stream().map(Entry::text).toList();
+	}
+}
@@ -0,0 +1,102 @@
+package com.onehealth.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+
+import com.onehealth.exception.DownstreamUnavailableException;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+
+/**
+ * Guards the calls to each downstream service with a circuit breaker and a bulkhead of its own,
+ * so that one slow or failing service cannot tie up the threads serving unrelated endpoints.
+ * The bulkhead bounds the number of calls in flight to the service; the circuit breaker opens
+ * once too many calls fail or are slow, and lets a few calls through again after a while to see
+ * whether the service has recovered. Calls refused by either fail at once with a
+ * DownstreamUnavailableException, answered with 503 Service Unavailable.
+ * <p>
+ * Both are configured under "resilience4j.circuitbreaker" and "resilience4j.bulkhead", with
+ * the downstream service as instance name. Their state is published by Resilience4j under the
+ * same names; the state transitions of the circuit breakers and the calls refused are counted
+ * as "downstream.circuitbreaker.transitions" and "downstream.calls.rejected".
+ */
+@Component
+public class DownstreamResilience {
+
+	private static final Logger logger = LoggerFactory.getLogger(DownstreamResilience.class);
+
+	private final CircuitBreakerRegistry circuitBreakerRegistry;
+	private final BulkheadRegistry bulkheadRegistry;
+	private final MeterRegistry meterRegistry;
+
+	@Autowired
+	public DownstreamResilience(CircuitBreakerRegistry circuitBreakerRegistry, BulkheadRegistry bulkheadRegistry,
+			MeterRegistry meterRegistry) {
+		this.circuitBreakerRegistry = circuitBreakerRegistry;
+		this.bulkheadRegistry = bulkheadRegistry;
+		this.meterRegistry = meterRegistry;
+	}
+
+	/**
+	 * Creates the filter guarding the calls to a downstream service. Responses with a server
+	 * error count as failed calls, and are passed on as the WebClientResponseException that
+	 * retrieve() would have raised for them.
+	 *
+	 * @param downstream The name of the downstream service.
+	 * @return The filter to be added to the WebClient of the service.
+	 */
+	public ExchangeFilterFunction filter(String downstream) {
+		CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(downstream);
+		Bulkhead bulkhead = bulkheadRegistry.bulkhead(downstream);
+		circuitBreaker.getEventPublisher().onStateTransition(event -> {
+			logger.warn("Circuit breaker of {} changed from {} to {}", downstream,
+					event.getStateTransition().getFromState(), event.getStateTransition().getToState());
+			Counter.builder("downstream.circuitbreaker.transitions")
+					.description("State transitions of the circuit breakers of the downstream services")
+					.tag("name", downstream)
+					.tag("from", event.getStateTransition().getFromState().name())
+					.tag("to", event.getStateTransition().getToState().name())
+					.register(meterRegistry)
+					.increment();
+		});
+		Counter breakerRejections = rejectionCounter(downstream, "circuit-open");
+		Counter bulkheadRejections = rejectionCounter(downstream, "bulkhead-full");
+
+		// The bulkhead is taken first, so that calls it refuses are not counted as failures by the circuit breaker.
+		return (request, next) -> next.exchange(request)
+				.flatMap(response -> response.statusCode().is5xxServerError()
+						? response.createException().flatMap(Mono::error)
+						: Mono.just(response))
+				.transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+				.transformDeferred(BulkheadOperator.of(bulkhead))
+				.onErrorMap(CallNotPermittedException.class, e -> {
+					breakerRejections.increment();
+					return new DownstreamUnavailableException(downstream + " is unavailable, its circuit breaker is open");
+				})
+				.onErrorMap(BulkheadFullException.class, e -> {
+					bulkheadRejections.increment();
+					return new DownstreamUnavailableException(downstream + " is busy, too many calls are in progress");
+				});
+	}
+
+	private Counter rejectionCounter(String downstream, String reason) {
+		return Counter.builder("downstream.calls.rejected")
+				.description("Calls to the downstream services refused without being made")
+				.tag("name", downstream)
+				.tag("reason", reason)
+				.register(meterRegistry);
+	}
+}
@@ -16,6 +16,7 @@ import com.onehealth.dto.TestDateDto;
 import com.onehealth.exception.ResourceNotFoundException;
 import com.onehealth.repository.LabTestsOrderRepository;
 import com.onehealth.service.LabTestsOrderService;
+import com.onehealth.service.PatientService;
 import java.util.List;
 import java.util.Optional;
 
@@ -25,6 +26,9 @@ public class LabTestsOrderController {
 
 	@Autowired
     private LabTestsOrderService labTestsOrderService;
+
+	@Autowired
+    private PatientService patientService;
 	
 	
 	private static final Logger logger = LoggerFactory.getLogger(LabTestsOrderController.class);
@@ -180,6 +184,19 @@ public class LabTestsOrderController {
         }
     }
     
+    /**
+     * Evicts the profile of a patient from the local cache, so that the next lookup fetches it
+     * from the Patient Management service again. To be called when the profile changes.
+     *
+     * @param patientId The unique identifier of the patient.
+     * @return A ResponseEntity with a success message.
+     */
+    @DeleteMapping("/patient-cache/{patientId}")
+    public ResponseEntity<String> evictPatient(@PathVariable long patientId) {
+        patientService.evictPatient(patientId);
+        return ResponseEntity.ok("Patient evicted from the cache successfully.");
+    }
+
     @GetMapping("/lab-order-item")
     public ResponseEntity<?> getLabOrderItemDetails(@RequestBody LabOrderItemRequest labOrderItemRequest){
     	 try {
@@ -0,0 +1,19 @@
+package com.onehealth.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Exception thrown when a call to a downstream service is refused without being made, because
+ * the service is failing or has too many calls in progress.
+ * It returns a 503 (SERVICE_UNAVAILABLE) HTTP status, so that the client may retry later.
+ */
+@ResponseStatus(value = HttpStatus.SERVICE_UNAVAILABLE)
+public class DownstreamUnavailableException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	public DownstreamUnavailableException(String message) {
+		super(message);
+	}
+}
@@ -0,0 +1,28 @@
+package com.onehealth.service;
+
+import com.onehealth.dto.Patient;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * The PatientService interface provides methods to look up patient profiles in the Patient
+ * Management service. The profiles are kept in a local cache for a while, as this service only
+ * needs them to check that a patient exists when an order is placed.
+ */
+public interface PatientService {
+
+	/**
+	 * Looks up the profile of a patient.
+	 *
+	 * @param patientId The unique identifier of the patient.
+	 * @return A Mono emitting the profile, or completing empty if there is no such patient.
+	 */
+	Mono<Patient> getPatient(long patientId);
+
+	/**
+	 * Removes the profile of a patient from the cache, so that the next lookup fetches it again.
+	 *
+	 * @param patientId The unique identifier of the patient.
+	 */
+	void evictPatient(long patientId);
+}
@@ -11,8 +11,10 @@ import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpMethod;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.reactive.function.client.WebClient;
 
 import com.onehealth.controller.LabTestsOrderController;
@@ -30,10 +32,15 @@ import com.onehealth.entity.LabTestsOrder;
 import com.onehealth.exception.ResourceNotFoundException;
 import com.onehealth.repository.LabTestsOrderRepository;
 import com.onehealth.service.LabTestsOrderService;
+import com.onehealth.service.OutboxService;
+import com.onehealth.service.PatientService;
 import org.modelmapper.ModelMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+
 @Service
 public class LabTestsOrderServiceImplementation implements LabTestsOrderService{
 	
@@ -44,15 +51,24 @@ public class LabTestsOrderServiceImplementation implements LabTestsOrderService{
 	 private LabTestsOrderRepository labTestsOrderRepository;
 	 
 	 @Autowired
-	 private WebClient.Builder webClientBuilder;
+	 private PatientService patientService;
+
+	 @Autowired
+	 @Qualifier("cartWebClient")
+	 private WebClient cartWebClient;
+
+	 @Autowired
+	 private OutboxService outboxService;
+
+	 @Autowired
+	 private TransactionTemplate transactionTemplate;
 
-	 @Value("${apiGatewayUrl}")
-	 private String apiGatewayUrl;
 	 
 	 private static final Logger logger = LoggerFactory.getLogger(LabTestsOrderServiceImplementation.class);
 	 
 	 /**
-	  * Places an order for laboratory tests.
+	  * Places an order for laboratory tests. The patient and cart details are fetched concurrently,
+	  * and the cart is cleared through the outbox once the order is stored.
 	  *
 	  * @param orderRequest The order request containing patient and cart details.
 	  * @return An OrderDto representing the placed order.
@@ -60,25 +76,24 @@ public class LabTestsOrderServiceImplementation implements LabTestsOrderService{
 	  */
 	 @Override
 	 public OrderDto placeOrder(OrderRequest orderRequest) throws ResourceNotFoundException {
-	     // Fetch patient details from Patient Management service
-	     logger.info("Fetching patient details with patient_id: " + orderRequest.getPatient_id());
-	     Patient patientDto = webClientBuilder.build()
+	     // Fetch patient details from Patient Management service and cart details from Lab Cart Management service
+	     // concurrently, so placing an order waits for the slower of the two lookups instead of both in turn
+	     logger.info("Fetching patient details with patient_id: " + orderRequest.getPatient_id()
+	             + " and cart details with cart_id: " + orderRequest.getCart_id());
+	     Mono<Patient> patientMono = patientService.getPatient(orderRequest.getPatient_id());
+	     Mono<LabCart> cartMono = cartWebClient
 	             .get()
-	             .uri(apiGatewayUrl + "/patientProfile/byPatientId/{patient_id}", orderRequest.getPatient_id())
+	             .uri("/api/lab-carts/cart/{cart_id}", orderRequest.getCart_id())
 	             .retrieve()
-	             .bodyToMono(Patient.class)
-	             .block();
-	     logger.info("Patient details fetched successfully.");
-
-	     // Fetch cart details from Lab Cart Management service
-	     logger.info("Fetching cart details with cart_id: " + orderRequest.getCart_id());
-	     LabCart labCart = webClientBuilder.build()
-	             .get()
-	             .uri(apiGatewayUrl + "/api/lab-carts/cart/{cart_id}", orderRequest.getCart_id())
-	             .retrieve()
-	             .bodyToMono(LabCart.class)
-	             .block();
-	     logger.info("Cart details fetched successfully.");
+	             .bodyToMono(LabCart.class);
+	     Tuple2<Patient, LabCart> patientAndCart = Mono.zip(patientMono, cartMono).block();
+	     if (patientAndCart == null) {
+	         throw new ResourceNotFoundException("Patient or cart not found for patient_id: " + orderRequest.getPatient_id()
+	                 + " and cart_id: " + orderRequest.getCart_id());
+	     }
+	     Patient patientDto = patientAndCart.getT1();
+	     LabCart labCart = patientAndCart.getT2();
+	     logger.info("Patient and cart details fetched successfully.");
 
 	     // Retrieve cart items and create LabOrderItems
 	     Set<LabCartItem> cartItems = labCart.getCart_items();
@@ -117,17 +132,13 @@ public class LabTestsOrderServiceImplementation implements LabTestsOrderService{
 	     // Check if the order total amount is greater than zero
 	     if (labTestsOrder.getTotal_amount() > 0) {
 	         logger.info("Order total amount: " + labTestsOrder.getTotal_amount());
-	         LabTestsOrder order = labTestsOrderRepository.save(labTestsOrder);
-
-	         // Clear the cart after placing the order
-	         logger.info("Clearing the cart with cart_id: " + orderRequest.getCart_id());
-	         String cartClearResponse = webClientBuilder.build()
-	                 .post()
-	                 .uri(apiGatewayUrl + "/api/lab-carts/clearCart/{cartId}", orderRequest.getCart_id())
-	                 .retrieve()
-	                 .bodyToMono(String.class)
-	                 .block();
-	         logger.info("Cart cleared successfully.");
+	         // Store the order together with the event clearing the cart, which is delivered after the commit
+	         LabTestsOrder order = transactionTemplate.execute(status -> {
+	             LabTestsOrder savedOrder = labTestsOrderRepository.save(labTestsOrder);
+	             outboxService.enqueue("ORDER_PLACED", "cart:" + orderRequest.getCart_id(), HttpMethod.POST,
+	                     "/api/lab-carts/clearCart/{cartId}", orderRequest.getCart_id());
+	             return savedOrder;
+	         });
 
 	         return this.mapper.map(order, OrderDto.class);
 	     } else {
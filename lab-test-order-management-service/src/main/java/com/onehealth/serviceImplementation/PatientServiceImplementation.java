@@ -0,0 +1,72 @@
+package com.onehealth.serviceImplementation;
+
+import java.time.Duration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import com.onehealth.dto.Patient;
+import com.onehealth.service.PatientService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+
+/**
+ * This class implements the PatientService interface with a StaleWhileRevalidateCache in front
+ * of the Patient Management service.
+ * <p>
+ * Concurrent lookups of a patient that is not cached share one call to the service. A cached
+ * profile is fresh for the configured time to live; a lookup after that still gets the cached
+ * profile at once, while it is fetched again in the background. If the service cannot be
+ * reached, for instance while its circuit breaker is open, the cached profile keeps being used
+ * until it is older than the configured maximum staleness. Patients that do not exist are
+ * cached as well, for a shorter time. The hits and misses are published as "cache.gets" with
+ * the cache name "patients", and the hit ratio as "patient.cache.hit.ratio".
+ */
+@Service
+public class PatientServiceImplementation implements PatientService {
+
+	private static final Logger logger = LoggerFactory.getLogger(PatientServiceImplementation.class);
+
+	private final WebClient patientWebClient;
+	private final StaleWhileRevalidateCache<Long, Patient> patients;
+
+	@Autowired
+	public PatientServiceImplementation(@Qualifier("patientWebClient") WebClient patientWebClient,
+			MeterRegistry meterRegistry,
+			@Value("${patient-cache.maximum-size:10000}") long maximumSize,
+			@Value("${patient-cache.ttl-ms:60000}") long ttlMillis,
+			@Value("${patient-cache.max-stale-ms:600000}") long maxStaleMillis,
+			@Value("${patient-cache.negative-ttl-ms:10000}") long negativeTtlMillis) {
+		this.patientWebClient = patientWebClient;
+		this.patients = new StaleWhileRevalidateCache<>("patient", this::fetchPatient, meterRegistry, maximumSize,
+				Duration.ofMillis(ttlMillis), Duration.ofMillis(maxStaleMillis), Duration.ofMillis(negativeTtlMillis));
+	}
+
+	@Override
+	public Mono<Patient> getPatient(long patientId) {
+		return patients.get(patientId);
+	}
+
+	@Override
+	public void evictPatient(long patientId) {
+		logger.info("Evicting patient profile from the cache: {}", patientId);
+		patients.invalidate(patientId);
+	}
+
+	private Mono<Patient> fetchPatient(long patientId) {
+		logger.info("Fetching patient profile from the Patient Management service: {}", patientId);
+		return patientWebClient
+				.get()
+				.uri("/patientProfile/byPatientId/{patientId}", patientId)
+				.retrieve()
+				.bodyToMono(Patient.class)
+				.onErrorResume(WebClientResponseException.NotFound.class, e -> Mono.empty());
+	}
+}
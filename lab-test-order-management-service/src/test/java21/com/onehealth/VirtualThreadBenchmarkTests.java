@@ -0,0 +1,195 @@
+package com.onehealth;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.onehealth.config.VirtualThreadConfig;
+import com.sun.net.httpserver.HttpServer;
+
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * Compares the throughput and the p99 latency of a Tomcat endpoint blocking on a slow downstream
+ * call, the way placeOrder blocks on the patient and cart services, once on Tomcat's pool of
+ * platform threads and once on virtual threads. The benchmark needs Java 21, so it is only
+ * compiled by the Maven profile "virtual-threads", and is skipped unless it is asked for:
+ * <pre>
+ * mvn -Pvirtual-threads test -Dtest=VirtualThreadBenchmarkTests -Dbenchmark.virtual-threads=true
+ * </pre>
+ */
+class VirtualThreadBenchmarkTests {
+
+	private static final Logger logger = LoggerFactory.getLogger(VirtualThreadBenchmarkTests.class);
+
+	private static final int CONCURRENCY = 1000;
+	private static final int WARMUP_REQUESTS = 2000;
+	private static final int REQUESTS = 10000;
+	private static final long DOWNSTREAM_DELAY_MS = 100;
+
+	private static HttpServer downstream;
+	private static ExecutorService downstreamExecutor;
+
+	@BeforeAll
+	static void startDownstream() throws Exception {
+		assumeTrue(Boolean.getBoolean("benchmark.virtual-threads"), "Benchmark not requested");
+		downstreamExecutor = Executors.newCachedThreadPool();
+		downstream = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), CONCURRENCY);
+		downstream.setExecutor(downstreamExecutor);
+		downstream.createContext("/patient", exchange -> {
+			try {
+				Thread.sleep(DOWNSTREAM_DELAY_MS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			byte[] body = "{\"patient_id\":1}".getBytes(StandardCharsets.UTF_8);
+			exchange.getResponseHeaders().set("Content-Type", "application/json");
+			exchange.sendResponseHeaders(200, body.length);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(body);
+			}
+		});
+		downstream.start();
+	}
+
+	@AfterAll
+	static void stopDownstream() {
+		if (downstream != null) {
+			downstream.stop(0);
+			downstreamExecutor.shutdownNow();
+		}
+	}
+
+	@Test
+	void compareVirtualAndPlatformThreads() throws Exception {
+		Result platform = measure(false);
+		Result virtual = measure(true);
+		logger.info(String.format("%d requests, %d concurrent, downstream delay %d ms",
+				REQUESTS, CONCURRENCY, DOWNSTREAM_DELAY_MS));
+		logger.info("Platform threads: " + platform);
+		logger.info("Virtual threads:  " + virtual);
+		assertEquals(0, platform.errors);
+		assertEquals(0, virtual.errors);
+	}
+
+	private Result measure(boolean virtualThreads) throws Exception {
+		String downstreamUrl = "http://127.0.0.1:" + downstream.getAddress().getPort() + "/patient";
+		try (ConfigurableApplicationContext context = new SpringApplicationBuilder(BenchmarkApplication.class)
+				.properties("server.port=0",
+						"spring.main.web-application-type=servlet",
+						"spring.threads.virtual.enabled=" + virtualThreads,
+						"eureka.client.enabled=false",
+						"benchmark.downstream-url=" + downstreamUrl)
+				.run()) {
+			int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+			URI uri = URI.create("http://127.0.0.1:" + port + "/benchmark");
+			HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+			run(client, uri, WARMUP_REQUESTS);
+			return run(client, uri, REQUESTS);
+		}
+	}
+
+	private Result run(HttpClient client, URI uri, int requests) throws InterruptedException {
+		HttpRequest request = HttpRequest.newBuilder(uri).GET().build();
+		long[] latencies = new long[requests];
+		AtomicInteger errors = new AtomicInteger();
+		Semaphore inFlight = new Semaphore(CONCURRENCY);
+		CountDownLatch done = new CountDownLatch(requests);
+		long start = System.nanoTime();
+		for (int i = 0; i < requests; i++) {
+			inFlight.acquire();
+			int index = i;
+			long sent = System.nanoTime();
+			client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, failure) -> {
+				latencies[index] = System.nanoTime() - sent;
+				if (failure != null || response.statusCode() != 200) {
+					errors.incrementAndGet();
+				}
+				inFlight.release();
+				done.countDown();
+			});
+		}
+		done.await(5, TimeUnit.MINUTES);
+		long elapsed = System.nanoTime() - start;
+		Arrays.sort(latencies);
+		return new Result(requests * 1e9 / elapsed, percentile(latencies, 50), percentile(latencies, 99), errors.get());
+	}
+
+	private static double percentile(long[] sortedLatencies, int percentile) {
+		int index = (int) Math.ceil(percentile / 100.0 * sortedLatencies.length) - 1;
+		return sortedLatencies[Math.max(0, index)] / 1e6;
+	}
+
+	private record Result(double throughput, double p50, double p99, int errors) {
+
+		@Override
+		public String toString() {
+			return String.format("%.0f requests/s, p50 %.1f ms, p99 %.1f ms, %d errors", throughput, p50, p99, errors);
+		}
+	}
+
+	@Configuration
+	@EnableAutoConfiguration(exclude = { DataSourceAutoConfiguration.class, HibernateJpaAutoConfiguration.class })
+	@Import({ VirtualThreadConfig.class, BenchmarkController.class })
+	static class BenchmarkApplication {
+	}
+
+	@RestController
+	static class BenchmarkController {
+
+		private final WebClient webClient;
+
+		BenchmarkController(WebClient.Builder webClientBuilder, @Value("${benchmark.downstream-url}") String downstreamUrl) {
+			// The pool is sized for the whole load, so that only the threading model differs between the runs.
+			ConnectionProvider connectionProvider = ConnectionProvider.builder("benchmark")
+					.maxConnections(CONCURRENCY)
+					.pendingAcquireMaxCount(-1)
+					.build();
+			this.webClient = webClientBuilder
+					.baseUrl(downstreamUrl)
+					.clientConnector(new ReactorClientHttpConnector(reactor.netty.http.client.HttpClient.create(connectionProvider)))
+					.build();
+		}
+
+		@GetMapping("/benchmark")
+		public String fetchPatient() {
+			return webClient.get()
+					.retrieve()
+					.bodyToMono(String.class)
+					.block();
+		}
+	}
+}
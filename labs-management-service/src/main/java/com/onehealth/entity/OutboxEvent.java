@@ -0,0 +1,159 @@
+package com.onehealth.entity;
+
+import java.util.Date;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+/**
+ * Represents a call to another service that has to follow a change made in this one.
+ * The event is stored in the same transaction as the change and delivered afterwards by the
+ * outbox dispatcher, so the call is made once the change is committed, and only then.
+ */
+@Entity
+@Table(indexes = {
+        @Index(name = "idx_outbox_event_due", columnList = "status, nextAttemptAt"),
+        @Index(name = "idx_outbox_event_aggregate", columnList = "aggregateKey, id") })
+public class OutboxEvent {
+
+    // The event waits for its delivery
+    public static final String STATUS_PENDING = "PENDING";
+
+    // The event is being delivered by a dispatcher, which has claimed it until nextAttemptAt
+    public static final String STATUS_IN_FLIGHT = "IN_FLIGHT";
+
+    // The delivery was given up; the event is kept for inspection
+    public static final String STATUS_FAILED = "FAILED";
+
+    // Unique identifier of the event, in the order the events were stored
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private long id;
+
+    // Key sent with every delivery attempt, so the receiver can recognise a repeated delivery
+    @Column(nullable = false, unique = true, updatable = false)
+    private String idempotencyKey;
+
+    // Kind of the event, such as LAB_DELETED
+    private String eventType;
+
+    // Events with the same aggregate key are delivered one after the other, in the order they were stored
+    private String aggregateKey;
+
+    // HTTP method and path, relative to the API gateway, of the call to be made
+    private String method;
+    private String path;
+
+    private String status;
+
+    // Number of failed delivery attempts so far
+    private int attempts;
+
+    private Date createdAt;
+
+    // Time from which the next delivery attempt may be made; for an event in flight, the end of its lease
+    private Date nextAttemptAt;
+
+    // Error of the last failed delivery attempt
+    @Column(length = 1000)
+    private String lastError;
+
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+
+    public void setIdempotencyKey(String idempotencyKey) {
+        this.idempotencyKey = idempotencyKey;
+    }
+
+    public String getEventType() {
+        return eventType;
+    }
+
+    public void setEventType(String eventType) {
+        this.eventType = eventType;
+    }
+
+    public String getAggregateKey() {
+        return aggregateKey;
+    }
+
+    public void setAggregateKey(String aggregateKey) {
+        this.aggregateKey = aggregateKey;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public void setMethod(String method) {
+        this.method = method;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public void setPath(String path) {
+        this.path = path;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public Date getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Date createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Date getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+
+    public void setNextAttemptAt(Date nextAttemptAt) {
+        this.nextAttemptAt = nextAttemptAt;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+
+    @Override
+    public String toString() {
+        return "OutboxEvent [id=" + id + ", eventType=" + eventType + ", aggregateKey=" + aggregateKey + ", method="
+                + method + ", path=" + path + ", status=" + status + ", attempts=" + attempts + "]";
+    }
+}
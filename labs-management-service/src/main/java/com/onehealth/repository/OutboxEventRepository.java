@@ -0,0 +1,53 @@
+package com.onehealth.repository;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import com.onehealth.entity.OutboxEvent;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
+/**
+ * This interface extends JpaRepository, providing CRUD operations for the OutboxEvent entity.
+ */
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Finds the events that are due for a delivery attempt, oldest first: the pending events due
+     * for an attempt and the events in flight whose lease has expired. Only the oldest of the
+     * pending or in-flight events with the same aggregate key is returned, so that these are
+     * delivered in order. The events are locked until the end of the transaction; events locked
+     * by another instance of the service are skipped rather than waited for.
+     *
+     * @param pending  The status of the pending events, OutboxEvent.STATUS_PENDING.
+     * @param inFlight The status of the events in flight, OutboxEvent.STATUS_IN_FLIGHT.
+     * @param now      The current time.
+     * @param pageable The number of events to be returned.
+     * @return The events due for delivery.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT e FROM OutboxEvent e WHERE e.status IN (:pending, :inFlight) AND e.nextAttemptAt <= :now"
+            + " AND NOT EXISTS (SELECT o.id FROM OutboxEvent o WHERE o.aggregateKey = e.aggregateKey"
+            + " AND o.status IN (:pending, :inFlight) AND o.id < e.id) ORDER BY e.id")
+    List<OutboxEvent> findDueForDelivery(@Param("pending") String pending, @Param("inFlight") String inFlight,
+            @Param("now") Date now, Pageable pageable);
+
+    /**
+     * Finds the events with the given IDs, locked until the end of the transaction.
+     *
+     * @param ids The IDs of the events.
+     * @return The events still stored.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<OutboxEvent> findByIdIn(Collection<Long> ids);
+}
@@ -0,0 +1,32 @@
+package com.onehealth.service;
+
+import org.springframework.http.HttpMethod;
+
+/**
+ * The OutboxService interface provides methods to make calls to other services reliably after a
+ * change in this one. A call is stored as an event in the same transaction as the change, and a
+ * dispatcher delivers the stored events in batches afterwards, retrying failed deliveries with
+ * backoff. Every delivery carries the idempotency key of its event, so a receiver can tell a
+ * repeated delivery from a new event.
+ */
+public interface OutboxService {
+
+    /**
+     * Stores a call to be made through the API gateway. Must be called within the transaction
+     * making the change the call follows from.
+     *
+     * @param eventType    The kind of the event, for the logs.
+     * @param aggregateKey The key of the entity the event is about; events with the same key are delivered in order.
+     * @param method       The HTTP method of the call.
+     * @param path         The path of the call relative to the API gateway, a URI template.
+     * @param uriVariables The values of the variables in the path.
+     */
+    void enqueue(String eventType, String aggregateKey, HttpMethod method, String path, Object... uriVariables);
+
+    /**
+     * Delivers a batch of the stored events that are due.
+     *
+     * @return The number of events delivered.
+     */
+    int dispatchPendingEvents();
+}
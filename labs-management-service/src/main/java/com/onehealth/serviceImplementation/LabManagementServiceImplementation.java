@@ -1,15 +1,16 @@
  package com.onehealth.serviceImplementation;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpMethod;
 import org.springframework.stereotype.Service;
-import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.onehealth.entity.LabManagement;
 import com.onehealth.exception.DatabaseException;
 import com.onehealth.exception.LabNotFoundException;
 import com.onehealth.repository.LabManagementRepository;
 import com.onehealth.service.LabManagementService;
+import com.onehealth.service.OutboxService;
 
 import java.util.List;
 import java.util.Optional;
@@ -27,10 +28,7 @@ public class LabManagementServiceImplementation implements LabManagementService
     private LabManagementRepository labManagementRepository;
 
     @Autowired
-    private WebClient.Builder builder;
-    
-    @Value("${apiGatewayUrl}")
-	private String apiGatewayUrl;
+    private OutboxService outboxService;
     
     private static final Logger logger = Logger.getLogger(LabManagementServiceImplementation.class.getName());
 
@@ -100,13 +98,15 @@ public class LabManagementServiceImplementation implements LabManagementService
     }
 
     /**
-     * Updates an existing LabManagement object in the database.
+     * Updates an existing LabManagement object in the database. The Lab Test Management service
+     * copies the new details of the lab into its tests afterwards, through the outbox.
      *
      * @param lab The updated LabManagement object.
      * @throws DatabaseException   If an error occurs while accessing the database.
      * @throws LabNotFoundException If the LabManagement object with the given ID is not found.
      */
     @Override
+    @Transactional
     public void updateLab(LabManagement lab) throws DatabaseException, LabNotFoundException {
         boolean isValidId = labManagementRepository.existsById(lab.getLab_id());
         if (isValidId) {
@@ -115,6 +115,10 @@ public class LabManagementServiceImplementation implements LabManagementService
 
             labManagementRepository.save(lab);
 
+            // The tests of the lab pick up its new details once the update is committed.
+            outboxService.enqueue("LAB_UPDATED", "lab:" + lab.getLab_id(), HttpMethod.POST,
+                    "/api/test/updateLabDetails/{labId}", lab.getLab_id());
+
             // Logging: Log the successful update of the LabManagement object.
             logger.info("LabManagement object with ID " + lab.getLab_id() + " updated successfully.");
         } else {
@@ -125,31 +129,28 @@ public class LabManagementServiceImplementation implements LabManagementService
     }
 
     /**
-     * Deletes a specific LabManagement object identified by its ID from the database.
+     * Deletes a specific LabManagement object identified by its ID from the database. The tests
+     * of the lab are deleted by the Lab Test Management service afterwards, through the outbox.
      *
      * @param labId The ID of the LabManagement object to delete.
      * @throws DatabaseException   If an error occurs while accessing the database.
      * @throws LabNotFoundException If the LabManagement object with the given ID is not found.
      */
     @Override
-	    public void deleteLabById(long labId) throws DatabaseException, LabNotFoundException {
-	        boolean isValidId = labManagementRepository.existsById(labId);
-	        if (isValidId) {
-	            // Logging: Log the attempt to delete a LabManagement object by ID.
-	            logger.info("Attempting to delete LabManagement object with ID: " + labId);
-	            logger.info("Attempting to delete all Tests from lab with ID: " + labId);
-	            String response = builder.build()
-	                    .delete()
-	                    .uri(apiGatewayUrl+"/api/test/deleteAllTest/{labId}",labId)
-	                    .retrieve()
-	                    .bodyToMono(String.class)
-	                    .block();
-	            
-	        labManagementRepository.deleteById(labId);
-            
-            
-            
-            logger.info(response);
+    @Transactional
+    public void deleteLabById(long labId) throws DatabaseException, LabNotFoundException {
+        boolean isValidId = labManagementRepository.existsById(labId);
+        if (isValidId) {
+            // Logging: Log the attempt to delete a LabManagement object by ID.
+            logger.info("Attempting to delete LabManagement object with ID: " + labId);
+
+            labManagementRepository.deleteById(labId);
+
+            // The tests of the lab are deleted once the deletion of the lab is committed.
+            logger.info("Scheduling the deletion of all Tests from lab with ID: " + labId);
+            outboxService.enqueue("LAB_DELETED", "lab:" + labId, HttpMethod.DELETE,
+                    "/api/test/deleteAllTest/{labId}", labId);
+
             // Logging: Log the successful deletion of the LabManagement object.
             logger.info("LabManagement object with ID " + labId + " deleted successfully.");
         } else {
@@ -188,6 +189,7 @@ public class LabManagementServiceImplementation implements LabManagementService
      * @throws LabNotFoundException If the lab with the provided labId is not found.
      */
     @Override
+    @Transactional
     public void setLabInactive(long labId , boolean status) throws DatabaseException, LabNotFoundException {
         // Log a message to indicate that we are setting the lab's active status to false for the specified labId.
         logger.info("Setting Lab Active Status to "+status+" for labId : " + labId);
@@ -198,17 +200,13 @@ public class LabManagementServiceImplementation implements LabManagementService
         // Set the lab's active status to false, effectively marking it as inactive.
         lab.setActive(status);
         
-        String s = builder.build()
-        			.post()
-        			.uri(apiGatewayUrl+"/api/test/updateLabActiveStatus/{labId}/{status}",labId,status)
-        			.retrieve()
-        			.bodyToMono(String.class)
-        			.block();
-        
         // Save the updated lab information back to the database.
         labManagementRepository.save(lab);
-         
-        logger.info(s); 
+
+        // The tests of the lab follow its active status once the update is committed.
+        outboxService.enqueue("LAB_ACTIVE_STATUS_CHANGED", "lab:" + labId, HttpMethod.POST,
+                "/api/test/updateLabActiveStatus/{labId}/{status}", labId, status);
+
         // Log a message to confirm that the active status has been successfully updated to false for the specified labId.
         logger.info("Active status updated to "+status+" for labId : " + labId);
     }
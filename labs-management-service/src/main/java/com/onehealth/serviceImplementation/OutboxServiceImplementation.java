@@ -0,0 +1,228 @@
+package com.onehealth.serviceImplementation;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import com.onehealth.entity.OutboxEvent;
+import com.onehealth.repository.OutboxEventRepository;
+import com.onehealth.service.OutboxService;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * This class implements the OutboxService interface on an outbox table in the service's own
+ * database. The dispatcher runs periodically and works in three steps, so that no database
+ * connection or row lock is held while the calls are made:
+ * <ul>
+ * <li>A short transaction claims a batch of due events, skipping the rows locked by other
+ * instances, and marks them as in flight for the time of a lease.</li>
+ * <li>The claimed events are delivered concurrently, outside of any transaction.</li>
+ * <li>A second short transaction deletes the delivered events and schedules the failed ones for
+ * another attempt.</li>
+ * </ul>
+ * If an instance stops before recording the results, its events are claimed again once their
+ * lease has expired, so an event may be delivered more than once. Until then no later event of
+ * the same lab is claimed, so a repeated delivery always comes before the next one. The Lab Test
+ * Management endpoints receiving these events are idempotent by design and do not read the
+ * idempotency key: they set the active status to the given value, copy the current details of
+ * the lab, or delete all tests of the deleted lab, so repeating one leaves the tests as they are.
+ */
+@Service
+public class OutboxServiceImplementation implements OutboxService {
+
+    // Header carrying the idempotency key of the event with every delivery attempt
+    static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+    private static final Logger logger = Logger.getLogger(OutboxServiceImplementation.class.getName());
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    @Qualifier("outboxWebClient")
+    private WebClient outboxWebClient;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${apiGatewayUrl}")
+    private String apiGatewayUrl;
+
+    @Value("${outbox.batch-size:50}")
+    private int batchSize;
+
+    @Value("${outbox.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${outbox.backoff-ms:1000}")
+    private long backoffMillis;
+
+    @Value("${outbox.max-backoff-ms:300000}")
+    private long maxBackoffMillis;
+
+    // Must be longer than the delivery of a batch takes, or its events are delivered twice
+    @Value("${outbox.lease-ms:60000}")
+    private long leaseMillis;
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(String eventType, String aggregateKey, HttpMethod method, String path, Object... uriVariables) {
+        Date now = new Date();
+        OutboxEvent event = new OutboxEvent();
+        event.setIdempotencyKey(UUID.randomUUID().toString());
+        event.setEventType(eventType);
+        event.setAggregateKey(aggregateKey);
+        event.setMethod(method.name());
+        event.setPath(UriComponentsBuilder.fromUriString(path).buildAndExpand(uriVariables).toUriString());
+        event.setStatus(OutboxEvent.STATUS_PENDING);
+        event.setCreatedAt(now);
+        event.setNextAttemptAt(now);
+        outboxEventRepository.save(event);
+        logger.info("Stored outbox event: " + event);
+    }
+
+    /**
+     * Runs the dispatcher periodically, with the configured delay between the end of a run and
+     * the start of the next one.
+     */
+    @Scheduled(fixedDelayString = "${outbox.dispatch-interval-ms:1000}")
+    public void dispatchPendingEventsPeriodically() {
+        try {
+            int delivered;
+            // A full batch suggests more events are due, so the dispatcher carries on without waiting.
+            do {
+                delivered = dispatchPendingEvents();
+            } while (delivered == batchSize);
+        } catch (RuntimeException e) {
+            logger.log(Level.SEVERE, "Error occurred while dispatching the outbox events: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public int dispatchPendingEvents() {
+        Date leaseEnd = new Date(System.currentTimeMillis() + leaseMillis);
+        List<OutboxEvent> events = transactionTemplate.execute(status -> claimBatch(leaseEnd));
+        if (events == null || events.isEmpty()) {
+            return 0;
+        }
+
+        // A batch holds at most one event per aggregate key, so its events can be delivered concurrently.
+        Map<Long, Throwable> failures = new ConcurrentHashMap<>();
+        Flux.fromIterable(events)
+                .flatMap(event -> deliver(event).onErrorResume(e -> {
+                    failures.put(event.getId(), e);
+                    return Mono.empty();
+                }))
+                .then()
+                .block();
+
+        Integer delivered = transactionTemplate.execute(status -> recordResults(events, failures, leaseEnd));
+        return delivered == null ? 0 : delivered;
+    }
+
+    /**
+     * Claims the due events: the pending ones and the in-flight ones whose lease has expired.
+     */
+    private List<OutboxEvent> claimBatch(Date leaseEnd) {
+        List<OutboxEvent> events = outboxEventRepository.findDueForDelivery(OutboxEvent.STATUS_PENDING,
+                OutboxEvent.STATUS_IN_FLIGHT, new Date(), PageRequest.of(0, batchSize));
+        for (OutboxEvent event : events) {
+            event.setStatus(OutboxEvent.STATUS_IN_FLIGHT);
+            event.setNextAttemptAt(leaseEnd);
+        }
+        return events;
+    }
+
+    private int recordResults(List<OutboxEvent> events, Map<Long, Throwable> failures, Date leaseEnd) {
+        Set<Long> ids = events.stream().map(OutboxEvent::getId).collect(Collectors.toSet());
+        List<OutboxEvent> delivered = new ArrayList<>();
+        int failed = 0;
+        for (OutboxEvent event : outboxEventRepository.findByIdIn(ids)) {
+            // An event whose lease expired during the delivery may have been claimed by another run, which records it instead.
+            if (!OutboxEvent.STATUS_IN_FLIGHT.equals(event.getStatus())
+                    || event.getNextAttemptAt().getTime() != leaseEnd.getTime()) {
+                continue;
+            }
+            Throwable failure = failures.get(event.getId());
+            if (failure == null) {
+                delivered.add(event);
+            } else {
+                recordFailure(event, failure);
+                failed++;
+            }
+        }
+        outboxEventRepository.deleteAllInBatch(delivered);
+        logger.info("Delivered " + delivered.size() + " of " + events.size() + " outbox events.");
+        if (delivered.size() + failed < events.size()) {
+            logger.warning("The lease of " + (events.size() - delivered.size() - failed)
+                    + " outbox events expired before their delivery was recorded.");
+        }
+        return delivered.size();
+    }
+
+    private Mono<Void> deliver(OutboxEvent event) {
+        // The path is passed as a URI rather than a template, so that the request metrics are not tagged with every ID.
+        return outboxWebClient
+                .method(HttpMethod.valueOf(event.getMethod()))
+                .uri(URI.create(apiGatewayUrl + event.getPath()))
+                .header(IDEMPOTENCY_KEY_HEADER, event.getIdempotencyKey())
+                .retrieve()
+                .toBodilessEntity()
+                .then();
+    }
+
+    private void recordFailure(OutboxEvent event, Throwable failure) {
+        event.setAttempts(event.getAttempts() + 1);
+        String error = failure.toString();
+        event.setLastError(error.length() > 1000 ? error.substring(0, 1000) : error);
+        if (event.getAttempts() >= maxAttempts || isPermanent(failure)) {
+            event.setStatus(OutboxEvent.STATUS_FAILED);
+            logger.severe("Gave up delivering outbox event after " + event.getAttempts() + " attempts: " + event
+                    + ", error: " + failure.getMessage());
+        } else {
+            // The backoff doubles with every failed attempt, up to the configured maximum.
+            long backoff = Math.min(maxBackoffMillis, backoffMillis << Math.min(20, event.getAttempts() - 1));
+            event.setStatus(OutboxEvent.STATUS_PENDING);
+            event.setNextAttemptAt(new Date(System.currentTimeMillis() + backoff));
+            logger.warning("Failed to deliver outbox event, retrying in " + backoff + " ms: " + event + ", error: "
+                    + failure.getMessage());
+        }
+    }
+
+    /**
+     * A client error other than a timeout or throttling will not go away when the call is repeated.
+     */
+    private boolean isPermanent(Throwable failure) {
+        if (failure instanceof WebClientResponseException responseException) {
+            HttpStatus status = HttpStatus.resolve(responseException.getStatusCode().value());
+            return responseException.getStatusCode().is4xxClientError()
+                    && status != HttpStatus.REQUEST_TIMEOUT && status != HttpStatus.TOO_MANY_REQUESTS;
+        }
+        return false;
+    }
+}